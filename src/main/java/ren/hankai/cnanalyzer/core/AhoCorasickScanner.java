@@ -0,0 +1,336 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 基于双数组词典树的 Aho-Corasick 多模式扫描器。在词典树的每个节点上附加失败指针（匹配失败时跳转到的最长后缀节点）
+ * 和输出指针（后缀链上最近的一个词），逐字扫描文本时每个字符只需一次状态转移，即可得到以当前字符结尾的所有词，
+ * 而无需为每个未结束的词前缀分别在词典树上向下匹配。
+ *
+ * <p>
+ * 扫描器持有构建时词典树的副本，不受此后添加词条的影响；词典变更后需重新构建扫描器。
+ * 与双数组词典树相同，各节点的指针数组既可以位于堆内存中，也可以是内存映射的词典映像中的只读视图（见 {@link DictionaryImage}），
+ * 后者无需在启动时构建。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 2:50:18 PM
+ */
+public class AhoCorasickScanner implements Accountable {
+
+  /**
+   * 初始状态（词典树根节点）。
+   */
+  public static final int ROOT = 0;
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(AhoCorasickScanner.class);
+  // 节点深度的最高位标记以当前字符结尾的后缀中是否还有未结束的词前缀
+  private static final int OPEN_FLAG = 0x80000000;
+
+  private final DoubleArrayTrie trie;
+  // 词典树是否是扫描器自己持有的副本（否则与词典快照共享，不计入扫描器占用的内存）
+  private final boolean ownsTrie;
+  // 失败指针：节点对应字符序列的最长真后缀所在的节点
+  private final IntBuffer failure;
+  // 输出指针：失败链上（不含自身）最近的一个词所在的节点（-1 表示没有）
+  private final IntBuffer output;
+  // 节点深度，即节点对应的字符序列的长度；最高位为 OPEN_FLAG，标记节点或其失败链上是否有节点存在子节点
+  private final IntBuffer depth;
+
+  private AhoCorasickScanner(DoubleArrayTrie trie, boolean ownsTrie) {
+    this(trie, ownsTrie, IntBuffer.allocate(trie.size()), IntBuffer.allocate(trie.size()),
+        IntBuffer.allocate(trie.size()));
+  }
+
+  private AhoCorasickScanner(DoubleArrayTrie trie, boolean ownsTrie, IntBuffer failure,
+      IntBuffer output, IntBuffer depth) {
+    this.trie = trie;
+    this.ownsTrie = ownsTrie;
+    this.failure = failure;
+    this.output = output;
+    this.depth = depth;
+  }
+
+  /**
+   * 为词典树构建扫描器。
+   *
+   * @param trie 双数组词典树
+   * @return 扫描器
+   * @author hankai
+   * @since Oct 18, 2026 2:53:40 PM
+   */
+  public static AhoCorasickScanner build(DoubleArrayTrie trie) {
+    Objects.requireNonNull(trie, "Trie must not be null!");
+    return build(trie, true);
+  }
+
+  /**
+   * 为词典树构建扫描器。
+   *
+   * @param trie 双数组词典树
+   * @param copy 是否复制词典树（词典树此后不会被修改时，可直接引用以节省内存）
+   * @return 扫描器
+   * @author hankai
+   * @since Oct 18, 2026 3:53:18 PM
+   */
+  static AhoCorasickScanner build(DoubleArrayTrie trie, boolean copy) {
+    final AhoCorasickScanner scanner = new AhoCorasickScanner(copy ? trie.copy() : trie, copy);
+    scanner.linkStates();
+    return scanner;
+  }
+
+  /**
+   * 按广度优先的顺序计算各节点的失败指针和输出指针（父节点的失败指针须先于子节点计算）。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 2:55:02 PM
+   */
+  private void linkStates() {
+    final int size = trie.size();
+    // 按父节点归集子节点（压缩邻接表）
+    final int[] firstChild = new int[size + 1];
+    for (int state = 1; state < size; state++) {
+      final int parent = trie.getParent(state);
+      if (parent >= 0) {
+        firstChild[parent + 1]++;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      firstChild[i + 1] += firstChild[i];
+    }
+    final int[] children = new int[firstChild[size]];
+    final int[] filled = new int[size];
+    for (int state = 1; state < size; state++) {
+      final int parent = trie.getParent(state);
+      if (parent >= 0) {
+        children[firstChild[parent] + filled[parent]++] = state;
+      }
+    }
+    final int[] queue = new int[children.length + 1];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = ROOT;
+    output.put(ROOT, -1);
+    while (head < tail) {
+      final int parent = queue[head++];
+      for (int i = firstChild[parent]; i < firstChild[parent + 1]; i++) {
+        final int state = children[i];
+        int fail = ROOT;
+        if (parent != ROOT) {
+          final int code = trie.getEdgeCode(state);
+          int suffix = failure.get(parent);
+          for (;;) {
+            final int next = trie.transition(suffix, code);
+            if (next >= 0) {
+              fail = next;
+              break;
+            }
+            if (suffix == ROOT) {
+              break;
+            }
+            suffix = failure.get(suffix);
+          }
+        }
+        failure.put(state, fail);
+        output.put(state, trie.isWord(fail) ? fail : output.get(fail));
+        final boolean open = trie.hasChildren(state) || isOpen(fail);
+        depth.put(state, (getDepth(parent) + 1) | (open ? OPEN_FLAG : 0));
+        queue[tail++] = state;
+      }
+    }
+  }
+
+  /**
+   * 读入一个字符，转移到下一个状态。
+   *
+   * @param state 当前状态
+   * @param ch 字符
+   * @return 下一个状态
+   * @author hankai
+   * @since Oct 18, 2026 2:58:26 PM
+   */
+  public int next(int state, char ch) {
+    final int code = trie.getCode(ch);
+    if (code == 0) {
+      return ROOT;
+    }
+    int current = state;
+    for (;;) {
+      final int next = trie.transition(current, code);
+      if (next >= 0) {
+        return next;
+      }
+      if (current == ROOT) {
+        return ROOT;
+      }
+      current = failure.get(current);
+    }
+  }
+
+  /**
+   * 获取以当前状态结尾的最长的词。
+   *
+   * @param state 当前状态
+   * @return 词所在的节点（-1 表示没有词），通过 {@link #getDepth(int)} 获取词的长度
+   * @author hankai
+   * @since Oct 18, 2026 3:00:11 PM
+   */
+  public int firstWord(int state) {
+    return trie.isWord(state) ? state : output.get(state);
+  }
+
+  /**
+   * 获取以当前状态结尾的下一个较短的词。
+   *
+   * @param wordState 上一个词所在的节点
+   * @return 词所在的节点（-1 表示没有更多的词）
+   * @author hankai
+   * @since Oct 18, 2026 3:00:48 PM
+   */
+  public int nextWord(int wordState) {
+    return output.get(wordState);
+  }
+
+  /**
+   * 词是否是停止词（读取词典树上的停止词标记，无需再查找停止词典）。
+   *
+   * @param wordState 词所在的节点
+   * @return 是否是停止词
+   * @author hankai
+   * @since Oct 18, 2026 6:16:42 PM
+   */
+  public boolean isStopWord(int wordState) {
+    return trie.isStopWord(wordState);
+  }
+
+  /**
+   * 获取节点对应的字符序列的长度。
+   *
+   * @param state 节点
+   * @return 长度
+   * @author hankai
+   * @since Oct 18, 2026 3:01:25 PM
+   */
+  public int getDepth(int state) {
+    return depth.get(state) & ~OPEN_FLAG;
+  }
+
+  /**
+   * 以当前状态结尾的后缀中是否还有未结束的词前缀（即继续读入字符可能匹配到更长的词）。
+   *
+   * @param state 当前状态
+   * @return 是否有未结束的词前缀
+   * @author hankai
+   * @since Oct 18, 2026 3:02:04 PM
+   */
+  public boolean isOpen(int state) {
+    return depth.get(state) < 0;
+  }
+
+  /**
+   * 将扫描器的指针数组以二进制格式写入通道（格式：节点数、保留字段，失败指针、输出指针、节点深度数组），不含词典树。
+   *
+   * @param channel 可写通道
+   * @param order 字节序
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 11:21:30 PM
+   */
+  void writeTo(WritableByteChannel channel, ByteOrder order) throws IOException {
+    final int size = failure.limit();
+    final ByteBuffer header = ByteBuffer.allocate(8).order(order);
+    header.putInt(size).putInt(0);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+    for (final IntBuffer array : new IntBuffer[] {failure, output, depth}) {
+      final ByteBuffer bytes = ByteBuffer.allocate(size * 4).order(order);
+      final IntBuffer source = array.duplicate();
+      source.clear();
+      bytes.asIntBuffer().put(source);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+  }
+
+  /**
+   * 从二进制数据中读取扫描器。读取到的扫描器直接引用缓冲区中的数据（不复制），缓冲区位置被移动到扫描器数据之后。
+   *
+   * @param buffer 字节缓冲区（通常是内存映射文件，字节序须已设置）
+   * @param trie 构建扫描器时的词典树（此后不会被修改）
+   * @return 扫描器
+   * @throws IllegalArgumentException 扫描器与词典树的节点数不一致
+   * @author hankai
+   * @since Oct 18, 2026 11:22:15 PM
+   */
+  static AhoCorasickScanner readFrom(ByteBuffer buffer, DoubleArrayTrie trie) {
+    final int size = buffer.getInt();
+    buffer.getInt();
+    if (size != trie.size()) {
+      throw new IllegalArgumentException("Scanner does not match the trie: " + size + " != "
+          + trie.size());
+    }
+    final IntBuffer[] arrays = new IntBuffer[3];
+    for (int i = 0; i < arrays.length; i++) {
+      final ByteBuffer slice = buffer.slice().order(buffer.order());
+      slice.limit(size * 4);
+      buffer.position(buffer.position() + (size * 4));
+      arrays[i] = slice.asIntBuffer();
+    }
+    return new AhoCorasickScanner(trie, false, arrays[0], arrays[1], arrays[2]);
+  }
+
+  /**
+   * 获取扫描器占用的堆内存。与词典快照共享的词典树及内存映射的指针数组不计入。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED + heapBytes(failure) + heapBytes(output)
+        + heapBytes(depth);
+    if (ownsTrie) {
+      bytes += trie.ramBytesUsed();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(3);
+    resources.add(Accountables.namedAccountable("failure links", heapBytes(failure)
+        + heapBytes(output)));
+    resources.add(Accountables.namedAccountable("depths", heapBytes(depth)));
+    if (ownsTrie) {
+      resources.add(Accountables.namedAccountable("trie", trie));
+    }
+    return resources;
+  }
+
+  /**
+   * 获取缓冲区在堆内存中占用的字节数。
+   *
+   * @param buffer 缓冲区
+   * @return 字节数（内存映射文件的视图返回 0）
+   */
+  private static long heapBytes(IntBuffer buffer) {
+    return buffer.hasArray() ? RamUsageEstimator.sizeOf(buffer.array()) : 0;
+  }
+
+}
@@ -0,0 +1,74 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 词典中的词的规范字符串。以词在双数组词典树中所在的节点索引为下标缓存词的字符串，同一个词每次都得到同一个字符串对象，
+ * 分词结果中的常用词无需每次创建新的字符串。字符串在词第一次被查找时创建。
+ *
+ * <p>
+ * 词典树必须不再被修改（如词典快照中的词典树）。多个线程并发查找同一个新词时可能各自创建一次字符串，
+ * 最终只保留其中一个；字符串不可变，无需同步即可安全地在线程间发布。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:59:30 PM
+ */
+final class CanonicalWords implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(CanonicalWords.class);
+
+  private final DoubleArrayTrie trie;
+  // 以节点索引为下标的词的字符串
+  private final String[] words;
+  // 已创建的字符串占用的内存
+  private final LongAdder wordBytes = new LongAdder();
+
+  CanonicalWords(DoubleArrayTrie trie) {
+    this.trie = Objects.requireNonNull(trie, "Trie must not be null!");
+    words = new String[trie.size()];
+  }
+
+  /**
+   * 获取词的规范字符串。
+   *
+   * @param charArray 字符序列
+   * @param begin 词在序列中的起始位置
+   * @param length 词的长度
+   * @return 词的字符串（词不在词典树中时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 11:00:10 PM
+   */
+  String get(char[] charArray, int begin, int length) {
+    final int state = trie.getWordState(charArray, begin, length);
+    if (state < 0) {
+      return null;
+    }
+    String word = words[state];
+    if (word == null) {
+      word = new String(charArray, begin, length);
+      words[state] = word;
+      wordBytes.add(RamUsageUtil.sizeOf(word));
+    }
+    return word;
+  }
+
+  /**
+   * 获取已创建的字符串及其索引数组占用的内存（词典树由词典快照计入）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(words) + wordBytes.sum();
+  }
+
+}
@@ -2,53 +2,551 @@ package ren.hankai.cnanalyzer.core;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ren.hankai.cnanalyzer.util.ConfigUtil;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 /**
- * 词库。
- * 
+ * 词库。包含主词典、量词词典和停止词典，可由多个分词器共享，也可以为不同的索引创建不同配置的词库。
+ * 不再使用的词库应关闭以释放内存。
+ *
+ * <p>
+ * 早期版本中的静态方法（如 addWord、isStopWord）已改为实例方法，原有调用应改为在默认词库上调用，
+ * 如 {@code Dictionary.getDefault().addWord(word)}。
+ * </p>
+ *
  * @author hankai
  * @version 1.0.0
  * @since Jan 20, 2017 2:18:13 PM
  */
-public class Dictionary {
+public class Dictionary implements Closeable, Accountable {
 
   private static final Logger logger = LoggerFactory.getLogger(Dictionary.class);
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(Dictionary.class);
 
   private static final String PATH_DIC_MAIN = "/main.dic"; // 主词典
   private static final String PATH_DIC_QUANTIFIER = "/quantifier.dic"; // 中文量词（单位）
   private static final String PATH_DIC_STOP = "/stopword.dic"; // 停止词典
 
-  private static final WordSegment mainWords;
-  private static final WordSegment stopWords;// 停止词
-  private static final WordSegment quantifiers;// 量词
+  // 输入提示时每层词典树最多访问的节点数
+  private static final int SUGGEST_MAX_NODES = 1024;
+  // 查找相近词时每层词典树最多访问的节点数
+  private static final int SIMILAR_MAX_NODES = 4096;
 
-  static {
-    mainWords = loadWords(PATH_DIC_MAIN, null);
-    stopWords = loadWords(PATH_DIC_STOP, null);
-    quantifiers = loadWords(PATH_DIC_QUANTIFIER, null);
+  // 预热时每种分词模式至少处理的字符数，使热点方法达到 JIT 编译的调用次数
+  private static final int WARM_UP_CHARS = 1 << 20;
 
-    final String[] userDicts = ConfigUtil.getUserDictionaries();
-    if (ArrayUtils.isNotEmpty(userDicts)) {
-      for (final String string : userDicts) {
-        loadWords(string, mainWords);
+  // 后台载入及预热词库的线程（守护线程，不阻止 JVM 退出）
+  private static final Executor BACKGROUND = task -> {
+    final Thread thread = new Thread(task, "hkanalyzer-dictionary-loader");
+    thread.setDaemon(true);
+    thread.start();
+  };
+
+  // 按 hkanalyzer.properties 配置的默认词库，首次使用时载入
+  private static volatile Dictionary defaultDictionary;
+  // 正在后台载入的默认词库，载入结束后置为 null
+  private static CompletableFuture<Dictionary> defaultLoading;
+  // 默认词库载入并预热完毕的通知
+  private static volatile CompletableFuture<Dictionary> defaultReady;
+
+  /*
+   * 词典树节点对象（WordSegment）仅在载入词典时用于构建，载入完毕后被编译为双数组词典树或 FST，用于匹配。
+   * 词典以不可修改的快照发布，读取时无需加锁；修改时在副本上进行，完成后整体替换快照。词库关闭后为 null。
+   */
+  private volatile DictionarySnapshot snapshot;
+  // 运行时修改的日志（未配置时为 null）
+  private DictionaryJournal journal;
+  // 文件系统中的用户词典（未配置时为 null）
+  private UserDictionaryWatcher userDictionaryWatcher;
+  // 词典命中采样器（未开启采样时为 null）
+  private volatile HitSampler hitSampler;
+  // 叠加词库所基于的基础词库（不是叠加词库时为 null）
+  private final Dictionary base;
+  // 叠加词库自身的词（不是叠加词库时为 null），与快照一样在副本上修改后整体替换
+  private WordTrie overlayWords;
+
+  /**
+   * 按 hkanalyzer.properties 中的配置载入词库。
+   */
+  public Dictionary() {
+    this(ConfigUtil.getProperties());
+  }
+
+  /**
+   * 按指定的配置载入词库（参数名与 hkanalyzer.properties 相同）。
+   *
+   * @param config 配置参数
+   */
+  public Dictionary(Properties config) {
+    Objects.requireNonNull(config, "Config must not be null!");
+    base = null;
+    final int sampleRate = ConfigUtil.getHitSampleRate(config);
+    if (sampleRate > 0) {
+      hitSampler = new HitSampler(sampleRate);
+    }
+    final String backend = ConfigUtil.getDictionaryBackend(config);
+    if (ConfigUtil.BACKEND_FST.equals(backend)) {
+      // FST 不支持映像文件，始终解析文本词典
+      snapshot = new DictionarySnapshot(FstTrie.build(loadMainWords(config)),
+          FstTrie.build(loadWords(PATH_DIC_QUANTIFIER, null)),
+          FstTrie.build(loadWords(PATH_DIC_STOP, null)));
+    } else if (ConfigUtil.BACKEND_TIERED.equals(backend)) {
+      // 冷热分层按命中统计划分，始终解析文本词典
+      snapshot = new DictionarySnapshot(loadTieredWords(config),
+          DoubleArrayTrie.build(loadWords(PATH_DIC_QUANTIFIER, null)),
+          DoubleArrayTrie.build(loadWords(PATH_DIC_STOP, null)));
+    } else {
+      final DictionaryImage image = loadImage(config);
+      snapshot = new DictionarySnapshot(image.getMainWords(), image.getQuantifiers(),
+          image.getStopWords(), image.getScanner());
+    }
+    final String journalPath = ConfigUtil.getDictionaryJournal(config);
+    if (journalPath != null) {
+      try {
+        journal = new DictionaryJournal(Paths.get(journalPath),
+            ConfigUtil.getDictionaryJournalThreshold(config));
+      } catch (final IOException ex) {
+        throw new UncheckedIOException("Failed to open dictionary journal: " + journalPath, ex);
+      }
+      replayJournal();
+    }
+    final String[] userDictionaryFiles = ConfigUtil.getUserDictionaryFiles(config);
+    if (ArrayUtils.isNotEmpty(userDictionaryFiles)) {
+      final List<Path> files = new ArrayList<>(userDictionaryFiles.length);
+      for (final String file : userDictionaryFiles) {
+        files.add(Paths.get(file.trim()));
+      }
+      userDictionaryWatcher = new UserDictionaryWatcher(this, files);
+      userDictionaryWatcher.load();
+      if (ConfigUtil.isUserDictionaryWatched(config)) {
+        try {
+          userDictionaryWatcher.start();
+        } catch (final IOException ex) {
+          logger.warn("Failed to watch user dictionaries, changes will not be applied.", ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * 使用预编译的词典映像创建词库。
+   *
+   * @param image 词典映像
+   */
+  public Dictionary(DictionaryImage image) {
+    Objects.requireNonNull(image, "Image must not be null!");
+    base = null;
+    snapshot = new DictionarySnapshot(image.getMainWords(), image.getQuantifiers(),
+        image.getStopWords(), image.getScanner());
+  }
+
+  /**
+   * 创建叠加在基础词库之上的词库（如为每个租户创建一个）。叠加词库只保存自身添加的词，
+   * 量词词典、停止词典及基础词库中的词与基础词库共享，因此占用的内存只与叠加的词数成正比。
+   * 基础词库的修改对叠加词库立即可见；基础词库关闭后，叠加词库也不再可用。
+   *
+   * @param base 基础词库（也可以是另一个叠加词库）
+   */
+  public Dictionary(Dictionary base) {
+    this.base = Objects.requireNonNull(base, "Base dictionary must not be null!");
+    overlayWords = new WordSegment((char) 0);
+    snapshot = new DictionarySnapshot(base.getSnapshot(), overlayWords);
+  }
+
+  /**
+   * 获取默认词库（按 hkanalyzer.properties 配置，首次使用时载入，所有未指定词库的分词器共享）。
+   * 默认词库被关闭后，再次获取时会重新载入；默认词库正在后台载入时，等待其载入完毕。
+   *
+   * @return 默认词库
+   * @author hankai
+   * @since Oct 18, 2026 4:30:18 PM
+   */
+  public static Dictionary getDefault() {
+    Dictionary dictionary = defaultDictionary;
+    if ((dictionary != null) && !dictionary.isClosed()) {
+      return dictionary;
+    }
+    final CompletableFuture<Dictionary> loading;
+    synchronized (Dictionary.class) {
+      dictionary = defaultDictionary;
+      if ((dictionary != null) && !dictionary.isClosed()) {
+        return dictionary;
+      }
+      loading = defaultLoading;
+      if (loading == null) {
+        dictionary = new Dictionary();
+        defaultDictionary = dictionary;
+        return dictionary;
+      }
+    }
+    // 须在锁外等待：后台线程载入完毕时需要获得同一把锁以发布默认词库
+    try {
+      return loading.join();
+    } catch (final CompletionException ex) {
+      // 后台载入失败时在当前线程重新载入，载入失败的异常由当前线程抛出
+      logger.warn("Failed to load default dictionary in background, retrying.", ex.getCause());
+      return getDefault();
+    }
+  }
+
+  /**
+   * 在后台线程中载入默认词库并预热，供应用启动时调用，以免首次分词的请求承担载入词典的开销。
+   * 预热时构建多模式扫描器，并可将样本语料以两种分词模式反复切分，使分词的热点方法在对外服务前完成 JIT 编译。
+   * 重复调用时返回同一个通知对象。
+   *
+   * @param warmUpCorpus 预热语料的类路径（UTF-8 编码的文本，为 null 时不进行分词预热）
+   * @return 默认词库载入并预热完毕时完成的通知，可用于健康检查
+   * @author hankai
+   * @since Oct 18, 2026 5:40:12 PM
+   */
+  public static synchronized CompletableFuture<Dictionary> initDefaultAsync(
+      String warmUpCorpus) {
+    if (defaultReady != null) {
+      return defaultReady;
+    }
+    final CompletableFuture<Dictionary> loaded;
+    final Dictionary current = defaultDictionary;
+    if ((current != null) && !current.isClosed()) {
+      loaded = CompletableFuture.completedFuture(current);
+    } else {
+      loaded = CompletableFuture.supplyAsync(Dictionary::new, BACKGROUND)
+          .whenComplete((dictionary, ex) -> {
+            synchronized (Dictionary.class) {
+              if (dictionary != null) {
+                defaultDictionary = dictionary;
+              }
+              defaultLoading = null;
+            }
+          });
+      defaultLoading = loaded;
+    }
+    final CompletableFuture<Dictionary> ready = loaded.thenApplyAsync(dictionary -> {
+      dictionary.warmUp(warmUpCorpus);
+      return dictionary;
+    }, BACKGROUND);
+    ready.whenComplete((dictionary, ex) -> {
+      if (ex != null) {
+        logger.error("Failed to initialize default dictionary.", ex);
+        synchronized (Dictionary.class) {
+          // 允许再次尝试初始化
+          if (defaultReady == ready) {
+            defaultReady = null;
+          }
+        }
+      }
+    });
+    defaultReady = ready;
+    return ready;
+  }
+
+  /**
+   * 默认词库是否已通过 {@link #initDefaultAsync(String)} 载入并预热完毕。
+   *
+   * @return 是否就绪
+   * @author hankai
+   * @since Oct 18, 2026 5:42:36 PM
+   */
+  public static boolean isDefaultReady() {
+    final CompletableFuture<Dictionary> ready = defaultReady;
+    return (ready != null) && ready.isDone() && !ready.isCompletedExceptionally()
+        && !ready.join().isClosed();
+  }
+
+  /**
+   * 载入双数组词典树。配置了词典映像时优先映射映像文件，否则使用缓存的映像（见
+   * {@link #loadCachedImage(Properties)}），均不可用时解析文本词典。
+   *
+   * @param config 配置参数
+   * @return 词典映像
+   * @author hankai
+   * @since Oct 18, 2026 1:36:50 PM
+   */
+  private static DictionaryImage loadImage(Properties config) {
+    DictionaryImage image = null;
+    final String imagePath = ConfigUtil.getDictionaryImage(config);
+    if (StringUtils.isNotEmpty(imagePath)) {
+      try {
+        image = DictionaryImage.map(Paths.get(imagePath));
+      } catch (final IOException ex) {
+        logger.warn("Failed to map dictionary image, fall back to text dictionaries: "
+            + imagePath, ex);
+      }
+    } else if (ConfigUtil.isDictionaryImageCached(config)) {
+      image = loadCachedImage(config);
+    }
+    if (image == null) {
+      image = parseTextDictionaries(config);
+    }
+    return image;
+  }
+
+  /**
+   * 载入缓存的词典映像。缓存文件以各文本词典内容及映像格式版本的校验和命名，词典变化后自动使用新的缓存文件。
+   * 缓存文件不存在时解析文本词典，写入临时文件后原子地移动到缓存目录，再映射该文件；此后的启动（包括同一主机上的其他 JVM）
+   * 直接映射缓存文件，无需解析文本词典、构建双数组词典树和多模式扫描器，并共享操作系统的页缓存。
+   *
+   * @param config 配置参数
+   * @return 词典映像（缓存目录无法读写时返回解析得到的词典映像，文本词典无法读取时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 11:29:10 PM
+   */
+  private static DictionaryImage loadCachedImage(Properties config) {
+    final String dir = ConfigUtil.getDictionaryImageCacheDir(config);
+    final Path cacheDir = dir != null ? Paths.get(dir)
+        : Paths.get(System.getProperty("java.io.tmpdir"),
+            "hkanalyzer-" + System.getProperty("user.name"));
+    final Path cache;
+    try {
+      cache = cacheDir.resolve(getImageCacheName(config));
+    } catch (final IOException ex) {
+      logger.warn("Failed to read text dictionaries, dictionary image will not be cached.", ex);
+      return null;
+    }
+    if (Files.isRegularFile(cache)) {
+      try {
+        return DictionaryImage.map(cache);
+      } catch (final IOException ex) {
+        logger.warn("Failed to map cached dictionary image, rebuild it: " + cache, ex);
+      }
+    }
+    final DictionaryImage image = parseTextDictionaries(config);
+    try {
+      Files.createDirectories(cacheDir);
+      final Path temp = Files.createTempFile(cacheDir, cache.getFileName().toString(), ".tmp");
+      try {
+        image.write(temp);
+        Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+      return DictionaryImage.map(cache);
+    } catch (final IOException ex) {
+      logger.warn("Failed to cache dictionary image in " + cacheDir, ex);
+      return image;
+    }
+  }
+
+  /**
+   * 获取缓存的词典映像的文件名，由映像格式版本、各文本词典的路径及内容的 CRC32 校验和与总长度组成。
+   *
+   * @param config 配置参数
+   * @return 文件名
+   * @throws IOException 文本词典无法读取
+   * @author hankai
+   * @since Oct 18, 2026 11:29:50 PM
+   */
+  static String getImageCacheName(Properties config) throws IOException {
+    final List<String> paths = getMainDictionaries(config);
+    paths.add(PATH_DIC_STOP);
+    paths.add(PATH_DIC_QUANTIFIER);
+    final CRC32 crc = new CRC32();
+    final byte[] buffer = new byte[8192];
+    long length = 0;
+    for (final String path : paths) {
+      crc.update(path.getBytes(StandardCharsets.UTF_8));
+      try (InputStream input = openDictionary(path)) {
+        if (input == null) {
+          throw new IOException("Dictionary not found: " + path);
+        }
+        int count;
+        while ((count = input.read(buffer)) > 0) {
+          crc.update(buffer, 0, count);
+          length += count;
+        }
       }
     }
-    final String[] userStopwords = ConfigUtil.getUserStopwords();
+    return String.format("hkanalyzer-v%d-%08x-%d.img", DictionaryImage.VERSION, crc.getValue(),
+        length);
+  }
+
+  /**
+   * 解析內建文本词典及用户词典，并编译为词典映像。
+   *
+   * @param config 配置参数
+   * @return 词典映像
+   * @author hankai
+   * @since Oct 18, 2026 11:35:22 AM
+   */
+  static DictionaryImage parseTextDictionaries(Properties config) {
+    final DoubleArrayTrie mainWords = DoubleArrayTrie.build(readMainWords(config));
+    final DoubleArrayTrie stopWords = DoubleArrayTrie.build(loadWords(PATH_DIC_STOP, null));
+    // 在主词典中标记停止词，匹配到词后即可知道是否是停止词
+    stopWords.forEachWord(mainWords::markStopWord);
+    return new DictionaryImage(mainWords,
+        DoubleArrayTrie.build(loadWords(PATH_DIC_QUANTIFIER, null)), stopWords);
+  }
+
+  /**
+   * 获取主词典的类路径。
+   *
+   * @param config 配置参数
+   * @return 配置的主词典（如裁剪后的热词词典），未配置时为內建主词典
+   * @author hankai
+   * @since Oct 18, 2026 9:49:30 PM
+   */
+  static String getMainDictionary(Properties config) {
+    final String path = ConfigUtil.getMainDictionary(config);
+    return path != null ? path : PATH_DIC_MAIN;
+  }
+
+  /**
+   * 载入主词典及用户词典、用户停止词。各词典文件并发读取，读取到的词按首字分组，在 fork-join 线程池中
+   * 并行构建以各个首字为根的子树，最后挂接到根节点下。
+   *
+   * @param config 配置参数
+   * @return 词典树
+   * @author hankai
+   * @since Oct 18, 2026 1:38:14 PM
+   */
+  private static WordSegment loadMainWords(Properties config) {
+    return buildSegments(readMainWords(config));
+  }
+
+  /**
+   * 按命中统计将主词典及用户词典载入为冷热分层的词典树。未配置命中统计时只有单字词是热词。
+   *
+   * @param config 配置参数
+   * @return 分层词典树
+   * @author hankai
+   * @since Oct 18, 2026 10:05:02 PM
+   */
+  private static TieredTrie loadTieredWords(Properties config) {
+    final String[] countFiles = ConfigUtil.getHitCountFiles(config);
+    final String coldFile = ConfigUtil.getColdFile(config);
+    try {
+      Map<String, Long> counts = Collections.emptyMap();
+      if (ArrayUtils.isNotEmpty(countFiles)) {
+        final Path[] paths = new Path[countFiles.length];
+        for (int i = 0; i < countFiles.length; i++) {
+          paths[i] = Paths.get(countFiles[i].trim());
+        }
+        counts = HitSampler.readCounts(paths);
+      } else {
+        logger.warn("No hit counts configured, only single-character words are kept on heap.");
+      }
+      final Path coldPath;
+      if (coldFile != null) {
+        coldPath = Paths.get(coldFile);
+      } else {
+        coldPath = Files.createTempFile("hkanalyzer", ".cold");
+        coldPath.toFile().deleteOnExit();
+      }
+      final DictionaryPruner pruner =
+          new DictionaryPruner(counts, ConfigUtil.getHotMinCount(config));
+      return TieredTrie.build(readMainWords(config), pruner::isHot, coldPath);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to build tiered dictionary.", ex);
+    }
+  }
+
+  /**
+   * 获取主词典及用户词典、用户停止词的路径。
+   *
+   * @param config 配置参数
+   * @return 词典路径
+   * @author hankai
+   * @since Oct 18, 2026 11:28:30 PM
+   */
+  private static List<String> getMainDictionaries(Properties config) {
+    final List<String> paths = new ArrayList<>();
+    paths.add(getMainDictionary(config));
+    final String[] userDicts = ConfigUtil.getUserDictionaries(config);
+    if (ArrayUtils.isNotEmpty(userDicts)) {
+      paths.addAll(Arrays.asList(userDicts));
+    }
+    final String[] userStopwords = ConfigUtil.getUserStopwords(config);
     if (ArrayUtils.isNotEmpty(userStopwords)) {
-      for (final String string : userStopwords) {
-        loadWords(string, mainWords);
+      paths.addAll(Arrays.asList(userStopwords));
+    }
+    return paths;
+  }
+
+  /**
+   * 并发读取主词典及用户词典、用户停止词中的词条。
+   *
+   * @param config 配置参数
+   * @return 词条列表
+   * @author hankai
+   * @since Oct 18, 2026 10:05:40 PM
+   */
+  private static List<char[]> readMainWords(Properties config) {
+    final List<String> paths = getMainDictionaries(config);
+    final List<CompletableFuture<List<char[]>>> reads = new ArrayList<>(paths.size());
+    for (final String path : paths) {
+      reads.add(CompletableFuture.supplyAsync(() -> readWords(path)));
+    }
+    final List<char[]> words = new ArrayList<>();
+    try {
+      for (final CompletableFuture<List<char[]>> read : reads) {
+        words.addAll(read.join());
+      }
+    } catch (final CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
       }
+      throw ex;
     }
+    return words;
+  }
+
+  /**
+   * 并行构建词典树：按首字分组，每组独立构建一棵子树，再挂接到根节点下。
+   *
+   * @param words 词条列表
+   * @return 词典树
+   * @author hankai
+   * @since Oct 18, 2026 5:10:42 PM
+   */
+  static WordSegment buildSegments(List<char[]> words) {
+    final Map<Character, List<char[]>> groups =
+        words.parallelStream().collect(Collectors.groupingByConcurrent(word -> word[0]));
+    final List<WordSegment> branches = groups.values().parallelStream().map(group -> {
+      // 同组的词首字相同，填充到临时的根节点后，其唯一的子节点即为该首字的子树
+      final WordSegment branchRoot = new WordSegment((char) 0);
+      for (final char[] word : group) {
+        branchRoot.fillSegment(word);
+      }
+      return branchRoot.getSortedChildren()[0];
+    }).collect(Collectors.toList());
+    final WordSegment root = new WordSegment((char) 0);
+    for (final WordSegment branch : branches) {
+      root.graft(branch);
+    }
+    return root;
   }
 
   /**
@@ -65,8 +563,47 @@ public class Dictionary {
     if (ws == null) {
       ws = new WordSegment((char) 0);
     }
-    final InputStream is = Dictionary.class.getResourceAsStream(dictionaryPath);
-    Objects.requireNonNull(is, "Failed to load main dictionary.");
+    for (final char[] word : readWords(dictionaryPath)) {
+      ws.fillSegment(word);
+    }
+    return ws;
+  }
+
+  /**
+   * 打开词典文件。先在类路径中查找，找不到时按文件系统路径打开（如 {@link DictionaryPruner} 生成的热词词典）。
+   *
+   * @param dictionaryPath 词典类路径或文件系统路径
+   * @return 输入流（词典不存在时返回 null）
+   * @throws IOException 文件无法打开
+   * @author hankai
+   * @since Oct 18, 2026 11:35:30 PM
+   */
+  static InputStream openDictionary(String dictionaryPath) throws IOException {
+    final InputStream input = Dictionary.class.getResourceAsStream(dictionaryPath);
+    if (input != null) {
+      return input;
+    }
+    final Path file = Paths.get(dictionaryPath);
+    return Files.isRegularFile(file) ? Files.newInputStream(file) : null;
+  }
+
+  /**
+   * 读取词典文件中的词条（每行一个词，忽略首尾空白及空行）。
+   *
+   * @param dictionaryPath 词典类路径或文件系统路径（见 {@link #openDictionary(String)}）
+   * @return 词条列表
+   * @author hankai
+   * @since Oct 18, 2026 5:12:20 PM
+   */
+  static List<char[]> readWords(String dictionaryPath) {
+    final List<char[]> words = new ArrayList<>();
+    final InputStream is;
+    try {
+      is = openDictionary(dictionaryPath);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to load dictionary: " + dictionaryPath, ex);
+    }
+    Objects.requireNonNull(is, "Failed to load dictionary: " + dictionaryPath);
     BufferedReader reader = null;
     try {
       reader = new BufferedReader(new InputStreamReader(is, "UTF-8"), 512);
@@ -76,7 +613,7 @@ public class Dictionary {
         if (word != null) {
           word = word.trim();
           if (word.length() > 0) {
-            ws.fillSegment(word.toCharArray());
+            words.add(word.toCharArray());
           }
         }
       } while (word != null);
@@ -91,7 +628,46 @@ public class Dictionary {
         ex.getMessage();// kindly ignore this exception
       }
     }
-    return ws;
+    return words;
+  }
+
+  /**
+   * 获取当前的词典快照。分词过程应在开始时获取快照并一直使用，以免在分词过程中途看到词典的变化。
+   *
+   * @return 词典快照
+   * @author hankai
+   * @since Oct 18, 2026 3:58:40 PM
+   */
+  public DictionarySnapshot getSnapshot() {
+    final DictionarySnapshot current = snapshot;
+    if (current == null) {
+      throw new IllegalStateException("Dictionary has been closed.");
+    }
+    if ((base != null) && (current.getBase() != base.getSnapshot())) {
+      return rebase();
+    }
+    return current;
+  }
+
+  /**
+   * 基础词库发布了新的快照后，将叠加层重新组合到新的基础快照之上。
+   *
+   * @return 词典快照
+   * @author hankai
+   * @since Oct 18, 2026 8:58:14 PM
+   */
+  private synchronized DictionarySnapshot rebase() {
+    final DictionarySnapshot current = snapshot;
+    if (current == null) {
+      throw new IllegalStateException("Dictionary has been closed.");
+    }
+    final DictionarySnapshot baseSnapshot = base.getSnapshot();
+    if (current.getBase() == baseSnapshot) {
+      return current;
+    }
+    final DictionarySnapshot updated = new DictionarySnapshot(baseSnapshot, overlayWords);
+    snapshot = updated;
+    return updated;
   }
 
   /**
@@ -102,8 +678,8 @@ public class Dictionary {
    * @param length
    * @return Hit 匹配结果描述
    */
-  public static Hit matchInMainDict(char[] charArray, int begin, int length) {
-    return mainWords.match(charArray, begin, length);
+  public Hit matchInMainDict(char[] charArray, int begin, int length) {
+    return getSnapshot().matchInMainDict(charArray, begin, length);
   }
 
   /**
@@ -114,10 +690,8 @@ public class Dictionary {
    * @param matchedHit
    * @return Hit
    */
-  public static Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
-    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
-    final WordSegment ds = matchedHit.getMatchedWord();
-    return ds.match(charArray, currentIndex, matchedHit);
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    return getSnapshot().matchWithHit(charArray, currentIndex, matchedHit);
   }
 
   /**
@@ -128,8 +702,8 @@ public class Dictionary {
    * @param length
    * @return Hit 匹配结果描述
    */
-  public static Hit matchInQuantifierDict(char[] charArray, int begin, int length) {
-    return quantifiers.match(charArray, begin, length);
+  public Hit matchInQuantifierDict(char[] charArray, int begin, int length) {
+    return getSnapshot().matchInQuantifierDict(charArray, begin, length);
   }
 
   /**
@@ -140,22 +714,20 @@ public class Dictionary {
    * @param length
    * @return boolean
    */
-  public static boolean isStopWord(char[] charArray, int begin, int length) {
-    return stopWords.match(charArray, begin, length, null).isMatch();
+  public boolean isStopWord(char[] charArray, int begin, int length) {
+    return getSnapshot().isStopWord(charArray, begin, length);
   }
 
   /**
-   * 批量添加词条到主字典。
+   * 批量添加词条到主字典。词条在主词典的副本中添加完毕后，以新的快照整体发布。
    *
    * @param words 词条数组
    * @author hankai
    * @since Jan 19, 2017 9:40:37 AM
    */
-  public static void addWord(String... words) {
+  public void addWord(String... words) {
     if (ArrayUtils.isNotEmpty(words)) {
-      for (final String word : words) {
-        addWord(word);
-      }
+      replaceWords(Collections.emptyList(), Arrays.asList(words));
     }
   }
 
@@ -166,9 +738,414 @@ public class Dictionary {
    * @author hankai
    * @since Jan 19, 2017 9:41:00 AM
    */
-  public static void addWord(String word) {
-    if ((mainWords != null) && StringUtils.isNotEmpty(word)) {
-      mainWords.fillSegment(word.toCharArray());
+  public void addWord(String word) {
+    if (StringUtils.isNotEmpty(word)) {
+      addWord(new String[] {word});
+    }
+  }
+
+  /**
+   * 从主词典中批量删除词条，并回收只属于这些词条的节点。
+   *
+   * @param words 词条数组
+   * @author hankai
+   * @since Oct 18, 2026 7:10:26 PM
+   */
+  public void removeWord(String... words) {
+    if (ArrayUtils.isNotEmpty(words)) {
+      replaceWords(Arrays.asList(words), Collections.emptyList());
+    }
+  }
+
+  /**
+   * 从主词典中删除词条。
+   *
+   * @param word 词条
+   * @author hankai
+   * @since Oct 18, 2026 7:11:02 PM
+   */
+  public void removeWord(String word) {
+    if (StringUtils.isNotEmpty(word)) {
+      removeWord(new String[] {word});
+    }
+  }
+
+  /**
+   * 批量替换主词典中的词条：先删除，再添加（同时出现在两者中的词条被保留），修改完毕后以一个新的快照整体发布，
+   * 分词过程不会看到只完成了一部分的修改。删除较多导致双数组词典树过于稀疏时，会在发布前重建词典树，
+   * 使词典频繁变更时占用的内存保持有界。配置了修改日志时，修改先记入日志，重启后在基础词典上重放。
+   * 叠加词库只修改其自身的词，基础词库中的词不会因为从叠加词库中删除而被屏蔽。
+   *
+   * @param removals 要删除的词条
+   * @param additions 要添加的词条
+   * @author hankai
+   * @since Oct 18, 2026 7:12:45 PM
+   */
+  public void replaceWords(Collection<String> removals, Collection<String> additions) {
+    updateWords(removals, additions, true);
+  }
+
+  /**
+   * 批量替换主词典中的词条，但不记入修改日志（用于重放日志，以及应用本身可持久保存的用户词典文件）。
+   *
+   * @param removals 要删除的词条
+   * @param additions 要添加的词条
+   * @author hankai
+   * @since Oct 18, 2026 8:25:36 PM
+   */
+  void applyWords(Collection<String> removals, Collection<String> additions) {
+    updateWords(removals, additions, false);
+  }
+
+  /**
+   * 在日志中重放运行时的修改。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 8:26:12 PM
+   */
+  private void replayJournal() {
+    final List<String> removals = new ArrayList<>();
+    final List<String> additions = new ArrayList<>();
+    for (final Map.Entry<String, Boolean> change : journal.getChanges().entrySet()) {
+      if (change.getValue()) {
+        additions.add(change.getKey());
+      } else {
+        removals.add(change.getKey());
+      }
+    }
+    applyWords(removals, additions);
+  }
+
+  /**
+   * 批量替换主词典中的词条。
+   *
+   * @param removals 要删除的词条
+   * @param additions 要添加的词条
+   * @param journaled 是否记入修改日志（配置了日志时）
+   * @author hankai
+   * @since Oct 18, 2026 8:27:02 PM
+   */
+  private void updateWords(Collection<String> removals, Collection<String> additions,
+      boolean journaled) {
+    Objects.requireNonNull(removals, "Removals must not be null!");
+    Objects.requireNonNull(additions, "Additions must not be null!");
+    final List<char[]> removed = toCharArrays(removals);
+    final List<char[]> added = toCharArrays(additions);
+    if (removed.isEmpty() && added.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      final DictionarySnapshot current = getSnapshot();
+      if (base != null) {
+        updateOverlay(current, removed, added);
+        return;
+      }
+      if (journaled && (journal != null)) {
+        // 先写日志再发布，写入失败时不修改词库
+        journal.append(toStrings(removed), toStrings(added));
+      }
+      WordTrie mainWords = current.getMainWords().copy();
+      if (mainWords instanceof FstTrie) {
+        // FST 每次修改都要重新构建，一次性完成所有修改
+        ((FstTrie) mainWords).update(removed, added);
+      } else {
+        for (final char[] word : removed) {
+          mainWords.remove(word);
+        }
+        for (final char[] word : added) {
+          mainWords.add(word);
+        }
+      }
+      if (mainWords instanceof DoubleArrayTrie) {
+        final DoubleArrayTrie trie = (DoubleArrayTrie) mainWords;
+        for (final char[] word : added) {
+          if (current.isStopWord(word, 0, word.length)) {
+            trie.markStopWord(word);
+          }
+        }
+        if (!removed.isEmpty() && trie.isSparse()) {
+          mainWords = trie.compact();
+        }
+      }
+      final DictionarySnapshot updated = new DictionarySnapshot(mainWords,
+          current.getQuantifiers(), current.getStopWords());
+      // 发布前构建扫描器，以免由分词线程承担构建的开销
+      updated.getScanner();
+      snapshot = updated;
+    }
+  }
+
+  /**
+   * 在叠加词库自身的词的副本上删除、添加词条，并与基础快照重新组合后发布。
+   *
+   * @param current 当前的快照
+   * @param removed 要删除的词条
+   * @param added 要添加的词条
+   * @author hankai
+   * @since Oct 18, 2026 8:59:30 PM
+   */
+  private void updateOverlay(DictionarySnapshot current, List<char[]> removed,
+      List<char[]> added) {
+    final WordTrie words = overlayWords.copy();
+    for (final char[] word : removed) {
+      words.remove(word);
+    }
+    for (final char[] word : added) {
+      words.add(word);
+    }
+    overlayWords = words;
+    snapshot = new DictionarySnapshot(current.getBase(), words);
+  }
+
+  /**
+   * 将字符数组转换为词条。
+   *
+   * @param arrays 字符数组列表
+   * @return 词条列表
+   * @author hankai
+   * @since Oct 18, 2026 8:28:10 PM
+   */
+  private static List<String> toStrings(List<char[]> arrays) {
+    final List<String> words = new ArrayList<>(arrays.size());
+    for (final char[] array : arrays) {
+      words.add(new String(array));
+    }
+    return words;
+  }
+
+  /**
+   * 将词条转换为字符数组，忽略空的词条。
+   *
+   * @param words 词条
+   * @return 字符数组列表
+   * @author hankai
+   * @since Oct 18, 2026 7:14:20 PM
+   */
+  private static List<char[]> toCharArrays(Collection<String> words) {
+    final List<char[]> arrays = new ArrayList<>(words.size());
+    for (final String word : words) {
+      if (StringUtils.isNotEmpty(word)) {
+        arrays.add(word.toCharArray());
+      }
+    }
+    return arrays;
+  }
+
+  /**
+   * 预热词库：构建当前快照的多模式扫描器，并将样本语料以两种分词模式反复切分，使分词的热点方法完成 JIT 编译。
+   *
+   * @param warmUpCorpus 预热语料的类路径（UTF-8 编码的文本，为 null 时仅构建扫描器）
+   * @author hankai
+   * @since Oct 18, 2026 5:45:08 PM
+   */
+  public void warmUp(String warmUpCorpus) {
+    getSnapshot().getScanner();
+    if (warmUpCorpus == null) {
+      return;
+    }
+    final String text = readText(warmUpCorpus);
+    if (text.isEmpty()) {
+      return;
+    }
+    final int rounds = Math.max(1, WARM_UP_CHARS / text.length());
+    final long start = System.currentTimeMillis();
+    try {
+      for (final boolean matchLongerTextOnly : new boolean[] {false, true}) {
+        final Segmentator segmentator =
+            new Segmentator(new StringReader(text), matchLongerTextOnly, this);
+        for (int i = 0; i < rounds; i++) {
+          if (i > 0) {
+            segmentator.reset(new StringReader(text));
+          }
+          while (segmentator.next() != null) {
+            // 仅执行分词，丢弃结果
+          }
+        }
+      }
+    } catch (final IOException ex) {
+      // StringReader 不会抛出该异常
+      throw new IllegalStateException(ex);
+    }
+    logger.info(String.format("Dictionary warmed up with %s in %d ms.", warmUpCorpus,
+        System.currentTimeMillis() - start));
+  }
+
+  /**
+   * 读取类路径中的 UTF-8 文本。
+   *
+   * @param path 类路径
+   * @return 文本内容
+   * @author hankai
+   * @since Oct 18, 2026 5:46:30 PM
+   */
+  private static String readText(String path) {
+    final InputStream is = Dictionary.class.getResourceAsStream(path);
+    Objects.requireNonNull(is, "Failed to load warm-up corpus: " + path);
+    final StringBuilder sb = new StringBuilder();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
+      final char[] buffer = new char[4096];
+      int read;
+      while ((read = reader.read(buffer)) > 0) {
+        sb.append(buffer, 0, read);
+      }
+    } catch (final IOException ex) {
+      logger.error("Failed to load warm-up corpus: " + path, ex);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * 获取词库占用的内存，包括当前的词典快照及文件系统中的用户词典。内存映射的词典映像不在堆中，不计入；
+   * 叠加词库只计入其自身的叠加层。分词过程仍在使用的旧快照不计入。
+   *
+   * @return 字节数（词库关闭后不再包括词典快照）
+   */
+  @Override
+  public long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED;
+    for (final Accountable resource : getChildResources()) {
+      bytes += resource.ramBytesUsed();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(3);
+    final DictionarySnapshot current = snapshot;
+    if (current != null) {
+      resources.add(Accountables.namedAccountable("snapshot", current));
+    }
+    final UserDictionaryWatcher watcher = userDictionaryWatcher;
+    if (watcher != null) {
+      resources.add(Accountables.namedAccountable("user dictionary files", watcher));
+    }
+    final HitSampler sampler = hitSampler;
+    if (sampler != null) {
+      resources.add(Accountables.namedAccountable("hit sampler", sampler));
+    }
+    return resources;
+  }
+
+  /**
+   * 统计各词典的节点数、词数、平均扇出及占用的内存，用于容量规划（需遍历整个词典，不应在分词过程中调用）。
+   * 可与 {@code Accountables.toString(dictionary)} 输出的各组成部分占用的内存一起查看。
+   *
+   * @return 各词典的统计信息
+   * @author hankai
+   * @since Oct 18, 2026 9:27:40 PM
+   */
+  public Map<String, TrieStats> getStats() {
+    return getSnapshot().getStats();
+  }
+
+  /**
+   * 列出主词典中以指定前缀开头的最短的若干个词（包括前缀本身），用于输入提示。
+   *
+   * @param prefix 前缀
+   * @param count 最多返回的词数
+   * @return 按词长由短到长排序的词
+   * @author hankai
+   * @since Oct 18, 2026 10:15:30 PM
+   */
+  public List<String> suggest(String prefix, int count) {
+    return suggest(prefix, count, null);
+  }
+
+  /**
+   * 列出主词典中以指定前缀开头的权重最高的若干个词（包括前缀本身），用于输入提示。每次调用访问的词典树节点数有上限，
+   * 前缀过短、以其开头的词过多时，只在较短的词中选取。
+   *
+   * @param prefix 前缀
+   * @param count 最多返回的词数
+   * @param weight 词的权重，如 {@link HitSampler#getCounts()} 中的命中次数（为 null 时按词长排序）
+   * @return 按权重由高到低排序的词
+   * @author hankai
+   * @since Oct 18, 2026 10:16:02 PM
+   */
+  public List<String> suggest(String prefix, int count, ToLongFunction<String> weight) {
+    return getSnapshot().suggest(prefix, count, weight, SUGGEST_MAX_NODES);
+  }
+
+  /**
+   * 查找主词典中与指定字符序列编辑距离（Levenshtein 距离）不超过上限的词，用于纠正查询中的错别字。
+   * 在内存中的词典树上查找，每次调用访问的节点数有上限，比对索引执行 FuzzyQuery 的开销小得多。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限（通常为 1 或 2）
+   * @param count 最多返回的词数
+   * @return 按编辑距离由小到大排序的词（包括与原字符序列相同的词）
+   * @author hankai
+   * @since Oct 18, 2026 10:22:30 PM
+   */
+  public List<String> findSimilar(String word, int maxEdits, int count) {
+    return findSimilar(word, maxEdits, count, null);
+  }
+
+  /**
+   * 查找主词典中与指定字符序列编辑距离不超过上限的词，编辑距离相同的词按权重由高到低排列。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限（通常为 1 或 2）
+   * @param count 最多返回的词数
+   * @param weight 词的权重，如 {@link HitSampler#getCount(String)}（可为 null）
+   * @return 按编辑距离由小到大排序的词（包括与原字符序列相同的词）
+   * @author hankai
+   * @since Oct 18, 2026 10:23:02 PM
+   */
+  public List<String> findSimilar(String word, int maxEdits, int count,
+      ToLongFunction<String> weight) {
+    return getSnapshot().findSimilar(word, maxEdits, count, weight, SIMILAR_MAX_NODES);
+  }
+
+  /**
+   * 获取 hitSampler 字段的值。
+   *
+   * @return hitSampler 字段值（未开启采样时为 null）
+   */
+  public HitSampler getHitSampler() {
+    return hitSampler;
+  }
+
+  /**
+   * 开启或关闭词典命中采样。更换的采样器在各分词器处理完当前未结束的词前缀后生效。
+   *
+   * @param hitSampler 采样器（为 null 时关闭采样）
+   * @author hankai
+   * @since Oct 18, 2026 9:50:12 PM
+   */
+  public void setHitSampler(HitSampler hitSampler) {
+    this.hitSampler = hitSampler;
+  }
+
+  /**
+   * 词库是否已关闭。
+   *
+   * @return 是否已关闭
+   * @author hankai
+   * @since Oct 18, 2026 4:34:52 PM
+   */
+  public boolean isClosed() {
+    return (snapshot == null) || ((base != null) && base.isClosed());
+  }
+
+  /**
+   * 关闭词库，释放词典占用的内存（映射的词典映像文件在其缓冲区被回收时解除映射），
+   * 停止监视用户词典文件并关闭修改日志。
+   * 已经开始的分词过程仍可使用其持有的快照完成，此后使用该词库的分词器将抛出 IllegalStateException。
+   */
+  @Override
+  public synchronized void close() {
+    snapshot = null;
+    if (userDictionaryWatcher != null) {
+      userDictionaryWatcher.close();
+    }
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (final IOException ex) {
+        logger.warn("Failed to close dictionary journal.", ex);
+      }
     }
   }
 
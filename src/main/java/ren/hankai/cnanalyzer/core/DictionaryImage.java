@@ -0,0 +1,183 @@
+package ren.hankai.cnanalyzer.core;
+
+import ren.hankai.cnanalyzer.util.ConfigUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * 预编译的二进制词典映像。将主词典（含用户词典）、量词词典和停止词典编译后的双数组词典树写入一个带版本号的二进制文件，
+ * 启动时通过内存映射（FileChannel.map）载入，匹配时直接读取映射的页面，无需逐行解析文本词典。
+ * 同一台主机上的多个 JVM 映射同一个文件时，共享操作系统的页缓存，而不是各自在堆中持有一份拷贝。
+ *
+ * <p>
+ * 文件格式：魔数、版本号、词典树个数、保留字段（各4字节，共16字节），随后依次为主词典、量词词典、停止词典的词典树数据，
+ * 最后是主词典的多模式扫描器（{@link AhoCorasickScanner}）的指针数组，载入后无需再构建扫描器。
+ * 数据按编译时所在平台的字节序写入，载入时通过魔数识别字节序。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 11:20:37 AM
+ */
+public class DictionaryImage {
+
+  private static final int MAGIC = 0x484B4443; // "HKDC"
+  static final int VERSION = 3; // 文件格式版本，格式变更时递增
+  private static final int TRIE_COUNT = 3;
+
+  private final DoubleArrayTrie mainWords;
+  private final DoubleArrayTrie quantifiers;
+  private final DoubleArrayTrie stopWords;
+  // 从映像文件中映射的主词典扫描器（未写入映像的词典为 null）
+  private final AhoCorasickScanner scanner;
+
+  public DictionaryImage(DoubleArrayTrie mainWords, DoubleArrayTrie quantifiers,
+      DoubleArrayTrie stopWords) {
+    this(mainWords, quantifiers, stopWords, null);
+  }
+
+  private DictionaryImage(DoubleArrayTrie mainWords, DoubleArrayTrie quantifiers,
+      DoubleArrayTrie stopWords, AhoCorasickScanner scanner) {
+    this.mainWords = Objects.requireNonNull(mainWords, "Main words must not be null!");
+    this.quantifiers = Objects.requireNonNull(quantifiers, "Quantifiers must not be null!");
+    this.stopWords = Objects.requireNonNull(stopWords, "Stop words must not be null!");
+    this.scanner = scanner;
+  }
+
+  /**
+   * 将词典映像写入文件（已存在的文件将被覆盖）。主词典的多模式扫描器在写入时构建。
+   *
+   * @param path 文件路径
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 11:24:15 AM
+   */
+  public void write(Path path) throws IOException {
+    final ByteOrder order = ByteOrder.nativeOrder();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer header = ByteBuffer.allocate(16).order(order);
+      header.putInt(MAGIC).putInt(VERSION).putInt(TRIE_COUNT).putInt(0);
+      header.flip();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      mainWords.writeTo(channel, order);
+      quantifiers.writeTo(channel, order);
+      stopWords.writeTo(channel, order);
+      final AhoCorasickScanner mainScanner =
+          scanner != null ? scanner : AhoCorasickScanner.build(mainWords, false);
+      mainScanner.writeTo(channel, order);
+      channel.force(true);
+    }
+  }
+
+  /**
+   * 以只读方式内存映射词典映像文件。
+   *
+   * @param path 文件路径
+   * @return 词典映像
+   * @throws IOException 文件无法读取，或文件格式、版本不匹配
+   * @author hankai
+   * @since Oct 18, 2026 11:27:50 AM
+   */
+  public static DictionaryImage map(Path path) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < 16) {
+      throw new IOException("Invalid dictionary image: " + path);
+    }
+    final int magic = buffer.order(ByteOrder.BIG_ENDIAN).getInt(0);
+    if (magic == Integer.reverseBytes(MAGIC)) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    } else if (magic != MAGIC) {
+      throw new IOException("Invalid dictionary image: " + path);
+    }
+    buffer.position(4);
+    final int version = buffer.getInt();
+    final int trieCount = buffer.getInt();
+    buffer.getInt();
+    if ((version != VERSION) || (trieCount != TRIE_COUNT)) {
+      throw new IOException("Unsupported dictionary image version " + version + ": " + path);
+    }
+    try {
+      final DoubleArrayTrie mainWords = DoubleArrayTrie.readFrom(buffer);
+      final DoubleArrayTrie quantifiers = DoubleArrayTrie.readFrom(buffer);
+      final DoubleArrayTrie stopWords = DoubleArrayTrie.readFrom(buffer);
+      final AhoCorasickScanner scanner = AhoCorasickScanner.readFrom(buffer, mainWords);
+      return new DictionaryImage(mainWords, quantifiers, stopWords, scanner);
+    } catch (final RuntimeException ex) {
+      throw new IOException("Corrupted dictionary image: " + path, ex);
+    }
+  }
+
+  /**
+   * 获取 mainWords 字段的值。
+   *
+   * @return mainWords 字段值
+   */
+  public DoubleArrayTrie getMainWords() {
+    return mainWords;
+  }
+
+  /**
+   * 获取 quantifiers 字段的值。
+   *
+   * @return quantifiers 字段值
+   */
+  public DoubleArrayTrie getQuantifiers() {
+    return quantifiers;
+  }
+
+  /**
+   * 获取 stopWords 字段的值。
+   *
+   * @return stopWords 字段值
+   */
+  public DoubleArrayTrie getStopWords() {
+    return stopWords;
+  }
+
+  /**
+   * 获取映射的主词典扫描器。
+   *
+   * @return 扫描器（不是从映像文件映射的词典映像返回 null，由词典快照在首次使用时构建）
+   */
+  public AhoCorasickScanner getScanner() {
+    return scanner;
+  }
+
+  /**
+   * 编译文本词典（含 hkanalyzer.properties 中配置的用户词典）并生成词典映像文件。
+   *
+   * <p>
+   * 用法：java ren.hankai.cnanalyzer.core.DictionaryImage &lt;映像文件路径&gt;
+   * </p>
+   *
+   * @param args 命令行参数
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 11:31:06 AM
+   */
+  public static void main(String[] args) throws IOException {
+    if ((args == null) || (args.length != 1)) {
+      System.err.println("Usage: java " + DictionaryImage.class.getName() + " <image file>");
+      return;
+    }
+    final Path path = Paths.get(args[0]);
+    Dictionary.parseTextDictionaries(ConfigUtil.getProperties()).write(path);
+    System.out.println("Dictionary image written to: " + path.toAbsolutePath());
+  }
+
+}
@@ -0,0 +1,413 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * 词典修改日志。运行时对词库的每次修改（一批删除和添加的词条）以一条带校验和的记录追加到日志文件末尾，
+ * 重启时在基础词典（如词典映像）上重放日志，即可恢复运行期间添加或删除的词条，而无需重新解析文本词典。
+ *
+ * <p>
+ * 文件格式：魔数、版本号（各4字节），随后为若干条记录。每条记录由内容长度、内容的 CRC32 校验和（各4字节）及内容组成；
+ * 内容为词条个数（4字节），以及每个词条的操作类型（1字节，0 删除，1 添加）、长度（2字节）和 UTF-16 字符。
+ * 重放时遇到不完整或校验失败的记录（如写入过程中进程退出），丢弃该记录及其后的内容。
+ * </p>
+ *
+ * <p>
+ * 日志超过指定大小时，在后台线程中压缩：只保留每个词条最终的状态，写入临时文件后原子地替换日志文件。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 8:05:14 PM
+ */
+public class DictionaryJournal implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(DictionaryJournal.class);
+
+  private static final int MAGIC = 0x484B4A4E; // "HKJN"
+  private static final int VERSION = 1; // 文件格式版本，格式变更时递增
+  private static final int HEADER_SIZE = 8;
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final byte OP_REMOVE = 0;
+  private static final byte OP_ADD = 1;
+
+  private final Path file;
+  private final long compactThreshold;
+  private FileChannel channel;
+  // 日志中各词条最终的状态（true 为添加，false 为删除），按最后一次修改的顺序排列
+  private final Map<String, Boolean> changes = new LinkedHashMap<>();
+  // 上次压缩后的日志大小，日志增长到其两倍以上（且超过阈值）时才再次压缩
+  private long compactedSize;
+  private boolean compacting;
+
+  /**
+   * 打开词典修改日志，文件不存在时创建。
+   *
+   * @param file 日志文件
+   * @param compactThreshold 日志超过此大小（字节）时在后台压缩
+   * @throws IOException 文件无法打开，或不是词典修改日志
+   */
+  public DictionaryJournal(Path file, long compactThreshold) throws IOException {
+    this.file = Objects.requireNonNull(file, "File must not be null!");
+    this.compactThreshold = compactThreshold;
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      load();
+    } catch (final IOException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * 读取日志中的所有记录，丢弃末尾不完整或校验失败的记录。
+   *
+   * @throws IOException 文件无法读取，或不是词典修改日志
+   * @author hankai
+   * @since Oct 18, 2026 8:08:40 PM
+   */
+  private void load() throws IOException {
+    final long size = channel.size();
+    if (size == 0) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).flip();
+      writeFully(channel, header, 0);
+      channel.force(false);
+      compactedSize = HEADER_SIZE;
+      return;
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Dictionary journal is too large: " + file);
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, buffer.position()) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    if ((buffer.remaining() < HEADER_SIZE) || (buffer.getInt() != MAGIC)) {
+      throw new IOException("Not a dictionary journal: " + file);
+    }
+    final int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported dictionary journal version " + version + ": " + file);
+    }
+    int records = 0;
+    while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+      final int start = buffer.position();
+      final int length = buffer.getInt();
+      final int checksum = buffer.getInt();
+      if ((length < 0) || (length > buffer.remaining())) {
+        buffer.position(start);
+        break;
+      }
+      final CRC32 crc = new CRC32();
+      crc.update(buffer.array(), buffer.position(), length);
+      if ((int) crc.getValue() != checksum) {
+        buffer.position(start);
+        break;
+      }
+      final ByteBuffer payload = ByteBuffer.wrap(buffer.array(), buffer.position(), length);
+      buffer.position(buffer.position() + length);
+      readRecord(payload);
+      records++;
+    }
+    if (buffer.hasRemaining()) {
+      logger.warn(String.format("Discarded %d bytes of incomplete records in journal %s.",
+          buffer.remaining(), file));
+      channel.truncate(buffer.position());
+      channel.force(false);
+    }
+    compactedSize = buffer.position();
+    logger.info(String.format("Dictionary journal %s loaded: %d records, %d words.", file,
+        records, changes.size()));
+  }
+
+  /**
+   * 读取一条记录的内容。
+   *
+   * @param payload 记录内容
+   * @throws IOException 记录内容无法解析
+   * @author hankai
+   * @since Oct 18, 2026 8:10:22 PM
+   */
+  private void readRecord(ByteBuffer payload) throws IOException {
+    final int count = payload.getInt();
+    for (int i = 0; i < count; i++) {
+      final byte op = payload.get();
+      final char[] word = new char[payload.getShort() & 0xFFFF];
+      for (int j = 0; j < word.length; j++) {
+        word[j] = payload.getChar();
+      }
+      if ((op != OP_ADD) && (op != OP_REMOVE)) {
+        throw new IOException("Corrupted dictionary journal: " + file);
+      }
+      record(new String(word), op == OP_ADD);
+    }
+  }
+
+  /**
+   * 记录词条最终的状态（移到最后，保持修改的顺序）。
+   *
+   * @param word 词条
+   * @param added 是否是添加
+   * @author hankai
+   * @since Oct 18, 2026 8:11:05 PM
+   */
+  private void record(String word, boolean added) {
+    changes.remove(word);
+    changes.put(word, added);
+  }
+
+  /**
+   * 获取日志中各词条最终的状态，用于在基础词典上重放。
+   *
+   * @return 词条及其状态（true 为添加，false 为删除），按最后一次修改的顺序排列
+   * @author hankai
+   * @since Oct 18, 2026 8:12:30 PM
+   */
+  public synchronized Map<String, Boolean> getChanges() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+  }
+
+  /**
+   * 追加一条修改记录并写入磁盘。同一批中先删除后添加。
+   *
+   * @param removals 删除的词条
+   * @param additions 添加的词条
+   * @throws UncheckedIOException 记录无法写入
+   * @author hankai
+   * @since Oct 18, 2026 8:13:48 PM
+   */
+  public synchronized void append(Collection<String> removals, Collection<String> additions) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeInt(removals.size() + additions.size());
+      writeWords(out, removals, OP_REMOVE);
+      writeWords(out, additions, OP_ADD);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    final ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+    final int length = record.limit() - RECORD_HEADER_SIZE;
+    final CRC32 crc = new CRC32();
+    crc.update(record.array(), RECORD_HEADER_SIZE, length);
+    record.putInt(0, length).putInt(4, (int) crc.getValue());
+    try {
+      ensureOpen();
+      final long position = channel.size();
+      writeFully(channel, record, position);
+      channel.force(false);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to write dictionary journal: " + file, ex);
+    }
+    for (final String word : removals) {
+      record(word, false);
+    }
+    for (final String word : additions) {
+      record(word, true);
+    }
+    scheduleCompaction();
+  }
+
+  /**
+   * 写入一组词条。
+   *
+   * @param out 输出流
+   * @param words 词条
+   * @param op 操作类型
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 8:14:40 PM
+   */
+  private static void writeWords(DataOutputStream out, Collection<String> words, byte op)
+      throws IOException {
+    for (final String word : words) {
+      if (word.length() > 0xFFFF) {
+        throw new IllegalArgumentException("Word is too long: " + word.length());
+      }
+      out.writeByte(op);
+      out.writeShort(word.length());
+      out.writeChars(word);
+    }
+  }
+
+  /**
+   * 日志超过阈值且比上次压缩后增长了一倍以上时，在后台线程中压缩日志。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 8:15:32 PM
+   */
+  private void scheduleCompaction() {
+    final long size;
+    try {
+      size = channel.size();
+    } catch (final IOException ex) {
+      return;
+    }
+    if (compacting || (size <= compactThreshold) || (size <= (compactedSize * 2))) {
+      return;
+    }
+    compacting = true;
+    final Thread thread = new Thread(() -> {
+      try {
+        compact();
+      } catch (final IOException ex) {
+        logger.error("Failed to compact dictionary journal: " + file, ex);
+      } finally {
+        synchronized (this) {
+          compacting = false;
+        }
+      }
+    }, "hkanalyzer-journal-compactor");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * 压缩日志：只保留每个词条最终的状态，写入临时文件后原子地替换日志文件。
+   *
+   * @throws IOException 日志无法写入
+   * @author hankai
+   * @since Oct 18, 2026 8:16:50 PM
+   */
+  public synchronized void compact() throws IOException {
+    ensureOpen();
+    final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeInt(changes.size());
+      for (final Map.Entry<String, Boolean> change : changes.entrySet()) {
+        out.writeByte(change.getValue() ? OP_ADD : OP_REMOVE);
+        out.writeShort(change.getKey().length());
+        out.writeChars(change.getKey());
+      }
+    }
+    final ByteBuffer content = ByteBuffer.wrap(bytes.toByteArray());
+    final int length = content.limit() - HEADER_SIZE - RECORD_HEADER_SIZE;
+    final CRC32 crc = new CRC32();
+    crc.update(content.array(), HEADER_SIZE + RECORD_HEADER_SIZE, length);
+    content.putInt(HEADER_SIZE, length).putInt(HEADER_SIZE + 4, (int) crc.getValue());
+    final long before = channel.size();
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writeFully(out, content, 0);
+      out.force(true);
+    }
+    channel.close();
+    try {
+      replaceFile(temp, file);
+    } catch (final IOException ex) {
+      // 替换失败时原日志文件不变，删除临时文件并重新打开原日志文件，之后仍可继续追加
+      try {
+        Files.deleteIfExists(temp);
+      } catch (final IOException deleteEx) {
+        ex.addSuppressed(deleteEx);
+      }
+      try {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      } catch (final IOException reopenEx) {
+        channel = null;
+        ex.addSuppressed(reopenEx);
+      }
+      throw ex;
+    }
+    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    compactedSize = channel.size();
+    logger.info(String.format("Dictionary journal %s compacted: %d -> %d bytes.", file, before,
+        compactedSize));
+  }
+
+  /**
+   * 用临时文件原子地替换日志文件。
+   *
+   * @param temp 临时文件
+   * @param target 日志文件
+   * @throws IOException 无法替换（如文件系统不支持原子移动）
+   * @author hankai
+   * @since Oct 18, 2026 11:12:40 PM
+   */
+  void replaceFile(Path temp, Path target) throws IOException {
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * 获取日志文件的大小。
+   *
+   * @return 字节数
+   * @throws IOException 文件无法访问
+   * @author hankai
+   * @since Oct 18, 2026 8:18:02 PM
+   */
+  public synchronized long size() throws IOException {
+    ensureOpen();
+    return channel.size();
+  }
+
+  /**
+   * 确认日志未被关闭。
+   *
+   * @throws IOException 日志已关闭
+   * @author hankai
+   * @since Oct 18, 2026 8:18:40 PM
+   */
+  private void ensureOpen() throws IOException {
+    if (channel == null) {
+      throw new IOException("Dictionary journal has been closed: " + file);
+    }
+  }
+
+  /**
+   * 将缓冲区的内容全部写入通道的指定位置。
+   *
+   * @param out 通道
+   * @param buffer 缓冲区
+   * @param position 写入位置
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 8:19:15 PM
+   */
+  private static void writeFully(FileChannel out, ByteBuffer buffer, long position)
+      throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      offset += out.write(buffer, offset);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+package ren.hankai.cnanalyzer.core;
+
+import ren.hankai.cnanalyzer.util.ConfigUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 词典裁剪工具。根据 {@link HitSampler} 导出的命中统计，将主词典拆分为常用词（热词）和不常用词（冷词）两部分。
+ * 内存受限的查询节点可以只载入热词词典（将配置参数 {@code main.dictionary} 设为生成的热词文件的路径，
+ * 类路径中找不到时按文件系统路径读取），未收录的词按单字切分。
+ *
+ * <p>
+ * 单字词数量很少，且是单字切分的基础，始终作为热词保留。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:43:20 PM
+ */
+public class DictionaryPruner {
+
+  private final Map<String, Long> counts;
+  private final long minCount;
+
+  /**
+   * 创建词典裁剪工具。
+   *
+   * @param counts 各词被采样的次数（见 {@link HitSampler#readCounts(Path...)}）
+   * @param minCount 被采样次数不少于此值的词为热词
+   */
+  public DictionaryPruner(Map<String, Long> counts, long minCount) {
+    this.counts = Objects.requireNonNull(counts, "Counts must not be null!");
+    this.minCount = minCount;
+  }
+
+  /**
+   * 判断词是否是热词。
+   *
+   * @param word 词
+   * @return 是否是热词
+   * @author hankai
+   * @since Oct 18, 2026 9:44:30 PM
+   */
+  public boolean isHot(String word) {
+    return (word.length() == 1) || (counts.getOrDefault(word, 0L) >= minCount);
+  }
+
+  /**
+   * 将词拆分为热词和冷词，分别写入文件（UTF-8 编码，每行一个词，保持原有顺序）。
+   *
+   * @param words 词典中的词
+   * @param hotFile 热词文件
+   * @param coldFile 冷词文件（为 null 时不输出冷词）
+   * @return 热词数
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 9:45:16 PM
+   */
+  public int split(Collection<String> words, Path hotFile, Path coldFile) throws IOException {
+    Objects.requireNonNull(words, "Words must not be null!");
+    Objects.requireNonNull(hotFile, "Hot file must not be null!");
+    final List<String> hotWords = new ArrayList<>();
+    final List<String> coldWords = new ArrayList<>();
+    for (final String word : words) {
+      if (isHot(word)) {
+        hotWords.add(word);
+      } else {
+        coldWords.add(word);
+      }
+    }
+    writeWords(hotFile, hotWords);
+    if (coldFile != null) {
+      writeWords(coldFile, coldWords);
+    }
+    return hotWords.size();
+  }
+
+  private static void writeWords(Path file, List<String> words) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (final String word : words) {
+        writer.write(word);
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * 按 hkanalyzer.properties 中配置的主词典，根据命中统计文件输出热词词典及冷词词典。
+   *
+   * <p>
+   * 用法：java ren.hankai.cnanalyzer.core.DictionaryPruner &lt;最小采样次数&gt; &lt;热词文件&gt;
+   * &lt;冷词文件|-&gt; &lt;命中统计文件&gt;...（冷词文件为 - 时不输出冷词）
+   * </p>
+   *
+   * @param args 命令行参数
+   * @throws IOException 读写失败
+   * @author hankai
+   * @since Oct 18, 2026 9:46:40 PM
+   */
+  public static void main(String[] args) throws IOException {
+    if ((args == null) || (args.length < 4)) {
+      System.err.println("Usage: java " + DictionaryPruner.class.getName()
+          + " <min count> <hot dictionary> <cold dictionary|-> <hit count file>...");
+      return;
+    }
+    final long minCount = Long.parseLong(args[0]);
+    final Path hotFile = Paths.get(args[1]);
+    final Path coldFile = "-".equals(args[2]) ? null : Paths.get(args[2]);
+    final Path[] countFiles = new Path[args.length - 3];
+    for (int i = 3; i < args.length; i++) {
+      countFiles[i - 3] = Paths.get(args[i]);
+    }
+    final List<String> words = new ArrayList<>();
+    final String mainDictionary = Dictionary.getMainDictionary(ConfigUtil.getProperties());
+    for (final char[] word : Dictionary.readWords(mainDictionary)) {
+      words.add(new String(word));
+    }
+    final DictionaryPruner pruner = new DictionaryPruner(HitSampler.readCounts(countFiles),
+        minCount);
+    final int hotCount = pruner.split(words, hotFile, coldFile);
+    System.out.println(String.format("%d of %d words kept in %s.", hotCount, words.size(),
+        hotFile.toAbsolutePath()));
+  }
+
+}
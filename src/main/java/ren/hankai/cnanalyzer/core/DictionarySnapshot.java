@@ -0,0 +1,404 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * 词典快照。持有某一时刻的主词典、量词词典和停止词典，发布后不再修改，可被多个线程无锁地并发读取。
+ * 修改词典时，在词典树的副本上修改并创建新的快照，再整体替换旧的快照；正在使用旧快照的分词过程不受影响。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 3:45:12 PM
+ */
+public class DictionarySnapshot implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(DictionarySnapshot.class);
+
+  private final WordTrie mainWords;
+  private final WordTrie quantifiers;// 量词
+  private final WordTrie stopWords;// 停止词
+  // 停止词的散列集合，判断任意词元（如英文、数字）是否是停止词时无需遍历词典树，也不产生临时对象
+  private final CharArraySet stopWordSet;
+  // 主词典的多模式扫描器，未随词典映像载入时在首次使用时构建
+  private volatile AhoCorasickScanner scanner;
+  // 主词典中的词的规范字符串，首次使用时创建
+  private volatile CanonicalWords canonicalWords;
+  // 叠加词库的快照所基于的快照（多模式扫描器由其提供），非叠加词库为 null
+  private final DictionarySnapshot base;
+  // 叠加在基础词典之上的各层（非叠加词库为 null）
+  private final WordTrie overlay;
+
+  DictionarySnapshot(WordTrie mainWords, WordTrie quantifiers, WordTrie stopWords) {
+    this(mainWords, quantifiers, stopWords, null);
+  }
+
+  /**
+   * 创建快照。
+   *
+   * @param mainWords 主词典
+   * @param quantifiers 量词词典
+   * @param stopWords 停止词典
+   * @param scanner 主词典的多模式扫描器（如从词典映像中映射的扫描器），为 null 时首次使用时构建
+   */
+  DictionarySnapshot(WordTrie mainWords, WordTrie quantifiers, WordTrie stopWords,
+      AhoCorasickScanner scanner) {
+    this.scanner = scanner;
+    this.mainWords = Objects.requireNonNull(mainWords, "Main words must not be null!");
+    this.quantifiers = Objects.requireNonNull(quantifiers, "Quantifiers must not be null!");
+    this.stopWords = Objects.requireNonNull(stopWords, "Stop words must not be null!");
+    final List<String> words = new ArrayList<>();
+    stopWords.forEachWord(word -> words.add(new String(word)));
+    stopWordSet = CharArraySet.unmodifiableSet(new CharArraySet(words, false));
+    base = null;
+    overlay = null;
+  }
+
+  /**
+   * 创建叠加在基础快照之上的快照。量词词典、停止词典和多模式扫描器与基础快照共享。
+   *
+   * @param base 基础快照
+   * @param overlay 叠加层
+   */
+  DictionarySnapshot(DictionarySnapshot base, WordTrie overlay) {
+    this.base = Objects.requireNonNull(base, "Base snapshot must not be null!");
+    Objects.requireNonNull(overlay, "Overlay must not be null!");
+    this.overlay = base.overlay == null ? overlay : LayeredTrie.overlay(base.overlay, overlay);
+    mainWords = LayeredTrie.overlay(base.mainWords, overlay);
+    quantifiers = base.quantifiers;
+    stopWords = base.stopWords;
+    stopWordSet = base.stopWordSet;
+  }
+
+  /**
+   * 检索匹配主词典。
+   *
+   * @param charArray 字符序列
+   * @param begin 要匹配的字符在序列中的位置
+   * @param length 要匹配的字符的长度
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 3:47:30 PM
+   */
+  public Hit matchInMainDict(char[] charArray, int begin, int length) {
+    return mainWords.match(charArray, begin, length);
+  }
+
+  /**
+   * 从已匹配的命中信息所记录的词典树位置继续向下匹配。
+   *
+   * @param charArray 字符序列
+   * @param currentIndex 要匹配的字符在序列中的位置
+   * @param matchedHit 已匹配的命中信息（必须是词前缀）
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 3:48:02 PM
+   */
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    final WordTrie trie = matchedHit.getTrie();
+    Objects.requireNonNull(trie, "Matched hit is not a prefix!");
+    return trie.matchWithHit(charArray, currentIndex, matchedHit);
+  }
+
+  /**
+   * 检索匹配量词词典。
+   *
+   * @param charArray 字符序列
+   * @param begin 要匹配的字符在序列中的位置
+   * @param length 要匹配的字符的长度
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 3:48:41 PM
+   */
+  public Hit matchInQuantifierDict(char[] charArray, int begin, int length) {
+    return quantifiers.match(charArray, begin, length);
+  }
+
+  /**
+   * 判断是否是停止词。
+   *
+   * @param charArray 字符序列
+   * @param begin 词在序列中的位置
+   * @param length 词的长度
+   * @return 是否是停止词
+   * @author hankai
+   * @since Oct 18, 2026 3:49:15 PM
+   */
+  public boolean isStopWord(char[] charArray, int begin, int length) {
+    return stopWordSet.contains(charArray, begin, length);
+  }
+
+  /**
+   * 列出主词典中以指定前缀开头的词（包括前缀本身），用于输入提示。
+   *
+   * <p>
+   * 未指定权重时，在词典树中按词长由短到长遍历，取得足够的词后即停止，词长相同的词按其在词典树中的顺序选取；
+   * 指定权重（如 {@link HitSampler} 统计的命中次数）时，在访问的节点数上限内遍历以前缀开头的词，
+   * 按权重由高到低排序，权重相同时短词在前。
+   * </p>
+   *
+   * @param prefix 前缀
+   * @param count 最多返回的词数
+   * @param weight 词的权重（为 null 时按词长排序）
+   * @param maxNodes 每层词典树最多访问的节点数，用于限制每次调用的开销
+   * @return 排序后的词
+   * @author hankai
+   * @since Oct 18, 2026 10:14:20 PM
+   */
+  public List<String> suggest(String prefix, int count, ToLongFunction<String> weight,
+      int maxNodes) {
+    Objects.requireNonNull(prefix, "Prefix must not be null!");
+    if (prefix.isEmpty() || (count <= 0)) {
+      return Collections.emptyList();
+    }
+    final List<String> selected = new ArrayList<>(count + 1);
+    final Set<String> seen = new HashSet<>();
+    if (weight == null) {
+      mainWords.visitCompletions(prefix.toCharArray(), maxNodes, word -> {
+        if ((selected.size() >= count) && (word.length >= selected.get(count - 1).length())) {
+          // 当前词典树中之后的词都不会更短
+          return false;
+        }
+        final String text = new String(word);
+        if (seen.add(text)) {
+          // 插入到词长不超过它的词之后，保持按词长排序
+          int index = selected.size();
+          while ((index > 0) && (selected.get(index - 1).length() > text.length())) {
+            index--;
+          }
+          selected.add(index, text);
+          if (selected.size() > count) {
+            selected.remove(count);
+          }
+        }
+        return true;
+      });
+      return selected;
+    }
+    final Comparator<String> order = Comparator.comparingLong(weight).reversed()
+        .thenComparingInt(String::length);
+    // 队首为已选出的词中排序最靠后的
+    final PriorityQueue<String> best = new PriorityQueue<>(count + 1, order.reversed());
+    mainWords.visitCompletions(prefix.toCharArray(), maxNodes, word -> {
+      final String text = new String(word);
+      if (seen.add(text)) {
+        best.add(text);
+        if (best.size() > count) {
+          best.poll();
+        }
+      }
+      return true;
+    });
+    selected.addAll(best);
+    selected.sort(order);
+    return selected;
+  }
+
+  /**
+   * 查找主词典中与指定字符序列编辑距离最小的若干个词，用于纠正查询中的错别字。
+   * 编辑距离相同时，与原字符序列等长的词（只有替换）在前，其次按权重由高到低排列，其余按在词典树中被找到的顺序排列。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限
+   * @param count 最多返回的词数
+   * @param weight 词的权重（可为 null）
+   * @param maxNodes 每层词典树最多访问的节点数，用于限制每次调用的开销
+   * @return 按编辑距离由小到大排序的词（包括与原字符序列相同的词）
+   * @author hankai
+   * @since Oct 18, 2026 10:21:40 PM
+   */
+  public List<String> findSimilar(String word, int maxEdits, int count,
+      ToLongFunction<String> weight, int maxNodes) {
+    Objects.requireNonNull(word, "Word must not be null!");
+    if (word.isEmpty() || (count <= 0)) {
+      return Collections.emptyList();
+    }
+    final Map<String, Integer> distances = new LinkedHashMap<>();
+    mainWords.visitSimilar(word.toCharArray(), maxEdits, maxNodes,
+        (similar, distance) -> distances.putIfAbsent(new String(similar), distance));
+    final List<String> similarWords = new ArrayList<>(distances.keySet());
+    Comparator<String> order = Comparator.<String>comparingInt(distances::get)
+        .thenComparing(similar -> similar.length() != word.length());
+    if (weight != null) {
+      order = order.thenComparing(Comparator.comparingLong(weight).reversed());
+    }
+    similarWords.sort(order);
+    return similarWords.size() > count ? similarWords.subList(0, count) : similarWords;
+  }
+
+  /**
+   * 获取主词典的多模式扫描器。叠加词库的扫描器只包含基础词典中的词，叠加层中的词须另外匹配（见 {@link #getOverlay()}）。
+   *
+   * @return 扫描器（基础词典不是双数组词典树时返回 null，此时应在主词典中逐个前缀匹配）
+   * @author hankai
+   * @since Oct 18, 2026 3:50:06 PM
+   */
+  public AhoCorasickScanner getScanner() {
+    if (base != null) {
+      return base.getScanner();
+    }
+    AhoCorasickScanner current = scanner;
+    if ((current == null) && (mainWords instanceof DoubleArrayTrie)) {
+      synchronized (this) {
+        current = scanner;
+        if (current == null) {
+          // 快照中的词典树不会被修改，无需复制
+          current = AhoCorasickScanner.build((DoubleArrayTrie) mainWords, false);
+          scanner = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * 获取主词典中的词的规范字符串。同一个词每次都返回同一个字符串对象（由词在词典树中所在的节点持有），
+   * 分词结果中的常用词无需每次创建新的字符串。叠加词库返回基础词典中的词的字符串。
+   *
+   * @param charArray 字符序列
+   * @param begin 词在序列中的起始位置
+   * @param length 词的长度
+   * @return 词的字符串（词不在基础词典中，或基础词典不是双数组词典树时返回 null，此时应自行创建字符串）
+   * @author hankai
+   * @since Oct 18, 2026 11:01:05 PM
+   */
+  public String getCanonicalWord(char[] charArray, int begin, int length) {
+    if (base != null) {
+      return base.getCanonicalWord(charArray, begin, length);
+    }
+    CanonicalWords current = canonicalWords;
+    if ((current == null) && (mainWords instanceof DoubleArrayTrie)) {
+      synchronized (this) {
+        current = canonicalWords;
+        if (current == null) {
+          current = new CanonicalWords((DoubleArrayTrie) mainWords);
+          canonicalWords = current;
+        }
+      }
+    }
+    return current == null ? null : current.get(charArray, begin, length);
+  }
+
+  /**
+   * 获取叠加在基础词典之上的各层。
+   *
+   * @return 叠加层（不是叠加词库时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 8:56:20 PM
+   */
+  public WordTrie getOverlay() {
+    return overlay;
+  }
+
+  /**
+   * 获取快照占用的内存，包括主词典、量词词典、停止词典、已构建的多模式扫描器及已创建的规范字符串。
+   * 叠加词库的快照只计入其自身的叠加层，与基础快照共享的部分由基础快照计入。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED;
+    for (final Accountable resource : getChildResources()) {
+      bytes += resource.ramBytesUsed();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(6);
+    if (base != null) {
+      final LayeredTrie layers = (LayeredTrie) mainWords;
+      resources.add(Accountables.namedAccountable("overlay",
+          layers.getLayer(layers.getLayerCount() - 1)));
+      return resources;
+    }
+    resources.add(Accountables.namedAccountable("main words", mainWords));
+    resources.add(Accountables.namedAccountable("quantifiers", quantifiers));
+    resources.add(Accountables.namedAccountable("stop words", stopWords));
+    resources.add(Accountables.namedAccountable("stop word set",
+        RamUsageUtil.sizeOf(stopWordSet)));
+    final AhoCorasickScanner current = scanner;
+    if (current != null) {
+      resources.add(Accountables.namedAccountable("scanner", current));
+    }
+    final CanonicalWords words = canonicalWords;
+    if (words != null) {
+      resources.add(Accountables.namedAccountable("canonical words", words));
+    }
+    return resources;
+  }
+
+  /**
+   * 统计主词典、量词词典和停止词典的节点数、词数、平均扇出及占用的内存（需遍历整个词典，不应在分词过程中调用）。
+   * 叠加词库的主词典统计包括基础词典。
+   *
+   * @return 各词典的统计信息
+   * @author hankai
+   * @since Oct 18, 2026 9:22:10 PM
+   */
+  public Map<String, TrieStats> getStats() {
+    final Map<String, TrieStats> stats = new LinkedHashMap<>();
+    stats.put("main words", mainWords.getStats());
+    stats.put("quantifiers", quantifiers.getStats());
+    stats.put("stop words", stopWords.getStats());
+    return stats;
+  }
+
+  /**
+   * 获取 base 字段的值。
+   *
+   * @return base 字段值
+   */
+  DictionarySnapshot getBase() {
+    return base;
+  }
+
+  /**
+   * 获取主词典（叠加词库为基础词典与叠加层组合后的词典树），分词时用于逐字匹配。
+   *
+   * @return 主词典
+   */
+  public WordTrie getMainWords() {
+    return mainWords;
+  }
+
+  /**
+   * 获取量词词典，分词时用于逐字匹配。
+   *
+   * @return 量词词典
+   */
+  public WordTrie getQuantifiers() {
+    return quantifiers;
+  }
+
+  /**
+   * 获取 stopWords 字段的值。
+   *
+   * @return stopWords 字段值
+   */
+  WordTrie getStopWords() {
+    return stopWords;
+  }
+
+}
@@ -4,6 +4,10 @@ package ren.hankai.cnanalyzer.core;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.lucene.util.RamUsageEstimator;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -16,39 +20,57 @@ import java.util.List;
  * @version 1.0.0
  * @since Jan 14, 2017 2:18:22 PM
  */
-public class DictionaryTokenizer extends Tokenizer {
+public class DictionaryTokenizer extends Tokenizer implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(DictionaryTokenizer.class);
 
   private final CharTermAttribute termAttribute;
   private final OffsetAttribute offsetAttribute;
   private int endOffset;
   private final Segmentator segmentator;
-  private final List<String> words = new ArrayList<>(); // 缓存分词结果
+  private final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL); // 重用的词元对象
+  // 缓存分词结果：各词的字符依次存放，wordEnds 记录每个词的结束位置，获取时才创建字符串
+  private final CharsRefBuilder wordChars = new CharsRefBuilder();
+  private int[] wordEnds = new int[16];
+  private int wordCount;
 
   public DictionaryTokenizer() {
     this(false);
   }
 
   public DictionaryTokenizer(boolean matchLongerTextOnly) {
+    this(matchLongerTextOnly, Dictionary.getDefault());
+  }
+
+  public DictionaryTokenizer(boolean matchLongerTextOnly, Dictionary dictionary) {
     termAttribute = addAttribute(CharTermAttribute.class);
     offsetAttribute = addAttribute(OffsetAttribute.class);
-    segmentator = new Segmentator(input, matchLongerTextOnly);
+    segmentator = new Segmentator(input, matchLongerTextOnly, dictionary);
   }
 
   @Override
   public final boolean incrementToken() throws IOException {
     clearAttributes();
-    final Lexeme lexeme = segmentator.next();
-    if (lexeme != null) {
-      termAttribute.append(lexeme.getText());
-      termAttribute.setLength(lexeme.getLength());
+    if (segmentator.next(lexeme)) {
+      // 直接从分词器缓冲区复制字符，不创建字符串
+      termAttribute.copyBuffer(lexeme.getSource(), lexeme.getBegin(), lexeme.getLength());
       offsetAttribute.setOffset(lexeme.getBeginPosition(), lexeme.getEndPosition());
       endOffset = lexeme.getEndPosition();
-      words.add(termAttribute.toString());
+      addWord(termAttribute.buffer(), termAttribute.length());
       return true;
     }
     return false;
   }
 
+  private void addWord(char[] chars, int length) {
+    wordChars.append(chars, 0, length);
+    if (wordCount == wordEnds.length) {
+      wordEnds = ArrayUtil.grow(wordEnds, wordCount + 1);
+    }
+    wordEnds[wordCount++] = wordChars.length();
+  }
+
   @Override
   public void reset() throws IOException {
     /*
@@ -67,6 +89,17 @@ public class DictionaryTokenizer extends Tokenizer {
     offsetAttribute.setOffset(endOffset, endOffset);
   }
 
+  /**
+   * 估算分词组件占用的内存，包括分词器及缓存的分词结果（词典由词库计入）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + segmentator.ramBytesUsed()
+        + RamUsageEstimator.sizeOf(wordChars.chars()) + RamUsageEstimator.sizeOf(wordEnds);
+  }
+
   public String getStringComponent() {
     return termAttribute.toString();
   }
@@ -81,12 +114,19 @@ public class DictionaryTokenizer extends Tokenizer {
   }
 
   /**
-   * 获取 words 字段的值。
+   * 获取缓存的分词结果。
    *
-   * @return words 字段值
+   * @return 各词的字符串（每次调用都创建新的列表及字符串）
    */
   public List<String> getWords() {
-    return new ArrayList<>(words);
+    final List<String> words = new ArrayList<>(wordCount);
+    final char[] chars = wordChars.chars();
+    int begin = 0;
+    for (int i = 0; i < wordCount; i++) {
+      words.add(new String(chars, begin, wordEnds[i] - begin));
+      begin = wordEnds[i];
+    }
+    return words;
   }
 
 }
@@ -0,0 +1,1359 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 双数组词典树（Double-Array Trie）。将词典树节点压缩存储在 base 和 check 两个整型数组中，节点 s 经字符编码 c
+ * 转移到的子节点为 t = base[s] + c，当且仅当 check[t] == s + 1 时转移有效。匹配时无需装箱字符、计算散列值或追踪对象引用，
+ * 且内存占用远小于以 {@link WordSegment} 组织的对象树。{@link WordSegment} 仅作为载入词典时的构建结构。
+ *
+ * <p>
+ * 字符在写入双数组前会按其在词典中出现的频次重新编码（频次越高编码越小），使兄弟节点在数组中分布紧凑，从而加快构建并减少空位。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:30:24 AM
+ */
+public class DoubleArrayTrie implements WordTrie {
+
+  static final int ROOT = 0; // 根节点索引
+  private static final int WORD_FLAG = 0x80000000; // 标记从根节点到当前节点的字符序列是一个完整的词
+  private static final int STOP_FLAG = 0x40000000; // 标记该词同时是停止词
+  private static final int TIER_FLAG = 0x20000000; // 标记有存储在下一层（见 TieredTrie）中的词经过该节点
+  private static final int OFFSET_MASK = 0x1FFFFFFF; // base 的低29位存储子节点偏移量（0表示没有子节点）
+  private static final int FLAG_MASK = ~OFFSET_MASK; // base 的高3位存储节点标记
+  private static final int ALPHABET_SIZE = Character.MAX_VALUE + 1;
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(DoubleArrayTrie.class);
+
+  /*
+   * 字符编码表与双数组既可以位于堆内存中，也可以是内存映射文件的只读视图（见 DictionaryImage）。
+   * 对只读视图进行修改前，会先将其复制到堆内存中。
+   */
+  // 字符编码表（0 表示字符未出现在词典中）
+  private CharBuffer charCodes;
+  // 已分配的字符编码个数（含保留的编码 0）
+  private int alphabetSize = 1;
+  private IntBuffer base;
+  private IntBuffer check;
+  // 查找空闲位置的起点
+  private int nextCheckPos = 1;
+  // 按子节点个数（取以2为底的对数）分组记录的最近一次查找到的位置，子节点较多的节点从此处开始查找
+  private final int[] lastFound = new int[32];
+  // 构建期间用于跳过已占用位置的并查集（free[i] == i 表示位置 i 空闲），构建完毕后释放
+  private int[] free;
+  // 节点个数（不含根节点）
+  private int nodeCount;
+  // 字符编码到字符的反向映射，首次需要时构建，分配了新的字符编码后重建
+  private volatile char[] codeChars;
+  // 按父节点归集的子节点（压缩邻接表），首次遍历子节点时构建，添加或删除节点后重建
+  private volatile ChildIndex childIndex;
+
+  public DoubleArrayTrie() {
+    this(1024);
+  }
+
+  private DoubleArrayTrie(int capacity) {
+    charCodes = CharBuffer.allocate(ALPHABET_SIZE);
+    base = IntBuffer.allocate(capacity);
+    check = IntBuffer.allocate(capacity);
+  }
+
+  private DoubleArrayTrie(CharBuffer charCodes, IntBuffer base, IntBuffer check) {
+    this.charCodes = charCodes;
+    this.base = base;
+    this.check = check;
+  }
+
+  /**
+   * 将词典树编译为双数组词典树。
+   *
+   * @param root 词典树根节点
+   * @return 双数组词典树
+   * @author hankai
+   * @since Oct 18, 2026 9:34:10 AM
+   */
+  public static DoubleArrayTrie build(WordSegment root) {
+    Objects.requireNonNull(root, "Root segment must not be null!");
+    final int[] frequencies = new int[ALPHABET_SIZE];
+    countCharacters(root, frequencies);
+    final DoubleArrayTrie trie = new DoubleArrayTrie(1024);
+    trie.assignCodes(frequencies);
+    trie.free = new int[trie.check.limit()];
+    for (int i = 0; i < trie.free.length; i++) {
+      trie.free[i] = i;
+    }
+    if (root.hasChildren()) {
+      trie.insertLevels(root);
+    }
+    trie.free = null;
+    trie.trim();
+    return trie;
+  }
+
+  /**
+   * 将词条直接编译为双数组词典树，无需先构建 {@link WordSegment} 对象树。词条排序后，同一节点之下的词在数组中相邻，
+   * 为节点分配子节点时只需扫描其对应的区间；得到的双数组与先构建对象树再编译的结果相同。重复的词条会被合并。
+   *
+   * @param words 词条（不会被修改）
+   * @return 双数组词典树
+   * @author hankai
+   * @since Oct 18, 2026 11:24:40 PM
+   */
+  public static DoubleArrayTrie build(Collection<char[]> words) {
+    Objects.requireNonNull(words, "Words must not be null!");
+    final char[][] sorted = words.toArray(new char[words.size()][]);
+    Arrays.sort(sorted, DoubleArrayTrie::compare);
+    // 每个词在与前一个词的公共前缀之后的字符各对应一个新节点
+    final int[] frequencies = new int[ALPHABET_SIZE];
+    int nodes = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      final char[] word = sorted[i];
+      for (int j = i == 0 ? 0 : commonPrefix(sorted[i - 1], word); j < word.length; j++) {
+        frequencies[word[j]]++;
+        nodes++;
+      }
+    }
+    final DoubleArrayTrie trie = new DoubleArrayTrie(Math.max(1024, nodes + (nodes >> 1)));
+    trie.assignCodes(frequencies);
+    trie.free = new int[trie.check.limit()];
+    for (int i = 0; i < trie.free.length; i++) {
+      trie.free[i] = i;
+    }
+    final Range root = trie.childRange(sorted, 0, sorted.length, 0, ROOT);
+    if (root != null) {
+      trie.insertLevels(sorted, root);
+    }
+    trie.free = null;
+    trie.trim();
+    return trie;
+  }
+
+  /**
+   * 按字符逐个比较两个字符序列（较短的序列是较长序列的前缀时排在前面）。
+   *
+   * @param one 字符序列
+   * @param another 另一个字符序列
+   * @return 比较结果
+   */
+  private static int compare(char[] one, char[] another) {
+    final int length = Math.min(one.length, another.length);
+    for (int i = 0; i < length; i++) {
+      if (one[i] != another[i]) {
+        return one[i] - another[i];
+      }
+    }
+    return one.length - another.length;
+  }
+
+  /**
+   * 获取两个字符序列的公共前缀的长度。
+   *
+   * @param one 字符序列
+   * @param another 另一个字符序列
+   * @return 公共前缀的长度
+   */
+  private static int commonPrefix(char[] one, char[] another) {
+    final int length = Math.min(one.length, another.length);
+    int i = 0;
+    while ((i < length) && (one[i] == another[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * 统计词典树中各字符出现的节点数。
+   *
+   * @param segment 词典树节点
+   * @param frequencies 字符频次表
+   * @author hankai
+   * @since Oct 18, 2026 9:35:02 AM
+   */
+  private static void countCharacters(WordSegment segment, int[] frequencies) {
+    for (final WordSegment child : segment.getSortedChildren()) {
+      frequencies[child.getCharacter()]++;
+      countCharacters(child, frequencies);
+    }
+  }
+
+  /**
+   * 按频次从高到低为字符分配编码。
+   *
+   * @param frequencies 字符频次表
+   * @author hankai
+   * @since Oct 18, 2026 9:35:47 AM
+   */
+  private void assignCodes(int[] frequencies) {
+    final List<Character> characters = new ArrayList<>();
+    for (int ch = 0; ch < frequencies.length; ch++) {
+      if (frequencies[ch] > 0) {
+        characters.add((char) ch);
+      }
+    }
+    characters.sort((one, another) -> frequencies[another] - frequencies[one]);
+    for (final Character ch : characters) {
+      codeOf(ch);
+    }
+  }
+
+  /**
+   * 按层将词典树节点写入双数组。同一层中子节点越多的节点越先分配位置，以便在数组尚且稀疏时为其找到空闲位置。
+   *
+   * @param root 词典树根节点
+   * @author hankai
+   * @since Oct 18, 2026 9:36:42 AM
+   */
+  private void insertLevels(WordSegment root) {
+    List<Node> level = new ArrayList<>();
+    level.add(new Node(root.getSortedChildren(), ROOT));
+    while (!level.isEmpty()) {
+      level.sort((one, another) -> another.children.length - one.children.length);
+      final List<Node> nextLevel = new ArrayList<>();
+      for (final Node node : level) {
+        final WordSegment[] children = node.children;
+        final int[] codes = new int[children.length];
+        for (int i = 0; i < children.length; i++) {
+          codes[i] = charCodes.get(children[i].getCharacter());
+        }
+        Arrays.sort(codes);
+        final int offset = findBase(codes, codes.length);
+        base.put(node.state, (base.get(node.state) & FLAG_MASK) | offset);
+        for (final WordSegment segment : children) {
+          final int child = offset + charCodes.get(segment.getCharacter());
+          check.put(child, node.state + 1);
+          free[child] = child + 1;
+          if (segment.isCompleteWord()) {
+            base.put(child, base.get(child) | WORD_FLAG);
+          }
+          nodeCount++;
+          final WordSegment[] grandChildren = segment.getSortedChildren();
+          if (grandChildren.length > 0) {
+            nextLevel.add(new Node(grandChildren, child));
+          }
+        }
+      }
+      level = nextLevel;
+    }
+  }
+
+  /**
+   * 按层将已排序的词条写入双数组，节点的分配顺序与 {@link #insertLevels(WordSegment)} 相同。
+   *
+   * @param words 已排序的词条
+   * @param root 根节点之下的子节点
+   * @author hankai
+   * @since Oct 18, 2026 11:25:30 PM
+   */
+  private void insertLevels(char[][] words, Range root) {
+    List<Range> level = new ArrayList<>();
+    level.add(root);
+    while (!level.isEmpty()) {
+      level.sort((one, another) -> another.codes.length - one.codes.length);
+      final List<Range> nextLevel = new ArrayList<>();
+      for (final Range range : level) {
+        final int[] codes = range.codes.clone();
+        Arrays.sort(codes);
+        final int offset = findBase(codes, codes.length);
+        base.put(range.state, (base.get(range.state) & FLAG_MASK) | offset);
+        for (int i = 0; i < range.codes.length; i++) {
+          final int child = offset + range.codes[i];
+          check.put(child, range.state + 1);
+          free[child] = child + 1;
+          final int begin = range.bounds[i];
+          if (words[begin].length == (range.depth + 1)) {
+            base.put(child, base.get(child) | WORD_FLAG);
+          }
+          nodeCount++;
+          final Range childRange =
+              childRange(words, begin, range.bounds[i + 1], range.depth + 1, child);
+          if (childRange != null) {
+            nextLevel.add(childRange);
+          }
+        }
+      }
+      level = nextLevel;
+    }
+  }
+
+  /**
+   * 按已排序词条区间中各词在指定位置上的字符划分子节点。
+   *
+   * @param words 已排序的词条
+   * @param begin 区间起点
+   * @param end 区间终点（不含）
+   * @param depth 子节点对应的字符在词中的位置
+   * @param state 节点索引
+   * @return 子节点的区间（节点没有子节点时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 11:26:05 PM
+   */
+  private Range childRange(char[][] words, int begin, int end, int depth, int state) {
+    int first = begin;
+    // 长度等于 depth 的词即节点本身，排在区间的最前面
+    while ((first < end) && (words[first].length == depth)) {
+      first++;
+    }
+    if (first == end) {
+      return null;
+    }
+    int count = 1;
+    for (int i = first + 1; i < end; i++) {
+      if (words[i][depth] != words[i - 1][depth]) {
+        count++;
+      }
+    }
+    final int[] codes = new int[count];
+    final int[] bounds = new int[count + 1];
+    int child = 0;
+    for (int i = first; i < end; i++) {
+      if ((i == first) || (words[i][depth] != words[i - 1][depth])) {
+        codes[child] = charCodes.get(words[i][depth]);
+        bounds[child++] = i;
+      }
+    }
+    bounds[count] = end;
+    return new Range(codes, bounds, depth, state);
+  }
+
+  @Override
+  public Hit match(char[] charArray, int begin, int length) {
+    final Hit hit = new Hit();
+    hit.setBegin(begin);
+    hit.setEnd(begin);
+    final int count = length > 1 ? length : 1;
+    int state = ROOT;
+    for (int i = 0; i < count; i++) {
+      hit.setEnd(begin + i);
+      state = child(state, charArray[begin + i]);
+      if (state < 0) {
+        return hit;
+      }
+    }
+    return fillHit(hit, state);
+  }
+
+  @Override
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    final int state = child(matchedHit.getState(), charArray[currentIndex]);
+    matchedHit.setUnmatch();
+    matchedHit.setEnd(currentIndex);
+    if (state >= 0) {
+      fillHit(matchedHit, state);
+    }
+    return matchedHit;
+  }
+
+  // 游标即节点索引，根节点的索引与 CURSOR_ROOT 相同
+  @Override
+  public boolean isCursorSupported() {
+    return true;
+  }
+
+  @Override
+  public long next(long state, char ch) {
+    return child((int) state, ch);
+  }
+
+  @Override
+  public boolean isWord(long state) {
+    return isWord((int) state);
+  }
+
+  @Override
+  public boolean isPrefix(long state) {
+    return hasChildren((int) state);
+  }
+
+  /**
+   * 将词添加到词典树（运行时添加，必要时会将冲突节点的子节点迁移到新的位置）。
+   *
+   * @param charArray 词对应的字符序列
+   * @author hankai
+   * @since Oct 18, 2026 9:41:18 AM
+   */
+  @Override
+  public void add(char[] charArray) {
+    add(charArray, 0, charArray.length);
+  }
+
+  /**
+   * 将词添加到词典树。
+   *
+   * @param charArray 词对应的字符序列
+   * @param begin 从字符序列的第几个字符开始（值 >= 0）
+   * @param length 要添加几个字符
+   * @author hankai
+   * @since Oct 18, 2026 9:41:55 AM
+   */
+  public synchronized void add(char[] charArray, int begin, int length) {
+    if (length <= 0) {
+      return;
+    }
+    detach();
+    int state = ROOT;
+    for (int i = begin; i < (begin + length); i++) {
+      int next = child(state, charArray[i]);
+      if (next < 0) {
+        next = createChild(state, codeOf(charArray[i]));
+      }
+      state = next;
+    }
+    base.put(state, base.get(state) | WORD_FLAG);
+  }
+
+  /**
+   * 获取节点个数（不含根节点）。
+   *
+   * @return 节点个数
+   * @author hankai
+   * @since Oct 18, 2026 9:43:02 AM
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * 获取节点经字符转移到的子节点。
+   *
+   * @param state 节点索引
+   * @param ch 字符
+   * @return 子节点索引（-1 表示不存在）
+   * @author hankai
+   * @since Oct 18, 2026 9:44:27 AM
+   */
+  private int child(int state, char ch) {
+    return transition(state, charCodes.get(ch));
+  }
+
+  /**
+   * 获取节点经字符编码转移到的子节点。
+   *
+   * @param state 节点索引
+   * @param code 字符编码
+   * @return 子节点索引（-1 表示不存在）
+   * @author hankai
+   * @since Oct 18, 2026 2:40:16 PM
+   */
+  int transition(int state, int code) {
+    final int offset = base.get(state) & OFFSET_MASK;
+    if ((code == 0) || (offset == 0)) {
+      return -1;
+    }
+    final int next = offset + code;
+    if ((next < check.limit()) && (check.get(next) == (state + 1))) {
+      return next;
+    }
+    return -1;
+  }
+
+  /**
+   * 获取字符的编码。
+   *
+   * @param ch 字符
+   * @return 字符编码（0 表示字符未出现在词典中）
+   * @author hankai
+   * @since Oct 18, 2026 2:41:03 PM
+   */
+  int getCode(char ch) {
+    return charCodes.get(ch);
+  }
+
+  /**
+   * 获取双数组的长度（节点索引均小于此值）。
+   *
+   * @return 数组长度
+   * @author hankai
+   * @since Oct 18, 2026 2:41:37 PM
+   */
+  int size() {
+    return check.limit();
+  }
+
+  /**
+   * 获取节点的父节点。
+   *
+   * @param state 节点索引
+   * @return 父节点索引（根节点或空闲位置返回 -1）
+   * @author hankai
+   * @since Oct 18, 2026 2:42:20 PM
+   */
+  int getParent(int state) {
+    return state == ROOT ? -1 : check.get(state) - 1;
+  }
+
+  /**
+   * 获取从父节点转移到节点所经的字符编码。
+   *
+   * @param state 节点索引（不能是根节点）
+   * @return 字符编码
+   * @author hankai
+   * @since Oct 18, 2026 2:43:05 PM
+   */
+  int getEdgeCode(int state) {
+    return state - (base.get(getParent(state)) & OFFSET_MASK);
+  }
+
+  /**
+   * 从根节点到节点的字符序列是否是一个完整的词。
+   *
+   * @param state 节点索引
+   * @return 是否是词
+   * @author hankai
+   * @since Oct 18, 2026 2:43:41 PM
+   */
+  public boolean isWord(int state) {
+    return (base.get(state) & WORD_FLAG) != 0;
+  }
+
+  /**
+   * 节点上的词是否被标记为停止词（见 {@link #markStopWord(char[])}）。
+   *
+   * @param state 节点索引
+   * @return 是否是停止词
+   * @author hankai
+   * @since Oct 18, 2026 6:08:12 PM
+   */
+  boolean isStopWord(int state) {
+    return (base.get(state) & STOP_FLAG) != 0;
+  }
+
+  /**
+   * 查找词所在的节点。
+   *
+   * @param charArray 字符序列
+   * @param begin 词在序列中的起始位置
+   * @param length 词的长度
+   * @return 词所在的节点索引（-1 表示词不在词典树中）
+   * @author hankai
+   * @since Oct 18, 2026 10:26:20 PM
+   */
+  int getWordState(char[] charArray, int begin, int length) {
+    int state = ROOT;
+    for (int i = 0; (i < length) && (state >= 0); i++) {
+      state = child(state, charArray[begin + i]);
+    }
+    return (state > ROOT) && isWord(state) ? state : -1;
+  }
+
+  /**
+   * 若词在词典树中，将其标记为停止词，使匹配到该词后无需再查找停止词典。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 词是否在词典树中
+   * @author hankai
+   * @since Oct 18, 2026 6:09:40 PM
+   */
+  synchronized boolean markStopWord(char[] charArray) {
+    final int state = getWordState(charArray, 0, charArray.length);
+    if (state < 0) {
+      return false;
+    }
+    detach();
+    base.put(state, base.get(state) | STOP_FLAG);
+    return true;
+  }
+
+  /**
+   * 沿词的字符序列从根节点向下，标记词在词典树中经过的所有节点（包括根节点），直到词典树中没有对应的子节点为止。
+   * 用于分层存储时指示哪些前缀需要查询下一层。
+   *
+   * @param charArray 存储在下一层中的词
+   * @author hankai
+   * @since Oct 18, 2026 9:56:20 PM
+   */
+  synchronized void markTierPath(char[] charArray) {
+    detach();
+    int state = ROOT;
+    for (int i = 0; state >= 0; i++) {
+      base.put(state, base.get(state) | TIER_FLAG);
+      state = i < charArray.length ? child(state, charArray[i]) : -1;
+    }
+  }
+
+  /**
+   * 是否有存储在下一层中的词经过节点（见 {@link #markTierPath(char[])}）。
+   *
+   * @param state 节点索引
+   * @return 是否需要查询下一层
+   * @author hankai
+   * @since Oct 18, 2026 9:56:52 PM
+   */
+  boolean isTierPath(int state) {
+    return (base.get(state) & TIER_FLAG) != 0;
+  }
+
+  /**
+   * 节点是否有子节点。
+   *
+   * @param state 节点索引
+   * @return 是否有子节点
+   * @author hankai
+   * @since Oct 18, 2026 2:44:12 PM
+   */
+  boolean hasChildren(int state) {
+    return (base.get(state) & OFFSET_MASK) != 0;
+  }
+
+  /**
+   * 复制词典树。只读的数据（内存映射文件的视图）直接共享，堆内存中的数据会被复制。
+   *
+   * @return 词典树副本
+   * @author hankai
+   * @since Oct 18, 2026 2:45:30 PM
+   */
+  @Override
+  public synchronized DoubleArrayTrie copy() {
+    final DoubleArrayTrie trie;
+    if (check.isReadOnly() && base.isReadOnly() && charCodes.isReadOnly()) {
+      trie = new DoubleArrayTrie(charCodes, base, check);
+    } else {
+      final CharBuffer codes = CharBuffer.allocate(ALPHABET_SIZE);
+      codes.put(charCodes.duplicate()).clear();
+      trie = new DoubleArrayTrie(codes, copyOf(base, base.limit()), copyOf(check, check.limit()));
+    }
+    trie.alphabetSize = alphabetSize;
+    trie.nodeCount = nodeCount;
+    trie.nextCheckPos = nextCheckPos;
+    return trie;
+  }
+
+  @Override
+  public void forEachWord(Consumer<char[]> action) {
+    Objects.requireNonNull(action, "Action must not be null!");
+    visitWords((word, state) -> action.accept(word));
+  }
+
+  /**
+   * 遍历词典树中的所有词及其所在的节点。
+   *
+   * @param visitor 对每个词及其节点索引执行的操作
+   * @author hankai
+   * @since Oct 18, 2026 6:50:12 PM
+   */
+  private synchronized void visitWords(ObjIntConsumer<char[]> visitor) {
+    final char[] characters = getCodeChars();
+    final StringBuilder word = new StringBuilder();
+    final int size = size();
+    for (int state = 1; state < size; state++) {
+      if ((getParent(state) >= 0) && isWord(state)) {
+        // 沿父节点回溯到根节点，得到逆序的字符序列
+        word.setLength(0);
+        for (int node = state; node != ROOT; node = getParent(node)) {
+          word.append(characters[getEdgeCode(node)]);
+        }
+        visitor.accept(word.reverse().toString().toCharArray(), state);
+      }
+    }
+  }
+
+  @Override
+  public void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor) {
+    Objects.requireNonNull(prefix, "Prefix must not be null!");
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    int state = ROOT;
+    for (int i = 0; (i < prefix.length) && (state >= 0); i++) {
+      state = child(state, prefix[i]);
+    }
+    if (state < 0) {
+      return;
+    }
+    final char[] characters = getCodeChars();
+    final ChildIndex index = getChildIndex();
+    // 按层遍历的节点队列，最多容纳 maxNodes 个节点，之后入队的节点不会被访问
+    int[] queue = new int[Math.max(Math.min(maxNodes, 64), 1)];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = state;
+    while ((head < tail) && (head < maxNodes)) {
+      final int current = queue[head++];
+      if ((current != ROOT) && isWord(current)
+          && !visitor.test(completion(prefix, state, current, characters))) {
+        return;
+      }
+      final int end = index.start[current + 1];
+      for (int i = index.start[current]; (i < end) && (tail < maxNodes); i++) {
+        if (tail == queue.length) {
+          queue = Arrays.copyOf(queue, Math.min(tail * 2, maxNodes));
+        }
+        queue[tail++] = index.states[i];
+      }
+    }
+  }
+
+  /**
+   * 由前缀及前缀所在节点之下的节点还原出词。
+   *
+   * @param prefix 前缀
+   * @param from 前缀所在的节点
+   * @param state 词所在的节点
+   * @param characters 字符编码到字符的反向映射
+   * @return 词
+   * @author hankai
+   * @since Oct 18, 2026 11:31:10 PM
+   */
+  private char[] completion(char[] prefix, int from, int state, char[] characters) {
+    int length = prefix.length;
+    for (int current = state; current != from; current = getParent(current)) {
+      length++;
+    }
+    final char[] word = Arrays.copyOf(prefix, length);
+    for (int current = state; current != from; current = getParent(current)) {
+      word[--length] = characters[getEdgeCode(current)];
+    }
+    return word;
+  }
+
+  @Override
+  public void visitSimilar(char[] word, int maxEdits, int maxNodes,
+      ObjIntConsumer<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    visitSimilar(ROOT, 0, new FuzzySearch(word, maxEdits, maxNodes), getCodeChars(),
+        getChildIndex(), visitor);
+  }
+
+  private void visitSimilar(int state, int depth, FuzzySearch search, char[] characters,
+      ChildIndex index, ObjIntConsumer<char[]> visitor) {
+    if ((state != ROOT) && isWord(state)) {
+      search.report(depth, visitor);
+    }
+    final char[] candidates = search.getCandidates(depth);
+    for (final char ch : candidates) {
+      final int next = child(state, ch);
+      if ((next >= 0) && search.visit(depth, ch)) {
+        visitSimilar(next, depth + 1, search, characters, index, visitor);
+      }
+    }
+    if (search.needsAllChildren(depth)) {
+      final int end = index.start[state + 1];
+      for (int i = index.start[state]; i < end; i++) {
+        final int next = index.states[i];
+        final char ch = characters[getEdgeCode(next)];
+        if (!FuzzySearch.contains(candidates, candidates.length, ch)
+            && search.visit(depth, ch)) {
+          visitSimilar(next, depth + 1, search, characters, index, visitor);
+        }
+      }
+    }
+  }
+
+  /**
+   * 获取字符编码到字符的反向映射。
+   *
+   * @return 以字符编码为下标的字符数组
+   * @author hankai
+   * @since Oct 18, 2026 10:12:40 PM
+   */
+  private char[] getCodeChars() {
+    char[] characters = codeChars;
+    if ((characters == null) || (characters.length != alphabetSize)) {
+      characters = new char[alphabetSize];
+      for (int ch = 0; ch < ALPHABET_SIZE; ch++) {
+        final int code = charCodes.get(ch);
+        if (code != 0) {
+          characters[code] = (char) ch;
+        }
+      }
+      codeChars = characters;
+    }
+    return characters;
+  }
+
+  /**
+   * 获取按父节点归集的子节点。遍历子节点时无需扫描双数组中可能存放子节点的所有位置，展开一个节点的开销只与其子节点数有关。
+   *
+   * @return 子节点索引
+   * @author hankai
+   * @since Oct 18, 2026 11:31:50 PM
+   */
+  private ChildIndex getChildIndex() {
+    ChildIndex index = childIndex;
+    if (index == null) {
+      final int size = size();
+      final int[] start = new int[size + 1];
+      for (int state = 1; state < size; state++) {
+        final int parent = getParent(state);
+        if (parent >= 0) {
+          start[parent + 1]++;
+        }
+      }
+      for (int i = 0; i < size; i++) {
+        start[i + 1] += start[i];
+      }
+      // 以 start[parent] 为游标依次填入子节点（节点索引递增，即按字符编码排序），填完后游标恰好移到下一个节点的起点
+      final int[] states = new int[start[size]];
+      for (int state = 1; state < size; state++) {
+        final int parent = getParent(state);
+        if (parent >= 0) {
+          states[start[parent]++] = state;
+        }
+      }
+      System.arraycopy(start, 0, start, 1, size);
+      start[0] = 0;
+      index = new ChildIndex(start, states);
+      childIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * 获取词典树占用的堆内存。内存映射的词典映像中的数组不在堆中，不计入。
+   *
+   * @return 字节数
+   */
+  @Override
+  public synchronized long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(lastFound);
+    bytes += heapBytes(charCodes) + heapBytes(base) + heapBytes(check);
+    if (free != null) {
+      bytes += RamUsageEstimator.sizeOf(free);
+    }
+    final char[] characters = codeChars;
+    if (characters != null) {
+      bytes += RamUsageEstimator.sizeOf(characters);
+    }
+    final ChildIndex index = childIndex;
+    if (index != null) {
+      bytes += index.ramBytesUsed();
+    }
+    return bytes;
+  }
+
+  @Override
+  public synchronized Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(3);
+    resources.add(Accountables.namedAccountable("char codes", heapBytes(charCodes)));
+    resources.add(Accountables.namedAccountable("base", heapBytes(base)));
+    resources.add(Accountables.namedAccountable("check", heapBytes(check)));
+    final ChildIndex index = childIndex;
+    if (index != null) {
+      resources.add(Accountables.namedAccountable("child index", index.ramBytesUsed()));
+    }
+    return resources;
+  }
+
+  @Override
+  public synchronized TrieStats getStats() {
+    long branchCount = hasChildren(ROOT) ? 1 : 0;
+    long wordCount = 0;
+    final int size = size();
+    for (int state = 1; state < size; state++) {
+      if (getParent(state) >= 0) {
+        if (hasChildren(state)) {
+          branchCount++;
+        }
+        if (isWord(state)) {
+          wordCount++;
+        }
+      }
+    }
+    return new TrieStats(nodeCount, nodeCount, branchCount, wordCount, ramBytesUsed());
+  }
+
+  /**
+   * 获取缓冲区在堆内存中占用的字节数。
+   *
+   * @param buffer 缓冲区
+   * @return 字节数（内存映射文件的视图返回 0）
+   * @author hankai
+   * @since Oct 18, 2026 9:17:32 PM
+   */
+  private static long heapBytes(CharBuffer buffer) {
+    return buffer.hasArray() ? RamUsageEstimator.sizeOf(buffer.array()) : 0;
+  }
+
+  /**
+   * 获取缓冲区在堆内存中占用的字节数。
+   *
+   * @param buffer 缓冲区
+   * @return 字节数（内存映射文件的视图返回 0）
+   * @author hankai
+   * @since Oct 18, 2026 9:17:58 PM
+   */
+  private static long heapBytes(IntBuffer buffer) {
+    return buffer.hasArray() ? RamUsageEstimator.sizeOf(buffer.array()) : 0;
+  }
+
+  /**
+   * 删除词，并自叶节点向上释放不再属于任何词的节点。释放的位置会被此后添加的节点重用；
+   * 删除较多时可通过 {@link #compact()} 重建以回收空间。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 词是否存在并被删除
+   * @author hankai
+   * @since Oct 18, 2026 6:52:30 PM
+   */
+  @Override
+  public synchronized boolean remove(char[] charArray) {
+    int state = ROOT;
+    for (int i = 0; (i < charArray.length) && (state >= 0); i++) {
+      state = child(state, charArray[i]);
+    }
+    if ((state <= ROOT) || !isWord(state)) {
+      return false;
+    }
+    detach();
+    childIndex = null;
+    base.put(state, base.get(state) & ~(WORD_FLAG | STOP_FLAG));
+    // base 为 0 表示节点既不是词也没有子节点
+    while ((state != ROOT) && (base.get(state) == 0)) {
+      final int parent = getParent(state);
+      check.put(state, 0);
+      nodeCount--;
+      if (state < nextCheckPos) {
+        nextCheckPos = state;
+      }
+      if (childCodes(parent).length == 0) {
+        base.put(parent, base.get(parent) & FLAG_MASK);
+      }
+      state = parent;
+    }
+    return true;
+  }
+
+  /**
+   * 双数组中空闲位置是否过多（超过节点数），即删除词条后值得通过 {@link #compact()} 重建。
+   *
+   * @return 是否过于稀疏
+   * @author hankai
+   * @since Oct 18, 2026 6:54:06 PM
+   */
+  synchronized boolean isSparse() {
+    return (size() - nodeCount) > Math.max(nodeCount, ALPHABET_SIZE);
+  }
+
+  /**
+   * 以当前的词重建紧凑的双数组词典树（保留停止词标记），回收删除词条后留下的空闲位置。
+   *
+   * @return 新的词典树
+   * @author hankai
+   * @since Oct 18, 2026 6:55:40 PM
+   */
+  synchronized DoubleArrayTrie compact() {
+    final WordSegment root = new WordSegment((char) 0);
+    final List<char[]> stopWords = new ArrayList<>();
+    visitWords((word, state) -> {
+      root.fillSegment(word);
+      if (isStopWord(state)) {
+        stopWords.add(word);
+      }
+    });
+    final DoubleArrayTrie trie = build(root);
+    for (final char[] word : stopWords) {
+      trie.markStopWord(word);
+    }
+    return trie;
+  }
+
+  /**
+   * 根据节点状态填充命中信息。
+   *
+   * @param hit 命中信息
+   * @param state 匹配到的节点索引
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 9:45:12 AM
+   */
+  private Hit fillHit(Hit hit, int state) {
+    final int value = base.get(state);
+    if ((value & WORD_FLAG) != 0) {
+      hit.setMatch();
+    }
+    if ((value & OFFSET_MASK) != 0) {
+      hit.setPrefix();
+      hit.setTrie(this);
+      hit.setState(state);
+    }
+    return hit;
+  }
+
+  /**
+   * 获取字符编码，字符尚未编码时为其分配新的编码。
+   *
+   * @param ch 字符
+   * @return 字符编码
+   * @author hankai
+   * @since Oct 18, 2026 9:46:20 AM
+   */
+  private int codeOf(char ch) {
+    if (charCodes.get(ch) == 0) {
+      if (alphabetSize == ALPHABET_SIZE) {
+        throw new IllegalStateException("Character code space exhausted.");
+      }
+      charCodes.put(ch, (char) alphabetSize++);
+    }
+    return charCodes.get(ch);
+  }
+
+  /**
+   * 为节点创建经字符编码转移的子节点。若目标位置已被其他节点占用，则迁移子节点较少的一方（根节点的子节点不迁移）。
+   *
+   * @param state 节点索引
+   * @param code 字符编码
+   * @return 子节点索引
+   * @author hankai
+   * @since Oct 18, 2026 9:47:33 AM
+   */
+  private int createChild(int state, int code) {
+    childIndex = null;
+    int offset = base.get(state) & OFFSET_MASK;
+    if (offset == 0) {
+      offset = findBase(new int[] {code}, 1);
+      base.put(state, base.get(state) | offset);
+    } else {
+      final int next = offset + code;
+      ensureCapacity(next + 1);
+      if (check.get(next) != 0) {
+        final int owner = check.get(next) - 1;
+        final int[] ownCodes = childCodes(state);
+        final int[] ownerCodes = childCodes(owner);
+        if ((state != ROOT) && ((owner == ROOT) || (ownCodes.length < ownerCodes.length))) {
+          final int[] codes = Arrays.copyOf(ownCodes, ownCodes.length + 1);
+          codes[ownCodes.length] = code;
+          Arrays.sort(codes);
+          relocate(state, ownCodes, findBase(codes, codes.length), -1);
+        } else {
+          // 当前节点可能是被迁移节点的子节点，迁移后需要使用其新的索引
+          state = relocate(owner, ownerCodes, findBase(ownerCodes, ownerCodes.length), state);
+        }
+        offset = base.get(state) & OFFSET_MASK;
+      }
+    }
+    final int next = offset + code;
+    check.put(next, state + 1);
+    nodeCount++;
+    return next;
+  }
+
+  /**
+   * 将节点的所有子节点迁移到新的偏移位置，并修正孙节点的 check 值。
+   *
+   * @param state 节点索引
+   * @param codes 子节点对应的字符编码（已排序）
+   * @param newOffset 新的偏移量
+   * @param tracked 需要追踪新位置的节点索引
+   * @return tracked 节点迁移后的索引（未迁移则原样返回）
+   * @author hankai
+   * @since Oct 18, 2026 9:52:08 AM
+   */
+  private int relocate(int state, int[] codes, int newOffset, int tracked) {
+    final int oldOffset = base.get(state) & OFFSET_MASK;
+    int moved = tracked;
+    for (final int code : codes) {
+      final int from = oldOffset + code;
+      final int to = newOffset + code;
+      base.put(to, base.get(from));
+      check.put(to, state + 1);
+      final int childOffset = base.get(from) & OFFSET_MASK;
+      if (childOffset != 0) {
+        final int end = Math.min(childOffset + alphabetSize, check.limit());
+        for (int grandChild = childOffset; grandChild < end; grandChild++) {
+          if (check.get(grandChild) == (from + 1)) {
+            check.put(grandChild, to + 1);
+          }
+        }
+      }
+      base.put(from, 0);
+      check.put(from, 0);
+      if (from < nextCheckPos) {
+        nextCheckPos = from;
+      }
+      if (from == tracked) {
+        moved = to;
+      }
+    }
+    base.put(state, (base.get(state) & FLAG_MASK) | newOffset);
+    return moved;
+  }
+
+  /**
+   * 获取节点所有子节点对应的字符编码。
+   *
+   * @param state 节点索引
+   * @return 字符编码数组（已排序）
+   * @author hankai
+   * @since Oct 18, 2026 9:55:40 AM
+   */
+  private int[] childCodes(int state) {
+    final int offset = base.get(state) & OFFSET_MASK;
+    if (offset == 0) {
+      return new int[0];
+    }
+    int[] codes = new int[8];
+    int count = 0;
+    final int end = Math.min(offset + alphabetSize, check.limit());
+    for (int next = offset + 1; next < end; next++) {
+      if (check.get(next) == (state + 1)) {
+        if (count == codes.length) {
+          codes = Arrays.copyOf(codes, count * 2);
+        }
+        codes[count++] = next - offset;
+      }
+    }
+    return Arrays.copyOf(codes, count);
+  }
+
+  /**
+   * 查找能容纳所有子节点的偏移量。
+   *
+   * @param codes 子节点对应的字符编码（已排序）
+   * @param count 字符编码个数
+   * @return 偏移量（>= 1）
+   * @author hankai
+   * @since Oct 18, 2026 9:58:21 AM
+   */
+  private int findBase(int[] codes, int count) {
+    final int first = codes[0];
+    final int last = codes[count - 1];
+    final int group = 31 - Integer.numberOfLeadingZeros(count);
+    int offset = nextFree(Math.max(nextCheckPos, first + 1)) - first;
+    nextCheckPos = offset + first;
+    if (lastFound[group] > offset) {
+      offset = nextFree(lastFound[group] + first) - first;
+    }
+    search: for (;;) {
+      ensureCapacity(offset + last + 1);
+      for (int i = 0; i < count; i++) {
+        final int slot = offset + codes[i];
+        if (check.get(slot) != 0) {
+          // 位置冲突时，直接跳到能让该字符落在空闲位置的偏移量
+          offset = nextFree(slot) - codes[i];
+          continue search;
+        }
+      }
+      lastFound[group] = offset;
+      return offset;
+    }
+  }
+
+  /**
+   * 查找不小于指定位置的首个空闲位置。
+   *
+   * @param pos 起始位置
+   * @return 空闲位置
+   * @author hankai
+   * @since Oct 18, 2026 10:00:05 AM
+   */
+  private int nextFree(int pos) {
+    ensureCapacity(pos + 1);
+    if (free == null) {
+      while (check.get(pos) != 0) {
+        ensureCapacity(++pos + 1);
+      }
+      return pos;
+    }
+    int root = pos;
+    while (free[root] != root) {
+      root = free[root];
+      ensureCapacity(root + 1);
+    }
+    while (pos != root) {
+      final int next = free[pos];
+      free[pos] = root;
+      pos = next;
+    }
+    return root;
+  }
+
+  /**
+   * 确保双数组的容量。
+   *
+   * @param capacity 最小容量
+   * @author hankai
+   * @since Oct 18, 2026 10:01:37 AM
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity > check.limit()) {
+      final int newCapacity = Math.max(capacity, check.limit() + (check.limit() >> 1));
+      base = copyOf(base, newCapacity);
+      check = copyOf(check, newCapacity);
+      if (free != null) {
+        final int oldCapacity = free.length;
+        free = Arrays.copyOf(free, newCapacity);
+        for (int i = oldCapacity; i < newCapacity; i++) {
+          free[i] = i;
+        }
+      }
+    }
+  }
+
+  /**
+   * 裁剪双数组尾部未使用的空间。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 10:02:14 AM
+   */
+  private void trim() {
+    int last = check.limit() - 1;
+    while ((last > ROOT) && (check.get(last) == 0)) {
+      last--;
+    }
+    base = copyOf(base, last + 1);
+    check = copyOf(check, last + 1);
+  }
+
+  /**
+   * 将只读的双数组（内存映射文件的视图）复制到堆内存中，以便修改。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 11:05:19 AM
+   */
+  private void detach() {
+    if (check.isReadOnly() || base.isReadOnly() || charCodes.isReadOnly()) {
+      final CharBuffer codes = CharBuffer.allocate(ALPHABET_SIZE);
+      codes.put(charCodes.duplicate()).clear();
+      charCodes = codes;
+      base = copyOf(base, base.limit());
+      check = copyOf(check, check.limit());
+    }
+  }
+
+  /**
+   * 将整型缓冲区的内容复制到指定容量的堆缓冲区中。
+   *
+   * @param buffer 原缓冲区
+   * @param capacity 新缓冲区的容量
+   * @return 新缓冲区
+   * @author hankai
+   * @since Oct 18, 2026 11:06:02 AM
+   */
+  private static IntBuffer copyOf(IntBuffer buffer, int capacity) {
+    final IntBuffer source = buffer.duplicate();
+    source.clear();
+    if (source.limit() > capacity) {
+      source.limit(capacity);
+    }
+    final IntBuffer copy = IntBuffer.allocate(capacity);
+    copy.put(source).clear();
+    return copy;
+  }
+
+  /**
+   * 将词典树以二进制格式写入通道（格式：字符编码数、节点数、数组长度、保留字段，字符编码表，base 数组，check 数组）。
+   *
+   * @param channel 可写通道
+   * @param order 字节序
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 11:08:44 AM
+   */
+  void writeTo(WritableByteChannel channel, ByteOrder order) throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(16).order(order);
+    header.putInt(alphabetSize).putInt(nodeCount).putInt(check.limit()).putInt(0);
+    writeFully(channel, header);
+    final ByteBuffer codes = ByteBuffer.allocate(ALPHABET_SIZE * 2).order(order);
+    codes.asCharBuffer().put(charCodes.duplicate());
+    writeFully(channel, codes);
+    for (final IntBuffer array : new IntBuffer[] {base, check}) {
+      final ByteBuffer bytes = ByteBuffer.allocate(array.limit() * 4).order(order);
+      final IntBuffer source = array.duplicate();
+      source.clear();
+      bytes.asIntBuffer().put(source);
+      writeFully(channel, bytes);
+    }
+  }
+
+  private static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+      throws IOException {
+    buffer.clear();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * 从二进制数据中读取词典树。读取到的词典树直接引用缓冲区中的数据（不复制），缓冲区位置被移动到词典树数据之后。
+   *
+   * @param buffer 字节缓冲区（通常是内存映射文件，字节序须已设置）
+   * @return 词典树
+   * @author hankai
+   * @since Oct 18, 2026 11:12:30 AM
+   */
+  static DoubleArrayTrie readFrom(ByteBuffer buffer) {
+    final int alphabetSize = buffer.getInt();
+    final int nodeCount = buffer.getInt();
+    final int size = buffer.getInt();
+    buffer.getInt();
+    final CharBuffer charCodes = slice(buffer, ALPHABET_SIZE * 2).asCharBuffer();
+    final IntBuffer base = slice(buffer, size * 4).asIntBuffer();
+    final IntBuffer check = slice(buffer, size * 4).asIntBuffer();
+    final DoubleArrayTrie trie = new DoubleArrayTrie(charCodes, base, check);
+    trie.alphabetSize = alphabetSize;
+    trie.nodeCount = nodeCount;
+    return trie;
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int length) {
+    final ByteBuffer slice = buffer.slice().order(buffer.order());
+    slice.limit(length);
+    buffer.position(buffer.position() + length);
+    return slice;
+  }
+
+  /**
+   * 按父节点归集的子节点：节点 s 的子节点为 states[start[s]] 至 states[start[s + 1] - 1]。
+   */
+  private static class ChildIndex {
+    private final int[] start;
+    private final int[] states;
+
+    ChildIndex(int[] start, int[] states) {
+      this.start = start;
+      this.states = states;
+    }
+
+    long ramBytesUsed() {
+      return RamUsageEstimator.sizeOf(start) + RamUsageEstimator.sizeOf(states);
+    }
+  }
+
+  /**
+   * 由已排序词条构建期间待写入子节点的节点。
+   */
+  private static class Range {
+    private final int[] codes; // 子节点对应的字符编码（按字符排序）
+    private final int[] bounds; // 第 i 个子节点之下的词在数组中的区间为 [bounds[i], bounds[i + 1])
+    private final int depth; // 子节点对应的字符在词中的位置
+    private final int state; // 节点在双数组中的索引
+
+    Range(int[] codes, int[] bounds, int depth, int state) {
+      this.codes = codes;
+      this.bounds = bounds;
+      this.depth = depth;
+      this.state = state;
+    }
+  }
+
+  /**
+   * 构建期间待写入子节点的词典树节点。
+   */
+  private static class Node {
+    private final WordSegment[] children; // 子节点（已按字符排序）
+    private final int state; // 节点在双数组中的索引
+
+    Node(WordSegment[] children, int state) {
+      this.children = children;
+      this.state = state;
+    }
+  }
+
+}
@@ -0,0 +1,554 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FST.Arc;
+import org.apache.lucene.util.fst.FST.BytesReader;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
+import org.apache.lucene.util.fst.IntsRefFSTEnum.InputOutput;
+import org.apache.lucene.util.fst.NoOutputs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 基于 Lucene FST（有限状态转换器）的词典树。FST 同时共享词的前缀和后缀，内存占用比双数组词典树小数倍，
+ * 但每次转移需要解码节点的弧，匹配速度略慢。适合内存受限的查询节点。
+ *
+ * <p>
+ * FST 构建后不可修改，运行时添加或删除词条会重新构建整个 FST，代价较高，应尽量通过
+ * {@link #update(Collection, Collection)} 批量修改。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 1:10:26 PM
+ */
+public class FstTrie implements WordTrie {
+
+  private static final NoOutputs OUTPUTS = NoOutputs.getSingleton();
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(FstTrie.class);
+  // 游标匹配时各线程重用的弧及读取器，避免逐字匹配时创建对象。所有实例共用，每个线程最多引用固定个数的 FST，
+  // 词典更新后已被替换的 FST 不会因各线程的缓存而无法回收
+  private static final ThreadLocal<CursorScratch> SCRATCH =
+      ThreadLocal.withInitial(CursorScratch::new);
+
+  // 词典为空时为 null
+  private volatile FST<Object> fst;
+
+  private FstTrie(FST<Object> fst) {
+    this.fst = fst;
+  }
+
+  /**
+   * 将词典树编译为 FST 词典树。
+   *
+   * @param root 词典树根节点
+   * @return FST 词典树
+   * @author hankai
+   * @since Oct 18, 2026 1:12:48 PM
+   */
+  public static FstTrie build(WordSegment root) {
+    Objects.requireNonNull(root, "Root segment must not be null!");
+    final Builder<Object> builder = new Builder<>(FST.INPUT_TYPE.BYTE2, OUTPUTS);
+    try {
+      addWords(builder, root, new IntsRefBuilder());
+      return new FstTrie(builder.finish());
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to build FST dictionary.", ex);
+    }
+  }
+
+  /**
+   * 按字典序将词典树中的词添加到 FST 构建器（子节点已按字符排序，先序遍历即为字典序）。
+   *
+   * @param builder FST 构建器
+   * @param segment 词典树节点
+   * @param path 从根节点到当前节点的字符序列
+   * @throws IOException 构建失败
+   * @author hankai
+   * @since Oct 18, 2026 1:14:05 PM
+   */
+  private static void addWords(Builder<Object> builder, WordSegment segment, IntsRefBuilder path)
+      throws IOException {
+    for (final WordSegment child : segment.getSortedChildren()) {
+      path.append(child.getCharacter());
+      if (child.isCompleteWord()) {
+        builder.add(path.get(), OUTPUTS.getNoOutput());
+      }
+      addWords(builder, child, path);
+      path.setLength(path.length() - 1);
+    }
+  }
+
+  @Override
+  public Hit match(char[] charArray, int begin, int length) {
+    final Hit hit = new Hit();
+    hit.setBegin(begin);
+    hit.setEnd(begin);
+    final FST<Object> current = fst;
+    if (current == null) {
+      return hit;
+    }
+    final BytesReader reader = current.getBytesReader();
+    final Arc<Object> arc = current.getFirstArc(new Arc<>());
+    final int count = length > 1 ? length : 1;
+    for (int i = 0; i < count; i++) {
+      hit.setEnd(begin + i);
+      if (findTargetArc(current, charArray[begin + i], arc, reader) == null) {
+        return hit;
+      }
+    }
+    return fillHit(hit, arc);
+  }
+
+  @Override
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    final FST<Object> current = fst;
+    matchedHit.setUnmatch();
+    matchedHit.setEnd(currentIndex);
+    if (current != null) {
+      final Arc<Object> arc = new Arc<>();
+      arc.target = matchedHit.getState();
+      if (findTargetArc(current, charArray[currentIndex], arc, current.getBytesReader()) != null) {
+        fillHit(matchedHit, arc);
+      }
+    }
+    return matchedHit;
+  }
+
+  // 游标为 (节点地址 << 1) | 是否是词。节点没有出弧时地址记为 0（FST 中地址 0 不是有效节点），
+  // 因此游标不会与 CURSOR_ROOT 相同
+  @Override
+  public boolean isCursorSupported() {
+    return true;
+  }
+
+  @Override
+  public long next(long cursor, char ch) {
+    final FST<Object> current = fst;
+    if ((current == null) || ((cursor != CURSOR_ROOT) && !isPrefix(cursor))) {
+      return -1;
+    }
+    final CursorScratch buffers = SCRATCH.get();
+    final Arc<Object> arc = buffers.arc;
+    if (cursor == CURSOR_ROOT) {
+      current.getFirstArc(arc);
+    } else {
+      arc.target = cursor >>> 1;
+    }
+    if (findTargetArc(current, ch, arc, buffers.getReader(current)) == null) {
+      return -1;
+    }
+    final long address = FST.targetHasArcs(arc) ? arc.target : 0;
+    return (address << 1) | (arc.isFinal() ? 1 : 0);
+  }
+
+  @Override
+  public boolean isWord(long cursor) {
+    return (cursor & 1) != 0;
+  }
+
+  @Override
+  public boolean isPrefix(long cursor) {
+    return (cursor >>> 1) != 0;
+  }
+
+  /**
+   * 将词添加到词典树。FST 不可修改，因此会枚举已有的词并与新词一起重新构建 FST。
+   *
+   * @param charArray 词对应的字符序列
+   * @author hankai
+   * @since Oct 18, 2026 1:18:37 PM
+   */
+  @Override
+  public void add(char[] charArray) {
+    if (charArray.length > 0) {
+      update(Collections.emptyList(), Collections.singletonList(charArray));
+    }
+  }
+
+  /**
+   * 从词典树中删除词（重新构建 FST）。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 词是否存在并被删除
+   * @author hankai
+   * @since Oct 18, 2026 7:02:44 PM
+   */
+  @Override
+  public synchronized boolean remove(char[] charArray) {
+    if ((charArray.length == 0) || !match(charArray, 0, charArray.length).isMatch()) {
+      return false;
+    }
+    update(Collections.singletonList(charArray), Collections.emptyList());
+    return true;
+  }
+
+  /**
+   * 批量删除和添加词条，只重新构建一次 FST。先删除后添加，同时出现在两个列表中的词被保留。
+   *
+   * @param removals 要删除的词
+   * @param additions 要添加的词
+   * @author hankai
+   * @since Oct 18, 2026 7:04:10 PM
+   */
+  public synchronized void update(Collection<char[]> removals, Collection<char[]> additions) {
+    Objects.requireNonNull(removals, "Removals must not be null!");
+    Objects.requireNonNull(additions, "Additions must not be null!");
+    final Set<IntsRef> removed = new HashSet<>();
+    for (final char[] word : removals) {
+      removed.add(toIntsRef(word));
+    }
+    final List<IntsRef> added = new ArrayList<>(additions.size());
+    for (final char[] word : additions) {
+      if (word.length > 0) {
+        added.add(toIntsRef(word));
+      }
+    }
+    Collections.sort(added);
+    final Builder<Object> builder = new Builder<>(FST.INPUT_TYPE.BYTE2, OUTPUTS);
+    try {
+      // 按序归并已有的词与新词（FST 要求输入有序且不重复）
+      final IntsRefFSTEnum<Object> words = fst == null ? null : new IntsRefFSTEnum<>(fst);
+      InputOutput<Object> entry = words == null ? null : words.next();
+      int index = 0;
+      IntsRef last = null;
+      while ((entry != null) || (index < added.size())) {
+        final IntsRef word;
+        if ((entry != null)
+            && ((index == added.size()) || (entry.input.compareTo(added.get(index)) <= 0))) {
+          word = IntsRef.deepCopyOf(entry.input);
+          entry = words.next();
+          if (removed.contains(word)) {
+            continue;
+          }
+        } else {
+          word = added.get(index++);
+        }
+        if ((last == null) || !last.equals(word)) {
+          builder.add(word, OUTPUTS.getNoOutput());
+          last = word;
+        }
+      }
+      fst = builder.finish();
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to rebuild FST dictionary.", ex);
+    }
+  }
+
+  /**
+   * 将字符序列转换为 FST 的输入。
+   *
+   * @param charArray 字符序列
+   * @return FST 输入
+   * @author hankai
+   * @since Oct 18, 2026 7:05:32 PM
+   */
+  private static IntsRef toIntsRef(char[] charArray) {
+    final IntsRefBuilder word = new IntsRefBuilder();
+    for (final char ch : charArray) {
+      word.append(ch);
+    }
+    return word.toIntsRef();
+  }
+
+  @Override
+  public FstTrie copy() {
+    return new FstTrie(fst);
+  }
+
+  @Override
+  public void forEachWord(Consumer<char[]> action) {
+    Objects.requireNonNull(action, "Action must not be null!");
+    final FST<Object> current = fst;
+    if (current == null) {
+      return;
+    }
+    try {
+      final IntsRefFSTEnum<Object> words = new IntsRefFSTEnum<>(current);
+      InputOutput<Object> entry = null;
+      while ((entry = words.next()) != null) {
+        final char[] word = new char[entry.input.length];
+        for (int i = 0; i < word.length; i++) {
+          word[i] = (char) entry.input.ints[entry.input.offset + i];
+        }
+        action.accept(word);
+      }
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to enumerate FST dictionary.", ex);
+    }
+  }
+
+  /**
+   * 获取 FST 占用的内存字节数。
+   *
+   * @return 字节数
+   * @author hankai
+   * @since Oct 18, 2026 1:21:10 PM
+   */
+  public long getSizeInBytes() {
+    final FST<Object> current = fst;
+    return current == null ? 0 : current.ramBytesUsed();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + getSizeInBytes();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final FST<Object> current = fst;
+    if (current == null) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(Accountables.namedAccountable("fst", current));
+  }
+
+  /**
+   * 统计 FST 的节点数、弧数及词数。FST 中的节点被多个词共享，因此弧数多于节点数，
+   * 所有词共用的结束节点计为一个节点。
+   *
+   * @return 统计信息
+   */
+  @Override
+  public TrieStats getStats() {
+    final FST<Object> current = fst;
+    if (current == null) {
+      return new TrieStats(0, 0, 0, 0, ramBytesUsed());
+    }
+    final long[] wordCount = new long[1];
+    forEachWord(word -> wordCount[0]++);
+    long edgeCount = 0;
+    long branchCount = 0;
+    boolean hasEndNode = false;
+    final BytesReader reader = current.getBytesReader();
+    final Set<Long> visited = new HashSet<>();
+    final Deque<Arc<Object>> pending = new ArrayDeque<>();
+    pending.add(current.getFirstArc(new Arc<>()));
+    try {
+      while (!pending.isEmpty()) {
+        final Arc<Object> parent = pending.poll();
+        if (!visited.add(parent.target)) {
+          continue;
+        }
+        branchCount++;
+        final Arc<Object> arc = current.readFirstTargetArc(parent, new Arc<>(), reader);
+        for (;;) {
+          // 终止节点的第一条弧可能是表示词结束的虚拟弧，不计入
+          if (arc.label != FST.END_LABEL) {
+            edgeCount++;
+          }
+          if (!FST.targetHasArcs(arc)) {
+            hasEndNode = true;
+          } else if (!visited.contains(arc.target)) {
+            pending.add(new Arc<Object>().copyFrom(arc));
+          }
+          if (arc.isLast()) {
+            break;
+          }
+          current.readNextArc(arc, reader);
+        }
+      }
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to read FST dictionary.", ex);
+    }
+    // 根节点不计入节点数
+    final long nodeCount = (visited.size() - 1) + (hasEndNode ? 1 : 0);
+    return new TrieStats(nodeCount, edgeCount, branchCount, wordCount[0], ramBytesUsed());
+  }
+
+  @Override
+  public void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor) {
+    Objects.requireNonNull(prefix, "Prefix must not be null!");
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    final FST<Object> current = fst;
+    if (current == null) {
+      return;
+    }
+    final BytesReader reader = current.getBytesReader();
+    final Arc<Object> start = current.getFirstArc(new Arc<>());
+    for (final char ch : prefix) {
+      if (findTargetArc(current, ch, start, reader) == null) {
+        return;
+      }
+    }
+    final Deque<Arc<Object>> arcs = new ArrayDeque<>();
+    final Deque<char[]> words = new ArrayDeque<>();
+    arcs.add(start);
+    words.add(prefix.clone());
+    try {
+      for (int visited = 0; !arcs.isEmpty() && (visited < maxNodes); visited++) {
+        final Arc<Object> parent = arcs.poll();
+        final char[] word = words.poll();
+        if ((word.length > 0) && parent.isFinal() && !visitor.test(word)) {
+          return;
+        }
+        if (!FST.targetHasArcs(parent)) {
+          continue;
+        }
+        final Arc<Object> arc = current.readFirstTargetArc(parent, new Arc<>(), reader);
+        for (;;) {
+          // 表示词结束的虚拟弧不对应字符
+          if (arc.label != FST.END_LABEL) {
+            final char[] childWord = Arrays.copyOf(word, word.length + 1);
+            childWord[word.length] = (char) arc.label;
+            arcs.add(new Arc<Object>().copyFrom(arc));
+            words.add(childWord);
+          }
+          if (arc.isLast()) {
+            break;
+          }
+          current.readNextArc(arc, reader);
+        }
+      }
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to read FST dictionary.", ex);
+    }
+  }
+
+  @Override
+  public void visitSimilar(char[] word, int maxEdits, int maxNodes,
+      ObjIntConsumer<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    final FuzzySearch search = new FuzzySearch(word, maxEdits, maxNodes);
+    final FST<Object> current = fst;
+    if (current == null) {
+      return;
+    }
+    final BytesReader reader = current.getBytesReader();
+    try {
+      visitSimilar(current, current.getFirstArc(new Arc<>()), 0, search, reader, visitor);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to read FST dictionary.", ex);
+    }
+  }
+
+  private static void visitSimilar(FST<Object> current, Arc<Object> parent, int depth,
+      FuzzySearch search, BytesReader reader, ObjIntConsumer<char[]> visitor)
+      throws IOException {
+    if (parent.isFinal()) {
+      search.report(depth, visitor);
+    }
+    if (!FST.targetHasArcs(parent)) {
+      return;
+    }
+    final char[] candidates = search.getCandidates(depth);
+    for (final char ch : candidates) {
+      final Arc<Object> arc = current.findTargetArc(ch, parent, new Arc<>(), reader);
+      if ((arc != null) && search.visit(depth, ch)) {
+        visitSimilar(current, arc, depth + 1, search, reader, visitor);
+      }
+    }
+    if (search.needsAllChildren(depth)) {
+      final Arc<Object> arc = current.readFirstTargetArc(parent, new Arc<>(), reader);
+      for (;;) {
+        // 表示词结束的虚拟弧不对应字符
+        if ((arc.label != FST.END_LABEL)
+            && !FuzzySearch.contains(candidates, candidates.length, (char) arc.label)
+            && search.visit(depth, (char) arc.label)) {
+          visitSimilar(current, new Arc<Object>().copyFrom(arc), depth + 1, search, reader,
+              visitor);
+        }
+        if (arc.isLast()) {
+          break;
+        }
+        current.readNextArc(arc, reader);
+      }
+    }
+  }
+
+  /**
+   * 从弧所指向的节点查找经字符转移的弧（结果写入 arc）。
+   *
+   * @param current FST
+   * @param ch 字符
+   * @param arc 当前弧，查找成功时被更新为目标弧
+   * @param reader 字节读取器
+   * @return 目标弧（找不到时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 1:22:44 PM
+   */
+  private static Arc<Object> findTargetArc(FST<Object> current, char ch, Arc<Object> arc,
+      BytesReader reader) {
+    try {
+      return current.findTargetArc(ch, arc, arc, reader);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException("Failed to read FST dictionary.", ex);
+    }
+  }
+
+  /**
+   * 根据匹配到的弧填充命中信息。
+   *
+   * @param hit 命中信息
+   * @param arc 匹配到的弧
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 1:24:02 PM
+   */
+  private Hit fillHit(Hit hit, Arc<Object> arc) {
+    if (arc.isFinal()) {
+      hit.setMatch();
+    }
+    if (FST.targetHasArcs(arc)) {
+      hit.setPrefix();
+      hit.setTrie(this);
+      // 词典不超过 2GB，节点地址可以用 int 表示
+      hit.setState((int) arc.target);
+    }
+    return hit;
+  }
+
+  /**
+   * 游标匹配时各线程重用的弧及读取器。读取器与 FST 绑定，分词时主词典和量词词典交替匹配，
+   * 因此为两个 FST 各保留一个读取器，换用其它 FST 时依次替换最早的槽位。
+   *
+   * @author hankai
+   * @version 1.0.0
+   * @since Oct 18, 2026 10:39:20 PM
+   */
+  private static final class CursorScratch {
+    private static final int SLOTS = 2;
+
+    private final Arc<Object> arc = new Arc<>();
+    private final Object[] fsts = new Object[SLOTS];
+    private final BytesReader[] readers = new BytesReader[SLOTS];
+    private int nextSlot;
+
+    private BytesReader getReader(FST<Object> fst) {
+      for (int i = 0; i < SLOTS; i++) {
+        if (fsts[i] == fst) {
+          return readers[i];
+        }
+      }
+      final int slot = nextSlot;
+      nextSlot = (nextSlot + 1) % SLOTS;
+      fsts[slot] = fst;
+      readers[slot] = fst.getBytesReader();
+      return readers[slot];
+    }
+  }
+
+}
@@ -0,0 +1,151 @@
+package ren.hankai.cnanalyzer.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 在词典树上按编辑距离（Levenshtein 距离）查找相近词时的搜索状态，由各词典树在深度优先遍历时使用。
+ * 遍历到深度为 d 的节点时，按路径上的字符逐行计算路径与目标字符序列各前缀的编辑距离，某一行的最小值超过距离上限时，
+ * 该节点下不可能有相近词，不再深入。
+ *
+ * <p>
+ * 各节点先访问与目标中相应位置的字符相同的子节点（见 {@link #getCandidates(int)}），使编辑距离小的词先被找到，
+ * 节点数达到上限时已找到的多是最相近的词。一行的最小值已等于距离上限时，只有这些子节点下可能有相近词，无需枚举所有子节点。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:17:20 PM
+ */
+final class FuzzySearch {
+
+  private final char[] target;
+  private final int maxEdits;
+  private final int[][] rows; // rows[d] 为长度为 d 的路径与目标各前缀的编辑距离
+  private final int[] minimums; // 各行的最小值
+  private final char[] path; // 当前路径上的字符
+  private int remainingNodes; // 剩余可访问的节点数
+
+  /**
+   * 创建搜索状态。
+   *
+   * @param target 目标字符序列
+   * @param maxEdits 编辑距离上限
+   * @param maxNodes 最多访问的节点数
+   */
+  FuzzySearch(char[] target, int maxEdits, int maxNodes) {
+    this.target = Objects.requireNonNull(target, "Word must not be null!");
+    if (maxEdits < 0) {
+      throw new IllegalArgumentException("Max edits must not be negative: " + maxEdits);
+    }
+    this.maxEdits = maxEdits;
+    // 路径比目标长出 maxEdits 个字符以上时，编辑距离必然超过上限
+    path = new char[target.length + maxEdits];
+    rows = new int[path.length + 1][target.length + 1];
+    minimums = new int[path.length + 1];
+    for (int j = 0; j <= target.length; j++) {
+      rows[0][j] = j;
+    }
+    remainingNodes = maxNodes;
+  }
+
+  /**
+   * 访问深度为 depth 的节点经字符 ch 转移到的子节点，计算子节点对应的行。
+   *
+   * @param depth 当前节点的深度
+   * @param ch 子节点对应的字符
+   * @return 是否应继续深入子节点（节点数未达到上限，且子节点下可能有相近词）
+   * @author hankai
+   * @since Oct 18, 2026 10:18:05 PM
+   */
+  boolean visit(int depth, char ch) {
+    if ((depth >= path.length) || (remainingNodes <= 0)) {
+      return false;
+    }
+    remainingNodes--;
+    path[depth] = ch;
+    final int[] previous = rows[depth];
+    final int[] current = rows[depth + 1];
+    current[0] = depth + 1;
+    int minimum = current[0];
+    for (int j = 1; j <= target.length; j++) {
+      final int cost = target[j - 1] == ch ? 0 : 1;
+      current[j] = Math.min(Math.min(previous[j], current[j - 1]) + 1, previous[j - 1] + cost);
+      minimum = Math.min(minimum, current[j]);
+    }
+    minimums[depth + 1] = minimum;
+    return minimum <= maxEdits;
+  }
+
+  /**
+   * 判断是否需要枚举深度为 depth 的节点的所有子节点。
+   *
+   * @param depth 节点深度
+   * @return 是否需要枚举所有子节点（否则只需查找 {@link #getCandidates(int)} 中的字符）
+   * @author hankai
+   * @since Oct 18, 2026 10:18:40 PM
+   */
+  boolean needsAllChildren(int depth) {
+    return (depth < path.length) && (minimums[depth] < maxEdits);
+  }
+
+  /**
+   * 获取深度为 depth 的节点应优先访问的子节点所对应的字符，即经过该字符转移后编辑距离不增加的字符。
+   * 行的最小值已等于距离上限时，只有这些子节点下可能有相近词。
+   *
+   * @param depth 节点深度
+   * @return 字符数组（无重复）
+   * @author hankai
+   * @since Oct 18, 2026 10:19:12 PM
+   */
+  char[] getCandidates(int depth) {
+    if (depth >= path.length) {
+      return new char[0];
+    }
+    final int[] row = rows[depth];
+    final char[] candidates = new char[target.length];
+    int count = 0;
+    for (int j = 0; j < target.length; j++) {
+      if ((row[j] <= maxEdits) && !contains(candidates, count, target[j])) {
+        candidates[count++] = target[j];
+      }
+    }
+    return Arrays.copyOf(candidates, count);
+  }
+
+  /**
+   * 判断字符数组的前 count 个字符中是否有指定字符。
+   *
+   * @param chars 字符数组
+   * @param count 字符个数
+   * @param ch 字符
+   * @return 是否包含
+   * @author hankai
+   * @since Oct 18, 2026 10:19:30 PM
+   */
+  static boolean contains(char[] chars, int count, char ch) {
+    for (int i = 0; i < count; i++) {
+      if (chars[i] == ch) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 深度为 depth 的节点是词时调用，编辑距离不超过上限时将路径作为相近词报告给 visitor。
+   *
+   * @param depth 节点深度
+   * @param visitor 对相近词及其编辑距离执行的操作
+   * @author hankai
+   * @since Oct 18, 2026 10:19:50 PM
+   */
+  void report(int depth, ObjIntConsumer<char[]> visitor) {
+    final int distance = rows[depth][target.length];
+    if ((depth > 0) && (distance <= maxEdits)) {
+      visitor.accept(Arrays.copyOf(path, depth), distance);
+    }
+  }
+
+}
@@ -0,0 +1,274 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import ren.hankai.cnanalyzer.util.CharacterUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 带载荷的实体词表（如产品名、地名），用于在文本中标注实体。每个词条附带一个非负整数载荷（如实体编号或类别），
+ * 按词条在双数组词典树中所在的节点存储，查找词条的同时即可取得载荷，无需再到外部的映射表中查找。
+ *
+ * <p>
+ * 扫描文本时使用 Aho-Corasick 扫描器，一遍扫描即可报告所有词条（包括相互重叠的词条）的位置及载荷，不创建任何字符串。
+ * 词条与文本均按分词时的规则规格化（全角转半角、大写转小写）。词表构建后不可修改，词条变更后需重新构建。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:27:10 PM
+ */
+public class Gazetteer implements Accountable {
+
+  /**
+   * 词条不存在时返回的载荷。
+   */
+  public static final int NOT_FOUND = -1;
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(Gazetteer.class);
+  private static final String COMMENT = "#";
+  private static final String SEPARATOR = "\t";
+
+  private final DoubleArrayTrie trie;
+  private final AhoCorasickScanner scanner;
+  private final int[] payloads; // 按词所在的节点索引存储的载荷
+  private final int size;
+
+  private Gazetteer(DoubleArrayTrie trie, int[] payloads, int size) {
+    this.trie = trie;
+    // 词表不可修改，扫描器直接引用词典树
+    scanner = AhoCorasickScanner.build(trie, false);
+    this.payloads = payloads;
+    this.size = size;
+  }
+
+  /**
+   * 处理扫描到的词条。
+   *
+   * @author hankai
+   * @version 1.0.0
+   * @since Oct 18, 2026 10:27:52 PM
+   */
+  @FunctionalInterface
+  public interface EntryHandler {
+
+    /**
+     * 处理扫描到的一个词条。
+     *
+     * @param begin 词条在文本中的起始位置
+     * @param length 词条的长度
+     * @param payload 词条的载荷
+     * @author hankai
+     * @since Oct 18, 2026 10:28:15 PM
+     */
+    void onEntry(int begin, int length, int payload);
+  }
+
+  /**
+   * 构建词表。规格化后相同的词条，后出现的载荷生效。
+   *
+   * @param entries 词条及其载荷（载荷不能为负数）
+   * @return 词表
+   * @author hankai
+   * @since Oct 18, 2026 10:28:40 PM
+   */
+  public static Gazetteer build(Map<String, Integer> entries) {
+    Objects.requireNonNull(entries, "Entries must not be null!");
+    final Map<String, Integer> regularized = new LinkedHashMap<>(entries.size() * 2);
+    for (final Map.Entry<String, Integer> entry : entries.entrySet()) {
+      final String word = regularize(entry.getKey());
+      final Integer payload = entry.getValue();
+      if (word.isEmpty()) {
+        throw new IllegalArgumentException("Entry must not be empty!");
+      }
+      if ((payload == null) || (payload < 0)) {
+        throw new IllegalArgumentException("Invalid payload of entry " + word + ": " + payload);
+      }
+      regularized.put(word, payload);
+    }
+    final List<char[]> words = new ArrayList<>(regularized.size());
+    for (final String word : regularized.keySet()) {
+      words.add(word.toCharArray());
+    }
+    final DoubleArrayTrie trie = DoubleArrayTrie.build(words);
+    final int[] payloads = new int[trie.size()];
+    for (final Map.Entry<String, Integer> entry : regularized.entrySet()) {
+      final char[] word = entry.getKey().toCharArray();
+      payloads[trie.getWordState(word, 0, word.length)] = entry.getValue();
+    }
+    return new Gazetteer(trie, payloads, regularized.size());
+  }
+
+  /**
+   * 从文件载入词表（UTF-8 编码，每行一个词条及其载荷，以制表符分隔；以 # 开头的行为注释）。
+   * 同一个词条在多个文件中出现时，后面的文件中的载荷生效。
+   *
+   * @param files 词表文件
+   * @return 词表
+   * @throws IOException 读取失败或文件格式错误
+   * @author hankai
+   * @since Oct 18, 2026 10:29:30 PM
+   */
+  public static Gazetteer load(Path... files) throws IOException {
+    Objects.requireNonNull(files, "Files must not be null!");
+    final Map<String, Integer> entries = new LinkedHashMap<>();
+    for (final Path file : files) {
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.trim().isEmpty() || line.startsWith(COMMENT)) {
+            continue;
+          }
+          final int separator = line.lastIndexOf(SEPARATOR);
+          final String word = separator > 0 ? line.substring(0, separator).trim() : "";
+          if (word.isEmpty()) {
+            throw new IOException("Invalid gazetteer line in " + file + ": " + line);
+          }
+          try {
+            entries.put(word, Integer.parseInt(line.substring(separator + 1).trim()));
+          } catch (final NumberFormatException ex) {
+            throw new IOException("Invalid gazetteer line in " + file + ": " + line, ex);
+          }
+        }
+      }
+    }
+    try {
+      return build(entries);
+    } catch (final IllegalArgumentException ex) {
+      throw new IOException("Invalid gazetteer entry: " + ex.getMessage(), ex);
+    }
+  }
+
+  private static String regularize(String word) {
+    final char[] chars = word.trim().toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = CharacterUtil.regularize(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  /**
+   * 获取词条的载荷。
+   *
+   * @param charArray 字符序列
+   * @param begin 词条在序列中的起始位置
+   * @param length 词条的长度
+   * @return 载荷（词条不存在时返回 {@link #NOT_FOUND}）
+   * @author hankai
+   * @since Oct 18, 2026 10:30:12 PM
+   */
+  public int getPayload(char[] charArray, int begin, int length) {
+    final char[] word = new char[length];
+    for (int i = 0; i < length; i++) {
+      word[i] = CharacterUtil.regularize(charArray[begin + i]);
+    }
+    final int state = trie.getWordState(word, 0, length);
+    return state < 0 ? NOT_FOUND : payloads[state];
+  }
+
+  /**
+   * 获取词条的载荷。
+   *
+   * @param word 词条
+   * @return 载荷（词条不存在时返回 {@link #NOT_FOUND}）
+   * @author hankai
+   * @since Oct 18, 2026 10:30:40 PM
+   */
+  public int getPayload(String word) {
+    Objects.requireNonNull(word, "Word must not be null!");
+    return getPayload(word.toCharArray(), 0, word.length());
+  }
+
+  /**
+   * 扫描字符序列，按词条结束位置的顺序报告其中出现的所有词条（结束位置相同时长的在前）。
+   *
+   * @param charArray 字符序列
+   * @param begin 扫描的起始位置
+   * @param length 扫描的长度
+   * @param handler 对每个词条执行的操作（位置相对于整个字符序列）
+   * @author hankai
+   * @since Oct 18, 2026 10:31:20 PM
+   */
+  public void scan(char[] charArray, int begin, int length, EntryHandler handler) {
+    Objects.requireNonNull(handler, "Handler must not be null!");
+    int state = AhoCorasickScanner.ROOT;
+    for (int i = begin; i < (begin + length); i++) {
+      state = scanner.next(state, CharacterUtil.regularize(charArray[i]));
+      report(state, i, handler);
+    }
+  }
+
+  /**
+   * 扫描文本，按词条结束位置的顺序报告其中出现的所有词条（结束位置相同时长的在前）。
+   *
+   * @param text 文本
+   * @param handler 对每个词条执行的操作
+   * @author hankai
+   * @since Oct 18, 2026 10:31:52 PM
+   */
+  public void scan(CharSequence text, EntryHandler handler) {
+    Objects.requireNonNull(text, "Text must not be null!");
+    Objects.requireNonNull(handler, "Handler must not be null!");
+    int state = AhoCorasickScanner.ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      state = scanner.next(state, CharacterUtil.regularize(text.charAt(i)));
+      report(state, i, handler);
+    }
+  }
+
+  /**
+   * 报告以当前字符结尾的所有词条。
+   *
+   * @param state 扫描器的当前状态
+   * @param end 当前字符的位置
+   * @param handler 对每个词条执行的操作
+   * @author hankai
+   * @since Oct 18, 2026 10:32:20 PM
+   */
+  private void report(int state, int end, EntryHandler handler) {
+    for (int word = scanner.firstWord(state); word >= 0; word = scanner.nextWord(word)) {
+      final int length = scanner.getDepth(word);
+      handler.onEntry((end - length) + 1, length, payloads[word]);
+    }
+  }
+
+  /**
+   * 获取词条数。
+   *
+   * @return 词条数
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + trie.ramBytesUsed() + scanner.ramBytesUsed()
+        + RamUsageEstimator.sizeOf(payloads);
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(3);
+    resources.add(Accountables.namedAccountable("trie", trie));
+    resources.add(Accountables.namedAccountable("scanner", scanner));
+    resources.add(Accountables.namedAccountable("payloads",
+        RamUsageEstimator.sizeOf(payloads)));
+    return resources;
+  }
+
+}
@@ -16,6 +16,9 @@ public class Hit {
   private int hitState = UNMATCH;
 
   private WordSegment matchedWord;
+  private WordTrie trie; // 可从当前命中位置继续向下匹配的词典树
+  private int state; // 匹配到的词典树节点（双数组词典树中节点的索引）
+  private Hit[] layerHits; // 分层词典树中各层的命中信息（该层已不是词前缀时为 null）
   private int begin; // 匹配的词在文本中的起始位置
   private int end; // 匹配的词在文本中的结束位置
 
@@ -51,6 +54,30 @@ public class Hit {
     this.matchedWord = matchedWord;
   }
 
+  public WordTrie getTrie() {
+    return trie;
+  }
+
+  public void setTrie(WordTrie trie) {
+    this.trie = trie;
+  }
+
+  public int getState() {
+    return state;
+  }
+
+  public void setState(int state) {
+    this.state = state;
+  }
+
+  public Hit[] getLayerHits() {
+    return layerHits;
+  }
+
+  public void setLayerHits(Hit[] layerHits) {
+    this.layerHits = layerHits;
+  }
+
   public int getBegin() {
     return begin;
   }
@@ -0,0 +1,223 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 词典命中采样器。分词时平均每 {@link #getRate()} 次命中词典记录一次被命中的词，用于统计哪些词条在实际语料中被使用，
+ * 进而裁剪词典（见 {@link DictionaryPruner}）。
+ *
+ * <p>
+ * 采样间隔由各文字处理器自行倒数，未被采样的命中只需一次递减和比较；采样间隔在 1 到 2 倍采样率之间随机选取，
+ * 以免与文本中的周期性模式重合。被采样的词以 UTF-8 文本导出（每行一个词及其被采样的次数，以制表符分隔），
+ * 多个节点导出的文件可以合并读取。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:36:12 PM
+ */
+public class HitSampler implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(HitSampler.class);
+  private static final long COUNTER_BYTES =
+      RamUsageEstimator.shallowSizeOfInstance(LongAdder.class);
+  private static final String COMMENT = "#";
+  private static final String SEPARATOR = "\t";
+
+  private final int rate;
+  // 各词被采样的次数
+  private final ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+  // 被采样的命中总数
+  private final LongAdder sampledCount = new LongAdder();
+
+  /**
+   * 创建命中采样器。
+   *
+   * @param rate 采样率，平均每多少次命中采样一次（为 1 时记录每一次命中）
+   */
+  public HitSampler(int rate) {
+    if (rate < 1) {
+      throw new IllegalArgumentException("Sample rate must be positive: " + rate);
+    }
+    this.rate = rate;
+  }
+
+  /**
+   * 获取 rate 字段的值。
+   *
+   * @return rate 字段值
+   */
+  public int getRate() {
+    return rate;
+  }
+
+  /**
+   * 获取到下一次采样之前的命中次数（平均为采样率）。
+   *
+   * @return 命中次数
+   * @author hankai
+   * @since Oct 18, 2026 9:37:30 PM
+   */
+  public int nextInterval() {
+    return rate == 1 ? 1 : ThreadLocalRandom.current().nextInt((2 * rate) - 1) + 1;
+  }
+
+  /**
+   * 记录一次被采样的命中。
+   *
+   * @param charArray 字符序列
+   * @param begin 词在序列中的起始位置
+   * @param length 词的长度
+   * @author hankai
+   * @since Oct 18, 2026 9:38:02 PM
+   */
+  public void record(char[] charArray, int begin, int length) {
+    final String word = new String(charArray, begin, length);
+    LongAdder count = counts.get(word);
+    if (count == null) {
+      count = counts.computeIfAbsent(word, key -> new LongAdder());
+    }
+    count.increment();
+    sampledCount.increment();
+  }
+
+  /**
+   * 获取被采样的命中总数。
+   *
+   * @return 命中总数
+   * @author hankai
+   * @since Oct 18, 2026 9:38:40 PM
+   */
+  public long getSampledCount() {
+    return sampledCount.sum();
+  }
+
+  /**
+   * 获取词被采样的次数。
+   *
+   * @param word 词
+   * @return 被采样的次数
+   * @author hankai
+   * @since Oct 18, 2026 10:23:40 PM
+   */
+  public long getCount(String word) {
+    final LongAdder count = counts.get(word);
+    return count == null ? 0 : count.sum();
+  }
+
+  /**
+   * 获取各词被采样的次数（副本）。
+   *
+   * @return 词与被采样次数的映射
+   * @author hankai
+   * @since Oct 18, 2026 9:39:12 PM
+   */
+  public Map<String, Long> getCounts() {
+    final Map<String, Long> snapshot = new HashMap<>(counts.size() * 2);
+    for (final Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().sum());
+    }
+    return snapshot;
+  }
+
+  /**
+   * 清空采样结果。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 9:39:40 PM
+   */
+  public void reset() {
+    counts.clear();
+    sampledCount.reset();
+  }
+
+  /**
+   * 将采样结果按被采样次数从多到少导出到文件（首行为注释，记录采样率及命中总数）。
+   *
+   * @param file 导出文件
+   * @throws IOException 写入失败
+   * @author hankai
+   * @since Oct 18, 2026 9:40:26 PM
+   */
+  public void export(Path file) throws IOException {
+    final List<Map.Entry<String, Long>> entries = new ArrayList<>(getCounts().entrySet());
+    entries.sort((one, another) -> Long.compare(another.getValue(), one.getValue()));
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(String.format("%s rate=%d, sampled=%d", COMMENT, rate, getSampledCount()));
+      writer.newLine();
+      for (final Map.Entry<String, Long> entry : entries) {
+        writer.write(entry.getKey() + SEPARATOR + entry.getValue());
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * 读取并合并导出的采样结果（同一个词在多个文件中的次数相加）。
+   *
+   * @param files 导出文件
+   * @return 词与被采样次数的映射
+   * @throws IOException 读取失败或文件格式错误
+   * @author hankai
+   * @since Oct 18, 2026 9:41:30 PM
+   */
+  public static Map<String, Long> readCounts(Path... files) throws IOException {
+    Objects.requireNonNull(files, "Files must not be null!");
+    final Map<String, Long> merged = new HashMap<>();
+    for (final Path file : files) {
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isEmpty() || line.startsWith(COMMENT)) {
+            continue;
+          }
+          final int separator = line.lastIndexOf(SEPARATOR);
+          if (separator <= 0) {
+            throw new IOException("Invalid hit count line in " + file + ": " + line);
+          }
+          try {
+            final long count = Long.parseLong(line.substring(separator + 1).trim());
+            merged.merge(line.substring(0, separator), count, Long::sum);
+          } catch (final NumberFormatException ex) {
+            throw new IOException("Invalid hit count line in " + file + ": " + line, ex);
+          }
+        }
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * 估算采样结果占用的内存（被采样的词不超过词典中的词数）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED + COUNTER_BYTES;
+    for (final String word : counts.keySet()) {
+      bytes += RamUsageUtil.HASH_ENTRY_BYTES + COUNTER_BYTES + RamUsageUtil.sizeOf(word);
+    }
+    return bytes;
+  }
+
+}
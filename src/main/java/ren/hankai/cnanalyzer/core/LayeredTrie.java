@@ -0,0 +1,309 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 分层词典树。由一个共享的基础词典树和若干叠加层组成，匹配时依次查询各层，任意一层中存在的词即视为存在。
+ * 叠加层通常只包含少量词条（如某个租户的专有词汇），因此为每个租户创建的分层词典树只占用与其叠加层成正比的内存。
+ *
+ * <p>
+ * 分层词典树本身是只读的，修改应在某一层的副本上进行，再组成新的分层词典树。
+ * </p>
+ *
+ * <p>
+ * 层数不定，各层的游标无法合并为一个游标，因此分层词典树本身不支持游标匹配；分词时由词前缀匹配器为每一层分别记录游标
+ * （各层仍可使用各自的游标匹配），再合并各层找到的词。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 8:45:30 PM
+ */
+public class LayeredTrie implements WordTrie {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(LayeredTrie.class);
+
+  private final WordTrie[] layers;
+
+  /**
+   * 创建分层词典树。
+   *
+   * @param layers 各层词典树（按查询顺序，通常第一层为基础词典树）
+   */
+  public LayeredTrie(WordTrie... layers) {
+    Objects.requireNonNull(layers, "Layers must not be null!");
+    if (layers.length == 0) {
+      throw new IllegalArgumentException("At least one layer is required!");
+    }
+    for (final WordTrie layer : layers) {
+      Objects.requireNonNull(layer, "Layer must not be null!");
+    }
+    this.layers = layers.clone();
+  }
+
+  /**
+   * 在指定的词典树上叠加一层。指定的词典树本身是分层词典树时，新的层追加在其各层之后，不会嵌套。
+   *
+   * @param base 基础词典树
+   * @param overlay 叠加层
+   * @return 分层词典树
+   * @author hankai
+   * @since Oct 18, 2026 8:47:12 PM
+   */
+  public static LayeredTrie overlay(WordTrie base, WordTrie overlay) {
+    Objects.requireNonNull(base, "Base must not be null!");
+    if (base instanceof LayeredTrie) {
+      final WordTrie[] baseLayers = ((LayeredTrie) base).layers;
+      final WordTrie[] layers = Arrays.copyOf(baseLayers, baseLayers.length + 1);
+      layers[baseLayers.length] = overlay;
+      return new LayeredTrie(layers);
+    }
+    return new LayeredTrie(base, overlay);
+  }
+
+  @Override
+  public Hit match(char[] charArray, int begin, int length) {
+    final Hit hit = new Hit();
+    hit.setBegin(begin);
+    hit.setEnd(begin);
+    final Hit[] layerHits = new Hit[layers.length];
+    for (int i = 0; i < layers.length; i++) {
+      layerHits[i] = layers[i].match(charArray, begin, length);
+    }
+    return merge(hit, layerHits);
+  }
+
+  @Override
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    final Hit[] layerHits = matchedHit.getLayerHits();
+    Objects.requireNonNull(layerHits, "Matched hit is not a layered prefix!");
+    for (int i = 0; i < layerHits.length; i++) {
+      if (layerHits[i] != null) {
+        final Hit layerHit = layerHits[i];
+        layerHits[i] = layerHit.getTrie().matchWithHit(charArray, currentIndex, layerHit);
+      }
+    }
+    matchedHit.setUnmatch();
+    matchedHit.setEnd(currentIndex);
+    return merge(matchedHit, layerHits);
+  }
+
+  /**
+   * 合并各层的命中信息：任意一层匹配即为匹配，任意一层是前缀即为前缀。只保留仍是前缀的层，以便继续向下匹配。
+   *
+   * @param hit 合并后的命中信息
+   * @param layerHits 各层的命中信息
+   * @return 合并后的命中信息
+   * @author hankai
+   * @since Oct 18, 2026 8:49:40 PM
+   */
+  private Hit merge(Hit hit, Hit[] layerHits) {
+    boolean prefix = false;
+    for (int i = 0; i < layerHits.length; i++) {
+      final Hit layerHit = layerHits[i];
+      if (layerHit == null) {
+        continue;
+      }
+      if (layerHit.isMatch()) {
+        hit.setMatch();
+      }
+      if (layerHit.isPrefix()) {
+        prefix = true;
+      } else {
+        layerHits[i] = null;
+      }
+    }
+    if (prefix) {
+      hit.setPrefix();
+      hit.setTrie(this);
+      hit.setLayerHits(layerHits);
+    } else {
+      hit.setLayerHits(null);
+    }
+    return hit;
+  }
+
+  /**
+   * 分层词典树是只读的。
+   *
+   * @param charArray 词对应的字符序列
+   * @throws UnsupportedOperationException 始终抛出
+   */
+  @Override
+  public void add(char[] charArray) {
+    throw new UnsupportedOperationException("Layered trie is read-only, modify a layer instead.");
+  }
+
+  /**
+   * 分层词典树是只读的。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 不会返回
+   * @throws UnsupportedOperationException 始终抛出
+   */
+  @Override
+  public boolean remove(char[] charArray) {
+    throw new UnsupportedOperationException("Layered trie is read-only, modify a layer instead.");
+  }
+
+  /**
+   * 复制分层词典树。分层词典树是只读的，副本与原词典树共享各层。
+   *
+   * @return 词典树副本
+   */
+  @Override
+  public LayeredTrie copy() {
+    return new LayeredTrie(layers);
+  }
+
+  /**
+   * 遍历各层中的所有词，在多层中都存在的词只遍历一次。
+   *
+   * @param action 对每个词执行的操作
+   */
+  @Override
+  public void forEachWord(Consumer<char[]> action) {
+    Objects.requireNonNull(action, "Action must not be null!");
+    for (int i = 0; i < layers.length; i++) {
+      final int layer = i;
+      layers[i].forEachWord(word -> {
+        for (int j = 0; j < layer; j++) {
+          if (layers[j].match(word, 0, word.length).isMatch()) {
+            return;
+          }
+        }
+        action.accept(word);
+      });
+    }
+  }
+
+  /**
+   * 依次在各层中遍历以前缀开头的词，在多层中都存在的词只遍历一次。各层分别按词长由短到长遍历、分别计算访问的节点数；
+   * visitor 返回 false 时只停止遍历当前层。
+   *
+   * @param prefix 前缀
+   * @param maxNodes 每层最多访问的节点数
+   * @param visitor 对每个词执行的操作
+   */
+  @Override
+  public void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    for (int i = 0; i < layers.length; i++) {
+      final int layer = i;
+      layers[i].visitCompletions(prefix, maxNodes, word -> {
+        for (int j = 0; j < layer; j++) {
+          if (layers[j].match(word, 0, word.length).isMatch()) {
+            return true;
+          }
+        }
+        return visitor.test(word);
+      });
+    }
+  }
+
+  /**
+   * 依次在各层中查找相近词，跳过前面的层中已有的词。各层分别计算访问的节点数。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限
+   * @param maxNodes 每层最多访问的节点数
+   * @param visitor 对每个相近词及其编辑距离执行的操作
+   */
+  @Override
+  public void visitSimilar(char[] word, int maxEdits, int maxNodes,
+      ObjIntConsumer<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    for (int i = 0; i < layers.length; i++) {
+      final int layer = i;
+      layers[i].visitSimilar(word, maxEdits, maxNodes, (similar, distance) -> {
+        for (int j = 0; j < layer; j++) {
+          if (layers[j].match(similar, 0, similar.length).isMatch()) {
+            return;
+          }
+        }
+        visitor.accept(similar, distance);
+      });
+    }
+  }
+
+  /**
+   * 获取各层占用的内存之和。各层可能被多个分层词典树共享（如多个租户共享的基础词典树），汇总时应注意避免重复计算。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(layers);
+    for (final WordTrie layer : layers) {
+      bytes += layer.ramBytesUsed();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(layers.length);
+    for (int i = 0; i < layers.length; i++) {
+      resources.add(Accountables.namedAccountable("layer " + i, layers[i]));
+    }
+    return resources;
+  }
+
+  /**
+   * 汇总各层的统计信息。节点数、边数按各层分别计算后相加，词数不重复计算在多层中都存在的词。
+   *
+   * @return 统计信息
+   */
+  @Override
+  public TrieStats getStats() {
+    long nodeCount = 0;
+    long edgeCount = 0;
+    long branchCount = 0;
+    for (final WordTrie layer : layers) {
+      final TrieStats stats = layer.getStats();
+      nodeCount += stats.getNodeCount();
+      edgeCount += stats.getEdgeCount();
+      branchCount += stats.getBranchCount();
+    }
+    final long[] wordCount = new long[1];
+    forEachWord(word -> wordCount[0]++);
+    return new TrieStats(nodeCount, edgeCount, branchCount, wordCount[0], ramBytesUsed());
+  }
+
+  /**
+   * 获取层数。
+   *
+   * @return 层数
+   * @author hankai
+   * @since Oct 18, 2026 8:51:26 PM
+   */
+  public int getLayerCount() {
+    return layers.length;
+  }
+
+  /**
+   * 获取指定的层。
+   *
+   * @param index 层的序号（从 0 开始）
+   * @return 词典树
+   * @author hankai
+   * @since Oct 18, 2026 8:51:58 PM
+   */
+  public WordTrie getLayer(int index) {
+    return layers[index];
+  }
+
+}
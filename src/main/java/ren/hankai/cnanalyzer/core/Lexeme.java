@@ -2,13 +2,19 @@
 package ren.hankai.cnanalyzer.core;
 
 /**
- * 词元模型，存储分词结果。
+ * 词元模型，存储分词结果。分词过程中词元以 int 数组的形式保存在分词上下文中，词元对象只是其视图，
+ * 可以由调用者重用（见 {@link Segmentator#next(Lexeme)}）。
+ *
+ * <p>
+ * 词元同时是其文本的字符序列视图：由 {@link Segmentator#next(Lexeme)} 写入的词元直接读取分词器缓冲区中的字符，
+ * 不创建字符串，视图在下一次获取词元前有效；需要保留文本时调用 {@link #getText()}。
+ * </p>
  *
  * @author hankai
  * @version 1.0.0
  * @since Jan 14, 2017 4:39:58 PM
  */
-public final class Lexeme implements Comparable<Lexeme> {
+public final class Lexeme implements Comparable<Lexeme>, CharSequence {
 
   public static final int TYPE_CJK_NORMAL = 0; // 普通词元
   public static final int TYPE_NUM = 10; // 数词
@@ -22,12 +28,8 @@ public final class Lexeme implements Comparable<Lexeme> {
   private int begin; // 词元首字符在缓冲区中的位置
   private int length; // 词元文本的长度
   private String text; // 词元文本内容
+  private char[] source; // 词元文本所在的缓冲区（文本尚未创建时使用）
   private int type; // 词元类型
-  /*
-   * 用于构造树形字典结构。
-   */
-  private Lexeme prev; // 当前词元的前一个词元
-  private Lexeme next; // 当前词元的后一个词元
 
   public Lexeme(int offset, int begin, int length, int type) {
     this.offset = offset;
@@ -39,6 +41,48 @@ public final class Lexeme implements Comparable<Lexeme> {
     this.type = type;
   }
 
+  /**
+   * 重用词元对象，写入另一个词元的位置及类型（词元文本被清空）。
+   *
+   * @param offset 词元在全部文本中的起始位移
+   * @param begin 词元首字符在缓冲区中的位置
+   * @param length 词元文本的长度
+   * @param type 词元类型
+   * @author hankai
+   * @since Oct 18, 2026 10:55:20 PM
+   */
+  void set(int offset, int begin, int length, int type) {
+    this.offset = offset;
+    this.begin = begin;
+    this.length = length;
+    this.type = type;
+    text = null;
+    source = null;
+  }
+
+  /**
+   * 将词元作为缓冲区中字符的视图，文本在调用 {@link #getText()} 时才创建。
+   *
+   * @param source 词元文本所在的缓冲区
+   * @author hankai
+   * @since Oct 18, 2026 11:02:20 PM
+   */
+  void setSource(char[] source) {
+    this.source = source;
+    text = null;
+  }
+
+  /**
+   * 获取词元文本所在的缓冲区，用于直接复制字符。
+   *
+   * @return 缓冲区（词元不是缓冲区视图时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 11:02:45 PM
+   */
+  char[] getSource() {
+    return source;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -123,16 +167,51 @@ public final class Lexeme implements Comparable<Lexeme> {
   }
 
   /**
-   * 获取词元文本。
+   * 获取词元文本。缓冲区视图的文本在第一次调用时创建。
    *
    * @return 词元文本
    * @author hankai
    * @since Jan 18, 2017 5:23:30 PM
    */
   public String getText() {
+    if ((text == null) && (source != null)) {
+      text = new String(source, begin, length);
+    }
     return text == null ? "" : text;
   }
 
+  @Override
+  public int length() {
+    return source == null ? getText().length() : length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (source == null) {
+      return getText().charAt(index);
+    }
+    if ((index < 0) || (index >= length)) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return source[begin + index];
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (source == null) {
+      return getText().subSequence(start, end);
+    }
+    if ((start < 0) || (end > length) || (start > end)) {
+      throw new StringIndexOutOfBoundsException("start " + start + ", end " + end);
+    }
+    return new String(source, begin + start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    return getText();
+  }
+
   /**
    * 设置词元文本。
    *
@@ -141,6 +220,7 @@ public final class Lexeme implements Comparable<Lexeme> {
    * @since Jan 18, 2017 5:23:57 PM
    */
   public void setLexemeText(String text) {
+    source = null;
     if (text == null) {
       this.text = "";
       length = 0;
@@ -213,40 +293,4 @@ public final class Lexeme implements Comparable<Lexeme> {
     this.type = type;
   }
 
-  /**
-   * 获取 prev 字段的值。
-   *
-   * @return prev 字段值
-   */
-  public Lexeme getPrev() {
-    return prev;
-  }
-
-  /**
-   * 设置 prev 字段的值。
-   *
-   * @param prev prev 字段的值
-   */
-  public void setPrev(Lexeme prev) {
-    this.prev = prev;
-  }
-
-  /**
-   * 获取 next 字段的值。
-   *
-   * @return next 字段值
-   */
-  public Lexeme getNext() {
-    return next;
-  }
-
-  /**
-   * 设置 next 字段的值。
-   *
-   * @param next next 字段的值
-   */
-  public void setNext(Lexeme next) {
-    this.next = next;
-  }
-
 }
@@ -1,11 +1,15 @@
 
 package ren.hankai.cnanalyzer.core;
 
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
 import ren.hankai.cnanalyzer.core.processor.WordProcessor;
 import ren.hankai.cnanalyzer.util.CharacterUtil;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * 分词上下文。由于分词采用逐字分析，需要通过上下文保存和共享信息。
@@ -14,7 +18,10 @@ import java.util.Set;
  * @version 1.0.0
  * @since Jan 14, 2017 3:29:09 PM
  */
-public class SegmentContext {
+public class SegmentContext implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(SegmentContext.class);
 
   // 当有多个分词匹配时，优先选择长度最大的分词结果
   private final boolean matchLongerTextOnly;
@@ -26,18 +33,30 @@ public class SegmentContext {
   private int lastAnalyzedLength;
   // 当前缓冲区位置指针
   private int bufferCursor;
+  // 当前字符的类型，移动游标时识别一次，供各文字处理器共用
+  private int currentCharType = CharacterUtil.CHAR_OTHERS;
   // 字符串读取缓冲
   private final char[] buffer;
-  // 记录正在使用buffer的分词器对象 如果set中存在有分词器对象，则buffer不能进行位移操作（处于locked状态）
-  private final Set<WordProcessor> activeProcessors;
+  // 记录正在使用buffer的分词器对象 如果数组中存在有分词器对象，则buffer不能进行位移操作（处于locked状态）
+  // 处理器只有几个，逐字加锁、解锁时顺序查找即可，不创建任何对象
+  private WordProcessor[] activeProcessors = new WordProcessor[4];
+  private int activeCount;
   // 词元结果集，存储每次游标的移动，切分出来的词元
-  private SortedLinkSet lexemeLinkSet;
+  private final LexemeArena lexemes = new LexemeArena();
+  // 词库
+  private final Dictionary source;
+  // 本次分词使用的词典快照，重置上下文时更新
+  private DictionarySnapshot dictionary;
 
   public SegmentContext(char[] buffer, boolean matchLongerTextOnly) {
+    this(buffer, matchLongerTextOnly, Dictionary.getDefault());
+  }
+
+  public SegmentContext(char[] buffer, boolean matchLongerTextOnly, Dictionary dictionary) {
     this.matchLongerTextOnly = matchLongerTextOnly;
     this.buffer = buffer;
-    activeProcessors = new HashSet<>(4);
-    lexemeLinkSet = new SortedLinkSet();
+    source = Objects.requireNonNull(dictionary, "Dictionary must not be null!");
+    this.dictionary = source.getSnapshot();
   }
 
   /**
@@ -47,12 +66,48 @@ public class SegmentContext {
    * @since Jan 17, 2017 10:53:34 AM
    */
   public void reset() {
-    activeProcessors.clear();
-    lexemeLinkSet = new SortedLinkSet();
+    Arrays.fill(activeProcessors, 0, activeCount, null);
+    activeCount = 0;
+    lexemes.clear();
     bufferOffset = 0;
     availableLength = 0;
     lastAnalyzedLength = 0;
     bufferCursor = 0;
+    currentCharType = CharacterUtil.CHAR_OTHERS;
+    dictionary = source.getSnapshot();
+  }
+
+  /**
+   * 获取本次分词使用的词典快照。
+   *
+   * @return 词典快照
+   * @author hankai
+   * @since Oct 18, 2026 4:02:15 PM
+   */
+  public DictionarySnapshot getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * 估算上下文占用的内存，包括尚未输出的词元（缓冲区由分词器计入，词典快照由词库计入）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(activeProcessors)
+        + lexemes.ramBytesUsed();
+  }
+
+  /**
+   * 获取词库的命中采样器。
+   *
+   * @return 采样器（未开启采样时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 9:51:02 PM
+   */
+  public HitSampler getHitSampler() {
+    return source.getHitSampler();
   }
 
   /**
@@ -83,7 +138,7 @@ public class SegmentContext {
    * @since Jan 18, 2017 1:35:46 PM
    */
   public int getCurrentCharType() {
-    return CharacterUtil.identifyCharType(buffer[bufferCursor]);
+    return currentCharType;
   }
 
   /**
@@ -94,7 +149,15 @@ public class SegmentContext {
    * @since Jan 17, 2017 10:53:44 AM
    */
   public void lockBuffer(WordProcessor processor) {
-    activeProcessors.add(processor);
+    for (int i = 0; i < activeCount; i++) {
+      if (activeProcessors[i] == processor) {
+        return;
+      }
+    }
+    if (activeCount == activeProcessors.length) {
+      activeProcessors = Arrays.copyOf(activeProcessors, activeCount * 2);
+    }
+    activeProcessors[activeCount++] = processor;
   }
 
   /**
@@ -105,7 +168,13 @@ public class SegmentContext {
    * @since Jan 17, 2017 11:02:43 AM
    */
   public void unlockBuffer(WordProcessor processor) {
-    activeProcessors.remove(processor);
+    for (int i = 0; i < activeCount; i++) {
+      if (activeProcessors[i] == processor) {
+        activeProcessors[i] = activeProcessors[--activeCount];
+        activeProcessors[activeCount] = null;
+        return;
+      }
+    }
   }
 
   /**
@@ -116,7 +185,24 @@ public class SegmentContext {
    * @since Jan 17, 2017 11:03:32 AM
    */
   public boolean isBufferLocked() {
-    return activeProcessors.size() > 0;
+    return activeCount > 0;
+  }
+
+  /**
+   * 指定文字处理器是否占用缓冲区（即是否有尚未输出的词元）。
+   *
+   * @param processor 文字处理器
+   * @return 是否占用缓冲区
+   * @author hankai
+   * @since Oct 18, 2026 11:06:20 PM
+   */
+  public boolean isBufferLocked(WordProcessor processor) {
+    for (int i = 0; i < activeCount; i++) {
+      if (activeProcessors[i] == processor) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -133,49 +219,114 @@ public class SegmentContext {
   /**
    * 获取分词集合中首个词元（这个词元将被从集合中删除）。
    *
-   * @return 词元
+   * @return 词元（集合为空时返回 null）
    * @author hankai
    * @since Jan 17, 2017 10:53:00 AM
    */
   public Lexeme getFirstLexeme() {
-    return lexemeLinkSet.pollFirst();
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    return lexemes.pollFirst(lexeme) ? lexeme : null;
+  }
+
+  /**
+   * 取出分词集合中首个词元（这个词元将被从集合中删除），写入调用者重用的词元对象，不创建新的对象。
+   *
+   * @param lexeme 接收词元的对象
+   * @return 集合中是否有词元
+   * @author hankai
+   * @since Oct 18, 2026 10:52:30 PM
+   */
+  public boolean pollFirstLexeme(Lexeme lexeme) {
+    return lexemes.pollFirst(lexeme);
   }
 
   /**
    * 获取分词集合中最后一个词元。
    *
-   * @return 词元
+   * @return 词元（集合为空时返回 null）
    * @author hankai
    * @since Jan 17, 2017 11:03:56 AM
    */
   public Lexeme getLastLexeme() {
-    return lexemeLinkSet.pollLast();
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    return lexemes.pollLast(lexeme) ? lexeme : null;
   }
 
   /**
-   * 获取分词结果集中的最后一个词元。
+   * 获取分词结果集中的最后一个词元（不删除）。
    *
-   * @return 词元
+   * @return 词元（集合为空时返回 null）
    * @author hankai
    * @since Jan 18, 2017 3:30:17 PM
    */
   public Lexeme peekLastLexeme() {
-    if (lexemeLinkSet.tail != null) {
-      return lexemeLinkSet.tail;
-    }
-    return null;
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    return lexemes.peekLast(lexeme) ? lexeme : null;
+  }
+
+  /**
+   * 查看分词结果集中的最后一个词元（不删除），写入调用者重用的词元对象，不创建新的对象。
+   *
+   * @param lexeme 接收词元的对象
+   * @return 集合中是否有词元
+   * @author hankai
+   * @since Oct 18, 2026 10:53:02 PM
+   */
+  public boolean peekLastLexeme(Lexeme lexeme) {
+    return lexemes.peekLast(lexeme);
   }
 
   /**
    * 添加词元到分词集合。
    *
-   * @param lexeme
+   * @param lexeme 词元
    * @author hankai
    * @since Jan 17, 2017 11:04:14 AM
    */
   public void addLexeme(Lexeme lexeme) {
-    if (!Dictionary.isStopWord(buffer, lexeme.getBegin(), lexeme.getLength())) {
-      lexemeLinkSet.add(lexeme);
+    addLexeme(lexeme, dictionary.isStopWord(buffer, lexeme.getBegin(), lexeme.getLength()));
+  }
+
+  /**
+   * 添加已知是否为停止词的词元到分词集合（如从主词典匹配到的词，其停止词标记已记录在词典树上），停止词将被忽略。
+   *
+   * @param lexeme 词元
+   * @param stopWord 是否是停止词
+   * @author hankai
+   * @since Oct 18, 2026 6:15:20 PM
+   */
+  public void addLexeme(Lexeme lexeme, boolean stopWord) {
+    if (!stopWord) {
+      lexemes.add(lexeme.getOffset(), lexeme.getBegin(), lexeme.getLength(), lexeme.getType());
+    }
+  }
+
+  /**
+   * 添加缓冲区中的词元到分词集合（起始位移为当前的 bufferOffset），不创建词元对象。停止词将被忽略。
+   *
+   * @param begin 词元首字符在缓冲区中的位置
+   * @param length 词元的长度
+   * @param type 词元类型
+   * @author hankai
+   * @since Oct 18, 2026 10:53:40 PM
+   */
+  public void addLexeme(int begin, int length, int type) {
+    addLexeme(begin, length, type, dictionary.isStopWord(buffer, begin, length));
+  }
+
+  /**
+   * 添加已知是否为停止词的缓冲区中的词元到分词集合（起始位移为当前的 bufferOffset），不创建词元对象。
+   *
+   * @param begin 词元首字符在缓冲区中的位置
+   * @param length 词元的长度
+   * @param type 词元类型
+   * @param stopWord 是否是停止词（停止词将被忽略）
+   * @author hankai
+   * @since Oct 18, 2026 10:54:12 PM
+   */
+  public void addLexeme(int begin, int length, int type, boolean stopWord) {
+    if (!stopWord) {
+      lexemes.add(bufferOffset, begin, length, type);
     }
   }
 
@@ -187,7 +338,7 @@ public class SegmentContext {
    * @since Jan 17, 2017 11:04:34 AM
    */
   public int getResultSize() {
-    return lexemeLinkSet.size();
+    return lexemes.size();
   }
 
   /**
@@ -197,7 +348,7 @@ public class SegmentContext {
    * @since Jan 17, 2017 11:04:52 AM
    */
   public void excludeOverlap() {
-    lexemeLinkSet.excludeOverlap();
+    lexemes.excludeOverlap();
   }
 
   /**
@@ -273,154 +424,228 @@ public class SegmentContext {
   }
 
   /**
-   * 设置 bufferCursor 字段的值。
+   * 移动游标，并识别游标处字符的类型（字符须已规格化）。
    *
    * @param bufferCursor bufferCursor 字段的值
    */
   public void setBufferCursor(int bufferCursor) {
     this.bufferCursor = bufferCursor;
+    currentCharType = CharacterUtil.identifyCharType(buffer[bufferCursor]);
   }
 
 
 
   /**
-   * 词元有序链表（不提供随机访问）。
+   * 词元有序数组。词元的各字段分别存储在 int 数组中，按起始位置由前到后、长度由长到短排序，
+   * 数组在各文档间重用，添加和剔除词元均在数组内完成，不创建词元对象。
    *
    * @author hankai
    * @version 1.0.0
-   * @since Jan 17, 2017 9:13:34 AM
+   * @since Oct 18, 2026 10:48:20 PM
    */
-  private class SortedLinkSet {
-    private Lexeme head = null;
-    private Lexeme tail = null;
-    private int size = 0;
+  private static final class LexemeArena {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] begins = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    // 有效的词元位于 [head, tail) 区间，取出首个词元时 head 后移
+    private int head;
+    private int tail;
 
     /**
-     * 向链表集合添加词元。
+     * 按顺序插入词元，与已有词元排序相同（起始位置及长度相同）时不插入。
+     * 词元大多按起始位置递增的顺序添加，从尾部向前查找插入位置通常只需比较一两次。
      *
-     * @param lexeme 词元
+     * @param offset 词元在全部文本中的起始位移
+     * @param begin 词元首字符在缓冲区中的位置
+     * @param length 词元的长度
+     * @param type 词元类型
      * @author hankai
-     * @since Jan 17, 2017 9:55:39 AM
+     * @since Oct 18, 2026 10:49:05 PM
      */
-    private void add(Lexeme lexeme) {
-      if (size == 0) {
-        head = tail = lexeme;
-        size++;
-        return;
+    private void add(int offset, int begin, int length, int type) {
+      int index = tail;
+      while ((index > head) && (compare(index - 1, begin, length) > 0)) {
+        index--;
       }
-      final int tailCompareResult = tail.compareTo(lexeme);
-      if (tailCompareResult == 0) {// 词元与尾部词元排序相同，不放入集合
+      if ((index > head) && (compare(index - 1, begin, length) == 0)) {
         return;
       }
-      if (tailCompareResult < 0) {// 词元接入链表尾部
-        tail.setNext(lexeme);
-        lexeme.setPrev(tail);
-        tail = lexeme;
-        size++;
-        return;
+      if ((index == head) && (head > 0)) {
+        // 插入到头部，且头部之前有空位
+        index = --head;
+      } else {
+        if (tail == begins.length) {
+          index -= head;
+          ensureCapacity();
+        }
+        System.arraycopy(offsets, index, offsets, index + 1, tail - index);
+        System.arraycopy(begins, index, begins, index + 1, tail - index);
+        System.arraycopy(lengths, index, lengths, index + 1, tail - index);
+        System.arraycopy(types, index, types, index + 1, tail - index);
+        tail++;
       }
-      if (head.compareTo(lexeme) > 0) {// 词元接入链表头部
-        head.setPrev(lexeme);
-        lexeme.setNext(head);
-        head = lexeme;
-        size++;
-        return;
+      offsets[index] = offset;
+      begins[index] = begin;
+      lengths[index] = length;
+      types[index] = type;
+    }
+
+    /**
+     * 数组已满时，先将词元移到数组头部，仍然不足时扩容。
+     */
+    private void ensureCapacity() {
+      final int size = tail - head;
+      if (head > 0) {
+        System.arraycopy(offsets, head, offsets, 0, size);
+        System.arraycopy(begins, head, begins, 0, size);
+        System.arraycopy(lengths, head, lengths, 0, size);
+        System.arraycopy(types, head, types, 0, size);
+        head = 0;
+        tail = size;
       }
-      // 要添加的词元排序在链表头和尾之间，则从尾部上逆，找到小于添加的词元的词元，然后插入该位置
-      Lexeme temp = tail;
-      while ((temp != null) && (temp.compareTo(lexeme) > 0)) {
-        temp = temp.getPrev();
+      if (tail == begins.length) {
+        offsets = ArrayUtil.grow(offsets, tail + 1);
+        begins = ArrayUtil.grow(begins, tail + 1);
+        lengths = ArrayUtil.grow(lengths, tail + 1);
+        types = ArrayUtil.grow(types, tail + 1);
       }
-      if ((temp != null) && (temp.compareTo(lexeme) < 0)) {
-        lexeme.setPrev(temp);
-        lexeme.setNext(temp.getNext());
-        temp.getNext().setPrev(lexeme);
-        temp.setNext(lexeme);
-        size++;
+    }
+
+    /**
+     * 比较词元的排序（与 {@link Lexeme#compareTo(Lexeme)} 相同）。
+     *
+     * @param index 已有词元的位置
+     * @param begin 另一个词元的起始位置
+     * @param length 另一个词元的长度
+     * @return 小于 0 表示已有词元排在前面，等于 0 表示排序相同
+     */
+    private int compare(int index, int begin, int length) {
+      if (begins[index] != begin) {
+        return begins[index] < begin ? -1 : 1;
       }
+      return Integer.compare(length, lengths[index]);
+    }
+
+    /**
+     * 将指定位置的词元复制到词元对象。
+     *
+     * @param index 词元位置
+     * @param lexeme 词元对象
+     */
+    private void copyTo(int index, Lexeme lexeme) {
+      lexeme.set(offsets[index], begins[index], lengths[index], types[index]);
     }
 
     /**
-     * 取出第一个词元（这个词元将被从链表中删除）。
+     * 取出第一个词元（这个词元将被从数组中删除）。
      *
-     * @return 第一个词元
+     * @param lexeme 接收词元的对象
+     * @return 是否有词元
      * @author hankai
-     * @since Jan 17, 2017 9:55:22 AM
+     * @since Oct 18, 2026 10:50:12 PM
      */
-    private Lexeme pollFirst() {
-      if (size == 1) {
-        final Lexeme first = head;
-        head = tail = null;
-        size = 0;
-        return first;
-      } else if (size > 1) {
-        final Lexeme first = head;
-        head = first.getNext();
-        first.setNext(null);
-        size--;
-        return first;
+    private boolean pollFirst(Lexeme lexeme) {
+      if (head == tail) {
+        return false;
       }
-      return null;
+      copyTo(head++, lexeme);
+      if (head == tail) {
+        head = tail = 0;
+      }
+      return true;
     }
 
     /**
-     * 取出最后一个词元（这个词元将被从链表中删除）。
+     * 取出最后一个词元（这个词元将被从数组中删除）。
      *
-     * @return 最后一个词元
+     * @param lexeme 接收词元的对象
+     * @return 是否有词元
      * @author hankai
-     * @since Jan 17, 2017 9:55:03 AM
+     * @since Oct 18, 2026 10:50:40 PM
+     */
+    private boolean pollLast(Lexeme lexeme) {
+      if (head == tail) {
+        return false;
+      }
+      copyTo(--tail, lexeme);
+      if (head == tail) {
+        head = tail = 0;
+      }
+      return true;
+    }
+
+    /**
+     * 查看最后一个词元。
+     *
+     * @param lexeme 接收词元的对象
+     * @return 是否有词元
      */
-    private Lexeme pollLast() {
-      if (size == 1) {
-        final Lexeme last = head;
-        head = tail = null;
-        size = 0;
-        return last;
-      } else if (size > 1) {
-        final Lexeme last = tail;
-        tail = last.getPrev();
-        last.setPrev(null);
-        size--;
-        return last;
+    private boolean peekLast(Lexeme lexeme) {
+      if (head == tail) {
+        return false;
       }
-      return null;
+      copyTo(tail - 1, lexeme);
+      return true;
     }
 
     /**
-     * 正向遍历并剔除链表中相邻的，且完全包含的词元（进行最大切分的时候，过滤长度较小的交叠词元）。
+     * 正向遍历并剔除相邻的，且完全包含的词元（进行最大切分的时候，过滤长度较小的交叠词元）。
+     * 保留的词元在数组内前移，不需要额外的空间。
      *
      * @author hankai
-     * @since Jan 17, 2017 9:50:27 AM
+     * @since Oct 18, 2026 10:51:15 PM
      */
     private void excludeOverlap() {
-      if (size > 1) {
-        Lexeme one = head;
-        Lexeme another = one.getNext();
-        do {
-          if (one.isOverlap(another)) {// 邻近的两个词元完全交叠
-            another = another.getNext();
-            one.setNext(another);
-            if (another != null) {
-              another.setPrev(one);
-            }
-            size--;
-          } else {// 词元不完全交叠
-            one = another;
-            another = another.getNext();
-          }
-        } while (another != null);
+      if ((tail - head) < 2) {
+        return;
+      }
+      int one = head;
+      for (int another = head + 1; another < tail; another++) {
+        if (!isOverlap(one, another)) {
+          one++;
+          offsets[one] = offsets[another];
+          begins[one] = begins[another];
+          lengths[one] = lengths[another];
+          types[one] = types[another];
+        }
       }
+      tail = one + 1;
     }
 
     /**
-     * 获取词元个数。
+     * 判断两个词元是否彼此完全包含（与 {@link Lexeme#isOverlap(Lexeme)} 相同）。
      *
-     * @return 词元个数
-     * @author hankai
-     * @since Jan 17, 2017 9:50:00 AM
+     * @param one 一个词元的位置
+     * @param another 另一个词元的位置
+     * @return 是否包含
      */
+    private boolean isOverlap(int one, int another) {
+      final int oneBegin = offsets[one] + begins[one];
+      final int oneEnd = oneBegin + lengths[one];
+      final int anotherBegin = offsets[another] + begins[another];
+      final int anotherEnd = anotherBegin + lengths[another];
+      return ((oneBegin <= anotherBegin) && (oneEnd >= anotherEnd))
+          || ((oneBegin >= anotherBegin) && (oneEnd <= anotherEnd));
+    }
+
+    /**
+     * 清空词元（数组保留，供下一个文档重用）。
+     */
+    private void clear() {
+      head = tail = 0;
+    }
+
     private int size() {
-      return size;
+      return tail - head;
+    }
+
+    private long ramBytesUsed() {
+      return RamUsageEstimator.sizeOf(offsets) + RamUsageEstimator.sizeOf(begins)
+          + RamUsageEstimator.sizeOf(lengths) + RamUsageEstimator.sizeOf(types);
     }
   }
 }
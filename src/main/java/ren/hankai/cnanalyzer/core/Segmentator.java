@@ -1,16 +1,22 @@
 
 package ren.hankai.cnanalyzer.core;
 
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
 import ren.hankai.cnanalyzer.core.processor.CjkProcessor;
 import ren.hankai.cnanalyzer.core.processor.LetterProcessor;
 import ren.hankai.cnanalyzer.core.processor.QuantifierProcessor;
 import ren.hankai.cnanalyzer.core.processor.WordProcessor;
+import ren.hankai.cnanalyzer.core.processor.WordProcessorFactory;
 import ren.hankai.cnanalyzer.util.CharacterUtil;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.ServiceLoader;
 
 /**
  * 分词器包装类。
@@ -19,50 +25,122 @@ import java.util.List;
  * @version 1.0.0
  * @since Jan 14, 2017 2:48:12 PM
  */
-public class Segmentator {
+public class Segmentator implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(Segmentator.class);
+
+  // 通过 ServiceLoader 加载的文字处理器工厂
+  private static volatile List<WordProcessorFactory> processorFactories =
+      loadProcessorFactories(Thread.currentThread().getContextClassLoader());
 
   private Reader input;
   private final char[] buffer = new char[1024 * 4]; // 4KB
   private final SegmentContext context;
-  private final List<WordProcessor> processors = new ArrayList<>();
+  private final WordProcessor[] processors;
+  // 各文字处理器处理的字符类型
+  private final int[] charTypeMasks;
 
   public Segmentator(Reader input) {
     this(input, true);
   }
 
   public Segmentator(Reader input, boolean matchLongerTextOnly) {
+    this(input, matchLongerTextOnly, Dictionary.getDefault());
+  }
+
+  public Segmentator(Reader input, boolean matchLongerTextOnly, Dictionary dictionary) {
     this.input = new SpaceCharacterFilter(input);
-    context = new SegmentContext(buffer, matchLongerTextOnly);
-    processors.add(new QuantifierProcessor());
-    processors.add(new CjkProcessor());
-    processors.add(new LetterProcessor());
+    context = new SegmentContext(buffer, matchLongerTextOnly, dictionary);
+    final List<WordProcessor> processorList = new ArrayList<>();
+    processorList.add(new QuantifierProcessor());
+    processorList.add(new CjkProcessor());
+    processorList.add(new LetterProcessor());
+    for (final WordProcessorFactory factory : processorFactories) {
+      processorList.add(Objects.requireNonNull(factory.create(),
+          "Word processor created by " + factory.getClass().getName() + " is null!"));
+    }
+    processors = processorList.toArray(new WordProcessor[processorList.size()]);
+    charTypeMasks = new int[processors.length];
+    for (int i = 0; i < processors.length; i++) {
+      charTypeMasks[i] = processors[i].getCharTypeMask();
+    }
+  }
+
+  /**
+   * 用指定的类加载器重新加载文字处理器工厂（见 {@link WordProcessorFactory}），只影响此后创建的分词器。
+   * 默认使用加载本类时线程的上下文类加载器。
+   *
+   * @param classLoader 类加载器
+   * @author hankai
+   * @since Oct 18, 2026 11:08:30 PM
+   */
+  public static void reloadProcessorFactories(ClassLoader classLoader) {
+    processorFactories = loadProcessorFactories(classLoader);
+  }
+
+  private static List<WordProcessorFactory> loadProcessorFactories(ClassLoader classLoader) {
+    final List<WordProcessorFactory> factories = new ArrayList<>();
+    for (final WordProcessorFactory factory : ServiceLoader.load(WordProcessorFactory.class,
+        classLoader)) {
+      factories.add(factory);
+    }
+    return factories;
   }
 
+  /**
+   * 获取下一个词元。词元文本在返回前创建，可以长期保留；主词典中的词使用词典持有的规范字符串（见
+   * {@link DictionarySnapshot#getCanonicalWord(char[], int, int)}），常用词无需每次创建新的字符串。
+   *
+   * @return 词元（没有更多词元时返回 null）
+   * @throws IOException 读取失败
+   */
   public synchronized Lexeme next() throws IOException {
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    if (!next(lexeme)) {
+      return null;
+    }
+    final String text =
+        context.getDictionary().getCanonicalWord(buffer, lexeme.getBegin(), lexeme.getLength());
+    lexeme.setLexemeText(
+        text == null ? String.valueOf(buffer, lexeme.getBegin(), lexeme.getLength()) : text);
+    return lexeme;
+  }
+
+  /**
+   * 获取下一个词元，写入调用者重用的词元对象。批量分词时重用同一个词元对象，可避免逐个词元创建对象。
+   * 词元作为缓冲区中字符的视图（见 {@link Lexeme#charAt(int)}），不创建字符串，视图在下一次获取词元前有效。
+   *
+   * @param lexeme 接收词元的对象
+   * @return 是否还有词元
+   * @throws IOException 读取失败
+   * @author hankai
+   * @since Oct 18, 2026 10:56:10 PM
+   */
+  public synchronized boolean next(Lexeme lexeme) throws IOException {
     if (context.getResultSize() == 0) {
       final int available = fillBuffer(input);
       if (available <= 0) {
         context.reset();
-        return null;
-      } else {
-        final int analyzedLength = doAnalysis(available);
-        resetProcessors();
-        // 记录最近一次分析的字符长度
-        context.setLastAnalyzedLength(analyzedLength);
-        // 记录累计已分析的字符长度
-        context.setBufferOffset(context.getBufferOffset() + analyzedLength);
-        // 如果使用最大切分，则过滤交叠的短词元
-        if (context.isMatchLongerTextOnly()) {
-          context.excludeOverlap();
-        }
-        // 读取词元池中的词元
-        return buildLexemeText(context.getFirstLexeme());
+        return false;
       }
-    } else {
-      // 读取词元池中的已有词元
-
+      final int analyzedLength = doAnalysis(available);
+      resetProcessors();
+      // 记录最近一次分析的字符长度
+      context.setLastAnalyzedLength(analyzedLength);
+      // 记录累计已分析的字符长度
+      context.setBufferOffset(context.getBufferOffset() + analyzedLength);
+      // 如果使用最大切分，则过滤交叠的短词元
+      if (context.isMatchLongerTextOnly()) {
+        context.excludeOverlap();
+      }
+    }
+    // 读取词元池中的词元
+    if (!context.pollFirstLexeme(lexeme)) {
+      return false;
     }
-    return buildLexemeText(context.getFirstLexeme());
+    lexeme.setSource(buffer);
+    return true;
   }
 
   /**
@@ -76,10 +154,14 @@ public class Segmentator {
   private int doAnalysis(int available) {
     int analyzedLength = 0;
     for (int buffIndex = 0; buffIndex < available; buffIndex++) {
-      context.setBufferCursor(buffIndex);
       buffer[buffIndex] = CharacterUtil.regularize(buffer[buffIndex]);
-      for (final WordProcessor processor : processors) {
-        processor.nextLexeme(context);
+      context.setBufferCursor(buffIndex);
+      // 只把字符交给处理该类型字符或正占用缓冲区的文字处理器
+      final int charTypeMask = CharacterUtil.toCharTypeMask(context.getCurrentCharType());
+      for (int i = 0; i < processors.length; i++) {
+        if (((charTypeMasks[i] & charTypeMask) != 0) || context.isBufferLocked(processors[i])) {
+          processors[i].nextLexeme(context);
+        }
       }
       analyzedLength++;
       if ((available == buffer.length) // 缓冲区已满
@@ -120,32 +202,31 @@ public class Segmentator {
   }
 
   /**
-   * 用当前缓冲区内容构建词元对应的文本字符串。
+   * 重置文字处理器。
    *
-   * @param lexeme 词元
-   * @return 更新后的词元
    * @author hankai
-   * @since Jan 17, 2017 10:40:50 AM
+   * @since Jan 17, 2017 10:45:17 AM
    */
-  private Lexeme buildLexemeText(Lexeme lexeme) {
-    if (lexeme != null) {
-      lexeme.setLexemeText(String.valueOf(buffer, lexeme.getBegin(), lexeme.getLength()));
-      return lexeme;
-    } else {
-      return null;
+  private void resetProcessors() {
+    for (final WordProcessor processor : processors) {
+      processor.reset();
     }
   }
 
   /**
-   * 重置文字处理器。
+   * 估算分词器占用的内存，包括缓冲区、分词上下文及文字处理器（词典由词库计入）。
    *
-   * @author hankai
-   * @since Jan 17, 2017 10:45:17 AM
+   * @return 字节数
    */
-  private void resetProcessors() {
+  @Override
+  public synchronized long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(buffer)
+        + context.ramBytesUsed() + RamUsageEstimator.shallowSizeOf(processors)
+        + RamUsageEstimator.sizeOf(charTypeMasks);
     for (final WordProcessor processor : processors) {
-      processor.reset();
+      bytes += RamUsageEstimator.shallowSizeOf(processor);
     }
+    return bytes;
   }
 
   /**
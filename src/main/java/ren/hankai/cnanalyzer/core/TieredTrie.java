@@ -0,0 +1,526 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 冷热分层存储的词典树。常用词（热词）存储在堆内存中的双数组词典树中，不常用词（冷词）存储在内存映射文件中的双数组词典树中，
+ * 只有热词层无法确定匹配结果时才查询冷词层。主词典中绝大多数词条很少被命中，分层后堆中只保留热词。
+ *
+ * <p>
+ * 热词层标记了冷词经过的节点（见 {@link DoubleArrayTrie#markTierPath(char[])}）。匹配到的节点或在热词层中匹配中断前的最后一个节点
+ * 没有标记时，冷词层中不存在以该字符序列开头的词，无需查询冷词层；有标记时同时在冷词层中匹配，两层的结果合并。
+ * </p>
+ *
+ * <p>
+ * 冷词层只读：运行时添加的词存入热词层，删除冷词层中的词时记录在已删除集合中，匹配时忽略。
+ * </p>
+ *
+ * <p>
+ * 游标匹配时，游标的低32位为热词层中的节点（-1 表示热词层中没有该字符序列），高32位为冷词层中的节点（0 表示无需再查询冷词层）。
+ * 判断冷词是否已被删除需要字符序列，因此删除过冷词的词典树不支持游标匹配。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:58:10 PM
+ */
+public class TieredTrie implements WordTrie {
+
+  private static final Logger logger = LoggerFactory.getLogger(TieredTrie.class);
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(TieredTrie.class);
+  private static final int COLD_MAGIC = 0x484B4354; // "HKCT"
+  private static final int COLD_VERSION = 1; // 冷词层文件格式版本，格式变更时递增
+  // 冷词层文件头：魔数、版本号、冷词的校验和、文件内容（文件头之后部分）的校验和，各4字节
+  private static final int COLD_HEADER_SIZE = 16;
+
+  private final DoubleArrayTrie hot; // 热词层（堆内存）
+  private final DoubleArrayTrie cold; // 冷词层（内存映射，只读）
+  private final CharArraySet removed; // 已从冷词层删除的词
+
+  private TieredTrie(DoubleArrayTrie hot, DoubleArrayTrie cold, CharArraySet removed) {
+    this.hot = hot;
+    this.cold = cold;
+    this.removed = removed;
+  }
+
+  /**
+   * 按词是否是热词构建分层词典树，冷词层写入文件后以只读方式内存映射。
+   *
+   * <p>
+   * 冷词层文件头记录了冷词的校验和及文件内容的校验和，两者均与本次的冷词一致时直接映射已有的文件，不再构建冷词层；
+   * 否则在同一目录下写入临时文件，刷新到磁盘后原子地替换原文件。其他词典实例（或同一主机上的其他 JVM）已映射的原文件不受影响。
+   * </p>
+   *
+   * @param words 词条
+   * @param isHot 判断词是否是热词（如 {@link DictionaryPruner#isHot(String)}）
+   * @param coldFile 冷词层文件
+   * @return 分层词典树
+   * @throws IOException 冷词层写入或映射失败
+   * @author hankai
+   * @since Oct 18, 2026 9:59:30 PM
+   */
+  public static TieredTrie build(Collection<char[]> words, Predicate<String> isHot,
+      Path coldFile) throws IOException {
+    Objects.requireNonNull(words, "Words must not be null!");
+    Objects.requireNonNull(isHot, "Hot word predicate must not be null!");
+    Objects.requireNonNull(coldFile, "Cold file must not be null!");
+    final List<char[]> hotWords = new ArrayList<>();
+    final List<char[]> coldWords = new ArrayList<>();
+    for (final char[] word : words) {
+      if (isHot.test(new String(word))) {
+        hotWords.add(word);
+      } else {
+        coldWords.add(word);
+      }
+    }
+    final DoubleArrayTrie hot = DoubleArrayTrie.build(hotWords);
+    for (final char[] word : coldWords) {
+      hot.markTierPath(word);
+    }
+    final int wordChecksum = checksum(coldWords);
+    DoubleArrayTrie cold = map(coldFile, wordChecksum);
+    if (cold == null) {
+      cold = write(DoubleArrayTrie.build(coldWords), wordChecksum,
+          coldFile);
+    }
+    return new TieredTrie(hot, cold, new CharArraySet(0, false));
+  }
+
+  /**
+   * 计算冷词的校验和（依次为每个词的长度及各字符）。
+   *
+   * @param words 冷词
+   * @return CRC32 校验和
+   * @author hankai
+   * @since Oct 18, 2026 11:18:20 PM
+   */
+  private static int checksum(List<char[]> words) {
+    final CRC32 crc = new CRC32();
+    ByteBuffer bytes = ByteBuffer.allocate(8192);
+    for (final char[] word : words) {
+      final int size = (word.length + 1) * 2;
+      if (bytes.remaining() < size) {
+        bytes.flip();
+        crc.update(bytes);
+        bytes = size > bytes.capacity() ? ByteBuffer.allocate(size) : (ByteBuffer) bytes.clear();
+      }
+      bytes.putChar((char) word.length);
+      for (final char ch : word) {
+        bytes.putChar(ch);
+      }
+    }
+    bytes.flip();
+    crc.update(bytes);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * 以只读方式内存映射已有的冷词层文件。
+   *
+   * @param file 冷词层文件
+   * @param wordChecksum 冷词的校验和
+   * @return 映射文件中的词典树（文件不存在、格式不匹配、冷词或内容的校验和不一致时返回 null）
+   * @throws IOException 文件无法读取
+   * @author hankai
+   * @since Oct 18, 2026 11:19:05 PM
+   */
+  private static DoubleArrayTrie map(Path file, int wordChecksum) throws IOException {
+    if (!Files.isRegularFile(file) || (Files.size(file) < COLD_HEADER_SIZE)) {
+      return null;
+    }
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    buffer.order(ByteOrder.nativeOrder());
+    if ((buffer.getInt(0) != COLD_MAGIC) || (buffer.getInt(4) != COLD_VERSION)
+        || (buffer.getInt(8) != wordChecksum)) {
+      return null;
+    }
+    buffer.position(COLD_HEADER_SIZE);
+    final CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate());
+    if (buffer.getInt(12) != (int) crc.getValue()) {
+      logger.warn("Cold tier file is corrupted and will be rebuilt: " + file);
+      return null;
+    }
+    try {
+      return DoubleArrayTrie.readFrom(buffer);
+    } catch (final RuntimeException ex) {
+      logger.warn("Cold tier file is corrupted and will be rebuilt: " + file, ex);
+      return null;
+    }
+  }
+
+  /**
+   * 将冷词层写入同一目录下的临时文件并以只读方式内存映射，再用临时文件原子地替换冷词层文件。
+   * 原文件被替换后，已映射原文件的实例仍读取原文件的内容。
+   *
+   * @param trie 冷词层词典树
+   * @param wordChecksum 冷词的校验和
+   * @param file 冷词层文件
+   * @return 映射文件中的词典树
+   * @throws IOException 写入、映射或替换失败
+   * @author hankai
+   * @since Oct 18, 2026 10:00:12 PM
+   */
+  private static DoubleArrayTrie write(DoubleArrayTrie trie, int wordChecksum, Path file)
+      throws IOException {
+    final Path target = file.toAbsolutePath();
+    final Path temp =
+        Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try {
+      final MappedByteBuffer buffer;
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        final CRC32 crc = new CRC32();
+        channel.position(COLD_HEADER_SIZE);
+        trie.writeTo(new WritableByteChannel() {
+          @Override
+          public int write(ByteBuffer src) throws IOException {
+            final ByteBuffer written = src.duplicate();
+            final int count = channel.write(src);
+            written.limit(written.position() + count);
+            crc.update(written);
+            return count;
+          }
+
+          @Override
+          public boolean isOpen() {
+            return channel.isOpen();
+          }
+
+          @Override
+          public void close() {}
+        }, ByteOrder.nativeOrder());
+        final ByteBuffer header =
+            ByteBuffer.allocate(COLD_HEADER_SIZE).order(ByteOrder.nativeOrder());
+        header.putInt(COLD_MAGIC).putInt(COLD_VERSION).putInt(wordChecksum)
+            .putInt((int) crc.getValue());
+        header.flip();
+        while (header.hasRemaining()) {
+          channel.write(header, header.position());
+        }
+        channel.force(true);
+        buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      buffer.order(ByteOrder.nativeOrder());
+      buffer.position(COLD_HEADER_SIZE);
+      return DoubleArrayTrie.readFrom(buffer);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public Hit match(char[] charArray, int begin, int length) {
+    final Hit hit = new Hit();
+    final int count = length > 1 ? length : 1;
+    hit.setBegin(begin);
+    hit.setEnd((begin + count) - 1);
+    int state = DoubleArrayTrie.ROOT;
+    int reached = state; // 在热词层中匹配到的最后一个节点
+    for (int i = 0; (i < count) && (state >= 0); i++) {
+      state = hot.transition(state, hot.getCode(charArray[begin + i]));
+      if (state >= 0) {
+        reached = state;
+      }
+    }
+    final Hit coldHit = hot.isTierPath(reached) ? cold.match(charArray, begin, length) : null;
+    return fillHit(hit, charArray, state, coldHit);
+  }
+
+  @Override
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    final int previous = matchedHit.getState();
+    final int state = previous >= 0
+        ? hot.transition(previous, hot.getCode(charArray[currentIndex]))
+        : -1;
+    final Hit[] layerHits = matchedHit.getLayerHits();
+    Hit coldHit = null;
+    // 在热词层中继续匹配到的节点没有标记时，冷词层中不再有以当前字符序列开头的词
+    if ((layerHits != null) && ((state < 0) || hot.isTierPath(state))) {
+      coldHit = cold.matchWithHit(charArray, currentIndex, layerHits[0]);
+    }
+    matchedHit.setUnmatch();
+    matchedHit.setEnd(currentIndex);
+    return fillHit(matchedHit, charArray, state, coldHit);
+  }
+
+  /**
+   * 合并两层的匹配结果。
+   *
+   * @param hit 命中信息
+   * @param charArray 字符序列
+   * @param state 在热词层中匹配到的节点（-1 表示热词层中没有该字符序列）
+   * @param coldHit 在冷词层中的命中信息（未查询冷词层时为 null）
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 10:01:40 PM
+   */
+  private Hit fillHit(Hit hit, char[] charArray, int state, Hit coldHit) {
+    if (state >= 0) {
+      if (hot.isWord(state)) {
+        hit.setMatch();
+      }
+      if (hot.hasChildren(state)) {
+        hit.setPrefix();
+      }
+    }
+    Hit nextColdHit = null;
+    if (coldHit != null) {
+      if (coldHit.isMatch() && (removed.isEmpty() || !removed.contains(charArray,
+          hit.getBegin(), (hit.getEnd() - hit.getBegin()) + 1))) {
+        hit.setMatch();
+      }
+      if (coldHit.isPrefix()) {
+        hit.setPrefix();
+        nextColdHit = coldHit;
+      }
+    }
+    hit.setState(state);
+    if (hit.isPrefix()) {
+      hit.setTrie(this);
+      if (nextColdHit == null) {
+        hit.setLayerHits(null);
+      } else if (hit.getLayerHits() != null) {
+        hit.getLayerHits()[0] = nextColdHit;
+      } else {
+        hit.setLayerHits(new Hit[] {nextColdHit});
+      }
+    }
+    return hit;
+  }
+
+  @Override
+  public boolean isCursorSupported() {
+    return removed.isEmpty();
+  }
+
+  @Override
+  public long next(long cursor, char ch) {
+    final int hotState = (int) cursor;
+    final int state = hotState >= 0 ? hot.transition(hotState, hot.getCode(ch)) : -1;
+    // 与 match 相同，根节点出发时热词层中没有该字符时以根节点的标记为准
+    final int reached = (cursor == CURSOR_ROOT) && (state < 0) ? DoubleArrayTrie.ROOT : state;
+    final int coldState = (int) (cursor >>> 32);
+    int nextColdState = -1;
+    if (((cursor == CURSOR_ROOT) || (coldState > DoubleArrayTrie.ROOT))
+        && ((reached < 0) || hot.isTierPath(reached))) {
+      nextColdState = cold.transition(coldState, cold.getCode(ch));
+    }
+    if ((state < 0) && (nextColdState < 0)) {
+      return -1;
+    }
+    return ((long) Math.max(nextColdState, 0) << 32) | (state & 0xFFFFFFFFL);
+  }
+
+  @Override
+  public boolean isWord(long cursor) {
+    final int state = (int) cursor;
+    final int coldState = (int) (cursor >>> 32);
+    return ((state >= 0) && hot.isWord(state))
+        || ((coldState > DoubleArrayTrie.ROOT) && cold.isWord(coldState));
+  }
+
+  @Override
+  public boolean isPrefix(long cursor) {
+    final int state = (int) cursor;
+    final int coldState = (int) (cursor >>> 32);
+    return ((state >= 0) && hot.hasChildren(state))
+        || ((coldState > DoubleArrayTrie.ROOT) && cold.hasChildren(coldState));
+  }
+
+  /**
+   * 将词添加到热词层。新建的节点若在冷词经过的路径上，同样标记，否则匹配到该节点时不会再查询冷词层。
+   *
+   * @param charArray 词对应的字符序列
+   */
+  @Override
+  public void add(char[] charArray) {
+    hot.add(charArray);
+    // 冷词层中以词的前缀开头的最长字符序列
+    int state = DoubleArrayTrie.ROOT;
+    int length = 0;
+    while ((length < charArray.length) && (state >= 0)) {
+      state = cold.transition(state, cold.getCode(charArray[length]));
+      if (state >= 0) {
+        length++;
+      }
+    }
+    if (length > 0) {
+      hot.markTierPath(Arrays.copyOf(charArray, length));
+    }
+  }
+
+  /**
+   * 从热词层删除词；词在冷词层中时，记录为已删除。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 词是否存在并被删除
+   */
+  @Override
+  public boolean remove(char[] charArray) {
+    boolean result = hot.remove(charArray);
+    if (cold.match(charArray, 0, charArray.length).isMatch() && !removed.contains(charArray)) {
+      removed.add(charArray.clone());
+      result = true;
+    }
+    return result;
+  }
+
+  /**
+   * 复制词典树。热词层被复制，只读的冷词层在副本间共享。
+   *
+   * @return 词典树副本
+   */
+  @Override
+  public TieredTrie copy() {
+    return new TieredTrie(hot.copy(), cold, new CharArraySet(removed, false));
+  }
+
+  @Override
+  public void forEachWord(Consumer<char[]> action) {
+    Objects.requireNonNull(action, "Action must not be null!");
+    hot.forEachWord(action);
+    cold.forEachWord(word -> {
+      if (!removed.contains(word) && !hot.match(word, 0, word.length).isMatch()) {
+        action.accept(word);
+      }
+    });
+  }
+
+  /**
+   * 先在热词层中遍历以前缀开头的词；有冷词以该前缀开头时（见 {@link DoubleArrayTrie#markTierPath(char[])}），
+   * 再在冷词层中遍历。两层分别按词长由短到长遍历、分别计算访问的节点数；visitor 返回 false 时只停止遍历当前层。
+   *
+   * @param prefix 前缀
+   * @param maxNodes 每层最多访问的节点数
+   * @param visitor 对每个词执行的操作
+   */
+  @Override
+  public void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor) {
+    Objects.requireNonNull(prefix, "Prefix must not be null!");
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    hot.visitCompletions(prefix, maxNodes, visitor);
+    int state = DoubleArrayTrie.ROOT;
+    int reached = state;
+    for (int i = 0; (i < prefix.length) && (state >= 0); i++) {
+      state = hot.transition(state, hot.getCode(prefix[i]));
+      if (state >= 0) {
+        reached = state;
+      }
+    }
+    if (hot.isTierPath(reached)) {
+      cold.visitCompletions(prefix, maxNodes, word -> {
+        if (removed.contains(word) || hot.match(word, 0, word.length).isMatch()) {
+          return true;
+        }
+        return visitor.test(word);
+      });
+    }
+  }
+
+  /**
+   * 先在热词层中查找相近词，再在冷词层中查找（忽略已删除的词及热词层中已有的词）。两层分别计算访问的节点数。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限
+   * @param maxNodes 每层最多访问的节点数
+   * @param visitor 对每个相近词及其编辑距离执行的操作
+   */
+  @Override
+  public void visitSimilar(char[] word, int maxEdits, int maxNodes,
+      ObjIntConsumer<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    hot.visitSimilar(word, maxEdits, maxNodes, visitor);
+    cold.visitSimilar(word, maxEdits, maxNodes, (similar, distance) -> {
+      if (!removed.contains(similar) && !hot.match(similar, 0, similar.length).isMatch()) {
+        visitor.accept(similar, distance);
+      }
+    });
+  }
+
+  /**
+   * 获取热词层的词典树。
+   *
+   * @return 热词层
+   */
+  DoubleArrayTrie getHotTier() {
+    return hot;
+  }
+
+  /**
+   * 获取冷词层的词典树。
+   *
+   * @return 冷词层
+   */
+  DoubleArrayTrie getColdTier() {
+    return cold;
+  }
+
+  /**
+   * 获取分层词典树占用的堆内存（主要是热词层，映射的冷词层不在堆中）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + hot.ramBytesUsed() + cold.ramBytesUsed()
+        + RamUsageUtil.sizeOf(removed);
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>(3);
+    resources.add(Accountables.namedAccountable("hot tier", hot));
+    resources.add(Accountables.namedAccountable("cold tier", cold));
+    resources.add(Accountables.namedAccountable("removed cold words",
+        RamUsageUtil.sizeOf(removed)));
+    return resources;
+  }
+
+  @Override
+  public TrieStats getStats() {
+    final TrieStats hotStats = hot.getStats();
+    final TrieStats coldStats = cold.getStats();
+    final long[] wordCount = new long[1];
+    forEachWord(word -> wordCount[0]++);
+    return new TrieStats(hotStats.getNodeCount() + coldStats.getNodeCount(),
+        hotStats.getEdgeCount() + coldStats.getEdgeCount(),
+        hotStats.getBranchCount() + coldStats.getBranchCount(), wordCount[0], ramBytesUsed());
+  }
+
+}
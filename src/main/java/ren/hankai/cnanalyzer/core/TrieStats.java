@@ -0,0 +1,92 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * 词典树的统计信息，用于容量规划。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:10:24 PM
+ */
+public class TrieStats {
+
+  private final long nodeCount; // 节点数（不含根节点）
+  private final long edgeCount; // 边数（树形结构中与节点数相同，FST 中节点被共享，边数多于节点数）
+  private final long branchCount; // 有子节点的节点数（含根节点）
+  private final long wordCount; // 词数
+  private final long ramBytesUsed; // 占用的堆内存字节数
+
+  public TrieStats(long nodeCount, long edgeCount, long branchCount, long wordCount,
+      long ramBytesUsed) {
+    this.nodeCount = nodeCount;
+    this.edgeCount = edgeCount;
+    this.branchCount = branchCount;
+    this.wordCount = wordCount;
+    this.ramBytesUsed = ramBytesUsed;
+  }
+
+  /**
+   * 获取 nodeCount 字段的值。
+   *
+   * @return nodeCount 字段值
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * 获取 edgeCount 字段的值。
+   *
+   * @return edgeCount 字段值
+   */
+  public long getEdgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * 获取 branchCount 字段的值。
+   *
+   * @return branchCount 字段值
+   */
+  public long getBranchCount() {
+    return branchCount;
+  }
+
+  /**
+   * 获取 wordCount 字段的值。
+   *
+   * @return wordCount 字段值
+   */
+  public long getWordCount() {
+    return wordCount;
+  }
+
+  /**
+   * 获取 ramBytesUsed 字段的值。
+   *
+   * @return ramBytesUsed 字段值
+   */
+  public long getRamBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  /**
+   * 获取平均扇出，即有子节点的节点平均有几个子节点。
+   *
+   * @return 平均扇出（词典树为空时返回 0）
+   * @author hankai
+   * @since Oct 18, 2026 9:11:40 PM
+   */
+  public double getAverageFanOut() {
+    return branchCount == 0 ? 0 : (double) edgeCount / branchCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("nodes=%d, edges=%d, words=%d, fanOut=%.2f, ram=%s", nodeCount,
+        edgeCount, wordCount, getAverageFanOut(),
+        RamUsageEstimator.humanReadableUnits(ramBytesUsed));
+  }
+
+}
@@ -0,0 +1,319 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 文件系统中的用户词典。载入时将各文件中的词添加到词库；开始监视后，文件被修改、创建或删除时重新读取该文件，
+ * 与上次读取到的内容比较，只将新增和删除的词应用到词库，未变化的行不会引起重新解析。
+ *
+ * <p>
+ * 同一个词出现在多个文件中时，所有文件都删除该词后才将其从词库中删除；载入前词库中已有的词（如內建词典中的词）
+ * 不会因为从文件中删除而被删除。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 7:35:20 PM
+ */
+public class UserDictionaryWatcher implements Closeable, Accountable {
+
+  private static final Logger logger = LoggerFactory.getLogger(UserDictionaryWatcher.class);
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(UserDictionaryWatcher.class);
+  private static final long WORD_COUNT_BYTES =
+      RamUsageEstimator.shallowSizeOfInstance(WordCount.class);
+
+  private final Dictionary dictionary;
+  private final Set<Path> files = new LinkedHashSet<>();
+  // 各文件上次读取到的词（字符串对象取自 wordCounts，各文件共享）
+  private final Map<Path, Set<String>> fileWords = new HashMap<>();
+  // 各词出现在几个文件中
+  private final Map<String, WordCount> wordCounts = new HashMap<>();
+  // 首次出现在文件中之前词库中已有的词
+  private final Set<String> inherentWords = new HashSet<>();
+  private WatchService watchService;
+
+  /**
+   * 创建用户词典监视器。
+   *
+   * @param dictionary 要应用用户词典的词库
+   * @param files 用户词典文件（UTF-8 编码，每行一个词）
+   */
+  public UserDictionaryWatcher(Dictionary dictionary, Collection<Path> files) {
+    this.dictionary = Objects.requireNonNull(dictionary, "Dictionary must not be null!");
+    Objects.requireNonNull(files, "Files must not be null!");
+    for (final Path file : files) {
+      this.files.add(file.toAbsolutePath().normalize());
+    }
+  }
+
+  /**
+   * 读取所有用户词典文件，并将变化应用到词库。
+   *
+   * @author hankai
+   * @since Oct 18, 2026 7:38:02 PM
+   */
+  public synchronized void load() {
+    for (final Path file : files) {
+      reload(file);
+    }
+  }
+
+  /**
+   * 重新读取用户词典文件，将与上次读取到的内容相比新增和删除的词应用到词库（文件不存在时视为空文件）。
+   *
+   * @param file 用户词典文件
+   * @author hankai
+   * @since Oct 18, 2026 7:39:15 PM
+   */
+  public synchronized void reload(Path file) {
+    final Path path = file.toAbsolutePath().normalize();
+    if (!files.contains(path)) {
+      throw new IllegalArgumentException("Not a watched user dictionary: " + file);
+    }
+    final Set<String> words;
+    try {
+      words = readWords(path);
+    } catch (final IOException ex) {
+      // 文件可能正在被写入，保留上次读取到的内容，等待下一次变更通知
+      logger.warn("Failed to read user dictionary: " + path, ex);
+      return;
+    }
+    final Set<String> previous = fileWords.getOrDefault(path, Collections.emptySet());
+    final List<String> removals = new ArrayList<>();
+    for (final String word : previous) {
+      if (!words.contains(word) && release(word)) {
+        removals.add(word);
+      }
+    }
+    final List<String> additions = new ArrayList<>();
+    for (final String word : words) {
+      if (!previous.contains(word) && retain(word)) {
+        additions.add(word);
+      }
+    }
+    // 以 wordCounts 中的字符串对象保存，重新读取文件时不会为未变化的词保留新的副本
+    final Set<String> storedWords = new HashSet<>();
+    for (final String word : words) {
+      storedWords.add(wordCounts.get(word).word);
+    }
+    fileWords.put(path, storedWords);
+    if (!removals.isEmpty() || !additions.isEmpty()) {
+      // 文件本身即是持久的来源，不记入修改日志
+      dictionary.applyWords(removals, additions);
+      logger.info(String.format("User dictionary %s applied: %d added, %d removed.", path,
+          additions.size(), removals.size()));
+    }
+  }
+
+  /**
+   * 记录词新出现在一个文件中。
+   *
+   * @param word 词
+   * @return 是否需要将词添加到词库
+   * @author hankai
+   * @since Oct 18, 2026 7:40:30 PM
+   */
+  private boolean retain(String word) {
+    final WordCount count = wordCounts.get(word);
+    if (count != null) {
+      count.count++;
+      return false;
+    }
+    wordCounts.put(word, new WordCount(word));
+    final char[] chars = word.toCharArray();
+    if (dictionary.matchInMainDict(chars, 0, chars.length).isMatch()) {
+      inherentWords.add(word);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 记录词从一个文件中删除。
+   *
+   * @param word 词
+   * @return 是否需要将词从词库中删除
+   * @author hankai
+   * @since Oct 18, 2026 7:41:12 PM
+   */
+  private boolean release(String word) {
+    final WordCount count = wordCounts.get(word);
+    if (count.count > 1) {
+      count.count--;
+      return false;
+    }
+    wordCounts.remove(word);
+    return !inherentWords.remove(word);
+  }
+
+  /**
+   * 读取用户词典文件中的词（忽略首尾空白及空行）。
+   *
+   * @param file 用户词典文件
+   * @return 词集合
+   * @throws IOException 文件无法读取
+   * @author hankai
+   * @since Oct 18, 2026 7:42:05 PM
+   */
+  private static Set<String> readWords(Path file) throws IOException {
+    final Set<String> words = new HashSet<>();
+    try {
+      for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        final String word = line.trim();
+        if (word.length() > 0) {
+          words.add(word);
+        }
+      }
+    } catch (final NoSuchFileException ex) {
+      logger.debug("User dictionary not found: " + file);
+    }
+    return words;
+  }
+
+  /**
+   * 开始在后台线程中监视用户词典文件所在的目录，文件变化时自动重新读取。
+   *
+   * @throws IOException 无法监视文件所在的目录
+   * @author hankai
+   * @since Oct 18, 2026 7:43:20 PM
+   */
+  public synchronized void start() throws IOException {
+    if ((watchService != null) || files.isEmpty()) {
+      return;
+    }
+    final WatchService service = files.iterator().next().getFileSystem().newWatchService();
+    try {
+      final Set<Path> directories = new HashSet<>();
+      for (final Path file : files) {
+        if (directories.add(file.getParent())) {
+          file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+      }
+    } catch (final IOException ex) {
+      service.close();
+      throw ex;
+    }
+    watchService = service;
+    final Thread thread = new Thread(() -> watch(service), "hkanalyzer-dictionary-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * 处理目录变更通知，直到监视服务被关闭。
+   *
+   * @param service 监视服务
+   * @author hankai
+   * @since Oct 18, 2026 7:44:36 PM
+   */
+  private void watch(WatchService service) {
+    for (;;) {
+      final WatchKey key;
+      try {
+        key = service.take();
+      } catch (final InterruptedException | ClosedWatchServiceException ex) {
+        return;
+      }
+      final Path directory = (Path) key.watchable();
+      try {
+        for (final WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // 通知丢失，无法确定哪些文件发生了变化
+            load();
+          } else {
+            final Path changed = directory.resolve((Path) event.context());
+            if (files.contains(changed)) {
+              reload(changed);
+            }
+          }
+        }
+      } catch (final IllegalStateException ex) {
+        // 词库已关闭
+        logger.debug("Dictionary closed, stop watching user dictionaries.");
+        return;
+      } catch (final RuntimeException ex) {
+        logger.error("Failed to apply user dictionary changes.", ex);
+      }
+      key.reset();
+    }
+  }
+
+  /**
+   * 估算为比较文件内容而保存的词占用的内存（不包括已添加到词库中的词）。
+   *
+   * @return 字节数
+   */
+  @Override
+  public synchronized long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED;
+    for (final Set<String> words : fileWords.values()) {
+      bytes += words.size() * RamUsageUtil.HASH_ENTRY_BYTES;
+    }
+    // 各集合中的同一个词共享 wordCounts 中的字符串对象，只计算一次
+    for (final String word : wordCounts.keySet()) {
+      bytes += RamUsageUtil.HASH_ENTRY_BYTES + WORD_COUNT_BYTES + RamUsageUtil.sizeOf(word);
+    }
+    return bytes + (inherentWords.size() * RamUsageUtil.HASH_ENTRY_BYTES);
+  }
+
+  /**
+   * 停止监视用户词典文件。
+   */
+  @Override
+  public synchronized void close() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (final IOException ex) {
+        logger.warn("Failed to close user dictionary watcher.", ex);
+      }
+      watchService = null;
+    }
+  }
+
+  /**
+   * 词及其出现的文件数。词的字符串对象由此持有，供各文件的词集合共享。
+   *
+   * @author hankai
+   * @version 1.0.0
+   * @since Oct 18, 2026 11:16:30 PM
+   */
+  private static final class WordCount {
+    private final String word;
+    private int count = 1;
+
+    private WordCount(String word) {
+      this.word = word;
+    }
+  }
+
+}
@@ -1,26 +1,58 @@
 package ren.hankai.cnanalyzer.core;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 
 /**
  * 词典树节点。存储从词包中获取的词语，并按照单个文字组织成树形结构。进行单字匹配或整词匹配时， 按树节点所存储的字符依次匹配词语中各个单字，直到找到能匹配的词语。
  *
+ * <p>
+ * 子节点以按字符排序的字符数组和与之平行的子节点数组存储，子节点较少时顺序查找，较多时二分查找；
+ * 子节点数超过 {@link #DENSE_THRESHOLD} 时（通常只有根节点）改为以字符为下标的稠密数组，直接定位。
+ * 匹配和填充时都不会装箱字符。
+ * </p>
+ *
+ * <p>
+ * 游标匹配时，游标为节点在根节点的节点表中的序号（根节点为 0）。节点表按层序编号，首次游标匹配时构建，经由根节点添加或删除词后重建；
+ * 游标在词典树被修改后失效，因此只应对不再修改的词典树（如词典快照中的叠加层）进行游标匹配。
+ * </p>
+ *
  * @author hankai
  * @version 1.0.0
  * @since Jan 18, 2017 9:47:31 AM
  */
-public class WordSegment {
+public class WordSegment implements WordTrie {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(WordSegment.class);
+  // 子节点不超过此数量时顺序查找，否则二分查找
+  private static final int LINEAR_SEARCH_LIMIT = 8;
+  // 子节点超过此数量时改用稠密数组（65536 个槽位）
+  private static final int DENSE_THRESHOLD = 1024;
   // 存储当前节点的单个字符
-  private final Character character;
-  // 存储当前节点之后可能与当前节点匹配成词的子节点
-  private final Map<Character, WordSegment> children = new HashMap<>(6, 0.8f);
+  private final char character;
+  // 子节点对应的字符（已排序，与 children 一一对应）；为 null 且 children 不为 null 时，children 为稠密数组
+  private char[] keys;
+  // 存储当前节点之后可能与当前节点匹配成词的子节点（没有子节点时为 null）
+  private WordSegment[] children;
+  // 稠密数组中的子节点数（稀疏存储时子节点数即 keys 的长度）
+  private int denseCount;
   // 标记从根节点到当前节点的字符序列是否是一个完整的词
   private boolean isCompleteWord = false;
+  // 游标匹配使用的节点表（以游标为下标），首次游标匹配时构建，添加或删除词后重建
+  private volatile WordSegment[] cursorNodes;
+  // 节点在节点表中的序号
+  private int cursorIndex;
 
-  public WordSegment(Character nodeChar) {
-    Objects.requireNonNull(nodeChar, "Node character must not be null!");
+  public WordSegment(char nodeChar) {
     character = nodeChar;
   }
 
@@ -31,7 +63,7 @@ public class WordSegment {
    * @author hankai
    * @since Jan 18, 2017 9:58:14 AM
    */
-  public Character getCharacter() {
+  public char getCharacter() {
     return character;
   }
 
@@ -43,7 +75,42 @@ public class WordSegment {
    * @since Jan 18, 2017 10:01:51 AM
    */
   public boolean hasChildren() {
-    return children.size() > 0;
+    return children != null;
+  }
+
+  /**
+   * 从根节点到当前节点的字符序列是否是一个完整的词。
+   *
+   * @return 是否是完整的词
+   * @author hankai
+   * @since Oct 18, 2026 9:20:11 AM
+   */
+  boolean isCompleteWord() {
+    return isCompleteWord;
+  }
+
+  /**
+   * 获取按字符排序的子节点（供编译为只读词典树时使用）。
+   *
+   * @return 子节点数组
+   * @author hankai
+   * @since Oct 18, 2026 9:21:36 AM
+   */
+  synchronized WordSegment[] getSortedChildren() {
+    if (children == null) {
+      return new WordSegment[0];
+    }
+    if (keys != null) {
+      return children.clone();
+    }
+    int count = 0;
+    final WordSegment[] segments = new WordSegment[children.length];
+    for (final WordSegment segment : children) {
+      if (segment != null) {
+        segments[count++] = segment;
+      }
+    }
+    return Arrays.copyOf(segments, count);
   }
 
   /**
@@ -56,6 +123,7 @@ public class WordSegment {
    * @author hankai
    * @since Jan 18, 2017 9:34:38 AM
    */
+  @Override
   public Hit match(char[] charArray, int begin, int length) {
     return match(charArray, begin, length, null);
   }
@@ -74,6 +142,12 @@ public class WordSegment {
     return match(charArray, begin, -1, searchHit);
   }
 
+  @Override
+  public Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
+    Objects.requireNonNull(matchedHit, "Matched hit cannot be null!");
+    return matchedHit.getMatchedWord().match(charArray, currentIndex, matchedHit);
+  }
+
   /**
    * 在字典树上搜索字符序列，查看是否有词与之匹配。
    *
@@ -93,12 +167,7 @@ public class WordSegment {
       searchHit.setUnmatch();
     }
     searchHit.setEnd(begin);
-    final Character keyChar = new Character(charArray[begin]);
-    final Map<Character, WordSegment> segmentMap = children;
-    WordSegment ds = null;
-    if (segmentMap != null) {
-      ds = segmentMap.get(keyChar);
-    }
+    final WordSegment ds = getChild(charArray[begin]);
     if (ds != null) {
       if (length > 1) {
         return ds.match(charArray, begin + 1, length - 1, searchHit);
@@ -109,12 +178,275 @@ public class WordSegment {
       if (ds.hasChildren()) {
         searchHit.setPrefix();
         searchHit.setMatchedWord(ds);
+        searchHit.setTrie(ds);
       }
       return searchHit;
     }
     return searchHit;
   }
 
+  @Override
+  public boolean isCursorSupported() {
+    return true;
+  }
+
+  @Override
+  public long next(long cursor, char ch) {
+    final WordSegment[] nodes = getCursorNodes();
+    final WordSegment child = nodes[(int) cursor].getChild(ch);
+    if (child == null) {
+      return -1;
+    }
+    if ((child.cursorIndex >= nodes.length) || (nodes[child.cursorIndex] != child)) {
+      // 节点表构建后有子树被直接修改（未经根节点），重建节点表
+      buildCursorNodes();
+    }
+    return child.cursorIndex;
+  }
+
+  @Override
+  public boolean isWord(long cursor) {
+    return getCursorNodes()[(int) cursor].isCompleteWord;
+  }
+
+  @Override
+  public boolean isPrefix(long cursor) {
+    return getCursorNodes()[(int) cursor].hasChildren();
+  }
+
+  /**
+   * 获取游标匹配使用的节点表，尚未构建时构建。
+   *
+   * @return 节点表
+   * @author hankai
+   * @since Oct 18, 2026 11:32:40 PM
+   */
+  private WordSegment[] getCursorNodes() {
+    final WordSegment[] nodes = cursorNodes;
+    return nodes != null ? nodes : buildCursorNodes();
+  }
+
+  /**
+   * 按层序为当前节点之下的所有节点编号，构建节点表。
+   *
+   * @return 节点表
+   * @author hankai
+   * @since Oct 18, 2026 11:33:15 PM
+   */
+  private synchronized WordSegment[] buildCursorNodes() {
+    final List<WordSegment> nodes = new ArrayList<>();
+    cursorIndex = 0;
+    nodes.add(this);
+    for (int i = 0; i < nodes.size(); i++) {
+      for (final WordSegment child : nodes.get(i).getSortedChildren()) {
+        child.cursorIndex = nodes.size();
+        nodes.add(child);
+      }
+    }
+    final WordSegment[] table = nodes.toArray(new WordSegment[nodes.size()]);
+    cursorNodes = table;
+    return table;
+  }
+
+  @Override
+  public void add(char[] charArray) {
+    fillSegment(charArray);
+  }
+
+  @Override
+  public boolean remove(char[] charArray) {
+    return (charArray.length > 0) && remove(charArray, 0);
+  }
+
+  /**
+   * 从当前节点起删除词的剩余部分，并移除删除后既不是词也没有子节点的子节点。
+   *
+   * @param charArray 词对应的字符序列
+   * @param index 当前节点的子节点对应的字符在序列中的位置
+   * @return 词是否存在并被删除
+   * @author hankai
+   * @since Oct 18, 2026 6:42:18 PM
+   */
+  private synchronized boolean remove(char[] charArray, int index) {
+    cursorNodes = null;
+    final WordSegment ds = getChild(charArray[index]);
+    if (ds == null) {
+      return false;
+    }
+    if (index == (charArray.length - 1)) {
+      synchronized (ds) {
+        if (!ds.isCompleteWord) {
+          return false;
+        }
+        ds.isCompleteWord = false;
+      }
+    } else if (!ds.remove(charArray, index + 1)) {
+      return false;
+    }
+    synchronized (ds) {
+      if (!ds.isCompleteWord && !ds.hasChildren()) {
+        removeChild(ds.character);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized WordSegment copy() {
+    final WordSegment segment = new WordSegment(character);
+    segment.isCompleteWord = isCompleteWord;
+    if (keys != null) {
+      segment.keys = keys.clone();
+    }
+    segment.denseCount = denseCount;
+    if (children != null) {
+      segment.children = new WordSegment[children.length];
+      for (int i = 0; i < children.length; i++) {
+        if (children[i] != null) {
+          segment.children[i] = children[i].copy();
+        }
+      }
+    }
+    return segment;
+  }
+
+  @Override
+  public void forEachWord(Consumer<char[]> action) {
+    Objects.requireNonNull(action, "Action must not be null!");
+    forEachWord(this, new StringBuilder(), action);
+  }
+
+  @Override
+  public void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor) {
+    Objects.requireNonNull(prefix, "Prefix must not be null!");
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    WordSegment segment = this;
+    for (int i = 0; (i < prefix.length) && (segment != null); i++) {
+      segment = segment.getChild(prefix[i]);
+    }
+    if (segment == null) {
+      return;
+    }
+    final Deque<WordSegment> segments = new ArrayDeque<>();
+    final Deque<char[]> words = new ArrayDeque<>();
+    segments.add(segment);
+    words.add(prefix.clone());
+    for (int visited = 0; !segments.isEmpty() && (visited < maxNodes); visited++) {
+      final WordSegment current = segments.poll();
+      final char[] word = words.poll();
+      if (current.isCompleteWord && !visitor.test(word)) {
+        return;
+      }
+      for (final WordSegment child : current.getSortedChildren()) {
+        final char[] childWord = Arrays.copyOf(word, word.length + 1);
+        childWord[word.length] = child.character;
+        segments.add(child);
+        words.add(childWord);
+      }
+    }
+  }
+
+  @Override
+  public void visitSimilar(char[] word, int maxEdits, int maxNodes,
+      ObjIntConsumer<char[]> visitor) {
+    Objects.requireNonNull(visitor, "Visitor must not be null!");
+    visitSimilar(this, 0, new FuzzySearch(word, maxEdits, maxNodes), visitor);
+  }
+
+  private static void visitSimilar(WordSegment segment, int depth, FuzzySearch search,
+      ObjIntConsumer<char[]> visitor) {
+    if (segment.isCompleteWord) {
+      search.report(depth, visitor);
+    }
+    final char[] candidates = search.getCandidates(depth);
+    for (final char ch : candidates) {
+      final WordSegment child = segment.getChild(ch);
+      if ((child != null) && search.visit(depth, ch)) {
+        visitSimilar(child, depth + 1, search, visitor);
+      }
+    }
+    if (search.needsAllChildren(depth)) {
+      for (final WordSegment child : segment.getSortedChildren()) {
+        if (!FuzzySearch.contains(candidates, candidates.length, child.character)
+            && search.visit(depth, child.character)) {
+          visitSimilar(child, depth + 1, search, visitor);
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized long ramBytesUsed() {
+    long bytes = BASE_RAM_BYTES_USED;
+    if (keys != null) {
+      bytes += RamUsageEstimator.sizeOf(keys);
+    }
+    final WordSegment[] nodes = cursorNodes;
+    if (nodes != null) {
+      bytes += RamUsageEstimator.shallowSizeOf(nodes);
+    }
+    if (children != null) {
+      bytes += RamUsageEstimator.shallowSizeOf(children);
+      for (final WordSegment child : children) {
+        if (child != null) {
+          bytes += child.ramBytesUsed();
+        }
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public TrieStats getStats() {
+    // 依次为节点数、有子节点的节点数、词数
+    final long[] counts = new long[3];
+    countNodes(this, counts);
+    return new TrieStats(counts[0], counts[0], counts[1], counts[2], ramBytesUsed());
+  }
+
+  /**
+   * 统计节点下的节点数、有子节点的节点数和词数。
+   *
+   * @param segment 词典树节点
+   * @param counts 计数
+   * @author hankai
+   * @since Oct 18, 2026 9:15:02 PM
+   */
+  private static void countNodes(WordSegment segment, long[] counts) {
+    final WordSegment[] children = segment.getSortedChildren();
+    if (children.length > 0) {
+      counts[1]++;
+    }
+    for (final WordSegment child : children) {
+      counts[0]++;
+      if (child.isCompleteWord) {
+        counts[2]++;
+      }
+      countNodes(child, counts);
+    }
+  }
+
+  /**
+   * 深度优先遍历节点下的所有词。
+   *
+   * @param segment 词典树节点
+   * @param path 从根节点到当前节点的字符序列
+   * @param action 对每个词执行的操作
+   * @author hankai
+   * @since Oct 18, 2026 6:04:30 PM
+   */
+  private static void forEachWord(WordSegment segment, StringBuilder path,
+      Consumer<char[]> action) {
+    for (final WordSegment child : segment.getSortedChildren()) {
+      path.append(child.character);
+      if (child.isCompleteWord) {
+        action.accept(path.toString().toCharArray());
+      }
+      forEachWord(child, path, action);
+      path.setLength(path.length() - 1);
+    }
+  }
+
   /**
    * 将词填充到词典树。
    *
@@ -136,8 +468,8 @@ public class WordSegment {
    * @since Jan 18, 2017 10:03:07 AM
    */
   public synchronized void fillSegment(char[] charArray, int begin, int length) {
-    final Character beginChar = new Character(charArray[begin]);
-    final WordSegment ds = findSegment(beginChar);
+    cursorNodes = null;
+    final WordSegment ds = findSegment(charArray[begin]);
     if (length > 1) {
       ds.fillSegment(charArray, begin + 1, length - 1);
     } else if (length == 1) {
@@ -145,19 +477,142 @@ public class WordSegment {
     }
   }
 
+  /**
+   * 查找字符对应的子节点。
+   *
+   * @param keyChar 字符
+   * @return 子节点（不存在时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 2:05:40 PM
+   */
+  private WordSegment getChild(char keyChar) {
+    final char[] keyArray = keys;
+    final WordSegment[] segments = children;
+    if (segments == null) {
+      return null;
+    }
+    if (keyArray == null) {
+      return segments[keyChar];
+    }
+    if (keyArray.length <= LINEAR_SEARCH_LIMIT) {
+      for (int i = 0; i < keyArray.length; i++) {
+        if (keyArray[i] == keyChar) {
+          return segments[i];
+        }
+      }
+      return null;
+    }
+    final int index = Arrays.binarySearch(keyArray, keyChar);
+    return index >= 0 ? segments[index] : null;
+  }
+
   /**
    * 查找本节点下对应的keyChar的segment 如果没有找到，则创建新的segment
    *
    * @param keyChar
    * @return
    */
-  private WordSegment findSegment(Character keyChar) {
-    final Map<Character, WordSegment> segmentMap = children;
-    WordSegment ds = segmentMap.get(keyChar);
+  private WordSegment findSegment(char keyChar) {
+    WordSegment ds = getChild(keyChar);
     if (ds == null) {
       ds = new WordSegment(keyChar);
-      segmentMap.put(keyChar, ds);
+      insertChild(ds);
     }
     return ds;
   }
+
+  /**
+   * 将独立构建的子树作为子节点挂接到当前节点（用于并行构建词典树）。
+   *
+   * @param segment 子树的根节点
+   * @author hankai
+   * @since Oct 18, 2026 5:02:36 PM
+   */
+  synchronized void graft(WordSegment segment) {
+    cursorNodes = null;
+    if (getChild(segment.character) != null) {
+      throw new IllegalStateException("Segment already exists: " + segment.character);
+    }
+    insertChild(segment);
+  }
+
+  /**
+   * 移除字符对应的子节点。稀疏存储时数组随之缩短，最后一个子节点移除后释放数组（包括稠密数组）。
+   *
+   * @param keyChar 字符
+   * @author hankai
+   * @since Oct 18, 2026 6:44:51 PM
+   */
+  private void removeChild(char keyChar) {
+    if (children == null) {
+      return;
+    }
+    if (keys == null) {
+      if (children[keyChar] != null) {
+        children[keyChar] = null;
+        if (--denseCount == 0) {
+          children = null;
+        }
+      }
+      return;
+    }
+    final int index = Arrays.binarySearch(keys, keyChar);
+    if (index < 0) {
+      return;
+    }
+    if (keys.length == 1) {
+      // keys 为 null 而 children 不为 null 表示稠密数组，须先释放 children
+      children = null;
+      keys = null;
+      return;
+    }
+    final char[] newKeys = new char[keys.length - 1];
+    final WordSegment[] newChildren = new WordSegment[keys.length - 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(children, 0, newChildren, 0, index);
+    System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+    System.arraycopy(children, index + 1, newChildren, index, newKeys.length - index);
+    keys = newKeys;
+    children = newChildren;
+  }
+
+  /**
+   * 按字符顺序插入子节点（调用前须确认子节点不存在）。
+   *
+   * @param ds 子节点
+   * @author hankai
+   * @since Oct 18, 2026 5:03:10 PM
+   */
+  private void insertChild(WordSegment ds) {
+    final char keyChar = ds.character;
+    if (children == null) {
+      keys = new char[] {keyChar};
+      children = new WordSegment[] {ds};
+    } else if (keys == null) {
+      children[keyChar] = ds;
+      denseCount++;
+    } else if (keys.length >= DENSE_THRESHOLD) {
+      final WordSegment[] dense = new WordSegment[Character.MAX_VALUE + 1];
+      for (int i = 0; i < keys.length; i++) {
+        dense[keys[i]] = children[i];
+      }
+      dense[keyChar] = ds;
+      denseCount = keys.length + 1;
+      children = dense;
+      keys = null;
+    } else {
+      // 保持排序插入，数组长度与子节点数一致，不预留空间
+      final int index = -Arrays.binarySearch(keys, keyChar) - 1;
+      final char[] newKeys = new char[keys.length + 1];
+      final WordSegment[] newChildren = new WordSegment[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      newKeys[index] = keyChar;
+      newChildren[index] = ds;
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(children, index, newChildren, index + 1, keys.length - index);
+      children = newChildren;
+      keys = newKeys;
+    }
+  }
 }
@@ -0,0 +1,170 @@
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.Accountable;
+
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 词典树。定义分词时对词典进行单字匹配、整词匹配以及前缀延续匹配的操作。
+ * {@link #ramBytesUsed()} 返回词典树占用的堆内存（内存映射的词典映像不在堆中，不计入）。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:12:40 AM
+ */
+public interface WordTrie extends Accountable {
+
+  /**
+   * 游标匹配的初始游标（尚未匹配任何字符），见 {@link #next(int, char)}。
+   */
+  long CURSOR_ROOT = 0;
+
+  /**
+   * 在词典树上从根节点开始搜索字符序列，查看是否有词与之匹配。
+   *
+   * @param charArray 字符序列
+   * @param begin 要匹配的字符在序列中的位置
+   * @param length 要匹配的字符的长度（>1:整词匹配，=1:单字匹配）
+   * @return 命中信息
+   * @author hankai
+   * @since Oct 18, 2026 9:13:05 AM
+   */
+  Hit match(char[] charArray, int begin, int length);
+
+  /**
+   * 从已匹配的命中信息所记录的位置继续向下匹配一个字符（前缀延续匹配）。
+   *
+   * @param charArray 字符序列
+   * @param currentIndex 要匹配的字符在序列中的位置
+   * @param matchedHit 已匹配的命中信息（必须是词前缀）
+   * @return 命中信息（与 matchedHit 为同一对象）
+   * @author hankai
+   * @since Oct 18, 2026 9:13:52 AM
+   */
+  Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit);
+
+  /**
+   * 是否支持游标匹配。支持时，一个未结束的匹配可以用一个 long 值（游标）表示，逐字向下匹配时不创建任何对象，
+   * 分词时应优先使用（见 {@link #next(int, char)}）；不支持时使用 {@link #match(char[], int, int)} 及
+   * {@link #matchWithHit(char[], int, Hit)}。
+   *
+   * @return 是否支持游标匹配
+   * @author hankai
+   * @since Oct 18, 2026 10:36:10 PM
+   */
+  default boolean isCursorSupported() {
+    return false;
+  }
+
+  /**
+   * 游标向下匹配一个字符。
+   *
+   * @param cursor 游标（从 {@link #CURSOR_ROOT} 开始）
+   * @param ch 字符
+   * @return 新的游标（-1 表示词典树中没有以已匹配的字符序列开头的词）
+   * @author hankai
+   * @since Oct 18, 2026 10:36:45 PM
+   */
+  default long next(long cursor, char ch) {
+    throw new UnsupportedOperationException("Cursor is not supported by " + getClass().getName());
+  }
+
+  /**
+   * 游标已匹配的字符序列是否是一个完整的词。
+   *
+   * @param cursor 游标（由 {@link #next(int, char)} 返回，不能为 -1）
+   * @return 是否是词
+   * @author hankai
+   * @since Oct 18, 2026 10:37:10 PM
+   */
+  default boolean isWord(long cursor) {
+    throw new UnsupportedOperationException("Cursor is not supported by " + getClass().getName());
+  }
+
+  /**
+   * 游标已匹配的字符序列是否是更长的词的前缀（即是否还需要继续匹配）。
+   *
+   * @param cursor 游标（由 {@link #next(int, char)} 返回，不能为 -1）
+   * @return 是否是词前缀
+   * @author hankai
+   * @since Oct 18, 2026 10:37:32 PM
+   */
+  default boolean isPrefix(long cursor) {
+    throw new UnsupportedOperationException("Cursor is not supported by " + getClass().getName());
+  }
+
+  /**
+   * 将词添加到词典树。
+   *
+   * @param charArray 词对应的字符序列
+   * @author hankai
+   * @since Oct 18, 2026 1:30:12 PM
+   */
+  void add(char[] charArray);
+
+  /**
+   * 从词典树中删除词，并剪除不再属于任何词的节点。
+   *
+   * @param charArray 词对应的字符序列
+   * @return 词是否存在并被删除
+   * @author hankai
+   * @since Oct 18, 2026 6:40:05 PM
+   */
+  boolean remove(char[] charArray);
+
+  /**
+   * 复制词典树。此后对副本的修改不影响原词典树，反之亦然（用于在副本上修改词典，再整体替换原词典）。
+   *
+   * @return 词典树副本
+   * @author hankai
+   * @since Oct 18, 2026 3:40:26 PM
+   */
+  WordTrie copy();
+
+  /**
+   * 遍历词典树中的所有词（顺序不定）。
+   *
+   * @param action 对每个词执行的操作（传入的字符数组不会被重用）
+   * @author hankai
+   * @since Oct 18, 2026 6:02:15 PM
+   */
+  void forEachWord(Consumer<char[]> action);
+
+  /**
+   * 按词长由短到长（广度优先）遍历以指定前缀开头的词（包括前缀本身），用于输入提示。访问的节点数达到上限时停止，
+   * 以限制每次调用的开销。
+   *
+   * @param prefix 前缀
+   * @param maxNodes 最多访问的节点数（包括前缀对应的节点）
+   * @param visitor 对每个词执行的操作（传入的字符数组不会被重用），返回 false 时停止遍历
+   * @author hankai
+   * @since Oct 18, 2026 10:10:30 PM
+   */
+  void visitCompletions(char[] prefix, int maxNodes, Predicate<char[]> visitor);
+
+  /**
+   * 查找与指定字符序列的编辑距离（Levenshtein 距离，插入、删除或替换一个字符各计为 1）不超过上限的词，用于纠正查询中的错别字。
+   * 深度优先遍历词典树，剪除不可能在距离上限内的分支（见 {@link FuzzySearch}）；访问的节点数达到上限时停止，
+   * 以限制每次调用的开销。
+   *
+   * @param word 字符序列
+   * @param maxEdits 编辑距离上限
+   * @param maxNodes 最多访问的节点数
+   * @param visitor 对每个相近词及其编辑距离执行的操作（传入的字符数组不会被重用）
+   * @author hankai
+   * @since Oct 18, 2026 10:20:30 PM
+   */
+  void visitSimilar(char[] word, int maxEdits, int maxNodes, ObjIntConsumer<char[]> visitor);
+
+  /**
+   * 统计词典树的节点数、词数、平均扇出及占用的内存（需遍历整个词典树，不应在分词过程中调用）。
+   *
+   * @return 统计信息
+   * @author hankai
+   * @since Oct 18, 2026 9:13:20 PM
+   */
+  TrieStats getStats();
+
+}
@@ -1,15 +1,14 @@
 
 package ren.hankai.cnanalyzer.core.processor;
 
-import ren.hankai.cnanalyzer.core.Dictionary;
-import ren.hankai.cnanalyzer.core.Hit;
+import ren.hankai.cnanalyzer.core.AhoCorasickScanner;
+import ren.hankai.cnanalyzer.core.DictionarySnapshot;
+import ren.hankai.cnanalyzer.core.HitSampler;
 import ren.hankai.cnanalyzer.core.Lexeme;
 import ren.hankai.cnanalyzer.core.SegmentContext;
+import ren.hankai.cnanalyzer.core.WordTrie;
 import ren.hankai.cnanalyzer.util.CharacterUtil;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
  * CJK (Chinese, Japanese, Korean) 文字处理器。
  *
@@ -19,59 +18,132 @@ import java.util.List;
  */
 public class CjkProcessor implements WordProcessor {
 
-  private final List<Hit> hits = new LinkedList<>();
+  // 扫描器可用时使用扫描器，否则（如 FST 词典）逐个前缀匹配
+  private AhoCorasickScanner scanner;
+  private WordTrie mainWords;
+  // 叠加词库的叠加层，扫描器只包含基础词典中的词，叠加层中的词另外逐个前缀匹配
+  private WordTrie overlay;
+  // 词典命中采样器，未开启采样时为 null
+  private HitSampler sampler;
+  // 到下一次采样之前的命中次数
+  private int sampleCountdown;
+  private int state = AhoCorasickScanner.ROOT;
+  private final PrefixMatcher prefixes = new PrefixMatcher();
+
+  @Override
+  public int getCharTypeMask() {
+    // 词典中也有含字母、数字的词，只有可忽略的字符不会出现在词中
+    return ~CharacterUtil.toCharTypeMask(CharacterUtil.CHAR_OTHERS);
+  }
 
   @Override
   public void nextLexeme(SegmentContext context) {
-    if (CharacterUtil.CHAR_OTHERS != context.getCurrentCharType()) {
-      if (!hits.isEmpty()) {
-        final Hit[] tmpArray = hits.toArray(new Hit[hits.size()]);
-        for (Hit hit : tmpArray) {
-          hit = Dictionary.matchWithHit(context.getBuffer(), context.getBufferCursor(), hit);
-          if (hit.isMatch()) {
-            final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), hit.getBegin(),
-                (context.getBufferCursor() - hit.getBegin()) + 1, Lexeme.TYPE_CJK_NORMAL);
-            context.addLexeme(newLexeme);
-            if (!hit.isPrefix()) { // 不是词前缀，hit不需要继续匹配，移除
-              hits.remove(hit);
-            }
-          } else if (hit.isUnmatch()) { // hit不是词，移除
-            hits.remove(hit);
-          }
-        }
+    if ((state == AhoCorasickScanner.ROOT) && prefixes.isEmpty()) {
+      // 只在没有未结束的词前缀时切换扫描器，词典变更前的状态不能用于新的扫描器
+      final DictionarySnapshot dictionary = context.getDictionary();
+      scanner = dictionary.getScanner();
+      mainWords = dictionary.getMainWords();
+      overlay = dictionary.getOverlay();
+      final HitSampler currentSampler = context.getHitSampler();
+      if (currentSampler != sampler) {
+        sampler = currentSampler;
+        sampleCountdown = currentSampler != null ? currentSampler.nextInterval() : 0;
+      }
+    }
+    boolean locked;
+    if (scanner != null) {
+      locked = scan(context);
+      if (overlay != null) {
+        // 与扫描器重复输出的词元由上下文去除
+        locked |= matchPrefixes(context, overlay);
       }
-      final Hit singleCharHit =
-          Dictionary.matchInMainDict(context.getBuffer(), context.getBufferCursor(), 1);
-      if (singleCharHit.isMatch()) {// 首字成词
-        final Lexeme newLexeme =
-            new Lexeme(context.getBufferOffset(), context.getBufferCursor(), 1,
-                Lexeme.TYPE_CJK_NORMAL);
-        context.addLexeme(newLexeme);
-        if (singleCharHit.isPrefix()) { // 同时也是词前缀
-          hits.add(singleCharHit);
-        }
-      } else if (singleCharHit.isPrefix()) {// 首字为词前缀
-        hits.add(singleCharHit);
+    } else {
+      locked = matchPrefixes(context, mainWords);
+    }
+    // 判断是否锁定缓冲区
+    if (locked) {
+      context.lockBuffer(this);
+    } else {
+      context.unlockBuffer(this);
+    }
+  }
+
+  /**
+   * 使用多模式扫描器读入当前字符，输出以当前字符结尾的所有词。
+   *
+   * @param context 上下文
+   * @return 是否还有未结束的词前缀
+   * @author hankai
+   * @since Oct 18, 2026 3:10:52 PM
+   */
+  private boolean scan(SegmentContext context) {
+    if (CharacterUtil.CHAR_OTHERS != context.getCurrentCharType()) {
+      final int cursor = context.getBufferCursor();
+      state = scanner.next(state, context.getBuffer()[cursor]);
+      for (int word = scanner.firstWord(state); word >= 0; word = scanner.nextWord(word)) {
+        final int length = scanner.getDepth(word);
+        final int begin = (cursor - length) + 1;
+        context.addLexeme(begin, length, Lexeme.TYPE_CJK_NORMAL, scanner.isStopWord(word));
+        sampleHit(context, begin, length);
       }
     } else {
-      hits.clear();
+      state = AhoCorasickScanner.ROOT;
+    }
+    // 判断缓冲区是否已经读完
+    if (context.isBufferConsumed() || !scanner.isOpen(state)) {
+      state = AhoCorasickScanner.ROOT;
     }
+    return state != AhoCorasickScanner.ROOT;
+  }
 
+  /**
+   * 对每个未结束的词前缀，从其匹配位置继续向下匹配当前字符，输出以当前字符结尾的所有词。
+   *
+   * @param context 上下文
+   * @param trie 词典树
+   * @return 是否还有未结束的词前缀
+   * @author hankai
+   * @since Oct 18, 2026 3:12:30 PM
+   */
+  private boolean matchPrefixes(SegmentContext context, WordTrie trie) {
+    if (CharacterUtil.CHAR_OTHERS != context.getCurrentCharType()) {
+      final int cursor = context.getBufferCursor();
+      final int matchCount = prefixes.next(trie, context.getBuffer(), cursor);
+      for (int i = 0; i < matchCount; i++) {
+        final int begin = prefixes.getMatchBegin(i);
+        final int length = (cursor - begin) + 1;
+        context.addLexeme(begin, length, Lexeme.TYPE_CJK_NORMAL);
+        sampleHit(context, begin, length);
+      }
+    } else {
+      prefixes.clear();
+    }
     // 判断缓冲区是否已经读完
     if (context.isBufferConsumed()) {
-      // 清空队列
-      hits.clear();
+      prefixes.clear();
     }
-    // 判断是否锁定缓冲区
-    if (hits.size() == 0) {
-      context.unlockBuffer(this);
-    } else {
-      context.lockBuffer(this);
+    return !prefixes.isEmpty();
+  }
+
+  /**
+   * 对词典命中计数，每到采样间隔记录一次被命中的词。
+   *
+   * @param context 上下文
+   * @param begin 词在缓冲区中的起始位置
+   * @param length 词的长度
+   * @author hankai
+   * @since Oct 18, 2026 9:52:20 PM
+   */
+  private void sampleHit(SegmentContext context, int begin, int length) {
+    if ((sampler != null) && (--sampleCountdown <= 0)) {
+      sampler.record(context.getBuffer(), begin, length);
+      sampleCountdown = sampler.nextInterval();
     }
   }
 
   @Override
   public void reset() {
-    hits.clear();
+    state = AhoCorasickScanner.ROOT;
+    prefixes.clear();
   }
 }
@@ -26,6 +26,13 @@ public class LetterProcessor implements WordProcessor {
   private int mixStart = -1;
   private int mixEnd = -1;
 
+  @Override
+  public int getCharTypeMask() {
+    // 英文与数字之间的链接符号只在已开始处理字母时才有意义
+    return CharacterUtil.toCharTypeMask(CharacterUtil.CHAR_ENGLISH)
+        | CharacterUtil.toCharTypeMask(CharacterUtil.CHAR_ARABIC);
+  }
+
   @Override
   public void nextLexeme(SegmentContext context) {
     boolean bufferLockFlag = false;
@@ -51,19 +58,13 @@ public class LetterProcessor implements WordProcessor {
         letterEnd = context.getBufferCursor();
       } else {
         // 遇到非字母,输出词元
-        final Lexeme newLexeme =
-            new Lexeme(context.getBufferOffset(), letterStart, (letterEnd - letterStart) + 1,
-                Lexeme.TYPE_LETTER);
-        context.addLexeme(newLexeme);
+        context.addLexeme(letterStart, (letterEnd - letterStart) + 1, Lexeme.TYPE_LETTER);
         letterStart = letterEnd = -1;
       }
     }
     if (context.isBufferConsumed()) {
       if ((letterStart != -1) && (letterEnd != -1)) {
-        final Lexeme newLexeme =
-            new Lexeme(context.getBufferOffset(), letterStart, (letterEnd - letterStart) + 1,
-                Lexeme.TYPE_LETTER);
-        context.addLexeme(newLexeme);
+        context.addLexeme(letterStart, (letterEnd - letterStart) + 1, Lexeme.TYPE_LETTER);
         letterStart = letterEnd = -1;
       }
     }
@@ -87,17 +88,13 @@ public class LetterProcessor implements WordProcessor {
         // 不输出数字，但不标记结束
       } else {
         // 遇到非阿拉伯数字,输出词元
-        final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), arabicStart,
-            (arabicEnd - arabicStart) + 1, Lexeme.TYPE_NUM);
-        context.addLexeme(newLexeme);
+        context.addLexeme(arabicStart, (arabicEnd - arabicStart) + 1, Lexeme.TYPE_NUM);
         arabicStart = arabicEnd = -1;
       }
     }
     if (context.isBufferConsumed()) {
       if ((arabicStart != -1) && (arabicEnd != -1)) {
-        final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), arabicStart,
-            (arabicEnd - arabicStart) + 1, Lexeme.TYPE_NUM);
-        context.addLexeme(newLexeme);
+        context.addLexeme(arabicStart, (arabicEnd - arabicStart) + 1, Lexeme.TYPE_NUM);
         arabicStart = arabicEnd = -1;
       }
     }
@@ -122,17 +119,13 @@ public class LetterProcessor implements WordProcessor {
           && isLetterConnector(context.getCurrentCharacter())) {
         mixEnd = context.getBufferCursor();
       } else {
-        final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), mixStart,
-            (mixEnd - mixStart) + 1, Lexeme.TYPE_LETTER);
-        context.addLexeme(newLexeme);
+        context.addLexeme(mixStart, (mixEnd - mixStart) + 1, Lexeme.TYPE_LETTER);
         mixStart = mixEnd = -1;
       }
     }
     if (context.isBufferConsumed()) {
       if ((mixStart != -1) && (mixEnd != -1)) {
-        final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), mixStart,
-            (mixEnd - mixStart) + 1, Lexeme.TYPE_LETTER);
-        context.addLexeme(newLexeme);
+        context.addLexeme(mixStart, (mixEnd - mixStart) + 1, Lexeme.TYPE_LETTER);
         mixStart = mixEnd = -1;
       }
     }
@@ -0,0 +1,227 @@
+package ren.hankai.cnanalyzer.core.processor;
+
+import org.apache.lucene.util.ArrayUtil;
+
+import ren.hankai.cnanalyzer.core.Hit;
+import ren.hankai.cnanalyzer.core.LayeredTrie;
+import ren.hankai.cnanalyzer.core.WordTrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 词前缀匹配器。记录文本中尚未结束的词前缀，每读入一个字符，从各词前缀的匹配位置继续向下匹配，
+ * 并找出以该字符结尾的所有词。
+ *
+ * <p>
+ * 词典树支持游标匹配时（见 {@link WordTrie#isCursorSupported()}），词前缀以其起始位置和游标记录在数组中，
+ * 数组由处理器在各文档间重用，逐字匹配时不创建任何对象；否则退回到逐个 {@link Hit} 匹配。
+ * 分层词典树（{@link LayeredTrie}）的各层由各自的匹配器分别匹配（各层独立选择匹配方式），再合并各层找到的词。
+ * </p>
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:40:15 PM
+ */
+final class PrefixMatcher {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  // 未结束的词前缀的起始位置及游标
+  private int[] begins = new int[INITIAL_CAPACITY];
+  private long[] cursors = new long[INITIAL_CAPACITY];
+  private int prefixCount;
+  // 以当前字符结尾的词的起始位置
+  private int[] matches = new int[INITIAL_CAPACITY];
+  // 词典树不支持游标匹配时使用的命中信息
+  private final List<Hit> hits = new ArrayList<>();
+  // 分层词典树各层的匹配器（按需创建，在各文档间重用）
+  private PrefixMatcher[] layers = new PrefixMatcher[0];
+  // 合并各层找到的词时使用的临时数组
+  private int[] merged = new int[INITIAL_CAPACITY];
+
+  /**
+   * 读入一个字符，从各词前缀的匹配位置继续向下匹配，并以该字符为首字开始新的匹配。
+   *
+   * @param trie 词典树（有未结束的词前缀时不能更换）
+   * @param buffer 字符缓冲区
+   * @param index 字符在缓冲区中的位置
+   * @return 以该字符结尾的词的个数（各词的起始位置见 {@link #getMatchBegin(int)}）
+   * @author hankai
+   * @since Oct 18, 2026 10:41:02 PM
+   */
+  int next(WordTrie trie, char[] buffer, int index) {
+    if (trie instanceof LayeredTrie) {
+      return nextLayers((LayeredTrie) trie, buffer, index);
+    }
+    return trie.isCursorSupported() ? nextCursors(trie, buffer[index], index)
+        : nextHits(trie, buffer, index);
+  }
+
+  private int nextLayers(LayeredTrie trie, char[] buffer, int index) {
+    final int count = trie.getLayerCount();
+    if (layers.length < count) {
+      final int oldLength = layers.length;
+      layers = Arrays.copyOf(layers, count);
+      for (int i = oldLength; i < count; i++) {
+        layers[i] = new PrefixMatcher();
+      }
+    }
+    int matchCount = 0;
+    for (int i = 0; i < count; i++) {
+      final PrefixMatcher layer = layers[i];
+      final int layerCount = layer.next(trie.getLayer(i), buffer, index);
+      matchCount = mergeMatches(matchCount, layer.matches, layerCount);
+    }
+    return matchCount;
+  }
+
+  /**
+   * 将一层找到的词合并到已找到的词中（均按起始位置排序），多层中都存在的词只保留一个。
+   *
+   * @param matchCount 已找到的词的个数
+   * @param layerMatches 该层找到的词的起始位置
+   * @param layerCount 该层找到的词的个数
+   * @return 合并后的词的个数
+   * @author hankai
+   * @since Oct 18, 2026 11:34:20 PM
+   */
+  private int mergeMatches(int matchCount, int[] layerMatches, int layerCount) {
+    if (layerCount == 0) {
+      return matchCount;
+    }
+    if (merged.length < (matchCount + layerCount)) {
+      merged = ArrayUtil.grow(merged, matchCount + layerCount);
+    }
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while ((i < matchCount) || (j < layerCount)) {
+      final int begin;
+      if ((j == layerCount) || ((i < matchCount) && (matches[i] <= layerMatches[j]))) {
+        begin = matches[i++];
+        if ((j < layerCount) && (layerMatches[j] == begin)) {
+          j++;
+        }
+      } else {
+        begin = layerMatches[j++];
+      }
+      merged[count++] = begin;
+    }
+    final int[] swap = matches;
+    matches = merged;
+    merged = swap;
+    return count;
+  }
+
+  private int nextCursors(WordTrie trie, char ch, int index) {
+    int matchCount = 0;
+    int kept = 0;
+    for (int i = 0; i < prefixCount; i++) {
+      final long cursor = trie.next(cursors[i], ch);
+      if (cursor >= 0) {
+        if (trie.isWord(cursor)) {
+          matchCount = addMatch(matchCount, begins[i]);
+        }
+        if (trie.isPrefix(cursor)) {
+          begins[kept] = begins[i];
+          cursors[kept++] = cursor;
+        }
+      }
+    }
+    prefixCount = kept;
+    final long cursor = trie.next(WordTrie.CURSOR_ROOT, ch);
+    if (cursor >= 0) {
+      if (trie.isWord(cursor)) { // 首字成词
+        matchCount = addMatch(matchCount, index);
+      }
+      if (trie.isPrefix(cursor)) { // 首字为词前缀
+        addPrefix(index, cursor);
+      }
+    }
+    return matchCount;
+  }
+
+  private int nextHits(WordTrie trie, char[] buffer, int index) {
+    int matchCount = 0;
+    int kept = 0;
+    for (int i = 0; i < hits.size(); i++) {
+      final Hit hit = hits.get(i);
+      hit.getTrie().matchWithHit(buffer, index, hit);
+      if (hit.isMatch()) {
+        matchCount = addMatch(matchCount, hit.getBegin());
+      }
+      if (hit.isPrefix()) {
+        hits.set(kept++, hit);
+      }
+    }
+    while (hits.size() > kept) {
+      hits.remove(hits.size() - 1);
+    }
+    final Hit singleCharHit = trie.match(buffer, index, 1);
+    if (singleCharHit.isMatch()) { // 首字成词
+      matchCount = addMatch(matchCount, index);
+    }
+    if (singleCharHit.isPrefix()) { // 首字为词前缀
+      hits.add(singleCharHit);
+    }
+    return matchCount;
+  }
+
+  private int addMatch(int matchCount, int begin) {
+    if (matchCount == matches.length) {
+      matches = ArrayUtil.grow(matches, matchCount + 1);
+    }
+    matches[matchCount] = begin;
+    return matchCount + 1;
+  }
+
+  private void addPrefix(int begin, long cursor) {
+    if (prefixCount == begins.length) {
+      // 词前缀数不超过词典中最长的词的长度，很少需要扩容
+      begins = ArrayUtil.grow(begins, prefixCount + 1);
+      cursors = ArrayUtil.grow(cursors, prefixCount + 1);
+    }
+    begins[prefixCount] = begin;
+    cursors[prefixCount++] = cursor;
+  }
+
+  /**
+   * 获取上一次 {@link #next(WordTrie, char[], int)} 找到的词的起始位置（按起始位置由前到后）。
+   *
+   * @param i 词的序号
+   * @return 词在缓冲区中的起始位置
+   * @author hankai
+   * @since Oct 18, 2026 10:41:40 PM
+   */
+  int getMatchBegin(int i) {
+    return matches[i];
+  }
+
+  /**
+   * 是否没有未结束的词前缀。
+   *
+   * @return 是否没有词前缀
+   */
+  boolean isEmpty() {
+    for (final PrefixMatcher layer : layers) {
+      if (!layer.isEmpty()) {
+        return false;
+      }
+    }
+    return (prefixCount == 0) && hits.isEmpty();
+  }
+
+  /**
+   * 丢弃所有未结束的词前缀（数组保留，供下一个文档重用）。
+   */
+  void clear() {
+    prefixCount = 0;
+    hits.clear();
+    for (final PrefixMatcher layer : layers) {
+      layer.clear();
+    }
+  }
+
+}
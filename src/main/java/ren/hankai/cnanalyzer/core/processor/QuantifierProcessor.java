@@ -1,16 +1,12 @@
 
 package ren.hankai.cnanalyzer.core.processor;
 
-import ren.hankai.cnanalyzer.core.Dictionary;
-import ren.hankai.cnanalyzer.core.Hit;
 import ren.hankai.cnanalyzer.core.Lexeme;
 import ren.hankai.cnanalyzer.core.SegmentContext;
+import ren.hankai.cnanalyzer.core.WordTrie;
 import ren.hankai.cnanalyzer.util.CharacterUtil;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * 量词、计数词处理器。
@@ -21,24 +17,33 @@ import java.util.Set;
  */
 public class QuantifierProcessor implements WordProcessor {
 
-  private static Set<Character> quantifierCharacters = new HashSet<>();
+  // 已排序的数词字符，用二分查找判断，避免字符装箱
+  private static final char[] quantifierCharacters;
   static {
     final String cnQuantifiers = "〇一二两三四五六七八九十零壹贰叁肆伍陆柒捌玖拾百千万亿拾佰仟萬億兆卅廿";
-    final char[] ca = cnQuantifiers.toCharArray();
-    for (final char nChar : ca) {
-      quantifierCharacters.add(nChar);
-    }
+    quantifierCharacters = cnQuantifiers.toCharArray();
+    Arrays.sort(quantifierCharacters);
   }
 
   private int start = -1;
   private int end = -1;
-  private final List<Hit> hits = new LinkedList<>();
+  // 量词词典，只在没有未结束的量词前缀时切换
+  private WordTrie quantifiers;
+  private final PrefixMatcher prefixes = new PrefixMatcher();
+  // 重用的词元对象，用于查看上下文中的最后一个词元
+  private final Lexeme lastLexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_NUM);
+
+  @Override
+  public int getCharTypeMask() {
+    // 数词、量词都是中文，紧跟在阿拉伯数字之后的量词也由中文字符开始匹配
+    return CharacterUtil.toCharTypeMask(CharacterUtil.CHAR_CHINESE);
+  }
 
   @Override
   public void nextLexeme(SegmentContext context) {
     processCNumber(context);
     processCount(context);
-    if ((start == -1) && (end == -1) && hits.isEmpty()) {
+    if ((start == -1) && (end == -1) && prefixes.isEmpty()) {
       context.unlockBuffer(this);
     } else {
       context.lockBuffer(this);
@@ -56,12 +61,12 @@ public class QuantifierProcessor implements WordProcessor {
     final int currentCharType = context.getCurrentCharType();
     if ((start == -1) && (end == -1)) {
       if ((CharacterUtil.CHAR_CHINESE == currentCharType)
-          && quantifierCharacters.contains(context.getCurrentCharacter())) {
+          && isQuantifierCharacter(context.getCurrentCharacter())) {
         start = end = context.getBufferCursor();
       }
     } else {
       if ((CharacterUtil.CHAR_CHINESE == currentCharType)
-          && quantifierCharacters.contains(context.getCurrentCharacter())) {
+          && isQuantifierCharacter(context.getCurrentCharacter())) {
         end = context.getBufferCursor();
       } else {
         outputNumLexeme(context);
@@ -87,56 +92,38 @@ public class QuantifierProcessor implements WordProcessor {
     if (!needCountScan(context)) {
       return;
     }
+    if (prefixes.isEmpty()) {
+      quantifiers = context.getDictionary().getQuantifiers();
+    }
     if (CharacterUtil.CHAR_CHINESE == context.getCurrentCharType()) {
-      if (!hits.isEmpty()) {
-        final Hit[] tmpArray = hits.toArray(new Hit[hits.size()]);
-        for (Hit hit : tmpArray) {
-          hit = Dictionary.matchWithHit(context.getBuffer(), context.getBufferCursor(), hit);
-          if (hit.isMatch()) {
-            final Lexeme newLexeme = new Lexeme(context.getBufferOffset(), hit.getBegin(),
-                (context.getBufferCursor() - hit.getBegin()) + 1, Lexeme.TYPE_NUMCOUNT);
-            context.addLexeme(newLexeme);
-            if (!hit.isPrefix()) {
-              hits.remove(hit);
-            }
-          } else if (hit.isUnmatch()) {
-            hits.remove(hit);
-          }
-        }
-      }
-      // 对当前指针位置的字符进行单字匹配
-      final Hit singleCharHit =
-          Dictionary.matchInQuantifierDict(context.getBuffer(), context.getBufferCursor(), 1);
-      if (singleCharHit.isMatch()) {// 首字成量词词
-        final Lexeme newLexeme =
-            new Lexeme(context.getBufferOffset(), context.getBufferCursor(), 1,
-                Lexeme.TYPE_NUMCOUNT);
-        context.addLexeme(newLexeme);
-        if (singleCharHit.isPrefix()) {
-          hits.add(singleCharHit);
-        }
-      } else if (singleCharHit.isPrefix()) {// 首字为量词前缀
-        hits.add(singleCharHit);
+      final int cursor = context.getBufferCursor();
+      final int matchCount = prefixes.next(quantifiers, context.getBuffer(), cursor);
+      for (int i = 0; i < matchCount; i++) {
+        final int begin = prefixes.getMatchBegin(i);
+        context.addLexeme(begin, (cursor - begin) + 1, Lexeme.TYPE_NUMCOUNT);
       }
     } else {
-      hits.clear();
+      prefixes.clear();
     }
     if (context.isBufferConsumed()) {
-      hits.clear();
+      prefixes.clear();
     }
   }
 
+  private static boolean isQuantifierCharacter(char ch) {
+    return Arrays.binarySearch(quantifierCharacters, ch) >= 0;
+  }
+
   /**
    * 判断是否需要扫描量词
    *
    * @return
    */
   private boolean needCountScan(SegmentContext context) {
-    if (((start != -1) && (end != -1)) || !hits.isEmpty()) {
+    if (((start != -1) && (end != -1)) || !prefixes.isEmpty()) {
       return true;
     } else {
-      final Lexeme lastLexeme = context.peekLastLexeme();
-      if (lastLexeme != null) {
+      if (context.peekLastLexeme(lastLexeme)) {
         final boolean isNeighbor =
             (lastLexeme.getBegin() + lastLexeme.getLength()) == context.getBufferCursor();
         if ((Lexeme.TYPE_NUM == lastLexeme.getType()) && isNeighbor) {
@@ -149,16 +136,14 @@ public class QuantifierProcessor implements WordProcessor {
 
   private void outputNumLexeme(SegmentContext context) {
     if ((start > -1) && (end > -1)) {
-      final Lexeme newLexeme =
-          new Lexeme(context.getBufferOffset(), start, (end - start) + 1, Lexeme.TYPE_NUM);
-      context.addLexeme(newLexeme);
+      context.addLexeme(start, (end - start) + 1, Lexeme.TYPE_NUM);
     }
   }
 
   @Override
   public void reset() {
     start = end = -1;
-    hits.clear();
+    prefixes.clear();
   }
 
 }
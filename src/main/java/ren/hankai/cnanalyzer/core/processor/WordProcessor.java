@@ -2,6 +2,7 @@
 package ren.hankai.cnanalyzer.core.processor;
 
 import ren.hankai.cnanalyzer.core.SegmentContext;
+import ren.hankai.cnanalyzer.util.CharacterUtil;
 
 /**
  * 文字处理器，作为分词器的支撑组件。
@@ -12,6 +13,24 @@ import ren.hankai.cnanalyzer.core.SegmentContext;
  */
 public interface WordProcessor {
 
+  /**
+   * 处理所有类型的字符的字符类型掩码。
+   */
+  int ALL_CHAR_TYPES = -1;
+
+  /**
+   * 获取文字处理器处理的字符类型。文字处理器空闲（未占用缓冲区）时，分词器只把这些类型的字符交给它；
+   * 占用缓冲区时则交给它每一个字符，以便在遇到其它类型的字符时输出词元并释放缓冲区。
+   * 因此空闲的文字处理器读入其它类型的字符时不能有任何作用。
+   *
+   * @return 字符类型掩码（见 {@link CharacterUtil#toCharTypeMask(int)}），默认处理所有类型的字符
+   * @author hankai
+   * @since Oct 18, 2026 11:04:50 PM
+   */
+  default int getCharTypeMask() {
+    return ALL_CHAR_TYPES;
+  }
+
   /**
    * 解析被分析的文本当前位置的下一个词元。
    * 
@@ -0,0 +1,23 @@
+package ren.hankai.cnanalyzer.core.processor;
+
+/**
+ * 文字处理器工厂，用于扩展分词器。在 META-INF/services/ren.hankai.cnanalyzer.core.processor.WordProcessorFactory
+ * 文件中登记实现类（需有无参构造方法），分词器通过 {@link java.util.ServiceLoader} 加载，
+ * 每个分词器创建一组自己的文字处理器，排在内置的量词、CJK 及字母处理器之后。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 11:07:10 PM
+ */
+public interface WordProcessorFactory {
+
+  /**
+   * 创建文字处理器。文字处理器有状态，每次调用都必须返回新的实例。
+   *
+   * @return 文字处理器
+   * @author hankai
+   * @since Oct 18, 2026 11:07:40 PM
+   */
+  WordProcessor create();
+
+}
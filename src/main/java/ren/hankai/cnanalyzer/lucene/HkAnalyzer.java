@@ -3,6 +3,7 @@ package ren.hankai.cnanalyzer.lucene;
 
 import org.apache.lucene.analysis.Analyzer;
 
+import ren.hankai.cnanalyzer.core.Dictionary;
 import ren.hankai.cnanalyzer.core.DictionaryTokenizer;
 
 import java.util.List;
@@ -23,7 +24,11 @@ public class HkAnalyzer extends Analyzer {
   }
 
   public HkAnalyzer(boolean matchLongerText) {
-    tokenizer = new DictionaryTokenizer(matchLongerText);
+    this(matchLongerText, Dictionary.getDefault());
+  }
+
+  public HkAnalyzer(boolean matchLongerText, Dictionary dictionary) {
+    tokenizer = new DictionaryTokenizer(matchLongerText, dictionary);
   }
 
   @Override
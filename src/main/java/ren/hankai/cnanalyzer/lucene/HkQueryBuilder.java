@@ -7,19 +7,32 @@ import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ren.hankai.cnanalyzer.core.Dictionary;
+import ren.hankai.cnanalyzer.core.DictionarySnapshot;
+import ren.hankai.cnanalyzer.core.HitSampler;
 import ren.hankai.cnanalyzer.core.Lexeme;
 import ren.hankai.cnanalyzer.core.Segmentator;
+import ren.hankai.cnanalyzer.util.CharacterUtil;
+import ren.hankai.cnanalyzer.util.RamUsageUtil;
 
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.function.ToLongFunction;
 
 /**
  * Lucene 查询构造器。
@@ -37,10 +50,30 @@ public class HkQueryBuilder {
    */
   public static boolean isLongerTextOnly = false;
 
+  /**
+   * 是否在构造查询前纠正关键字中的错别字（见 {@link #correct(Dictionary, String)}）。
+   */
+  public static boolean isTypoCorrected = false;
+
+  // 纠错时尝试替换的片段的最大长度
+  private static final int MAX_CORRECTION_LENGTH = 8;
+  // 纠错时尝试替换的片段的最小长度（更短的片段可能的正确写法太多）
+  private static final int MIN_CORRECTION_LENGTH = 3;
+  // 片段达到此长度时才接受多字、漏字的错误，否则只接受替换错误
+  private static final int MIN_INDEL_LENGTH = 4;
+  // 片段达到此长度时允许 2 处错误，否则只允许 1 处
+  private static final int TWO_EDITS_LENGTH = 6;
+
   /*
-   * 搜索关键字的缓存。
+   * 搜索关键字的缓存（每个线程一个）。
    */
-  private static ThreadLocal<Map<String, QueryBranch>> keywords = new ThreadLocal<>();
+  private static ThreadLocal<KeywordCache> keywords =
+      ThreadLocal.withInitial(HkQueryBuilder::newKeywordCache);
+  /*
+   * 所有线程的关键字缓存，用于统计占用的内存；线程结束后其缓存随之被回收。
+   */
+  private static final Set<KeywordCache> keywordCaches =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
   /**
    * 将多个查询合并为一个查询（查询列表中各个查询在组合时的关系为逻辑与）。
@@ -64,49 +97,85 @@ public class HkQueryBuilder {
     }
   }
 
+  /**
+   * 创建当前线程的关键字缓存。
+   *
+   * @return 关键字缓存
+   * @author hankai
+   * @since Oct 18, 2026 9:30:16 PM
+   */
+  private static KeywordCache newKeywordCache() {
+    final KeywordCache cache = new KeywordCache();
+    keywordCaches.add(cache);
+    return cache;
+  }
+
   /**
    * 获取查询关键字的缓存。
    *
+   * @param snapshot 分词使用的词典快照
+   * @param typoCorrected 是否纠正错别字
+   * @param longerTextOnly 是否采用最大切分
    * @return 关键字缓存
    * @author hankai
    * @since Jan 19, 2017 11:08:43 AM
    */
-  private static Map<String, QueryBranch> getKeywords() {
-    Map<String, QueryBranch> cache = keywords.get();
-    if (cache == null) {
-      cache = new HashMap<>(4);
-      keywords.set(cache);
-    }
+  private static KeywordCache getKeywords(DictionarySnapshot snapshot, boolean typoCorrected,
+      boolean longerTextOnly) {
+    final KeywordCache cache = keywords.get();
+    cache.setSource(snapshot, typoCorrected, longerTextOnly);
     return cache;
   }
 
+  /**
+   * 获取所有线程的查询关键字缓存占用的内存（估算值，按线程列出）。缓存所引用的词典快照由词库计入，此处不计入。
+   *
+   * @return 内存占用
+   * @author hankai
+   * @since Oct 18, 2026 9:31:02 PM
+   */
+  public static Accountable getKeywordCacheUsage() {
+    final List<Accountable> resources = new ArrayList<>();
+    long bytes = 0;
+    synchronized (keywordCaches) {
+      for (final KeywordCache cache : keywordCaches) {
+        resources.add(Accountables.namedAccountable("thread keyword cache", cache));
+        bytes += cache.ramBytesUsed();
+      }
+    }
+    return Accountables.namedAccountable("keyword cache", resources, bytes);
+  }
+
   /**
    * 获取查询关键字对应的博弈树。
    *
+   * @param snapshot 分词使用的词典快照
+   * @param typoCorrected 是否纠正错别字
+   * @param longerTextOnly 是否采用最大切分
    * @param query 关键字
    * @return 博弈树
    * @author hankai
    * @since Jan 19, 2017 11:27:22 AM
    */
-  private static QueryBranch getTokenBranch(String query) {
-    final Map<String, QueryBranch> keywordCache = getKeywords();
-    return keywordCache.get(query);
+  private static QueryBranch getTokenBranch(DictionarySnapshot snapshot, boolean typoCorrected,
+      boolean longerTextOnly, String query) {
+    return getKeywords(snapshot, typoCorrected, longerTextOnly).get(query);
   }
 
   /**
    * 缓存查询关键字的博弈树。
    *
+   * @param snapshot 分词使用的词典快照
+   * @param typoCorrected 是否纠正错别字
+   * @param longerTextOnly 是否采用最大切分
    * @param query 关键字
    * @param tb 博弈树
    * @author hankai
    * @since Jan 19, 2017 11:28:05 AM
    */
-  private static void cacheTokenBranch(String query, QueryBranch tb) {
-    final Map<String, QueryBranch> keywordCache = getKeywords();
-    if (keywordCache.size() > 1200) {
-      keywordCache.clear();
-    }
-    keywordCache.put(query, tb);
+  private static void cacheTokenBranch(DictionarySnapshot snapshot, boolean typoCorrected,
+      boolean longerTextOnly, String query, QueryBranch tb) {
+    getKeywords(snapshot, typoCorrected, longerTextOnly).put(query, tb);
   }
 
   /**
@@ -119,15 +188,36 @@ public class HkQueryBuilder {
    * @since Jan 19, 2017 11:28:52 AM
    */
   public static Query build(String field, String query) {
+    return build(Dictionary.getDefault(), field, query);
+  }
+
+  /**
+   * 使用指定的词库将查询条件解析为单个字段的查询对象。
+   *
+   * @param dictionary 词库
+   * @param field 字段
+   * @param query 关键字（间隔字符，例如：空格、退格、换行、制表符等会被清除）
+   * @return 查询对象
+   * @author hankai
+   * @since Oct 18, 2026 4:45:20 PM
+   */
+  public static Query build(Dictionary dictionary, String field, String query) {
+    Objects.requireNonNull(dictionary, "Dictionary cannot be null.");
     Objects.requireNonNull(field, "Field cannot be null.");
     if (StringUtils.isEmpty(query)) {
       return new TermQuery(new Term(field));
     }
-    QueryBranch root = getTokenBranch(query);
+    final DictionarySnapshot snapshot = dictionary.getSnapshot();
+    // 开关可能在运行时被修改，只读取一次，缓存按开关区分
+    final boolean typoCorrected = isTypoCorrected;
+    final boolean longerTextOnly = isLongerTextOnly;
+    QueryBranch root = getTokenBranch(snapshot, typoCorrected, longerTextOnly, query);
     if (root == null) {
       root = new QueryBranch(null);
-      final StringReader input = new StringReader(query);
-      final Segmentator segmentator = new Segmentator(input, isLongerTextOnly);
+      final StringReader input = new StringReader(typoCorrected
+          ? correct(dictionary, query)
+          : query);
+      final Segmentator segmentator = new Segmentator(input, longerTextOnly, dictionary);
       try {
         Lexeme lexeme = segmentator.next();
         while (lexeme != null) {
@@ -137,11 +227,131 @@ public class HkQueryBuilder {
       } catch (final IOException ex) {
         logger.error("Failed to segment query keyword: " + query, ex);
       }
-      cacheTokenBranch(query, root);
+      cacheTokenBranch(snapshot, typoCorrected, longerTextOnly, query, root);
     }
     return mergeQueries(root.toQueries(field));
   }
 
+  /**
+   * 纠正查询关键字中的错别字。含有错别字的汉字片段通常不能被切分出任何词，这样的片段连同两侧相邻的词（由长到短尝试）
+   * 在词典中查找编辑距离最小的词并替换（3 到 5 个字的片段允许 1 处错误，更长的片段允许 2 处，且不超过片段中未被切分的字数），
+   * 代替对索引执行 FuzzyQuery。编辑距离相同的词有多个时，与片段等长的词优先；开启了命中采样时，其次选择被采样次数多的词。
+   *
+   * @param dictionary 词库
+   * @param query 关键字
+   * @return 纠正后的关键字（间隔字符被清除，没有错别字时内容不变）
+   * @author hankai
+   * @since Oct 18, 2026 10:24:30 PM
+   */
+  public static String correct(Dictionary dictionary, String query) {
+    Objects.requireNonNull(dictionary, "Dictionary cannot be null.");
+    if (StringUtils.isEmpty(query)) {
+      return query;
+    }
+    final String text = CharacterUtil.removeSpeceCharacters(query);
+    final List<Lexeme> lexemes = new ArrayList<>();
+    final Segmentator segmentator =
+        new Segmentator(new StringReader(text), false, dictionary);
+    try {
+      Lexeme lexeme = segmentator.next();
+      while (lexeme != null) {
+        lexemes.add(lexeme);
+        lexeme = segmentator.next();
+      }
+    } catch (final IOException ex) {
+      logger.error("Failed to segment query keyword: " + query, ex);
+      return query;
+    }
+    final boolean[] covered = new boolean[text.length()];
+    for (final Lexeme lexeme : lexemes) {
+      for (int i = lexeme.getBeginPosition(); i < lexeme.getEndPosition(); i++) {
+        covered[i] = true;
+      }
+    }
+    final HitSampler sampler = dictionary.getHitSampler();
+    final ToLongFunction<String> weight = sampler == null ? null : sampler::getCount;
+    final StringBuilder corrected = new StringBuilder(text.length());
+    int copied = 0; // 已复制到结果中的字符数
+    int begin = 0;
+    while (begin < text.length()) {
+      if (covered[begin] || !isChinese(text.charAt(begin))) {
+        begin++;
+        continue;
+      }
+      // 未被切分出任何词的片段 [begin, end) 及其所在的汉字串 [runBegin, runEnd)
+      int end = begin + 1;
+      while ((end < text.length()) && !covered[end] && isChinese(text.charAt(end))) {
+        end++;
+      }
+      int runBegin = begin;
+      while ((runBegin > copied) && isChinese(text.charAt(runBegin - 1))) {
+        runBegin--;
+      }
+      int runEnd = end;
+      while ((runEnd < text.length()) && isChinese(text.charAt(runEnd))) {
+        runEnd++;
+      }
+      // 替换范围的边界不能落在词的中间（片段内除外）
+      final TreeSet<Integer> bounds = new TreeSet<>();
+      for (int i = begin; i <= end; i++) {
+        bounds.add(i);
+      }
+      for (final Lexeme lexeme : lexemes) {
+        if ((lexeme.getBeginPosition() >= runBegin) && (lexeme.getEndPosition() <= runEnd)) {
+          bounds.add(lexeme.getBeginPosition());
+          bounds.add(lexeme.getEndPosition());
+        }
+      }
+      String replacement = null;
+      int right = end;
+      for (int length = Math.min(MAX_CORRECTION_LENGTH, runEnd - runBegin);
+          (replacement == null) && (length >= MIN_CORRECTION_LENGTH); length--) {
+        for (final int from : bounds) {
+          final int to = from + length;
+          if ((from < end) && (to > begin) && bounds.contains(to)) {
+            replacement = findCorrection(dictionary, text.substring(from, to),
+                Math.min(to, end) - Math.max(from, begin), weight);
+            if (replacement != null) {
+              corrected.append(text, copied, from).append(replacement);
+              copied = to;
+              right = to;
+              break;
+            }
+          }
+        }
+      }
+      begin = replacement == null ? end : right;
+    }
+    return corrected.append(text, copied, text.length()).toString();
+  }
+
+  /**
+   * 查找片段的正确写法。
+   *
+   * @param dictionary 词库
+   * @param fragment 含有未被切分出任何词的字符的片段
+   * @param unknownCount 片段中未被切分出任何词的字符数（编辑距离不超过此数）
+   * @param weight 词的权重（可为 null）
+   * @return 正确写法（找不到时返回 null）
+   * @author hankai
+   * @since Oct 18, 2026 10:25:12 PM
+   */
+  private static String findCorrection(Dictionary dictionary, String fragment, int unknownCount,
+      ToLongFunction<String> weight) {
+    final int maxEdits = Math.min(fragment.length() >= TWO_EDITS_LENGTH ? 2 : 1, unknownCount);
+    for (final String word : dictionary.findSimilar(fragment, maxEdits, 5, weight)) {
+      // 较短的片段只接受替换错误，以免把词典中没有的词误改为其中一部分
+      if ((fragment.length() >= MIN_INDEL_LENGTH) || (word.length() == fragment.length())) {
+        return word;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isChinese(char ch) {
+    return CharacterUtil.identifyCharType(ch) == CharacterUtil.CHAR_CHINESE;
+  }
+
   /**
    * 构建关键字匹配多个字段的查询对象（多个字段的匹配条件之间的关系为逻辑或）。
    *
@@ -152,7 +362,21 @@ public class HkQueryBuilder {
    * @since Jan 19, 2017 11:34:04 AM
    */
   public static Query build(String[] fields, String query) {
-    return build(fields, new String[] {query}, new Occur[] {});
+    return build(Dictionary.getDefault(), fields, query);
+  }
+
+  /**
+   * 使用指定的词库构建关键字匹配多个字段的查询对象（多个字段的匹配条件之间的关系为逻辑或）。
+   *
+   * @param dictionary 词库
+   * @param fields 字段数组
+   * @param query 关键字
+   * @return 查询对象
+   * @author hankai
+   * @since Oct 18, 2026 4:46:02 PM
+   */
+  public static Query build(Dictionary dictionary, String[] fields, String query) {
+    return build(dictionary, fields, new String[] {query}, new Occur[] {});
   }
 
   /**
@@ -166,6 +390,22 @@ public class HkQueryBuilder {
    * @since Jan 19, 2017 11:45:06 AM
    */
   public static Query build(String[] fields, String[] query, Occur[] occurs) {
+    return build(Dictionary.getDefault(), fields, query, occurs);
+  }
+
+  /**
+   * 使用指定的词库构建关键字匹配多个字段的查询对象。
+   *
+   * @param dictionary 词库
+   * @param fields 要匹配的字段
+   * @param query 关键字
+   * @param occurs 为多个字段构造的查询条件之间的逻辑关系（默认为逻辑或）
+   * @return 查询对象
+   * @author hankai
+   * @since Oct 18, 2026 4:46:40 PM
+   */
+  public static Query build(Dictionary dictionary, String[] fields, String[] query,
+      Occur[] occurs) {
     Objects.requireNonNull(fields, "Fields cannot be null.");
     Objects.requireNonNull(occurs, "Flags cannot be null.");
     final BooleanQuery.Builder builder = new BooleanQuery.Builder();
@@ -178,7 +418,7 @@ public class HkQueryBuilder {
       final String keyword = i < query.length ? query[i] : lastQuery;
       lastQuery = keyword;
       if (StringUtils.isNotEmpty(field) && StringUtils.isNotEmpty(keyword)) {
-        final Query partQuery = build(field, keyword);
+        final Query partQuery = build(dictionary, field, keyword);
         if (((partQuery != null) &&
             (!(partQuery instanceof BooleanQuery)
                 || (((BooleanQuery) partQuery).clauses().size() > 0)))) {
@@ -189,6 +429,74 @@ public class HkQueryBuilder {
     return builder.build();
   }
 
+  /**
+   * 一个线程的查询关键字缓存。缓存只由所属线程读写，占用的内存可由其他线程读取。
+   *
+   * @author hankai
+   * @version 1.0.0
+   * @since Oct 18, 2026 9:32:20 PM
+   */
+  private static class KeywordCache implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(KeywordCache.class);
+    private static final int MAX_SIZE = 1200; // 缓存的关键字超过此数量时清空
+
+    private final Map<String, QueryBranch> branches = new HashMap<>(4);
+    // 缓存对应的词典快照及开关，词库、词典或开关变更后缓存失效
+    private DictionarySnapshot source;
+    private boolean typoCorrected;
+    private boolean longerTextOnly;
+    // 缓存的关键字及博弈树占用的内存
+    private volatile long bytesUsed;
+
+    /**
+     * 设置分词使用的词典快照及开关，与缓存对应的快照或开关不同时清空缓存。
+     *
+     * @param snapshot 词典快照
+     * @param typoCorrected 是否纠正错别字
+     * @param longerTextOnly 是否采用最大切分
+     */
+    private void setSource(DictionarySnapshot snapshot, boolean typoCorrected,
+        boolean longerTextOnly) {
+      if ((source != snapshot) || (this.typoCorrected != typoCorrected)
+          || (this.longerTextOnly != longerTextOnly)) {
+        clear();
+        source = snapshot;
+        this.typoCorrected = typoCorrected;
+        this.longerTextOnly = longerTextOnly;
+      }
+    }
+
+    private QueryBranch get(String query) {
+      return branches.get(query);
+    }
+
+    private void put(String query, QueryBranch branch) {
+      if (branches.size() > MAX_SIZE) {
+        clear();
+      }
+      final QueryBranch previous = branches.put(query, branch);
+      long bytes = bytesUsed + branch.ramBytesUsed();
+      if (previous == null) {
+        bytes += RamUsageUtil.HASH_ENTRY_BYTES + RamUsageUtil.sizeOf(query);
+      } else {
+        bytes -= previous.ramBytesUsed();
+      }
+      bytesUsed = bytes;
+    }
+
+    private void clear() {
+      branches.clear();
+      bytesUsed = 0;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + bytesUsed;
+    }
+  }
+
   /**
    * 用于处理分词产生歧义时，容纳歧义词元的博弈树。假设对搜索关键词：”飞流直下三千尺“ 进行分词，会产生 [飞流直下三千尺，飞流，三千]
    * 这样一个分词集。假设这个关键词对应有一个树结构，则“飞流直下三千尺” 会变为树干，“飞流” 和 “三千” 会变为这个树干的两个分支， 由 其构成的查询条件为 { “飞流直下三千尺” &&
@@ -204,6 +512,10 @@ public class HkQueryBuilder {
     /* 不适用 0 这种特殊值，因为非包装类型会有默认值 */
     private static final int ADOPTED = -1; // 标记目标词元为歧义词，可以被存入当前博弈树节点（博弈成功）。
     private static final int HAND_OVER = 1; // 标记目标词元首字符索引位置超出了右边界，应该将当前决策权交由下一个树节点（博弈失败）。
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(QueryBranch.class)
+            + RamUsageEstimator.shallowSizeOfInstance(ArrayList.class);
+    private static final long LEXEME_BYTES = RamUsageEstimator.shallowSizeOfInstance(Lexeme.class);
 
     private int rightBorder; // 当前节点的右边界（边界由当前节点所接受的词元进行拓展，接受后，右边界被拓展为词元末字符的位置索引）
     private Lexeme word; // 当前节点主词元
@@ -221,6 +533,29 @@ public class HkQueryBuilder {
       return word;
     }
 
+    /**
+     * 估算博弈树占用的内存（包括子节点、后续节点及词元）。
+     *
+     * @return 字节数
+     * @author hankai
+     * @since Oct 18, 2026 9:33:40 PM
+     */
+    private long ramBytesUsed() {
+      long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.alignObjectSize(
+          RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+              + ((long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * childBranches.size()));
+      if (word != null) {
+        bytes += LEXEME_BYTES + RamUsageUtil.sizeOf(word.getText());
+      }
+      for (final QueryBranch childBranch : childBranches) {
+        bytes += childBranch.ramBytesUsed();
+      }
+      if (nextBranch != null) {
+        bytes += nextBranch.ramBytesUsed();
+      }
+      return bytes;
+    }
+
     @Override
     public int hashCode() {
       if (word == null) {
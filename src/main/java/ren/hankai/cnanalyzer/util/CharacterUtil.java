@@ -31,7 +31,40 @@ public class CharacterUtil {
    */
   public static final int CHAR_JK = 0X00000008;
 
+  // 每个字符的类型及规格化后的字符，类加载时按 Unicode 区块计算一次，分词时直接查表
+  private static final byte[] charTypes = new byte[Character.MAX_VALUE + 1];
+  private static final char[] regularizedChars = new char[Character.MAX_VALUE + 1];
+  static {
+    for (int i = 0; i <= Character.MAX_VALUE; i++) {
+      charTypes[i] = (byte) computeCharType((char) i);
+      regularizedChars[i] = computeRegularized((char) i);
+    }
+  }
+
+  /**
+   * 获取只包含一种字符类型的字符类型掩码。字符类型掩码可表示包括 {@link #CHAR_OTHERS} 在内的任意几种字符类型，
+   * 多种类型的掩码按位或即可。
+   *
+   * @param charType 字符类型
+   * @return 字符类型掩码
+   * @author hankai
+   * @since Oct 18, 2026 11:05:30 PM
+   */
+  public static int toCharTypeMask(int charType) {
+    return 1 << charType;
+  }
+
+  /**
+   * 识别字符的类型（查表，不查找 Unicode 区块）。
+   *
+   * @param input 字符
+   * @return 字符类型
+   */
   public static int identifyCharType(char input) {
+    return charTypes[input];
+  }
+
+  private static int computeCharType(char input) {
     if ((input >= '0') && (input <= '9')) {
       return CHAR_ARABIC;
     } else if (((input >= 'a') && (input <= 'z'))
@@ -69,6 +102,10 @@ public class CharacterUtil {
    * @since Jan 18, 2017 1:10:38 PM
    */
   public static char regularize(char input) {
+    return regularizedChars[input];
+  }
+
+  private static char computeRegularized(char input) {
     if (input == 12288) {
       input = (char) 32;
     } else if ((input > 65280) && (input < 65375)) {
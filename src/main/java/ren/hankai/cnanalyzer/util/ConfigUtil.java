@@ -7,8 +7,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Properties;
 
 public class ConfigUtil {
@@ -31,37 +29,104 @@ public class ConfigUtil {
    */
   public static final String KEY_USER_STOPWORDS = "user.stopwords";
   /**
-   * 用于自定义词典路径的参数名数组。
+   * 文件系统中的用户词典路径所用参数名。
    */
-  private static final String[] DICTIONARY_KEYS = {KEY_USER_DICTIONARIES, KEY_USER_STOPWORDS};
+  public static final String KEY_USER_DICTIONARY_FILES = "user.dictionary.files";
   /**
-   * 用户自定义词典路径。
+   * 是否监视文件系统中的用户词典的变化所用参数名。
    */
-  private static Map<String, String[]> dictionaries = new HashMap<>();
+  public static final String KEY_USER_DICTIONARY_WATCH = "user.dictionary.watch";
+  /**
+   * 预编译词典映像文件路径所用参数名。
+   */
+  public static final String KEY_DICTIONARY_IMAGE = "dictionary.image";
+  /**
+   * 是否缓存由文本词典编译的词典映像所用参数名。
+   */
+  public static final String KEY_DICTIONARY_IMAGE_CACHE = "dictionary.image.cache";
+  /**
+   * 词典映像缓存目录所用参数名。
+   */
+  public static final String KEY_DICTIONARY_IMAGE_CACHE_DIR = "dictionary.image.cache.dir";
+  /**
+   * 词典修改日志文件路径所用参数名。
+   */
+  public static final String KEY_DICTIONARY_JOURNAL = "dictionary.journal";
+  /**
+   * 词典修改日志压缩阈值（字节）所用参数名。
+   */
+  public static final String KEY_DICTIONARY_JOURNAL_THRESHOLD = "dictionary.journal.threshold";
+  /**
+   * 词典修改日志默认的压缩阈值（4MB）。
+   */
+  public static final long DEFAULT_JOURNAL_THRESHOLD = 4L << 20;
+  /**
+   * 替代內建主词典的词典路径所用参数名（如裁剪后的热词词典）。先在类路径中查找，找不到时按文件系统路径读取。
+   */
+  public static final String KEY_MAIN_DICTIONARY = "main.dictionary";
+  /**
+   * 词典命中采样率所用参数名。
+   */
+  public static final String KEY_HIT_SAMPLE_RATE = "dictionary.hit.sample.rate";
+  /**
+   * 词典存储结构所用参数名。
+   */
+  public static final String KEY_DICTIONARY_BACKEND = "dictionary.backend";
+  /**
+   * 词典存储结构：双数组词典树（默认，匹配最快）。
+   */
+  public static final String BACKEND_DATRIE = "datrie";
+  /**
+   * 词典存储结构：Lucene FST（内存占用最小）。
+   */
+  public static final String BACKEND_FST = "fst";
+  /**
+   * 词典存储结构：冷热分层（热词在堆中，冷词内存映射）。
+   */
+  public static final String BACKEND_TIERED = "tiered";
+  /**
+   * 命中统计文件路径（用于区分冷热词）所用参数名。
+   */
+  public static final String KEY_HIT_COUNT_FILES = "dictionary.hit.counts";
+  /**
+   * 热词最少被采样次数所用参数名。
+   */
+  public static final String KEY_HOT_MIN_COUNT = "dictionary.hot.min.count";
+  /**
+   * 冷词层文件路径所用参数名。
+   */
+  public static final String KEY_COLD_FILE = "dictionary.cold.file";
+  /**
+   * 配置文件中的参数。
+   */
+  private static final Properties properties = new Properties();
 
   static {
-    final Properties props = new Properties();
     final InputStream input = ConfigUtil.class.getResourceAsStream(CONFIG_FILE_NAME);
     if (input != null) {
       try {
-        props.load(input);
+        properties.load(input);
       } catch (final IOException ex) {
         logger.error("Failed to load dictionaries!", ex);
       }
-      for (final String string : DICTIONARY_KEYS) {
-        final String paths = props.getProperty(string);
-        if (StringUtils.isNotEmpty(paths)) {
-          final String[] pathArray = paths.trim().split(PATH_SEPARATOR);;
-          if (ArrayUtils.isNotEmpty(pathArray)) {
-            dictionaries.put(string, pathArray);
-          }
-        }
-      }
     } else {
       logger.debug("HkAnalyzer configuration file not found!");
     }
   }
 
+  /**
+   * 获取配置文件中的参数（副本）。
+   *
+   * @return 配置参数
+   * @author hankai
+   * @since Oct 18, 2026 4:20:35 PM
+   */
+  public static Properties getProperties() {
+    final Properties copy = new Properties();
+    copy.putAll(properties);
+    return copy;
+  }
+
   /**
    * 获取用户自定义词典。
    *
@@ -70,7 +135,19 @@ public class ConfigUtil {
    * @since Jan 18, 2017 4:27:30 PM
    */
   public static String[] getUserDictionaries() {
-    return dictionaries.get(KEY_USER_DICTIONARIES);
+    return getUserDictionaries(properties);
+  }
+
+  /**
+   * 从配置参数中获取用户自定义词典。
+   *
+   * @param props 配置参数
+   * @return 用户词典（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 4:21:12 PM
+   */
+  public static String[] getUserDictionaries(Properties props) {
+    return getPaths(props, KEY_USER_DICTIONARIES);
   }
 
   /**
@@ -81,6 +158,275 @@ public class ConfigUtil {
    * @since Jan 18, 2017 4:27:47 PM
    */
   public static String[] getUserStopwords() {
-    return dictionaries.get(KEY_USER_STOPWORDS);
+    return getUserStopwords(properties);
+  }
+
+  /**
+   * 从配置参数中获取用户自定义的停止词。
+   *
+   * @param props 配置参数
+   * @return 用户停止词（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 4:21:40 PM
+   */
+  public static String[] getUserStopwords(Properties props) {
+    return getPaths(props, KEY_USER_STOPWORDS);
+  }
+
+  /**
+   * 获取文件系统中的用户词典路径。
+   *
+   * @return 用户词典文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 7:30:12 PM
+   */
+  public static String[] getUserDictionaryFiles() {
+    return getUserDictionaryFiles(properties);
+  }
+
+  /**
+   * 从配置参数中获取文件系统中的用户词典路径。
+   *
+   * @param props 配置参数
+   * @return 用户词典文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 7:30:40 PM
+   */
+  public static String[] getUserDictionaryFiles(Properties props) {
+    return getPaths(props, KEY_USER_DICTIONARY_FILES);
+  }
+
+  /**
+   * 是否监视文件系统中的用户词典的变化（默认监视）。
+   *
+   * @return 是否监视
+   * @author hankai
+   * @since Oct 18, 2026 7:31:15 PM
+   */
+  public static boolean isUserDictionaryWatched() {
+    return isUserDictionaryWatched(properties);
+  }
+
+  /**
+   * 从配置参数中获取是否监视文件系统中的用户词典的变化（默认监视）。
+   *
+   * @param props 配置参数
+   * @return 是否监视
+   * @author hankai
+   * @since Oct 18, 2026 7:31:42 PM
+   */
+  public static boolean isUserDictionaryWatched(Properties props) {
+    final String watch = StringUtils.trimToNull(props.getProperty(KEY_USER_DICTIONARY_WATCH));
+    return (watch == null) || Boolean.parseBoolean(watch);
+  }
+
+  /**
+   * 获取预编译词典映像文件路径。
+   *
+   * @return 映像文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 11:38:40 AM
+   */
+  public static String getDictionaryImage() {
+    return getDictionaryImage(properties);
+  }
+
+  /**
+   * 从配置参数中获取预编译词典映像文件路径。
+   *
+   * @param props 配置参数
+   * @return 映像文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 4:22:05 PM
+   */
+  public static String getDictionaryImage(Properties props) {
+    return StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_IMAGE));
+  }
+
+  /**
+   * 从配置参数中获取是否缓存由文本词典编译的词典映像（默认缓存）。
+   *
+   * @param props 配置参数
+   * @return 是否缓存
+   * @author hankai
+   * @since Oct 18, 2026 11:27:20 PM
+   */
+  public static boolean isDictionaryImageCached(Properties props) {
+    final String cache = StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_IMAGE_CACHE));
+    return (cache == null) || Boolean.parseBoolean(cache);
+  }
+
+  /**
+   * 从配置参数中获取词典映像缓存目录。
+   *
+   * @param props 配置参数
+   * @return 缓存目录（未配置时为 null，使用系统临时目录下的 hkanalyzer-&lt;用户名&gt; 目录）
+   * @author hankai
+   * @since Oct 18, 2026 11:27:45 PM
+   */
+  public static String getDictionaryImageCacheDir(Properties props) {
+    return StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_IMAGE_CACHE_DIR));
+  }
+
+  /**
+   * 从配置参数中获取词典修改日志文件路径。
+   *
+   * @param props 配置参数
+   * @return 日志文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 8:22:10 PM
+   */
+  public static String getDictionaryJournal(Properties props) {
+    return StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_JOURNAL));
+  }
+
+  /**
+   * 从配置参数中获取词典修改日志的压缩阈值。
+   *
+   * @param props 配置参数
+   * @return 压缩阈值（字节，未配置或无效时为 {@link #DEFAULT_JOURNAL_THRESHOLD}）
+   * @author hankai
+   * @since Oct 18, 2026 8:22:48 PM
+   */
+  public static long getDictionaryJournalThreshold(Properties props) {
+    final String threshold =
+        StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_JOURNAL_THRESHOLD));
+    if (threshold != null) {
+      try {
+        return Long.parseLong(threshold);
+      } catch (final NumberFormatException ex) {
+        logger.warn("Invalid journal threshold: " + threshold + ", use "
+            + DEFAULT_JOURNAL_THRESHOLD);
+      }
+    }
+    return DEFAULT_JOURNAL_THRESHOLD;
+  }
+
+  /**
+   * 从配置参数中获取替代內建主词典的词典路径（类路径或文件系统路径）。
+   *
+   * @param props 配置参数
+   * @return 词典路径（未配置时为 null，使用內建主词典）
+   * @author hankai
+   * @since Oct 18, 2026 9:48:10 PM
+   */
+  public static String getMainDictionary(Properties props) {
+    return StringUtils.trimToNull(props.getProperty(KEY_MAIN_DICTIONARY));
+  }
+
+  /**
+   * 从配置参数中获取词典命中采样率。
+   *
+   * @param props 配置参数
+   * @return 采样率，平均每多少次命中采样一次（未配置或无效时为 0，即不采样）
+   * @author hankai
+   * @since Oct 18, 2026 9:48:42 PM
+   */
+  public static int getHitSampleRate(Properties props) {
+    final String rate = StringUtils.trimToNull(props.getProperty(KEY_HIT_SAMPLE_RATE));
+    if (rate != null) {
+      try {
+        return Math.max(Integer.parseInt(rate), 0);
+      } catch (final NumberFormatException ex) {
+        logger.warn("Invalid hit sample rate: " + rate + ", sampling disabled.");
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * 获取词典存储结构。
+   *
+   * @return 存储结构（{@link #BACKEND_DATRIE}、{@link #BACKEND_FST} 或 {@link #BACKEND_TIERED}）
+   * @author hankai
+   * @since Oct 18, 2026 1:33:26 PM
+   */
+  public static String getDictionaryBackend() {
+    return getDictionaryBackend(properties);
+  }
+
+  /**
+   * 从配置参数中获取词典存储结构。
+   *
+   * @param props 配置参数
+   * @return 存储结构（{@link #BACKEND_DATRIE}、{@link #BACKEND_FST} 或 {@link #BACKEND_TIERED}）
+   * @author hankai
+   * @since Oct 18, 2026 4:22:31 PM
+   */
+  public static String getDictionaryBackend(Properties props) {
+    final String backend = StringUtils.trimToNull(props.getProperty(KEY_DICTIONARY_BACKEND));
+    if ((backend == null) || BACKEND_DATRIE.equalsIgnoreCase(backend)) {
+      return BACKEND_DATRIE;
+    } else if (BACKEND_FST.equalsIgnoreCase(backend)) {
+      return BACKEND_FST;
+    } else if (BACKEND_TIERED.equalsIgnoreCase(backend)) {
+      return BACKEND_TIERED;
+    }
+    logger.warn("Unknown dictionary backend: " + backend + ", use " + BACKEND_DATRIE);
+    return BACKEND_DATRIE;
+  }
+
+  /**
+   * 从配置参数中获取命中统计文件路径。
+   *
+   * @param props 配置参数
+   * @return 命中统计文件路径（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 10:03:10 PM
+   */
+  public static String[] getHitCountFiles(Properties props) {
+    return getPaths(props, KEY_HIT_COUNT_FILES);
+  }
+
+  /**
+   * 从配置参数中获取热词最少被采样次数。
+   *
+   * @param props 配置参数
+   * @return 最少被采样次数（未配置或无效时为 1，即被采样过的词都是热词）
+   * @author hankai
+   * @since Oct 18, 2026 10:03:42 PM
+   */
+  public static long getHotMinCount(Properties props) {
+    final String count = StringUtils.trimToNull(props.getProperty(KEY_HOT_MIN_COUNT));
+    if (count != null) {
+      try {
+        return Long.parseLong(count);
+      } catch (final NumberFormatException ex) {
+        logger.warn("Invalid hot word min count: " + count + ", use 1");
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * 从配置参数中获取冷词层文件路径。
+   *
+   * @param props 配置参数
+   * @return 冷词层文件路径（未配置时为 null，使用临时文件）
+   * @author hankai
+   * @since Oct 18, 2026 10:04:15 PM
+   */
+  public static String getColdFile(Properties props) {
+    return StringUtils.trimToNull(props.getProperty(KEY_COLD_FILE));
+  }
+
+  /**
+   * 获取以逗号分隔的多个路径。
+   *
+   * @param props 配置参数
+   * @param key 参数名
+   * @return 路径数组（未配置时为 null）
+   * @author hankai
+   * @since Oct 18, 2026 4:23:10 PM
+   */
+  private static String[] getPaths(Properties props, String key) {
+    final String paths = props.getProperty(key);
+    if (StringUtils.isNotEmpty(paths)) {
+      final String[] pathArray = paths.trim().split(PATH_SEPARATOR);
+      if (ArrayUtils.isNotEmpty(pathArray)) {
+        return pathArray;
+      }
+    }
+    return null;
   }
 }
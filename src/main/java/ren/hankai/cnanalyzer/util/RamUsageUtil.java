@@ -0,0 +1,64 @@
+package ren.hankai.cnanalyzer.util;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * 内存占用估算辅助工具类。补充 {@link RamUsageEstimator} 未提供的字符串及散列表条目的估算。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:24:30 PM
+ */
+public class RamUsageUtil {
+
+  /**
+   * 散列表（HashMap、HashSet）中每个条目的估算大小，包括条目对象及其在散列表中占用的一个槽位。
+   */
+  public static final long HASH_ENTRY_BYTES =
+      RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+          + Integer.BYTES + (3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF))
+          + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+  private static final long STRING_BYTES =
+      RamUsageEstimator.shallowSizeOfInstance(String.class);
+
+  /**
+   * 估算字符串占用的内存（按每个字符占两个字节估算）。
+   *
+   * @param text 字符串
+   * @return 字节数（字符串为 null 时返回 0）
+   * @author hankai
+   * @since Oct 18, 2026 9:25:12 PM
+   */
+  public static long sizeOf(String text) {
+    if (text == null) {
+      return 0;
+    }
+    return STRING_BYTES + RamUsageEstimator.alignObjectSize(
+        RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+            + ((long) Character.BYTES * text.length()));
+  }
+
+  /**
+   * 估算散列集合占用的内存。CharArraySet 以开放寻址的散列表存储，键、值各一个数组，表长为 2 的幂且至少为元素数的 5/4。
+   *
+   * @param set 散列集合
+   * @return 字节数
+   * @author hankai
+   * @since Oct 18, 2026 9:20:44 PM
+   */
+  public static long sizeOf(CharArraySet set) {
+    int tableSize = 8;
+    while ((set.size() + (set.size() >> 2)) > tableSize) {
+      tableSize <<= 1;
+    }
+    long bytes = 2 * RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+        + ((long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * tableSize));
+    for (final Object key : set) {
+      bytes += RamUsageEstimator.sizeOf((char[]) key);
+    }
+    return bytes;
+  }
+
+}
@@ -0,0 +1,73 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多模式扫描器测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 3:20:45 PM
+ */
+public class AhoCorasickScannerTest {
+
+  private DoubleArrayTrie buildTrie(String... words) {
+    final WordSegment root = new WordSegment((char) 0);
+    for (final String word : words) {
+      root.fillSegment(word.toCharArray());
+    }
+    return DoubleArrayTrie.build(root);
+  }
+
+  private List<String> scan(AhoCorasickScanner scanner, String text) {
+    final List<String> words = new ArrayList<>();
+    int state = AhoCorasickScanner.ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      state = scanner.next(state, text.charAt(i));
+      for (int word = scanner.firstWord(state); word >= 0; word = scanner.nextWord(word)) {
+        final int length = scanner.getDepth(word);
+        words.add(text.substring((i - length) + 1, i + 1));
+      }
+    }
+    return words;
+  }
+
+  @Test
+  public void testScan() {
+    final AhoCorasickScanner scanner =
+        AhoCorasickScanner.build(buildTrie("中华", "中华人民", "人民", "民", "共和国", "和", "华人"));
+    final List<String> words = scan(scanner, "中华人民共和国");
+    Assert.assertEquals("[中华, 华人, 中华人民, 人民, 民, 和, 共和国]", words.toString());
+    Assert.assertTrue(scan(scanner, "abc").isEmpty());
+  }
+
+  @Test
+  public void testIsOpen() {
+    final AhoCorasickScanner scanner = AhoCorasickScanner.build(buildTrie("银河系", "河"));
+    int state = scanner.next(AhoCorasickScanner.ROOT, '银');
+    Assert.assertTrue(scanner.isOpen(state));
+    state = scanner.next(state, '河');
+    Assert.assertTrue(scanner.isOpen(state));
+    Assert.assertEquals(1, scanner.getDepth(scanner.firstWord(state)));
+    Assert.assertEquals(-1, scanner.nextWord(scanner.firstWord(state)));
+    state = scanner.next(state, '系');
+    Assert.assertFalse(scanner.isOpen(state));
+    Assert.assertEquals(3, scanner.getDepth(scanner.firstWord(state)));
+  }
+
+  @Test
+  public void testSnapshot() {
+    final DoubleArrayTrie trie = buildTrie("银河");
+    final AhoCorasickScanner scanner = AhoCorasickScanner.build(trie);
+    trie.add("九天".toCharArray());
+    // 构建后添加的词对已有的扫描器不可见
+    Assert.assertTrue(scan(scanner, "九天").isEmpty());
+    Assert.assertEquals("[九天]", scan(AhoCorasickScanner.build(trie), "九天").toString());
+  }
+
+}
@@ -0,0 +1,114 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * 词典映像测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 11:42:10 AM
+ */
+public class DictionaryImageTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DoubleArrayTrie buildTrie(String... words) {
+    final WordSegment root = new WordSegment((char) 0);
+    for (final String word : words) {
+      root.fillSegment(word.toCharArray());
+    }
+    return DoubleArrayTrie.build(root);
+  }
+
+  @Test
+  public void testWriteAndMap() throws Exception {
+    final File file = folder.newFile("test.img");
+    new DictionaryImage(buildTrie("银河", "银河系"), buildTrie("千克"), buildTrie("with"))
+        .write(file.toPath());
+    final DictionaryImage image = DictionaryImage.map(file.toPath());
+    Hit hit = image.getMainWords().match("银河系".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isMatch());
+    hit = image.getMainWords().match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    Assert.assertTrue(image.getQuantifiers().match("千克".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(image.getStopWords().match("with".toCharArray(), 0, 4).isMatch());
+    Assert.assertTrue(image.getStopWords().match("千克".toCharArray(), 0, 2).isUnmatch());
+  }
+
+  @Test
+  public void testAddToMappedTrie() throws Exception {
+    final File file = folder.newFile("test.img");
+    new DictionaryImage(buildTrie("银河"), buildTrie("千克"), buildTrie("with")).write(file.toPath());
+    final DictionaryImage image = DictionaryImage.map(file.toPath());
+    image.getMainWords().add("九天".toCharArray());
+    Assert.assertTrue(image.getMainWords().match("九天".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(image.getMainWords().match("银河".toCharArray(), 0, 2).isMatch());
+    // 映射的文件不会被修改
+    Assert.assertTrue(DictionaryImage.map(file.toPath()).getMainWords()
+        .match("九天".toCharArray(), 0, 2).isUnmatch());
+  }
+
+  @Test(expected = IOException.class)
+  public void testMapInvalidImage() throws Exception {
+    final File file = folder.newFile("invalid.img");
+    Files.write(file.toPath(), "not a dictionary image".getBytes("UTF-8"));
+    DictionaryImage.map(file.toPath());
+  }
+
+  @Test
+  public void testMappedRamBytesUsed() throws Exception {
+    final File file = folder.newFile("test.img");
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系");
+    new DictionaryImage(trie, buildTrie("千克"), buildTrie("with")).write(file.toPath());
+    final DictionaryImage image = DictionaryImage.map(file.toPath());
+    // 映射的数组不在堆中
+    Assert.assertTrue(image.getMainWords().ramBytesUsed() < (trie.ramBytesUsed() / 10));
+    Assert.assertEquals(2, image.getMainWords().getStats().getWordCount());
+  }
+
+  @Test
+  public void testMapScanner() throws Exception {
+    final File file = folder.newFile("test.img");
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "河系", "九天");
+    new DictionaryImage(trie, buildTrie("千克"), buildTrie("with")).write(file.toPath());
+    final DictionaryImage image = DictionaryImage.map(file.toPath());
+    final AhoCorasickScanner mapped = image.getScanner();
+    Assert.assertNotNull(mapped);
+    final AhoCorasickScanner built = AhoCorasickScanner.build(trie);
+    // 映射的扫描器与构建的扫描器扫描结果相同，且指针数组不在堆中
+    int mappedState = AhoCorasickScanner.ROOT;
+    int builtState = AhoCorasickScanner.ROOT;
+    for (final char ch : "飞流银河系落九天".toCharArray()) {
+      mappedState = mapped.next(mappedState, ch);
+      builtState = built.next(builtState, ch);
+      Assert.assertEquals(built.isOpen(builtState), mapped.isOpen(mappedState));
+      int mappedWord = mapped.firstWord(mappedState);
+      int builtWord = built.firstWord(builtState);
+      while (builtWord >= 0) {
+        Assert.assertEquals(built.getDepth(builtWord), mapped.getDepth(mappedWord));
+        mappedWord = mapped.nextWord(mappedWord);
+        builtWord = built.nextWord(builtWord);
+      }
+      Assert.assertEquals(-1, mappedWord);
+    }
+    Assert.assertEquals(0, mapped.getChildResources().stream()
+        .mapToLong(resource -> resource.ramBytesUsed()).sum());
+    final Dictionary dictionary = new Dictionary(image);
+    try {
+      Assert.assertSame(mapped, dictionary.getSnapshot().getScanner());
+    } finally {
+      dictionary.close();
+    }
+  }
+}
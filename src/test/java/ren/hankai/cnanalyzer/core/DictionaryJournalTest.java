@@ -0,0 +1,166 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ren.hankai.cnanalyzer.util.ConfigUtil;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 词典修改日志测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 8:32:26 PM
+ */
+public class DictionaryJournalTest {
+
+  private Path directory;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("hkanalyzer");
+    file = directory.resolve("dictionary.journal");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    for (final Path path : Files.newDirectoryStream(directory)) {
+      Files.delete(path);
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testReplay() throws IOException {
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      journal.append(Collections.emptyList(), Arrays.asList("日志词甲", "日志词乙"));
+      journal.append(Arrays.asList("日志词甲", "你好"), Arrays.asList("日志词丙"));
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      final Map<String, Boolean> changes = journal.getChanges();
+      Assert.assertEquals(4, changes.size());
+      Assert.assertFalse(changes.get("日志词甲"));
+      Assert.assertTrue(changes.get("日志词乙"));
+      Assert.assertFalse(changes.get("你好"));
+      Assert.assertTrue(changes.get("日志词丙"));
+    }
+  }
+
+  @Test
+  public void testDiscardIncompleteRecord() throws IOException {
+    final long size;
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      journal.append(Collections.emptyList(), Arrays.asList("日志词甲"));
+      size = journal.size();
+      journal.append(Collections.emptyList(), Arrays.asList("日志词乙"));
+    }
+    // 模拟写入最后一条记录的过程中进程退出
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      Assert.assertEquals(Collections.singletonMap("日志词甲", true), journal.getChanges());
+      Assert.assertEquals(size, journal.size());
+      journal.append(Collections.emptyList(), Arrays.asList("日志词丙"));
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      Assert.assertEquals(2, journal.getChanges().size());
+    }
+  }
+
+  @Test
+  public void testCompact() throws IOException {
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      for (int i = 0; i < 100; i++) {
+        journal.append(Collections.emptyList(), Arrays.asList("日志词甲"));
+        journal.append(Arrays.asList("日志词甲"), Collections.emptyList());
+      }
+      final long size = journal.size();
+      journal.compact();
+      Assert.assertTrue(journal.size() < size);
+      Assert.assertEquals(Collections.singletonMap("日志词甲", false), journal.getChanges());
+      journal.append(Collections.emptyList(), Arrays.asList("日志词乙"));
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      Assert.assertEquals(2, journal.getChanges().size());
+      Assert.assertTrue(journal.getChanges().get("日志词乙"));
+    }
+  }
+
+  @Test
+  public void testCompactFailure() throws IOException {
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE) {
+      @Override
+      void replaceFile(Path temp, Path target) throws IOException {
+        throw new AtomicMoveNotSupportedException(temp.toString(), target.toString(), "test");
+      }
+    }) {
+      journal.append(Collections.emptyList(), Arrays.asList("日志词甲"));
+      try {
+        journal.compact();
+        Assert.fail("Compaction should fail");
+      } catch (final AtomicMoveNotSupportedException ex) {
+        // 预期的异常
+      }
+      Assert.assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+      // 压缩失败后仍可继续追加
+      journal.append(Collections.emptyList(), Arrays.asList("日志词乙"));
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, Long.MAX_VALUE)) {
+      Assert.assertEquals(2, journal.getChanges().size());
+    }
+  }
+
+  @Test
+  public void testBackgroundCompaction() throws Exception {
+    try (DictionaryJournal journal = new DictionaryJournal(file, 256)) {
+      for (int i = 0; i < 500; i++) {
+        journal.append(Collections.emptyList(), Arrays.asList("日志词" + (i % 5)));
+      }
+      final long deadline = System.currentTimeMillis() + 10000;
+      while ((journal.size() >= 1024) && (System.currentTimeMillis() < deadline)) {
+        Thread.sleep(50);
+      }
+      Assert.assertTrue(journal.size() < 1024);
+    }
+    try (DictionaryJournal journal = new DictionaryJournal(file, 256)) {
+      Assert.assertEquals(5, journal.getChanges().size());
+    }
+  }
+
+  @Test
+  public void testDictionaryRestart() {
+    final Properties config = new Properties();
+    config.setProperty(ConfigUtil.KEY_DICTIONARY_JOURNAL, file.toString());
+    Dictionary dictionary = new Dictionary(config);
+    try {
+      dictionary.addWord("重启后的词");
+      dictionary.removeWord("你好");
+    } finally {
+      dictionary.close();
+    }
+    dictionary = new Dictionary(config);
+    try {
+      Assert.assertTrue(dictionary.matchInMainDict("重启后的词".toCharArray(), 0, 5).isMatch());
+      Assert.assertFalse(dictionary.matchInMainDict("你好".toCharArray(), 0, 2).isMatch());
+    } finally {
+      dictionary.close();
+    }
+  }
+
+}
@@ -0,0 +1,65 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 词典裁剪工具测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:54:40 PM
+ */
+public class DictionaryPrunerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static DictionaryPruner build() {
+    final Map<String, Long> counts = new HashMap<>();
+    counts.put("银河", 5L);
+    counts.put("九天", 1L);
+    return new DictionaryPruner(counts, 2);
+  }
+
+  @Test
+  public void testIsHot() {
+    final DictionaryPruner pruner = build();
+    Assert.assertTrue(pruner.isHot("银河"));
+    Assert.assertFalse(pruner.isHot("九天"));
+    Assert.assertFalse(pruner.isHot("织女"));
+    // 单字词始终保留
+    Assert.assertTrue(pruner.isHot("落"));
+  }
+
+  @Test
+  public void testSplit() throws Exception {
+    final Path hot = folder.getRoot().toPath().resolve("hot.dic");
+    final Path cold = folder.getRoot().toPath().resolve("cold.dic");
+    final int hotCount =
+        build().split(Arrays.asList("银河", "九天", "落", "织女"), hot, cold);
+    Assert.assertEquals(2, hotCount);
+    Assert.assertEquals(Arrays.asList("银河", "落"),
+        Files.readAllLines(hot, StandardCharsets.UTF_8));
+    Assert.assertEquals(Arrays.asList("九天", "织女"),
+        Files.readAllLines(cold, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testSplitWithoutCold() throws Exception {
+    final Path hot = folder.getRoot().toPath().resolve("hot.dic");
+    Assert.assertEquals(2, build().split(Arrays.asList("银河", "九天", "落"), hot, null));
+    Assert.assertEquals(1, folder.getRoot().list().length);
+  }
+
+}
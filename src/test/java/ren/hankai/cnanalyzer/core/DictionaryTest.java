@@ -1,8 +1,24 @@
 
 package ren.hankai.cnanalyzer.core;
 
+import org.apache.lucene.util.Accountables;
+import org.junit.AfterClass;
 import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 词典测试。
@@ -13,6 +29,21 @@ import org.junit.Test;
  */
 public class DictionaryTest {
 
+  private static Dictionary dictionary;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setUp() {
+    dictionary = new Dictionary();
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    dictionary.close();
+  }
+
   @Test
   public void testLoadWords() {
     final WordSegment segment = Dictionary.loadWords("/test.dic", null);
@@ -25,7 +56,7 @@ public class DictionaryTest {
 
   @Test
   public void testMatchInMainDict() {
-    final Hit hit = Dictionary.matchInMainDict("疑是银河落九天".toCharArray(), 0, 7);
+    final Hit hit = dictionary.matchInMainDict("疑是银河落九天".toCharArray(), 0, 7);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertFalse(hit.isUnmatch());
     Assert.assertTrue(hit.isMatch());
@@ -33,10 +64,10 @@ public class DictionaryTest {
 
   @Test
   public void testMatchWithHit() {
-    final Hit hit = Dictionary.matchInMainDict("你好".toCharArray(), 0, 2);
+    final Hit hit = dictionary.matchInMainDict("你好".toCharArray(), 0, 2);
     Assert.assertTrue(hit.isPrefix());
     Assert.assertTrue(hit.isMatch());
-    final Hit hit2 = Dictionary.matchWithHit("你好坏".toCharArray(), 2, hit);
+    final Hit hit2 = dictionary.matchWithHit("你好坏".toCharArray(), 2, hit);
     Assert.assertEquals(hit.getMatchedWord(), hit2.getMatchedWord());
     Assert.assertTrue(hit2.isMatch());
     Assert.assertFalse(hit.isPrefix());
@@ -45,7 +76,7 @@ public class DictionaryTest {
 
   @Test
   public void testMatchInQuantifierDict() {
-    final Hit hit = Dictionary.matchInQuantifierDict("千克".toCharArray(), 0, 2);
+    final Hit hit = dictionary.matchInQuantifierDict("千克".toCharArray(), 0, 2);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertFalse(hit.isUnmatch());
     Assert.assertTrue(hit.isMatch());
@@ -53,26 +84,26 @@ public class DictionaryTest {
 
   @Test
   public void testIsStopWord() {
-    final boolean isStopword = Dictionary.isStopWord("with".toCharArray(), 0, 4);
+    final boolean isStopword = dictionary.isStopWord("with".toCharArray(), 0, 4);
     Assert.assertTrue(isStopword);
   }
 
   @Test
   public void testAddWordStringArray() {
-    Hit hit = Dictionary.matchInMainDict("无此词".toCharArray(), 0, 3);
+    Hit hit = dictionary.matchInMainDict("无此词".toCharArray(), 0, 3);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertTrue(hit.isUnmatch());
     Assert.assertFalse(hit.isMatch());
-    hit = Dictionary.matchInMainDict("牛风马".toCharArray(), 0, 3);
+    hit = dictionary.matchInMainDict("牛风马".toCharArray(), 0, 3);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertTrue(hit.isUnmatch());
     Assert.assertFalse(hit.isMatch());
-    Dictionary.addWord("无此词", "牛风马");
-    hit = Dictionary.matchInMainDict("无此词".toCharArray(), 0, 3);
+    dictionary.addWord("无此词", "牛风马");
+    hit = dictionary.matchInMainDict("无此词".toCharArray(), 0, 3);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertFalse(hit.isUnmatch());
     Assert.assertTrue(hit.isMatch());
-    hit = Dictionary.matchInMainDict("牛风马".toCharArray(), 0, 3);
+    hit = dictionary.matchInMainDict("牛风马".toCharArray(), 0, 3);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertFalse(hit.isUnmatch());
     Assert.assertTrue(hit.isMatch());
@@ -80,15 +111,198 @@ public class DictionaryTest {
 
   @Test
   public void testAddWordString() {
-    Hit hit = Dictionary.matchInMainDict("问世间情为何物".toCharArray(), 0, 7);
+    Hit hit = dictionary.matchInMainDict("问世间情为何物".toCharArray(), 0, 7);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertTrue(hit.isUnmatch());
     Assert.assertFalse(hit.isMatch());
-    Dictionary.addWord("问世间情为何物");
-    hit = Dictionary.matchInMainDict("问世间情为何物".toCharArray(), 0, 7);
+    dictionary.addWord("问世间情为何物");
+    hit = dictionary.matchInMainDict("问世间情为何物".toCharArray(), 0, 7);
     Assert.assertFalse(hit.isPrefix());
     Assert.assertFalse(hit.isUnmatch());
     Assert.assertTrue(hit.isMatch());
   }
 
+  @Test
+  public void testSnapshot() {
+    final DictionarySnapshot before = dictionary.getSnapshot();
+    dictionary.addWord("玉树临风蛙");
+    final DictionarySnapshot after = dictionary.getSnapshot();
+    Assert.assertNotSame(before, after);
+    // 已获取的快照不受词典变更的影响
+    Assert.assertFalse(before.matchInMainDict("玉树临风蛙".toCharArray(), 0, 5).isMatch());
+    Assert.assertTrue(after.matchInMainDict("玉树临风蛙".toCharArray(), 0, 5).isMatch());
+    Assert.assertTrue(after.matchInMainDict("你好".toCharArray(), 0, 2).isMatch());
+  }
+
+  @Test
+  public void testIndependentInstances() {
+    final Dictionary another = new Dictionary(new Properties());
+    try {
+      dictionary.addWord("独立词库测试词");
+      Assert.assertTrue(dictionary.matchInMainDict("独立词库测试词".toCharArray(), 0, 7).isMatch());
+      Assert.assertFalse(another.matchInMainDict("独立词库测试词".toCharArray(), 0, 7).isMatch());
+    } finally {
+      another.close();
+    }
+  }
+
+  @Test
+  public void testInitDefaultAsync() throws Exception {
+    final CompletableFuture<Dictionary> ready = Dictionary.initDefaultAsync("/test.dic");
+    Assert.assertSame(ready, Dictionary.initDefaultAsync(null));
+    final Dictionary defaultDictionary = ready.get();
+    Assert.assertTrue(Dictionary.isDefaultReady());
+    Assert.assertSame(defaultDictionary, Dictionary.getDefault());
+    Assert.assertTrue(defaultDictionary.matchInMainDict("你好".toCharArray(), 0, 2).isMatch());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClose() {
+    final Dictionary closed = new Dictionary(new Properties());
+    closed.close();
+    Assert.assertTrue(closed.isClosed());
+    closed.matchInMainDict("你好".toCharArray(), 0, 2);
+  }
+
+  @Test
+  public void testRemoveWord() {
+    dictionary.addWord("删除测试词", "删除测试词语");
+    Assert.assertTrue(dictionary.matchInMainDict("删除测试词".toCharArray(), 0, 5).isPrefix());
+    dictionary.removeWord("删除测试词语");
+    final Hit hit = dictionary.matchInMainDict("删除测试词".toCharArray(), 0, 5);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    dictionary.removeWord("删除测试词");
+    Assert.assertFalse(dictionary.matchInMainDict("删除测试词".toCharArray(), 0, 5).isMatch());
+    Assert.assertTrue(dictionary.matchInMainDict("你好".toCharArray(), 0, 2).isMatch());
+  }
+
+  @Test
+  public void testReplaceWords() {
+    dictionary.addWord("替换前的词");
+    dictionary.replaceWords(Arrays.asList("替换前的词", "替换后的词"),
+        Arrays.asList("替换后的词"));
+    Assert.assertFalse(dictionary.matchInMainDict("替换前的词".toCharArray(), 0, 5).isMatch());
+    Assert.assertTrue(dictionary.matchInMainDict("替换后的词".toCharArray(), 0, 5).isMatch());
+  }
+
+  @Test
+  public void testOverlay() throws Exception {
+    final Dictionary tenant = new Dictionary(dictionary);
+    tenant.addWord("银河租户词");
+    Assert.assertTrue(tenant.matchInMainDict("银河租户词".toCharArray(), 0, 5).isMatch());
+    Assert.assertFalse(dictionary.matchInMainDict("银河租户词".toCharArray(), 0, 5).isMatch());
+    // 基础词库的修改对叠加词库可见
+    dictionary.addWord("基础词库新词");
+    Assert.assertTrue(tenant.matchInMainDict("基础词库新词".toCharArray(), 0, 6).isMatch());
+    // 叠加层中的词与基础词库中作为其前缀的词都被切分出来
+    final Segmentator segmentator =
+        new Segmentator(new StringReader("银河租户词"), false, tenant);
+    final List<String> words = new ArrayList<>();
+    for (Lexeme lexeme = segmentator.next(); lexeme != null; lexeme = segmentator.next()) {
+      words.add(lexeme.getText());
+    }
+    Assert.assertTrue(words.contains("银河租户词"));
+    Assert.assertTrue(words.contains("银河"));
+    tenant.removeWord("银河租户词");
+    Assert.assertFalse(tenant.matchInMainDict("银河租户词".toCharArray(), 0, 5).isMatch());
+    tenant.close();
+    Assert.assertFalse(dictionary.isClosed());
+  }
+
+  @Test
+  public void testSuggest() throws Exception {
+    final List<String> words = dictionary.suggest("中华人民", 3);
+    Assert.assertEquals(3, words.size());
+    for (final String word : words) {
+      Assert.assertTrue(word.startsWith("中华人民"));
+    }
+    Assert.assertTrue(words.get(0).length() <= words.get(2).length());
+    Assert.assertTrue(dictionary.suggest("", 3).isEmpty());
+    // 按权重排序，叠加词库中的词也会被提示
+    final Dictionary tenant = new Dictionary(dictionary);
+    tenant.addWord("中华人民租户词");
+    final List<String> weighted = tenant.suggest("中华人民", 2,
+        word -> "中华人民租户词".equals(word) ? 10 : 0);
+    Assert.assertEquals("中华人民租户词", weighted.get(0));
+    Assert.assertEquals(words.get(0), weighted.get(1));
+    tenant.close();
+  }
+
+  @Test
+  public void testFindSimilar() throws Exception {
+    Assert.assertEquals(Arrays.asList("中华人民共和国"), dictionary.findSimilar("中华人明共和国", 1, 3));
+    Assert.assertEquals("天安门", dictionary.findSimilar("天按门", 1, 3).get(0));
+    Assert.assertEquals("天安门", dictionary.findSimilar("天安门", 1, 3).get(0));
+    Assert.assertTrue(dictionary.findSimilar("", 1, 3).isEmpty());
+    // 编辑距离相同时按权重排序，叠加词库中的词也会被找到
+    final Dictionary tenant = new Dictionary(dictionary);
+    tenant.addWord("天桉门");
+    Assert.assertEquals(Arrays.asList("天桉门", "天安门"),
+        tenant.findSimilar("天按门", 1, 2, word -> "天桉门".equals(word) ? 10 : 0));
+    tenant.close();
+  }
+
+  @Test
+  public void testImageCache() throws Exception {
+    final Properties config = new Properties();
+    config.setProperty("dictionary.image.cache.dir", folder.getRoot().toString());
+    final Dictionary first = new Dictionary(config);
+    final Dictionary second = new Dictionary(config);
+    try {
+      final String[] files = folder.getRoot().list();
+      Assert.assertArrayEquals(new String[] {Dictionary.getImageCacheName(config)}, files);
+      // 第二个词库直接映射缓存的映像，词典树和扫描器均不在堆中
+      final DictionarySnapshot snapshot = second.getSnapshot();
+      Assert.assertTrue(snapshot.getMainWords().ramBytesUsed() < (1 << 20));
+      Assert.assertEquals(0, snapshot.getScanner().getChildResources().stream()
+          .mapToLong(resource -> resource.ramBytesUsed()).sum());
+      Assert.assertTrue(first.matchInMainDict("疑是银河落九天".toCharArray(), 0, 7).isMatch());
+      Assert.assertTrue(second.matchInMainDict("疑是银河落九天".toCharArray(), 0, 7).isMatch());
+      // 词典内容变化后使用新的缓存文件
+      config.setProperty("user.dictionaries", "/test.dic");
+      Assert.assertNotEquals(files[0], Dictionary.getImageCacheName(config));
+    } finally {
+      first.close();
+      second.close();
+    }
+  }
+
+  @Test
+  public void testMainDictionaryFile() throws Exception {
+    final Path file = folder.newFile("hot.dic").toPath();
+    Files.write(file, Arrays.asList("银河", "九天"), StandardCharsets.UTF_8);
+    final Properties config = new Properties();
+    config.setProperty("main.dictionary", file.toString());
+    config.setProperty("dictionary.image.cache", "false");
+    final Dictionary pruned = new Dictionary(config);
+    try {
+      Assert.assertTrue(pruned.matchInMainDict("银河".toCharArray(), 0, 2).isMatch());
+      Assert.assertFalse(pruned.matchInMainDict("香炉".toCharArray(), 0, 2).isMatch());
+    } finally {
+      pruned.close();
+    }
+    // 文件内容变化后使用新的缓存文件
+    final String name = Dictionary.getImageCacheName(config);
+    Files.write(file, Arrays.asList("银河"), StandardCharsets.UTF_8);
+    Assert.assertNotEquals(name, Dictionary.getImageCacheName(config));
+  }
+
+  @Test
+  public void testRamBytesUsed() {
+    final long bytes = dictionary.ramBytesUsed();
+    Assert.assertTrue(bytes > (1 << 20));
+    final String description = Accountables.toString(dictionary);
+    Assert.assertTrue(description.contains("main words"));
+    Assert.assertTrue(description.contains("stop word set"));
+    final Map<String, TrieStats> stats = dictionary.getStats();
+    Assert.assertTrue(stats.get("main words").getWordCount() > 200000);
+    Assert.assertTrue(stats.get("main words").getAverageFanOut() > 1);
+    Assert.assertTrue(stats.get("stop words").getWordCount() > 0);
+    // 叠加词库只计入其自身的词
+    final Dictionary tenant = new Dictionary(dictionary);
+    tenant.addWord("租户内存统计词");
+    Assert.assertTrue(tenant.ramBytesUsed() < (bytes / 100));
+    tenant.close();
+  }
 }
@@ -7,6 +7,7 @@ import org.junit.Test;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
+import java.util.Arrays;
 
 /**
  * Lucene 分词器测试。
@@ -44,6 +45,18 @@ public class DictionaryTokenizerTest {
     tokenizer.close();
   }
 
+  @Test
+  public void testGetWords() throws Exception {
+    final DictionaryTokenizer tokenizer = new DictionaryTokenizer(true);
+    tokenizer.setReader(new StringReader("日照香炉，疑是银河"));
+    tokenizer.reset();
+    while (tokenizer.incrementToken()) {
+    }
+    tokenizer.end();
+    tokenizer.close();
+    Assert.assertEquals(Arrays.asList("日照", "香炉", "疑是", "银河"), tokenizer.getWords());
+  }
+
   @Test
   public void testPerformance() throws Exception {
     final long start = System.currentTimeMillis();
@@ -0,0 +1,272 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * 双数组词典树测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:20:31 AM
+ */
+public class DoubleArrayTrieTest {
+
+  private DoubleArrayTrie buildTrie(String... words) {
+    final WordSegment root = new WordSegment((char) 0);
+    for (final String word : words) {
+      root.fillSegment(word.toCharArray());
+    }
+    return DoubleArrayTrie.build(root);
+  }
+
+  @Test
+  public void testMatch() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    Hit hit = trie.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.match("银河系".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    hit = trie.match("银".toCharArray(), 0, 1);
+    Assert.assertFalse(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.match("落九天".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isUnmatch());
+    Assert.assertEquals(0, hit.getEnd());
+  }
+
+  @Test
+  public void testBuildFromWords() throws Exception {
+    final List<char[]> words = new ArrayList<>();
+    for (final String word : Arrays.asList("银河系", "银河", "九天", "银行", "银河", "天",
+        "九天揽月")) {
+      words.add(word.toCharArray());
+    }
+    final DoubleArrayTrie trie = DoubleArrayTrie.build(words);
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isPrefix());
+    Assert.assertTrue(trie.match("天".toCharArray(), 0, 1).isMatch());
+    Assert.assertFalse(trie.match("九天揽".toCharArray(), 0, 3).isMatch());
+    Assert.assertEquals(6, trie.getStats().getWordCount());
+    // 与先构建对象树再编译的结果相同
+    final ByteArrayOutputStream direct = new ByteArrayOutputStream();
+    trie.writeTo(Channels.newChannel(direct), ByteOrder.BIG_ENDIAN);
+    final ByteArrayOutputStream segments = new ByteArrayOutputStream();
+    DoubleArrayTrie.build(Dictionary.buildSegments(words))
+        .writeTo(Channels.newChannel(segments), ByteOrder.BIG_ENDIAN);
+    Assert.assertArrayEquals(segments.toByteArray(), direct.toByteArray());
+    Assert.assertEquals(0, DoubleArrayTrie.build(Collections.emptyList()).getNodeCount());
+  }
+
+  @Test
+  public void testMatchWithHit() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系");
+    final char[] text = "银河系".toCharArray();
+    Hit hit = trie.match(text, 0, 1);
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 1, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 2, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertEquals(0, hit.getBegin());
+    Assert.assertEquals(2, hit.getEnd());
+  }
+
+  @Test
+  public void testCursor() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    Assert.assertTrue(trie.isCursorSupported());
+    long cursor = trie.next(WordTrie.CURSOR_ROOT, '银');
+    Assert.assertFalse(trie.isWord(cursor));
+    Assert.assertTrue(trie.isPrefix(cursor));
+    cursor = trie.next(cursor, '河');
+    Assert.assertTrue(trie.isWord(cursor));
+    Assert.assertTrue(trie.isPrefix(cursor));
+    cursor = trie.next(cursor, '系');
+    Assert.assertTrue(trie.isWord(cursor));
+    Assert.assertFalse(trie.isPrefix(cursor));
+    Assert.assertEquals(-1, trie.next(cursor, '统'));
+    Assert.assertEquals(-1, trie.next(WordTrie.CURSOR_ROOT, '落'));
+  }
+
+  @Test
+  public void testAdd() {
+    final DoubleArrayTrie trie = buildTrie("银河", "九天");
+    final int nodeCount = trie.getNodeCount();
+    trie.add("银河系".toCharArray());
+    trie.add("九天揽月".toCharArray());
+    trie.add("abc".toCharArray());
+    Assert.assertEquals(nodeCount + 6, trie.getNodeCount());
+    Assert.assertTrue(trie.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertTrue(trie.match("九天揽月".toCharArray(), 0, 4).isMatch());
+    Assert.assertTrue(trie.match("abc".toCharArray(), 0, 3).isMatch());
+    // 原有的词不受影响
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(trie.match("九天".toCharArray(), 0, 2).isMatch());
+    Assert.assertFalse(trie.match("九天揽".toCharArray(), 0, 3).isMatch());
+  }
+
+  @Test
+  public void testForEachWord() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    trie.add("落九天".toCharArray());
+    final Set<String> words = new TreeSet<>();
+    trie.forEachWord(word -> words.add(new String(word)));
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("银河", "银河系", "九天", "落九天")),
+        words);
+  }
+
+  @Test
+  public void testMarkStopWord() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "银河系统");
+    Assert.assertTrue(trie.markStopWord("银河".toCharArray()));
+    Assert.assertFalse(trie.markStopWord("银".toCharArray()));
+    Assert.assertFalse(trie.markStopWord("九天".toCharArray()));
+    final char[] text = "银河系".toCharArray();
+    final Hit hit = trie.match(text, 0, 2);
+    Assert.assertTrue(trie.isStopWord(hit.getState()));
+    Assert.assertFalse(trie.isStopWord(trie.matchWithHit(text, 2, hit).getState()));
+    // 标记在复制及添加词条迁移节点后保留
+    final DoubleArrayTrie copy = trie.copy();
+    copy.add("银子".toCharArray());
+    Assert.assertTrue(copy.isStopWord(copy.match(text, 0, 2).getState()));
+  }
+
+  @Test
+  public void testRemove() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    final int nodeCount = trie.getNodeCount();
+    Assert.assertTrue(trie.remove("银河系".toCharArray()));
+    Assert.assertFalse(trie.remove("银河系".toCharArray()));
+    Assert.assertFalse(trie.remove("九".toCharArray()));
+    Assert.assertEquals(nodeCount - 1, trie.getNodeCount());
+    Hit hit = trie.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertTrue(trie.remove("九天".toCharArray()));
+    Assert.assertEquals(nodeCount - 3, trie.getNodeCount());
+    Assert.assertTrue(trie.match("九".toCharArray(), 0, 1).isUnmatch());
+    // 释放的位置可被再次添加的词重用
+    trie.add("九天".toCharArray());
+    Assert.assertTrue(trie.match("九天".toCharArray(), 0, 2).isMatch());
+  }
+
+  @Test
+  public void testCompact() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    trie.markStopWord("银河".toCharArray());
+    for (char ch = 0x4E00; ch < 0x6000; ch++) {
+      trie.add(new char[] {'a', ch});
+    }
+    for (char ch = 0x4E00; ch < 0x6000; ch++) {
+      trie.remove(new char[] {'a', ch});
+    }
+    final DoubleArrayTrie compacted = trie.compact();
+    Assert.assertTrue(compacted.size() < trie.size());
+    Assert.assertEquals(trie.getNodeCount(), compacted.getNodeCount());
+    final Hit hit = compacted.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(compacted.isStopWord(hit.getState()));
+    Assert.assertTrue(compacted.match("九天".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(compacted.match("a".toCharArray(), 0, 1).isUnmatch());
+  }
+
+  @Test
+  public void testStats() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "九天");
+    final TrieStats stats = trie.getStats();
+    Assert.assertEquals(5, stats.getNodeCount());
+    Assert.assertEquals(3, stats.getWordCount());
+    Assert.assertEquals(4, stats.getBranchCount());
+    // 字符编码表覆盖全部 65536 个字符
+    Assert.assertTrue(trie.ramBytesUsed() > (Character.MAX_VALUE * 2));
+    Assert.assertEquals(3, trie.getChildResources().size());
+    trie.remove("银河系".toCharArray());
+    Assert.assertEquals(2, trie.getStats().getWordCount());
+    Assert.assertEquals(4, trie.getStats().getNodeCount());
+  }
+
+  @Test
+  public void testVisitCompletions() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "银河系统", "银行", "九天");
+    final List<String> words = new ArrayList<>();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(4, words.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("银河", "银行")),
+        new HashSet<>(words.subList(0, 2)));
+    Assert.assertEquals(Arrays.asList("银河系", "银河系统"), words.subList(2, 4));
+    // 只访问“银”“银河”“银行”三个节点
+    words.clear();
+    trie.visitCompletions("银".toCharArray(), 3, word -> words.add(new String(word)));
+    Assert.assertEquals(2, words.size());
+    words.clear();
+    // visitor 返回 false 时停止遍历
+    trie.visitCompletions("银河".toCharArray(), 100, word -> {
+      words.add(new String(word));
+      return false;
+    });
+    Assert.assertEquals(Arrays.asList("银河"), words);
+    trie.visitCompletions("落".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(1, words.size());
+  }
+
+  @Test
+  public void testVisitCompletionsAfterUpdate() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银行");
+    final List<String> words = new ArrayList<>();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(2, words.size());
+    Assert.assertEquals(4, trie.getChildResources().size());
+    // 添加、删除词后重建子节点索引
+    trie.add("银河系".toCharArray());
+    trie.add("银川".toCharArray());
+    trie.remove("银行".toCharArray());
+    words.clear();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("银河", "银川")),
+        new HashSet<>(words.subList(0, 2)));
+    Assert.assertEquals(Arrays.asList("银河系"), words.subList(2, 3));
+    Assert.assertEquals(3, words.size());
+  }
+
+  @Test
+  public void testVisitSimilar() {
+    final DoubleArrayTrie trie = buildTrie("银河", "银河系", "银行", "九天", "天河");
+    final Map<String, Integer> words = new HashMap<>();
+    trie.visitSimilar("银和".toCharArray(), 1, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(2, words.size());
+    Assert.assertEquals(1, words.get("银河").intValue());
+    Assert.assertEquals(1, words.get("银行").intValue());
+    words.clear();
+    trie.visitSimilar("银和".toCharArray(), 2, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(5, words.size());
+    Assert.assertEquals(2, words.get("银河系").intValue());
+    Assert.assertEquals(2, words.get("天河").intValue());
+    // 先访问与目标字符相同的子节点，只访问“银”“银河”两个节点
+    words.clear();
+    trie.visitSimilar("银河".toCharArray(), 1, 2,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(Collections.singletonMap("银河", 0), words);
+  }
+}
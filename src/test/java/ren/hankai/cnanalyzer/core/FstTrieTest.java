@@ -0,0 +1,195 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * FST 词典树测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 1:42:07 PM
+ */
+public class FstTrieTest {
+
+  private FstTrie buildTrie(String... words) {
+    final WordSegment root = new WordSegment((char) 0);
+    for (final String word : words) {
+      root.fillSegment(word.toCharArray());
+    }
+    return FstTrie.build(root);
+  }
+
+  @Test
+  public void testMatch() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    Hit hit = trie.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.match("银河系".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    hit = trie.match("银".toCharArray(), 0, 1);
+    Assert.assertFalse(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.match("落九天".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isUnmatch());
+    Assert.assertEquals(0, hit.getEnd());
+  }
+
+  @Test
+  public void testMatchWithHit() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    final char[] text = "银河系".toCharArray();
+    Hit hit = trie.match(text, 0, 1);
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 1, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 2, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertEquals(0, hit.getBegin());
+    Assert.assertEquals(2, hit.getEnd());
+  }
+
+  @Test
+  public void testCursor() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    Assert.assertTrue(trie.isCursorSupported());
+    long cursor = trie.next(WordTrie.CURSOR_ROOT, '银');
+    Assert.assertFalse(trie.isWord(cursor));
+    Assert.assertTrue(trie.isPrefix(cursor));
+    cursor = trie.next(cursor, '河');
+    Assert.assertTrue(trie.isWord(cursor));
+    Assert.assertTrue(trie.isPrefix(cursor));
+    cursor = trie.next(cursor, '系');
+    Assert.assertTrue(trie.isWord(cursor));
+    Assert.assertFalse(trie.isPrefix(cursor));
+    Assert.assertEquals(-1, trie.next(cursor, '统'));
+    Assert.assertEquals(-1, trie.next(WordTrie.CURSOR_ROOT, '落'));
+    Assert.assertEquals(-1, buildTrie().next(WordTrie.CURSOR_ROOT, '落'));
+  }
+
+  @Test
+  public void testAdd() {
+    final FstTrie trie = buildTrie("银河", "九天");
+    trie.add("银河系".toCharArray());
+    trie.add("九天揽月".toCharArray());
+    trie.add("银河".toCharArray());
+    Assert.assertTrue(trie.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertTrue(trie.match("九天揽月".toCharArray(), 0, 4).isMatch());
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(trie.match("九天".toCharArray(), 0, 2).isMatch());
+    Assert.assertFalse(trie.match("九天揽".toCharArray(), 0, 3).isMatch());
+  }
+
+  @Test
+  public void testEmpty() {
+    final FstTrie trie = buildTrie();
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isUnmatch());
+    trie.add("银河".toCharArray());
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isMatch());
+  }
+
+  @Test
+  public void testForEachWord() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    final List<String> words = new ArrayList<>();
+    trie.forEachWord(word -> words.add(new String(word)));
+    Assert.assertEquals(Arrays.asList("九天", "银河", "银河系"), words);
+  }
+
+  @Test
+  public void testRemove() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    Assert.assertTrue(trie.remove("银河系".toCharArray()));
+    Assert.assertFalse(trie.remove("银河系".toCharArray()));
+    final Hit hit = trie.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertTrue(trie.remove("银河".toCharArray()));
+    Assert.assertTrue(trie.remove("九天".toCharArray()));
+    Assert.assertTrue(trie.match("九天".toCharArray(), 0, 2).isUnmatch());
+    Assert.assertEquals(0, trie.getSizeInBytes());
+  }
+
+  @Test
+  public void testUpdate() {
+    final FstTrie trie = buildTrie("银河", "九天");
+    trie.update(Arrays.asList("银河".toCharArray(), "九天".toCharArray()),
+        Arrays.asList("银河系".toCharArray(), "九天".toCharArray(), "银河系".toCharArray()));
+    final List<String> words = new ArrayList<>();
+    trie.forEachWord(word -> words.add(new String(word)));
+    Assert.assertEquals(Arrays.asList("九天", "银河系"), words);
+  }
+
+  @Test
+  public void testStats() {
+    final FstTrie trie = buildTrie("银河", "银河系", "九天");
+    final TrieStats stats = trie.getStats();
+    Assert.assertEquals(3, stats.getWordCount());
+    Assert.assertEquals(5, stats.getEdgeCount());
+    // “系”与“天”之后的结束节点被共享
+    Assert.assertTrue(stats.getNodeCount() < stats.getEdgeCount());
+    Assert.assertEquals(trie.getSizeInBytes() + RamUsageEstimator.shallowSizeOf(trie),
+        trie.ramBytesUsed());
+  }
+
+  @Test
+  public void testVisitCompletions() {
+    final FstTrie trie = buildTrie("银河", "银河系", "银河系统", "银行", "九天");
+    final List<String> words = new ArrayList<>();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(4, words.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("银河", "银行")),
+        new HashSet<>(words.subList(0, 2)));
+    Assert.assertEquals(Arrays.asList("银河系", "银河系统"), words.subList(2, 4));
+    // 只访问“银”“银河”“银行”三个节点
+    words.clear();
+    trie.visitCompletions("银".toCharArray(), 3, word -> words.add(new String(word)));
+    Assert.assertEquals(2, words.size());
+    words.clear();
+    // visitor 返回 false 时停止遍历
+    trie.visitCompletions("银河".toCharArray(), 100, word -> {
+      words.add(new String(word));
+      return false;
+    });
+    Assert.assertEquals(Arrays.asList("银河"), words);
+    trie.visitCompletions("落".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(1, words.size());
+  }
+
+  @Test
+  public void testVisitSimilar() {
+    final FstTrie trie = buildTrie("银河", "银河系", "银行", "九天", "天河");
+    final Map<String, Integer> words = new HashMap<>();
+    trie.visitSimilar("银和".toCharArray(), 1, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(2, words.size());
+    Assert.assertEquals(1, words.get("银河").intValue());
+    Assert.assertEquals(1, words.get("银行").intValue());
+    words.clear();
+    trie.visitSimilar("银和".toCharArray(), 2, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(5, words.size());
+    Assert.assertEquals(2, words.get("银河系").intValue());
+    Assert.assertEquals(2, words.get("天河").intValue());
+    // 先访问与目标字符相同的子节点，只访问“银”“银河”两个节点
+    words.clear();
+    trie.visitSimilar("银河".toCharArray(), 1, 2,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(Collections.singletonMap("银河", 0), words);
+  }
+}
@@ -0,0 +1,99 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 实体词表测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:33:10 PM
+ */
+public class GazetteerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static Gazetteer buildGazetteer() {
+    final Map<String, Integer> entries = new LinkedHashMap<>();
+    entries.put("北京", 1);
+    entries.put("北京大学", 2);
+    entries.put("大学", 3);
+    entries.put("iPhone", 4);
+    return Gazetteer.build(entries);
+  }
+
+  private static List<String> scan(Gazetteer gazetteer, String text) {
+    final List<String> entries = new ArrayList<>();
+    gazetteer.scan(text,
+        (begin, length, payload) -> entries.add(begin + "," + length + "," + payload));
+    return entries;
+  }
+
+  @Test
+  public void testScan() throws Exception {
+    final Gazetteer gazetteer = buildGazetteer();
+    Assert.assertEquals(4, gazetteer.size());
+    Assert.assertEquals(Arrays.asList("2,2,1", "2,4,2", "4,2,3"),
+        scan(gazetteer, "我在北京大学读书"));
+    // 忽略大小写及全角半角的差别
+    Assert.assertEquals(Arrays.asList("2,6,4"), scan(gazetteer, "新款IPHONE上市"));
+    Assert.assertEquals(Arrays.asList("0,6,4"), scan(gazetteer, "ｉｐｈｏｎｅ"));
+    Assert.assertTrue(scan(gazetteer, "上海交通大").isEmpty());
+    // 扫描字符序列的一部分时，位置相对于整个序列
+    final List<String> entries = new ArrayList<>();
+    gazetteer.scan("北京大学".toCharArray(), 2, 2,
+        (begin, length, payload) -> entries.add(begin + "," + length + "," + payload));
+    Assert.assertEquals(Arrays.asList("2,2,3"), entries);
+  }
+
+  @Test
+  public void testGetPayload() throws Exception {
+    final Gazetteer gazetteer = buildGazetteer();
+    Assert.assertEquals(2, gazetteer.getPayload("北京大学"));
+    Assert.assertEquals(4, gazetteer.getPayload("IPHONE"));
+    Assert.assertEquals(Gazetteer.NOT_FOUND, gazetteer.getPayload("北"));
+    Assert.assertEquals(Gazetteer.NOT_FOUND, gazetteer.getPayload("上海"));
+    Assert.assertTrue(gazetteer.ramBytesUsed() > 0);
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    final Path file = folder.newFile("places.txt").toPath();
+    Files.write(file, Arrays.asList("# 地名", "北京\t1", "", "上海\t2", "北京\t3"),
+        StandardCharsets.UTF_8);
+    final Gazetteer gazetteer = Gazetteer.load(file);
+    Assert.assertEquals(2, gazetteer.size());
+    Assert.assertEquals(3, gazetteer.getPayload("北京"));
+    Assert.assertEquals(2, gazetteer.getPayload("上海"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadInvalidLine() throws Exception {
+    final Path file = folder.newFile("invalid.txt").toPath();
+    Files.write(file, Arrays.asList("北京\t1", "上海"), StandardCharsets.UTF_8);
+    Gazetteer.load(file);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativePayload() throws Exception {
+    final Map<String, Integer> entries = new LinkedHashMap<>();
+    entries.put("北京", -1);
+    Gazetteer.build(entries);
+  }
+
+}
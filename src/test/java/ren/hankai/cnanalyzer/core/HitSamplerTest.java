@@ -0,0 +1,108 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 词典命中采样器测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:53:10 PM
+ */
+public class HitSamplerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSampleSegmentation() throws Exception {
+    final Dictionary dictionary = new Dictionary(new Properties());
+    try {
+      Assert.assertNull(dictionary.getHitSampler());
+      final HitSampler sampler = new HitSampler(1);
+      dictionary.setHitSampler(sampler);
+      final Segmentator segmentator =
+          new Segmentator(new StringReader("日照香炉生紫烟，日照香炉"), false, dictionary);
+      while (segmentator.next() != null) {
+        continue;
+      }
+      final Map<String, Long> counts = sampler.getCounts();
+      Assert.assertEquals(Long.valueOf(2), counts.get("日照"));
+      Assert.assertEquals(Long.valueOf(2), counts.get("香炉"));
+      Assert.assertTrue(sampler.getSampledCount() >= 4);
+      Assert.assertTrue(sampler.ramBytesUsed() > 0);
+      sampler.reset();
+      Assert.assertEquals(0, sampler.getSampledCount());
+      Assert.assertTrue(sampler.getCounts().isEmpty());
+    } finally {
+      dictionary.close();
+    }
+  }
+
+  @Test
+  public void testConfiguredRate() {
+    final Properties config = new Properties();
+    config.setProperty("dictionary.hit.sample.rate", "100");
+    final Dictionary dictionary = new Dictionary(config);
+    try {
+      Assert.assertEquals(100, dictionary.getHitSampler().getRate());
+    } finally {
+      dictionary.close();
+    }
+  }
+
+  @Test
+  public void testNextInterval() {
+    final HitSampler sampler = new HitSampler(10);
+    for (int i = 0; i < 1000; i++) {
+      final int interval = sampler.nextInterval();
+      Assert.assertTrue((interval >= 1) && (interval < 20));
+    }
+    Assert.assertEquals(1, new HitSampler(1).nextInterval());
+  }
+
+  @Test
+  public void testExportAndReadCounts() throws Exception {
+    final HitSampler sampler = new HitSampler(1);
+    final char[] text = "银河九天".toCharArray();
+    sampler.record(text, 0, 2);
+    sampler.record(text, 0, 2);
+    sampler.record(text, 2, 2);
+    final Path one = folder.newFile("one.txt").toPath();
+    sampler.export(one);
+    final Path another = folder.newFile("another.txt").toPath();
+    sampler.record(text, 2, 2);
+    sampler.export(another);
+    Assert.assertTrue(Files.readAllLines(one, StandardCharsets.UTF_8).get(0).startsWith("#"));
+    final Map<String, Long> counts = HitSampler.readCounts(one, another);
+    Assert.assertEquals(2, counts.size());
+    Assert.assertEquals(Long.valueOf(4), counts.get("银河"));
+    Assert.assertEquals(Long.valueOf(3), counts.get("九天"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadInvalidCounts() throws Exception {
+    final Path file = folder.newFile("invalid.txt").toPath();
+    Files.write(file, Arrays.asList("银河\tmany"), StandardCharsets.UTF_8);
+    HitSampler.readCounts(file);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRate() {
+    new HitSampler(0);
+  }
+
+}
@@ -0,0 +1,99 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层词典树测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 9:02:40 PM
+ */
+public class LayeredTrieTest {
+
+  private static LayeredTrie build() {
+    final WordSegment root = new WordSegment((char) 0);
+    root.fillSegment("银河".toCharArray());
+    root.fillSegment("九天".toCharArray());
+    final WordSegment overlay = new WordSegment((char) 0);
+    overlay.fillSegment("银河系".toCharArray());
+    overlay.fillSegment("九天".toCharArray());
+    overlay.fillSegment("落".toCharArray());
+    return LayeredTrie.overlay(DoubleArrayTrie.build(root), overlay);
+  }
+
+  @Test
+  public void testMatch() {
+    final LayeredTrie trie = build();
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(trie.match("银河".toCharArray(), 0, 2).isPrefix());
+    Assert.assertTrue(trie.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertTrue(trie.match("落".toCharArray(), 0, 1).isMatch());
+    Assert.assertTrue(trie.match("银河落".toCharArray(), 0, 3).isUnmatch());
+  }
+
+  @Test
+  public void testMatchWithHit() {
+    final LayeredTrie trie = build();
+    final char[] text = "银河系".toCharArray();
+    Hit hit = trie.match(text, 0, 1);
+    Assert.assertTrue(hit.isPrefix());
+    Assert.assertFalse(hit.isMatch());
+    // 基础层的“银河”与叠加层的“银河系”都从同一个命中继续匹配
+    hit = trie.matchWithHit(text, 1, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 2, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertEquals(0, hit.getBegin());
+  }
+
+  @Test
+  public void testOverlayFlattened() {
+    final LayeredTrie trie = LayeredTrie.overlay(build(), new WordSegment((char) 0));
+    Assert.assertEquals(3, trie.getLayerCount());
+    Assert.assertTrue(trie.getLayer(0) instanceof DoubleArrayTrie);
+  }
+
+  @Test
+  public void testForEachWord() {
+    final Set<String> words = new HashSet<>();
+    build().forEachWord(word -> Assert.assertTrue(words.add(new String(word))));
+    Assert.assertEquals(4, words.size());
+    Assert.assertTrue(words.contains("银河系"));
+  }
+
+  @Test
+  public void testVisitCompletions() {
+    final List<String> words = new ArrayList<>();
+    build().visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(Arrays.asList("银河", "银河系"), words);
+  }
+
+  @Test
+  public void testVisitSimilar() {
+    final Map<String, Integer> words = new HashMap<>();
+    build().visitSimilar("银河".toCharArray(), 1, 100,
+        (word, distance) -> Assert.assertNull(words.put(new String(word), distance)));
+    Assert.assertEquals(2, words.size());
+    Assert.assertEquals(0, words.get("银河").intValue());
+    Assert.assertEquals(1, words.get("银河系").intValue());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    build().add("织女".toCharArray());
+  }
+
+}
@@ -0,0 +1,87 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 分词上下文测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:58:10 PM
+ */
+public class SegmentContextTest {
+
+  private static String poll(SegmentContext context, Lexeme lexeme) {
+    Assert.assertTrue(context.pollFirstLexeme(lexeme));
+    return lexeme.getBegin() + "," + lexeme.getLength();
+  }
+
+  @Test
+  public void testAddLexeme() {
+    final SegmentContext context = new SegmentContext(new char[16], false);
+    context.addLexeme(2, 2, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(0, 1, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(2, 4, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(0, 3, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(2, 2, Lexeme.TYPE_LETTER, false); // 排序相同的词元不重复添加
+    context.addLexeme(5, 1, Lexeme.TYPE_CJK_NORMAL, true); // 停止词被忽略
+    context.addLexeme(new Lexeme(0, 4, 1, Lexeme.TYPE_NUM));
+    Assert.assertEquals(5, context.getResultSize());
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    Assert.assertTrue(context.peekLastLexeme(lexeme));
+    Assert.assertEquals(Lexeme.TYPE_NUM, lexeme.getType());
+    Assert.assertEquals("0,3", poll(context, lexeme));
+    Assert.assertEquals("0,1", poll(context, lexeme));
+    // 首个词元取出后，插入到头部的词元使用空出的位置
+    context.addLexeme(0, 2, Lexeme.TYPE_CJK_NORMAL, false);
+    Assert.assertEquals("0,2", poll(context, lexeme));
+    Assert.assertEquals("2,4", poll(context, lexeme));
+    Assert.assertEquals(Lexeme.TYPE_NUM, context.getLastLexeme().getType());
+    Assert.assertEquals("2,2", poll(context, lexeme));
+    Assert.assertEquals(Lexeme.TYPE_CJK_NORMAL, lexeme.getType());
+    Assert.assertFalse(context.pollFirstLexeme(lexeme));
+    Assert.assertNull(context.getFirstLexeme());
+  }
+
+  @Test
+  public void testExcludeOverlap() {
+    final SegmentContext context = new SegmentContext(new char[16], true);
+    context.addLexeme(0, 4, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(0, 2, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(2, 2, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(3, 3, Lexeme.TYPE_CJK_NORMAL, false);
+    context.addLexeme(4, 2, Lexeme.TYPE_CJK_NORMAL, false);
+    context.excludeOverlap();
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    Assert.assertEquals(2, context.getResultSize());
+    Assert.assertEquals("0,4", poll(context, lexeme));
+    Assert.assertEquals("3,3", poll(context, lexeme));
+  }
+
+  @Test
+  public void testGrowAndReset() {
+    final SegmentContext context = new SegmentContext(new char[1024], false);
+    // 逆序添加，每次都插入到头部
+    for (int i = 199; i >= 0; i--) {
+      context.addLexeme(i, 1, Lexeme.TYPE_CJK_NORMAL, false);
+    }
+    Assert.assertEquals(200, context.getResultSize());
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i + ",1", poll(context, lexeme));
+    }
+    for (int i = 200; i < 400; i++) {
+      context.addLexeme(i, 1, Lexeme.TYPE_CJK_NORMAL, false);
+    }
+    Assert.assertEquals(300, context.getResultSize());
+    Assert.assertEquals("100,1", poll(context, lexeme));
+    final long bytes = context.ramBytesUsed();
+    context.reset();
+    Assert.assertEquals(0, context.getResultSize());
+    // 重置后数组保留，供下一个文档重用
+    Assert.assertEquals(bytes, context.ramBytesUsed());
+  }
+
+}
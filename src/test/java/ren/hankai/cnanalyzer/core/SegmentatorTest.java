@@ -2,9 +2,23 @@
 package ren.hankai.cnanalyzer.core;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ren.hankai.cnanalyzer.core.processor.WordProcessor;
+import ren.hankai.cnanalyzer.core.processor.WordProcessorFactory;
+import ren.hankai.cnanalyzer.util.CharacterUtil;
 
 import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 地层分词器测试。
@@ -15,6 +29,37 @@ import java.io.StringReader;
  */
 public class SegmentatorTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * 把每个假名输出为一个词元的文字处理器，用于测试扩展。
+   */
+  public static class KanaProcessorFactory implements WordProcessorFactory {
+
+    static int charCount;
+
+    @Override
+    public WordProcessor create() {
+      return new WordProcessor() {
+
+        @Override
+        public int getCharTypeMask() {
+          return CharacterUtil.toCharTypeMask(CharacterUtil.CHAR_JK);
+        }
+
+        @Override
+        public void nextLexeme(SegmentContext context) {
+          charCount++;
+          context.addLexeme(context.getBufferCursor(), 1, Lexeme.TYPE_CJK_NORMAL);
+        }
+
+        @Override
+        public void reset() {}
+      };
+    }
+  }
+
   @Test
   public void testNext() throws Exception {
     final StringReader sr = new StringReader("日照香炉生紫烟");
@@ -34,4 +79,57 @@ public class SegmentatorTest {
     } while (lexeme != null);
   }
 
+  @Test
+  public void testCanonicalText() throws Exception {
+    final Segmentator segmentator = new Segmentator(new StringReader("日照香炉，日照香炉"));
+    final Lexeme first = segmentator.next();
+    Assert.assertEquals("日照", first.getText());
+    Lexeme lexeme = segmentator.next();
+    while (!"日照".equals(lexeme.getText())) {
+      lexeme = segmentator.next();
+    }
+    // 词典中的词由词典持有同一个字符串
+    Assert.assertSame(first.getText(), lexeme.getText());
+  }
+
+  @Test
+  public void testCharSequenceView() throws Exception {
+    final Segmentator segmentator = new Segmentator(new StringReader("日照香炉"));
+    final Lexeme lexeme = new Lexeme(0, 0, 0, Lexeme.TYPE_CJK_NORMAL);
+    Assert.assertTrue(segmentator.next(lexeme));
+    Assert.assertEquals(2, lexeme.length());
+    Assert.assertEquals('日', lexeme.charAt(0));
+    Assert.assertEquals('照', lexeme.charAt(1));
+    Assert.assertEquals("照", lexeme.subSequence(1, 2).toString());
+    Assert.assertTrue("日照".contentEquals(lexeme));
+    Assert.assertEquals("日照", lexeme.getText());
+    Assert.assertTrue(segmentator.next(lexeme));
+    Assert.assertTrue("香炉".contentEquals(lexeme));
+  }
+
+  @Test
+  public void testProcessorFactory() throws Exception {
+    final Path services = folder.newFolder("META-INF", "services").toPath()
+        .resolve(WordProcessorFactory.class.getName());
+    Files.write(services, KanaProcessorFactory.class.getName().getBytes(StandardCharsets.UTF_8));
+    final URL root = folder.getRoot().toURI().toURL();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] {root},
+        getClass().getClassLoader())) {
+      Segmentator.reloadProcessorFactories(classLoader);
+      KanaProcessorFactory.charCount = 0;
+      final Segmentator segmentator = new Segmentator(new StringReader("日照ひら香炉"));
+      final List<String> words = new ArrayList<>();
+      for (Lexeme lexeme = segmentator.next(); lexeme != null; lexeme = segmentator.next()) {
+        words.add(lexeme.getText());
+      }
+      Assert.assertEquals(Arrays.asList("日照", "ひ", "ら", "香炉"), words);
+      // 只收到假名
+      Assert.assertEquals(2, KanaProcessorFactory.charCount);
+    } finally {
+      Segmentator.reloadProcessorFactories(getClass().getClassLoader());
+    }
+    final Segmentator segmentator = new Segmentator(new StringReader("ひら"));
+    Assert.assertNull(segmentator.next());
+  }
+
 }
@@ -0,0 +1,250 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 冷热分层词典树测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:07:20 PM
+ */
+public class TieredTrieTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final Set<String> HOT_WORDS = new HashSet<>(Arrays.asList("银河", "九天"));
+
+  private TieredTrie buildTrie() throws Exception {
+    final List<char[]> words = Arrays.asList("银河".toCharArray(), "银河系".toCharArray(),
+        "九天".toCharArray(), "九天揽月".toCharArray(), "织女".toCharArray());
+    return TieredTrie.build(words, HOT_WORDS::contains, folder.newFile("cold").toPath());
+  }
+
+  @Test
+  public void testTiers() throws Exception {
+    final TieredTrie trie = buildTrie();
+    Assert.assertTrue(trie.getHotTier().match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertFalse(trie.getHotTier().match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertTrue(trie.getColdTier().match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertEquals(0, trie.getColdTier().getChildResources().stream()
+        .mapToLong(resource -> resource.ramBytesUsed()).sum());
+  }
+
+  @Test
+  public void testMatch() throws Exception {
+    final TieredTrie trie = buildTrie();
+    Hit hit = trie.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.match("银河系".toCharArray(), 0, 3);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    // 首字不在热词层中
+    hit = trie.match("织女".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    hit = trie.match("织".toCharArray(), 0, 1);
+    Assert.assertFalse(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    Assert.assertTrue(trie.match("落九天".toCharArray(), 0, 3).isUnmatch());
+  }
+
+  @Test
+  public void testMatchWithHit() throws Exception {
+    final TieredTrie trie = buildTrie();
+    final char[] text = "九天揽月".toCharArray();
+    Hit hit = trie.match(text, 0, 1);
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 1, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    // 离开热词层后在冷词层中继续匹配
+    hit = trie.matchWithHit(text, 2, hit);
+    Assert.assertFalse(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = trie.matchWithHit(text, 3, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertEquals(0, hit.getBegin());
+    Assert.assertEquals(3, hit.getEnd());
+  }
+
+  @Test
+  public void testCursor() throws Exception {
+    final TieredTrie trie = buildTrie();
+    Assert.assertTrue(trie.isCursorSupported());
+    // 热词层中的前缀延续到冷词层
+    final char[] text = "九天揽月".toCharArray();
+    long cursor = WordTrie.CURSOR_ROOT;
+    for (int i = 0; i < text.length; i++) {
+      cursor = trie.next(cursor, text[i]);
+      Assert.assertTrue(cursor >= 0);
+      Assert.assertEquals(trie.match(text, 0, i + 1).isMatch(), trie.isWord(cursor));
+      Assert.assertEquals(trie.match(text, 0, i + 1).isPrefix(), trie.isPrefix(cursor));
+    }
+    // 首字只在冷词层中
+    cursor = trie.next(WordTrie.CURSOR_ROOT, '织');
+    Assert.assertFalse(trie.isWord(cursor));
+    Assert.assertTrue(trie.isPrefix(cursor));
+    Assert.assertTrue(trie.isWord(trie.next(cursor, '女')));
+    Assert.assertEquals(-1, trie.next(cursor, '男'));
+    Assert.assertEquals(-1, trie.next(WordTrie.CURSOR_ROOT, '落'));
+    // 删除冷词后退回到命中信息匹配
+    trie.remove("织女".toCharArray());
+    Assert.assertFalse(trie.isCursorSupported());
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    final TieredTrie trie = buildTrie();
+    final TieredTrie copy = trie.copy();
+    Assert.assertTrue(copy.remove("银河系".toCharArray()));
+    Assert.assertTrue(copy.remove("银河".toCharArray()));
+    Assert.assertFalse(copy.remove("银河系".toCharArray()));
+    copy.add("牛郎".toCharArray());
+    Assert.assertFalse(copy.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertFalse(copy.match("银河".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(copy.match("牛郎".toCharArray(), 0, 2).isMatch());
+    // 原词典树不受影响
+    Assert.assertTrue(trie.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertFalse(trie.match("牛郎".toCharArray(), 0, 2).isMatch());
+    // 删除的冷词可以重新添加到热词层
+    copy.add("银河系".toCharArray());
+    Assert.assertTrue(copy.match("银河系".toCharArray(), 0, 3).isMatch());
+  }
+
+  @Test
+  public void testAddBeforeColdWord() throws Exception {
+    final TieredTrie trie = buildTrie();
+    // 新增的热词节点在冷词“九天揽月”经过的路径上
+    trie.add("九天揽".toCharArray());
+    final char[] text = "九天揽月".toCharArray();
+    Assert.assertTrue(trie.match(text, 0, 3).isMatch());
+    Assert.assertTrue(trie.match(text, 0, 4).isMatch());
+    Hit hit = trie.match(text, 0, 1);
+    for (int i = 1; (i < text.length) && hit.isPrefix(); i++) {
+      hit = trie.matchWithHit(text, i, hit);
+    }
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertEquals(3, hit.getEnd());
+  }
+
+  @Test
+  public void testRebuildColdFile() throws Exception {
+    final Path coldFile = folder.getRoot().toPath().resolve("shared.cold");
+    final TieredTrie first = TieredTrie.build(Arrays.asList("银河".toCharArray(),
+        "银河系".toCharArray()), HOT_WORDS::contains, coldFile);
+    // 冷词不同，冷词层文件被替换；已映射原文件的词典树不受影响
+    final TieredTrie second = TieredTrie.build(Arrays.asList("银河".toCharArray(),
+        "织女".toCharArray()), HOT_WORDS::contains, coldFile);
+    Assert.assertTrue(first.match("银河系".toCharArray(), 0, 3).isMatch());
+    Assert.assertFalse(first.match("织女".toCharArray(), 0, 2).isMatch());
+    Assert.assertTrue(second.match("织女".toCharArray(), 0, 2).isMatch());
+    Assert.assertFalse(second.match("银河系".toCharArray(), 0, 3).isMatch());
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(folder.getRoot().toPath())) {
+      for (final Path file : files) {
+        Assert.assertEquals(coldFile, file);
+      }
+    }
+  }
+
+  @Test
+  public void testReuseColdFile() throws Exception {
+    final Path coldFile = folder.getRoot().toPath().resolve("shared.cold");
+    final List<char[]> words = Arrays.asList("银河".toCharArray(), "银河系".toCharArray());
+    TieredTrie.build(words, HOT_WORDS::contains, coldFile);
+    final FileTime time = FileTime.fromMillis(0);
+    Files.setLastModifiedTime(coldFile, time);
+    // 冷词相同，直接映射已有的文件
+    final TieredTrie trie = TieredTrie.build(words, HOT_WORDS::contains, coldFile);
+    Assert.assertEquals(time, Files.getLastModifiedTime(coldFile));
+    Assert.assertTrue(trie.match("银河系".toCharArray(), 0, 3).isMatch());
+    // 文件内容损坏时重新生成
+    try (FileChannel channel = FileChannel.open(coldFile, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}), 32);
+    }
+    Files.setLastModifiedTime(coldFile, time);
+    final TieredTrie rebuilt = TieredTrie.build(words, HOT_WORDS::contains, coldFile);
+    Assert.assertNotEquals(time, Files.getLastModifiedTime(coldFile));
+    Assert.assertTrue(rebuilt.match("银河系".toCharArray(), 0, 3).isMatch());
+  }
+
+  @Test
+  public void testForEachWord() throws Exception {
+    final TieredTrie trie = buildTrie();
+    trie.add("银河系".toCharArray());
+    trie.remove("织女".toCharArray());
+    final Set<String> words = new HashSet<>();
+    trie.forEachWord(word -> Assert.assertTrue(words.add(new String(word))));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("银河", "银河系", "九天", "九天揽月")), words);
+    Assert.assertEquals(4, trie.getStats().getWordCount());
+  }
+
+  @Test
+  public void testVisitCompletions() throws Exception {
+    final TieredTrie trie = buildTrie();
+    trie.remove("银河".toCharArray());
+    final List<String> words = new ArrayList<>();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(Arrays.asList("银河系"), words);
+    words.clear();
+    trie.visitCompletions("织".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(Arrays.asList("织女"), words);
+  }
+
+  @Test
+  public void testVisitSimilar() throws Exception {
+    final TieredTrie trie = buildTrie();
+    trie.remove("银河系".toCharArray());
+    final Map<String, Integer> words = new HashMap<>();
+    trie.visitSimilar("银河".toCharArray(), 1, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(Collections.singletonMap("银河", 0), words);
+    words.clear();
+    trie.visitSimilar("织文".toCharArray(), 1, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(Collections.singletonMap("织女", 1), words);
+  }
+
+  @Test
+  public void testDictionary() throws Exception {
+    final Properties config = new Properties();
+    config.setProperty("dictionary.backend", "tiered");
+    config.setProperty("dictionary.cold.file", folder.newFile("main.cold").toString());
+    final Dictionary dictionary = new Dictionary(config);
+    try {
+      Assert.assertTrue(dictionary.getSnapshot().getMainWords() instanceof TieredTrie);
+      Assert.assertNull(dictionary.getSnapshot().getScanner());
+      final Segmentator segmentator =
+          new Segmentator(new StringReader("日照香炉生紫烟"), false, dictionary);
+      Assert.assertEquals("日照", segmentator.next().getText());
+      Assert.assertEquals("香炉", segmentator.next().getText());
+    } finally {
+      dictionary.close();
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ren.hankai.cnanalyzer.util.ConfigUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * 文件系统用户词典测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 7:50:08 PM
+ */
+public class UserDictionaryWatcherTest {
+
+  private static Dictionary dictionary;
+  private static Path directory;
+
+  @BeforeClass
+  public static void setUp() throws IOException {
+    dictionary = new Dictionary(new Properties());
+    directory = Files.createTempDirectory("hkanalyzer");
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    dictionary.close();
+    for (final Path file : Files.newDirectoryStream(directory)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  private static void write(Path file, String... words) throws IOException {
+    Files.write(file, Arrays.asList(words), StandardCharsets.UTF_8);
+  }
+
+  private static boolean isWord(String word) {
+    return dictionary.matchInMainDict(word.toCharArray(), 0, word.length()).isMatch();
+  }
+
+  @Test
+  public void testReload() throws IOException {
+    final Path first = directory.resolve("first.dic");
+    final Path second = directory.resolve("second.dic");
+    write(first, "文件词甲", "文件词乙", "你好");
+    write(second, "文件词乙");
+    try (UserDictionaryWatcher watcher =
+        new UserDictionaryWatcher(dictionary, Arrays.asList(first, second))) {
+      watcher.load();
+      Assert.assertTrue(isWord("文件词甲"));
+      Assert.assertTrue(isWord("文件词乙"));
+      write(first, "文件词丙");
+      watcher.reload(first);
+      Assert.assertFalse(isWord("文件词甲"));
+      // 仍在另一个文件中
+      Assert.assertTrue(isWord("文件词乙"));
+      // 主词典中原有的词不会被删除
+      Assert.assertTrue(isWord("你好"));
+      Assert.assertTrue(isWord("文件词丙"));
+      Files.delete(second);
+      watcher.reload(second);
+      Assert.assertFalse(isWord("文件词乙"));
+    }
+  }
+
+  @Test
+  public void testWatch() throws Exception {
+    final Path file = directory.resolve("watched.dic");
+    write(file, "监视词甲");
+    try (UserDictionaryWatcher watcher =
+        new UserDictionaryWatcher(dictionary, Collections.singletonList(file))) {
+      watcher.load();
+      watcher.start();
+      Assert.assertTrue(isWord("监视词甲"));
+      write(file, "监视词乙");
+      final long deadline = System.currentTimeMillis() + 30000;
+      while (!isWord("监视词乙") && (System.currentTimeMillis() < deadline)) {
+        Thread.sleep(50);
+      }
+      Assert.assertTrue(isWord("监视词乙"));
+      Assert.assertFalse(isWord("监视词甲"));
+    }
+  }
+
+  @Test
+  public void testConfiguredFiles() throws IOException {
+    final Path file = directory.resolve("configured.dic");
+    write(file, "配置文件词");
+    final Properties config = new Properties();
+    config.setProperty(ConfigUtil.KEY_USER_DICTIONARY_FILES, file.toString());
+    config.setProperty(ConfigUtil.KEY_USER_DICTIONARY_WATCH, "false");
+    final Dictionary configured = new Dictionary(config);
+    try {
+      Assert.assertTrue(
+          configured.matchInMainDict("配置文件词".toCharArray(), 0, 5).isMatch());
+    } finally {
+      configured.close();
+    }
+  }
+
+}
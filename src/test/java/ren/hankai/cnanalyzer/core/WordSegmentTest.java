@@ -0,0 +1,187 @@
+
+package ren.hankai.cnanalyzer.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 词典树节点测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 2:16:33 PM
+ */
+public class WordSegmentTest {
+
+  @Test
+  public void testMatch() {
+    final WordSegment root = new WordSegment((char) 0);
+    root.fillSegment("银河系".toCharArray());
+    root.fillSegment("银河".toCharArray());
+    root.fillSegment("九天".toCharArray());
+    Hit hit = root.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertTrue(hit.isPrefix());
+    hit = root.matchWithHit("银河系".toCharArray(), 2, hit);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertTrue(root.match("九".toCharArray(), 0, 1).isPrefix());
+    Assert.assertTrue(root.match("落".toCharArray(), 0, 1).isUnmatch());
+  }
+
+  @Test
+  public void testCursor() {
+    final WordSegment root = new WordSegment((char) 0);
+    root.fillSegment("银河".toCharArray());
+    root.fillSegment("银河系".toCharArray());
+    Assert.assertTrue(root.isCursorSupported());
+    long cursor = root.next(WordTrie.CURSOR_ROOT, '银');
+    Assert.assertFalse(root.isWord(cursor));
+    Assert.assertTrue(root.isPrefix(cursor));
+    cursor = root.next(cursor, '河');
+    Assert.assertTrue(root.isWord(cursor));
+    Assert.assertTrue(root.isPrefix(cursor));
+    // 添加词后重建节点表
+    root.fillSegment("九天".toCharArray());
+    cursor = root.next(WordTrie.CURSOR_ROOT, '九');
+    Assert.assertTrue(root.isPrefix(cursor));
+    cursor = root.next(cursor, '天');
+    Assert.assertTrue(root.isWord(cursor));
+    Assert.assertFalse(root.isPrefix(cursor));
+    Assert.assertEquals(-1, root.next(cursor, '揽'));
+    Assert.assertEquals(-1, root.next(WordTrie.CURSOR_ROOT, '落'));
+  }
+
+  @Test
+  public void testManyChildren() {
+    final WordSegment root = new WordSegment((char) 0);
+    // 逆序填充，子节点数超过稠密数组阈值
+    for (char ch = 0x9FA5; ch >= 0x4E00; ch -= 3) {
+      root.fillSegment(new char[] {ch, 'a'});
+    }
+    for (char ch = 0x9FA5; ch >= 0x4E00; ch -= 3) {
+      final Hit hit = root.match(new char[] {ch, 'a'}, 0, 2);
+      Assert.assertTrue(hit.isMatch());
+      Assert.assertTrue(root.match(new char[] {(char) (ch - 1)}, 0, 1).isUnmatch());
+    }
+    final WordSegment[] children = root.getSortedChildren();
+    for (int i = 1; i < children.length; i++) {
+      Assert.assertTrue(children[i - 1].getCharacter() < children[i].getCharacter());
+    }
+  }
+
+  @Test
+  public void testRemove() {
+    final WordSegment root = new WordSegment((char) 0);
+    root.fillSegment("银河".toCharArray());
+    root.fillSegment("银河系".toCharArray());
+    root.fillSegment("九天".toCharArray());
+    Assert.assertTrue(root.remove("银河系".toCharArray()));
+    Assert.assertFalse(root.remove("银河系".toCharArray()));
+    Assert.assertFalse(root.remove("九".toCharArray()));
+    // 剪除了只属于被删除词的节点，“银河”不再是词前缀
+    Hit hit = root.match("银河".toCharArray(), 0, 2);
+    Assert.assertTrue(hit.isMatch());
+    Assert.assertFalse(hit.isPrefix());
+    Assert.assertTrue(root.remove("银河".toCharArray()));
+    Assert.assertTrue(root.match("银".toCharArray(), 0, 1).isUnmatch());
+    Assert.assertEquals(1, root.getSortedChildren().length);
+    Assert.assertTrue(root.remove("九天".toCharArray()));
+    Assert.assertFalse(root.hasChildren());
+  }
+
+  @Test
+  public void testRemoveDenseChildren() {
+    final WordSegment root = new WordSegment((char) 0);
+    for (char ch = 0x4E00; ch < 0x5300; ch++) {
+      root.fillSegment(new char[] {ch});
+    }
+    final long denseBytes = root.ramBytesUsed();
+    // 从稠密数组中移除子节点，最后一个子节点移除后释放数组
+    for (char ch = 0x4E00; ch < 0x52FF; ch++) {
+      Assert.assertTrue(root.remove(new char[] {ch}));
+    }
+    Assert.assertTrue(root.hasChildren());
+    Assert.assertFalse(root.remove(new char[] {0x4E00}));
+    Assert.assertTrue(root.remove(new char[] {0x52FF}));
+    Assert.assertFalse(root.hasChildren());
+    Assert.assertTrue(root.ramBytesUsed() < denseBytes);
+  }
+
+  @Test
+  public void testStats() {
+    final WordSegment root = new WordSegment((char) 0);
+    root.fillSegment("银河".toCharArray());
+    root.fillSegment("银河系".toCharArray());
+    root.fillSegment("九天".toCharArray());
+    final TrieStats stats = root.getStats();
+    Assert.assertEquals(5, stats.getNodeCount());
+    Assert.assertEquals(3, stats.getWordCount());
+    Assert.assertEquals(4, stats.getBranchCount());
+    Assert.assertEquals(1.25, stats.getAverageFanOut(), 0.001);
+    Assert.assertEquals(root.ramBytesUsed(), stats.getRamBytesUsed());
+    final long before = root.ramBytesUsed();
+    root.fillSegment("落九天".toCharArray());
+    Assert.assertTrue(root.ramBytesUsed() > before);
+  }
+
+  @Test
+  public void testVisitCompletions() {
+    final WordSegment trie = new WordSegment((char) 0);
+    for (final String word : Arrays.asList("银河", "银河系", "银河系统", "银行", "九天")) {
+      trie.fillSegment(word.toCharArray());
+    }
+    final List<String> words = new ArrayList<>();
+    trie.visitCompletions("银".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(4, words.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("银河", "银行")),
+        new HashSet<>(words.subList(0, 2)));
+    Assert.assertEquals(Arrays.asList("银河系", "银河系统"), words.subList(2, 4));
+    // 只访问“银”“银河”“银行”三个节点
+    words.clear();
+    trie.visitCompletions("银".toCharArray(), 3, word -> words.add(new String(word)));
+    Assert.assertEquals(2, words.size());
+    words.clear();
+    // visitor 返回 false 时停止遍历
+    trie.visitCompletions("银河".toCharArray(), 100, word -> {
+      words.add(new String(word));
+      return false;
+    });
+    Assert.assertEquals(Arrays.asList("银河"), words);
+    trie.visitCompletions("落".toCharArray(), 100, word -> words.add(new String(word)));
+    Assert.assertEquals(1, words.size());
+  }
+
+  @Test
+  public void testVisitSimilar() {
+    final WordSegment trie = new WordSegment((char) 0);
+    for (final String word : Arrays.asList("银河", "银河系", "银行", "九天", "天河")) {
+      trie.fillSegment(word.toCharArray());
+    }
+    final Map<String, Integer> words = new HashMap<>();
+    trie.visitSimilar("银和".toCharArray(), 1, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(2, words.size());
+    Assert.assertEquals(1, words.get("银河").intValue());
+    Assert.assertEquals(1, words.get("银行").intValue());
+    words.clear();
+    trie.visitSimilar("银和".toCharArray(), 2, 100,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(5, words.size());
+    Assert.assertEquals(2, words.get("银河系").intValue());
+    Assert.assertEquals(2, words.get("天河").intValue());
+    // 先访问与目标字符相同的子节点，只访问“银”“银河”两个节点
+    words.clear();
+    trie.visitSimilar("银河".toCharArray(), 1, 2,
+        (word, distance) -> words.put(new String(word), distance));
+    Assert.assertEquals(Collections.singletonMap("银河", 0), words);
+  }
+}
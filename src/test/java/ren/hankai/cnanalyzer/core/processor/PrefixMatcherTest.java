@@ -0,0 +1,83 @@
+
+package ren.hankai.cnanalyzer.core.processor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ren.hankai.cnanalyzer.core.DoubleArrayTrie;
+import ren.hankai.cnanalyzer.core.FstTrie;
+import ren.hankai.cnanalyzer.core.LayeredTrie;
+import ren.hankai.cnanalyzer.core.WordSegment;
+import ren.hankai.cnanalyzer.core.WordTrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 词前缀匹配器测试。
+ *
+ * @author hankai
+ * @version 1.0.0
+ * @since Oct 18, 2026 10:43:05 PM
+ */
+public class PrefixMatcherTest {
+
+  private static WordSegment buildSegments(String... words) {
+    final WordSegment root = new WordSegment((char) 0);
+    for (final String word : words) {
+      root.fillSegment(word.toCharArray());
+    }
+    return root;
+  }
+
+  private static List<String> match(WordTrie trie, PrefixMatcher matcher, String text) {
+    final char[] buffer = text.toCharArray();
+    final List<String> words = new ArrayList<>();
+    for (int i = 0; i < buffer.length; i++) {
+      final int count = matcher.next(trie, buffer, i);
+      for (int j = 0; j < count; j++) {
+        final int begin = matcher.getMatchBegin(j);
+        words.add(new String(buffer, begin, (i - begin) + 1));
+      }
+    }
+    return words;
+  }
+
+  @Test
+  public void testNext() {
+    final String[] words = {"北", "北京", "北京大学", "大学", "大学生", "学生"};
+    final List<String> expected = Arrays.asList("北", "北京", "北京大学", "大学", "大学生", "学生");
+    // 双数组词典树、FST 和词典树节点使用游标匹配，分层词典树分层匹配，结果相同
+    final WordTrie[] tries = {DoubleArrayTrie.build(buildSegments(words)),
+        FstTrie.build(buildSegments(words)), buildSegments(words),
+        new LayeredTrie(buildSegments("北", "北京", "大学生"),
+            DoubleArrayTrie.build(buildSegments("北京", "北京大学", "大学", "学生")))};
+    for (final WordTrie trie : tries) {
+      final PrefixMatcher matcher = new PrefixMatcher();
+      Assert.assertEquals(expected, match(trie, matcher, "北京大学生"));
+      Assert.assertTrue(matcher.isEmpty());
+      Assert.assertEquals(Arrays.asList("北", "北京"), match(trie, matcher, "北京大"));
+      Assert.assertFalse(matcher.isEmpty());
+      matcher.clear();
+      Assert.assertTrue(matcher.isEmpty());
+    }
+  }
+
+  @Test
+  public void testLayers() {
+    final PrefixMatcher matcher = new PrefixMatcher();
+    // 叠加层中的词与基础层中的词合并，两层都有的词只出现一次
+    final WordTrie trie = LayeredTrie.overlay(
+        LayeredTrie.overlay(buildSegments("长江", "长江大桥"), buildSegments("江大", "长江")),
+        buildSegments("大桥"));
+    Assert.assertEquals(Arrays.asList("长江", "江大", "长江大桥", "大桥"),
+        match(trie, matcher, "长江大桥"));
+    Assert.assertTrue(matcher.isEmpty());
+    Assert.assertEquals(Arrays.asList("长江", "江大"), match(trie, matcher, "长江大"));
+    Assert.assertFalse(matcher.isEmpty());
+    matcher.clear();
+    Assert.assertTrue(matcher.isEmpty());
+  }
+
+}
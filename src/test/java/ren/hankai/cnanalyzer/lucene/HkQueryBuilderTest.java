@@ -3,9 +3,12 @@ package ren.hankai.cnanalyzer.lucene;
 
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
 import org.junit.Assert;
 import org.junit.Test;
 
+import ren.hankai.cnanalyzer.core.Dictionary;
+
 /**
  * Lucene 查询构造器测试。
  *
@@ -39,4 +42,31 @@ public class HkQueryBuilderTest {
         query.toString());
   }
 
+  @Test
+  public void testKeywordCacheUsage() {
+    final long before = HkQueryBuilder.getKeywordCacheUsage().ramBytesUsed();
+    HkQueryBuilder.build("text", "缓存占用统计测试关键字");
+    final Accountable usage = HkQueryBuilder.getKeywordCacheUsage();
+    Assert.assertTrue(usage.ramBytesUsed() > before);
+    Assert.assertFalse(usage.getChildResources().isEmpty());
+  }
+
+  @Test
+  public void testCorrect() {
+    final Dictionary dictionary = Dictionary.getDefault();
+    Assert.assertEquals("中华人民共和国", HkQueryBuilder.correct(dictionary, "中华人明共和国"));
+    Assert.assertEquals("北京天安门广场", HkQueryBuilder.correct(dictionary, "北京天按门 广场"));
+    Assert.assertEquals("计算机的数据库", HkQueryBuilder.correct(dictionary, "计算几的数剧库"));
+    Assert.assertEquals("hello世界", HkQueryBuilder.correct(dictionary, "hello世界"));
+    // 关闭纠错时构建的查询已被缓存，开启纠错后不能再使用
+    Assert.assertFalse(HkQueryBuilder.build("text", "天按门广场").toString().contains("天安门"));
+    HkQueryBuilder.isTypoCorrected = true;
+    try {
+      final Query query = HkQueryBuilder.build("text", "天按门广场");
+      Assert.assertTrue(query.toString().contains("text:天安门"));
+    } finally {
+      HkQueryBuilder.isTypoCorrected = false;
+    }
+    Assert.assertFalse(HkQueryBuilder.build("text", "天按门广场").toString().contains("天安门"));
+  }
 }
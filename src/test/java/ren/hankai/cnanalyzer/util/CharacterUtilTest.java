@@ -19,12 +19,26 @@ public class CharacterUtilTest {
     Assert.assertTrue(CharacterUtil.CHAR_CHINESE == type);
   }
 
+  @Test
+  public void testIdentifyCharTypeByBlock() {
+    Assert.assertEquals(CharacterUtil.CHAR_ARABIC, CharacterUtil.identifyCharType('7'));
+    Assert.assertEquals(CharacterUtil.CHAR_ENGLISH, CharacterUtil.identifyCharType('Q'));
+    Assert.assertEquals(CharacterUtil.CHAR_CHINESE, CharacterUtil.identifyCharType('。'));
+    Assert.assertEquals(CharacterUtil.CHAR_JK, CharacterUtil.identifyCharType('あ'));
+    Assert.assertEquals(CharacterUtil.CHAR_JK, CharacterUtil.identifyCharType('한'));
+    Assert.assertEquals(CharacterUtil.CHAR_JK, CharacterUtil.identifyCharType('１'));
+    Assert.assertEquals(CharacterUtil.CHAR_OTHERS, CharacterUtil.identifyCharType(','));
+    Assert.assertEquals(CharacterUtil.CHAR_OTHERS, CharacterUtil.identifyCharType('\uD83D'));
+  }
+
   @Test
   public void testRegularize() {
     char ch = CharacterUtil.regularize('C');
     Assert.assertEquals('c', ch);
     ch = CharacterUtil.regularize('　');// 全角空格
     Assert.assertEquals(' ', ch);// 半角空格
+    Assert.assertEquals('5', CharacterUtil.regularize('５'));
+    Assert.assertEquals('中', CharacterUtil.regularize('中'));
   }
 
   @Test